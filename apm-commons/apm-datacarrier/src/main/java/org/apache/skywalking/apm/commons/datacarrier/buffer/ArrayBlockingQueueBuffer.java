@@ -68,4 +68,8 @@ public class ArrayBlockingQueueBuffer<T> implements QueueBuffer<T> {
     public int getBufferSize() {
         return bufferSize;
     }
+
+    @Override
+    public void setConsumerSignal(ConsumerSignal consumerSignal) {
+    }
 }
@@ -77,4 +77,7 @@ public class Buffer<T> implements QueueBuffer<T> {
         }
     }
 
+    @Override
+    public void setConsumerSignal(ConsumerSignal consumerSignal) {
+    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ConsumerSignal parks the idle consumer thread until any of its buffers has new data, or the timeout is reached.
+ * Only {@link SequenceRingBuffer} signals, so the consumer of other buffers still checks them every timeout.
+ * <p>
+ * The consumer should call {@link #prepareWait()}, check all buffers again, then {@link #await(long)} if nothing is
+ * there, or {@link #cancelWait()} otherwise. So the data published during the check couldn't be missed.
+ */
+public class ConsumerSignal {
+    private final Thread consumerThread;
+    private volatile boolean waiting = false;
+
+    public ConsumerSignal(Thread consumerThread) {
+        this.consumerThread = consumerThread;
+    }
+
+    public void prepareWait() {
+        waiting = true;
+    }
+
+    public void cancelWait() {
+        waiting = false;
+    }
+
+    /**
+     * Park the consumer thread, unless it has been signaled after {@link #prepareWait()}.
+     */
+    public void await(long timeoutMillis) {
+        if (waiting) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+            // ignore the interruption as sleeping does, otherwise the following parks return immediately
+            Thread.interrupted();
+        }
+        waiting = false;
+    }
+
+    void signal() {
+        if (waiting) {
+            waiting = false;
+            LockSupport.unpark(consumerThread);
+        }
+    }
+}
@@ -43,4 +43,10 @@ public interface QueueBuffer<T> {
     void obtain(List<T> consumeList);
 
     int getBufferSize();
+
+    /**
+     * Set the signal of the consumer thread, to wake it up when new data is saved. The buffer could ignore it, then
+     * the consumer checks it every consume cycle.
+     */
+    void setConsumerSignal(ConsumerSignal consumerSignal);
 }
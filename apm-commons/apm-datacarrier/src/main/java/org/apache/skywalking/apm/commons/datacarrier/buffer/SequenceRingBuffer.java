@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multiple producers and single consumer ring queue, based on sequences.
+ * <p>
+ * A producer claims a sequence from the claim cursor, writes the data into the slot of the sequence, then publishes
+ * the slot by setting the sequence into it. The consumer drains the published slots in the sequence order, until the
+ * first one claimed but not published yet, then moves the consume cursor forward to free all of them at once. Unlike
+ * {@link Buffer}, no slot could be overwritten or lost when the producers run faster than the consumer.
+ * <p>
+ * The consumer thread could wait for the new data through the {@link ConsumerSignal}, which is signaled when the data
+ * is published, rather than polling the queue every consume cycle.
+ */
+public class SequenceRingBuffer<T> implements QueueBuffer<T> {
+    /**
+     * The times of yielding before parking, when the producer waits for a free slot in the BLOCKING strategy.
+     */
+    private static final int MAX_YIELD_TIMES = 100;
+    private static final long PARK_NANOS = 50000L;
+
+    private final int bufferSize;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    /**
+     * The sequence published into every slot.
+     */
+    private final AtomicLongArray published;
+    /**
+     * The next sequence to claim.
+     */
+    private final AtomicLong claimCursor = new AtomicLong(0);
+    /**
+     * The next sequence to consume, all slots before it are free.
+     */
+    private volatile long consumeCursor = 0;
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private volatile BufferStrategy strategy;
+    private volatile ConsumerSignal consumerSignal;
+
+    SequenceRingBuffer(int bufferSize, BufferStrategy strategy) {
+        int capacity = 1;
+        while (capacity < bufferSize) {
+            capacity <<= 1;
+        }
+        this.bufferSize = bufferSize;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<T>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1L);
+        }
+        this.strategy = strategy;
+    }
+
+    @Override
+    public boolean save(T data) {
+        long sequence;
+        if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+            do {
+                sequence = claimCursor.get();
+                if (sequence - consumeCursor >= bufferSize) {
+                    return false;
+                }
+            }
+            while (!claimCursor.compareAndSet(sequence, sequence + 1));
+        } else {
+            sequence = claimCursor.getAndIncrement();
+            int waitTimes = 0;
+            while (sequence - consumeCursor >= bufferSize) {
+                if (waitTimes++ < MAX_YIELD_TIMES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+
+        int index = (int) (sequence & mask);
+        slots.lazySet(index, data);
+        published.set(index, sequence);
+
+        ConsumerSignal signal = consumerSignal;
+        if (signal != null) {
+            signal.signal();
+        }
+        return true;
+    }
+
+    @Override
+    public void setStrategy(BufferStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Drain all published data in the sequence order. Only one thread could drain at the same time, the others get
+     * nothing.
+     */
+    @Override
+    public void obtain(List<T> consumeList) {
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long sequence = consumeCursor;
+            long limit = claimCursor.get();
+            while (sequence < limit) {
+                int index = (int) (sequence & mask);
+                if (published.get(index) != sequence) {
+                    break;
+                }
+                consumeList.add(slots.get(index));
+                slots.lazySet(index, null);
+                sequence++;
+            }
+            consumeCursor = sequence;
+        } finally {
+            draining.set(false);
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public void setConsumerSignal(ConsumerSignal consumerSignal) {
+        this.consumerSignal = consumerSignal;
+    }
+}
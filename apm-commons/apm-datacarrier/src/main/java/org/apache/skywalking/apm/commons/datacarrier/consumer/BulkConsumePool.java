@@ -21,6 +21,10 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.commons.datacarrier.EnvUtil;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 
@@ -29,12 +33,54 @@ import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
  * MultipleChannelsConsumer}s.
  * <p>
  * In typical case, the number of {@link MultipleChannelsConsumer} should be less than the number of channels.
+ * <p>
+ * The channels are assigned to the consumer with the lowest payload when added. When a {@link ConsumerLoadListener} is
+ * given, the consuming time of every consumer is measured and reported every period. Rebalancing is opt-in by setting
+ * the {@code <name>_REBALANCE_PERIOD} env to a positive number of seconds, default 0(disabled), see the backend setup
+ * document. Then one channels is moved from the busiest consumer to the idlest one every period, if their utilization
+ * gap is over {@link #REBALANCE_THRESHOLD}, so a few hot channels couldn't keep one consumer busy while the others are
+ * idle.
  */
 public class BulkConsumePool implements ConsumerPool {
+    /**
+     * The min gap of the utilization between the busiest and the idlest consumers to move channels.
+     */
+    static final double REBALANCE_THRESHOLD = 0.2;
+    /**
+     * The period of measuring in seconds, when rebalancing is disabled.
+     */
+    private static final int DEFAULT_MEASURE_PERIOD = 10;
+
+    private final String name;
     private List<MultipleChannelsConsumer> allConsumers;
     private volatile boolean isStarted = false;
+    private final ConsumerLoadListener loadListener;
+    /**
+     * The period of measuring and rebalancing, in seconds. 0 means rebalancing is disabled.
+     */
+    private final int rebalancePeriod;
+    private ScheduledExecutorService rebalanceExecutor;
+    private long lastRebalanceTime;
 
     public BulkConsumePool(String name, int size, long consumeCycle) {
+        this(name, size, consumeCycle, null);
+    }
+
+    /**
+     * @param loadListener receives the utilization of every consumer every period, could be null. Rebalancing is
+     *                     disabled without it.
+     */
+    public BulkConsumePool(String name, int size, long consumeCycle, ConsumerLoadListener loadListener) {
+        this(name, size, consumeCycle, loadListener, EnvUtil.getInt(name + "_REBALANCE_PERIOD", 0));
+    }
+
+    /**
+     * @param rebalancePeriod in seconds, 0 means rebalancing is disabled.
+     */
+    BulkConsumePool(String name, int size, long consumeCycle, ConsumerLoadListener loadListener, int rebalancePeriod) {
+        this.name = name;
+        this.loadListener = loadListener;
+        this.rebalancePeriod = loadListener == null ? 0 : rebalancePeriod;
         size = EnvUtil.getInt(name + "_THREAD", size);
         allConsumers = new ArrayList<MultipleChannelsConsumer>(size);
         for (int i = 0; i < size; i++) {
@@ -66,6 +112,10 @@ public class BulkConsumePool implements ConsumerPool {
         return winner;
     }
 
+    List<MultipleChannelsConsumer> getConsumers() {
+        return allConsumers;
+    }
+
     /**
      *
      */
@@ -79,19 +129,102 @@ public class BulkConsumePool implements ConsumerPool {
         for (MultipleChannelsConsumer consumer : allConsumers) {
             consumer.shutdown();
         }
+        if (rebalanceExecutor != null) {
+            rebalanceExecutor.shutdown();
+        }
     }
 
     @Override
-    public void begin(Channels channels) {
+    synchronized public void begin(Channels channels) {
         if (isStarted) {
             return;
         }
         for (MultipleChannelsConsumer consumer : allConsumers) {
             consumer.start();
         }
+        lastRebalanceTime = System.nanoTime();
+        if (loadListener != null) {
+            final int period = rebalancePeriod > 0 ? rebalancePeriod : DEFAULT_MEASURE_PERIOD;
+            rebalanceExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "DataCarrier." + name + ".BulkConsumePool.Rebalance.Thread");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            rebalanceExecutor.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        rebalance();
+                    } catch (Throwable t) {
+                        loadListener.onError(t);
+                    }
+                }
+            }, period, period, TimeUnit.SECONDS);
+        }
         isStarted = true;
     }
 
+    private synchronized void rebalance() {
+        long now = System.nanoTime();
+        long period = now - lastRebalanceTime;
+        lastRebalanceTime = now;
+        rebalance(period);
+    }
+
+    /**
+     * Measure the utilization of every consumer in the period, then move one channels from the busiest consumer to the
+     * idlest one, if rebalancing is enabled, the gap is over {@link #REBALANCE_THRESHOLD} and the move reduces the max
+     * load of them.
+     *
+     * @param period since the last measuring, in nanoseconds.
+     */
+    synchronized void rebalance(long period) {
+        if (period <= 0) {
+            return;
+        }
+
+        long[] loads = new long[allConsumers.size()];
+        int busiest = 0;
+        int idlest = 0;
+        for (int i = 0; i < loads.length; i++) {
+            loads[i] = allConsumers.get(i).sampleConsumeNanos();
+            if (loadListener != null) {
+                loadListener.onMeasured(i, Math.min(1D, (double) loads[i] / period));
+            }
+            if (loads[i] > loads[busiest]) {
+                busiest = i;
+            }
+            if (loads[i] < loads[idlest]) {
+                idlest = i;
+            }
+        }
+        if (rebalancePeriod <= 0 || busiest == idlest
+            || (double) (loads[busiest] - loads[idlest]) / period < REBALANCE_THRESHOLD) {
+            return;
+        }
+
+        MultipleChannelsConsumer from = allConsumers.get(busiest);
+        if (from.hasPendingMove()) {
+            return;
+        }
+        MultipleChannelsConsumer.Group candidate = null;
+        long candidateMaxLoad = loads[busiest];
+        for (MultipleChannelsConsumer.Group target : from.getConsumeTargets()) {
+            long load = target.getLastSampleNanos();
+            long maxLoad = Math.max(loads[busiest] - load, loads[idlest] + load);
+            if (load > 0 && maxLoad < candidateMaxLoad) {
+                candidate = target;
+                candidateMaxLoad = maxLoad;
+            }
+        }
+        if (candidate != null) {
+            from.requestMove(candidate, allConsumers.get(idlest));
+        }
+    }
+
     /**
      * The creator for {@link BulkConsumePool}.
      */
@@ -99,16 +232,22 @@ public class BulkConsumePool implements ConsumerPool {
         private String name;
         private int size;
         private long consumeCycle;
+        private ConsumerLoadListener loadListener;
 
         public Creator(String name, int poolSize, long consumeCycle) {
+            this(name, poolSize, consumeCycle, null);
+        }
+
+        public Creator(String name, int poolSize, long consumeCycle, ConsumerLoadListener loadListener) {
             this.name = name;
             this.size = poolSize;
             this.consumeCycle = consumeCycle;
+            this.loadListener = loadListener;
         }
 
         @Override
         public ConsumerPool call() {
-            return new BulkConsumePool(name, size, consumeCycle);
+            return new BulkConsumePool(name, size, consumeCycle, loadListener);
         }
 
         public static int recommendMaxSize() {
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+/**
+ * Listen to the load of every consumer thread in the {@link BulkConsumePool}, which is measured every rebalance
+ * period.
+ */
+public interface ConsumerLoadListener {
+    /**
+     * @param threadIndex the index of the consumer thread in the pool.
+     * @param utilization the ratio of the time spent on draining and consuming in the last period, from 0 to 1.
+     */
+    void onMeasured(int threadIndex, double utilization);
+
+    /**
+     * @param t thrown by measuring or rebalancing, the next period measures again.
+     */
+    void onError(Throwable t);
+}
@@ -21,6 +21,7 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.ConsumerSignal;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
 public class ConsumerThread<T> extends Thread {
@@ -28,6 +29,7 @@ public class ConsumerThread<T> extends Thread {
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final ConsumerSignal signal;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
         super(threadName);
@@ -35,6 +37,7 @@ public class ConsumerThread<T> extends Thread {
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.signal = new ConsumerSignal(this);
     }
 
     /**
@@ -42,6 +45,7 @@ public class ConsumerThread<T> extends Thread {
      */
     void addDataSource(QueueBuffer<T> sourceBuffer) {
         this.dataSources.add(new DataSource(sourceBuffer));
+        sourceBuffer.setConsumerSignal(signal);
     }
 
     @Override
@@ -51,9 +55,11 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
+                signal.prepareWait();
+                if (consume(consumeList)) {
+                    signal.cancelWait();
+                } else {
+                    signal.await(consumeCycle);
                 }
             }
         }
@@ -80,6 +86,11 @@ public class ConsumerThread<T> extends Thread {
             }
             return true;
         }
+        try {
+            consumer.nothingToConsume();
+        } catch (Throwable t) {
+            consumer.onError(consumeList, t);
+        }
         return false;
     }
 
@@ -28,4 +28,11 @@ public interface IConsumer<T> {
     void onError(List<T> data, Throwable t);
 
     void onExit();
+
+    /**
+     * Notify the consumer that its channels have no data in this round of consuming, so the consumer could deal with
+     * the data it holds, such as flushing the buffer periodically.
+     */
+    default void nothingToConsume() {
+    }
 }
@@ -21,22 +21,30 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.ConsumerSignal;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
  * IConsumer}s
+ * <p>
+ * The time of draining and consuming every target is measured, so the {@link BulkConsumePool} could move the targets
+ * from the busy consumer to the idle one. A target is only moved by its current consumer thread between two rounds of
+ * consuming, so it is never consumed by two threads at the same time.
  */
 public class MultipleChannelsConsumer extends Thread {
     private volatile boolean running;
     private volatile ArrayList<Group> consumeTargets;
     private volatile long size;
     private final long consumeCycle;
+    private final ConsumerSignal signal;
+    private volatile Move pendingMove;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
         super(threadName);
         this.consumeTargets = new ArrayList<Group>();
         this.consumeCycle = consumeCycle;
+        this.signal = new ConsumerSignal(this);
     }
 
     @Override
@@ -45,16 +53,13 @@ public class MultipleChannelsConsumer extends Thread {
 
         final List consumeList = new ArrayList(2000);
         while (running) {
-            boolean hasData = false;
-            for (Group target : consumeTargets) {
-                boolean consume = consume(target, consumeList);
-                hasData = hasData || consume;
-            }
-
-            if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
+            executePendingMove();
+            if (!consumeAll(consumeList)) {
+                signal.prepareWait();
+                if (consumeAll(consumeList)) {
+                    signal.cancelWait();
+                } else {
+                    signal.await(consumeCycle);
                 }
             }
         }
@@ -68,7 +73,22 @@ public class MultipleChannelsConsumer extends Thread {
         }
     }
 
+    /**
+     * Consume all the targets once.
+     *
+     * @return true if any target has data.
+     */
+    boolean consumeAll(List consumeList) {
+        boolean hasData = false;
+        for (Group target : consumeTargets) {
+            boolean consume = consume(target, consumeList);
+            hasData = hasData || consume;
+        }
+        return hasData;
+    }
+
     private boolean consume(Group target, List consumeList) {
+        long startTime = System.nanoTime();
         for (int i = 0; i < target.channels.getChannelSize(); i++) {
             QueueBuffer buffer = target.channels.getBuffer(i);
             buffer.obtain(consumeList);
@@ -81,9 +101,17 @@ public class MultipleChannelsConsumer extends Thread {
                 target.consumer.onError(consumeList, t);
             } finally {
                 consumeList.clear();
+                target.consumeNanos += System.nanoTime() - startTime;
             }
             return true;
         }
+        try {
+            target.consumer.nothingToConsume();
+        } catch (Throwable t) {
+            target.consumer.onError(consumeList, t);
+        } finally {
+            target.consumeNanos += System.nanoTime() - startTime;
+        }
         return false;
     }
 
@@ -91,7 +119,13 @@ public class MultipleChannelsConsumer extends Thread {
      * Add a new target channels.
      */
     public void addNewTarget(Channels channels, IConsumer consumer) {
-        Group group = new Group(channels, consumer);
+        addTarget(new Group(channels, consumer));
+    }
+
+    private synchronized void addTarget(Group group) {
+        for (int i = 0; i < group.channels.getChannelSize(); i++) {
+            group.channels.getBuffer(i).setConsumerSignal(signal);
+        }
         // Recreate the new list to avoid change list while the list is used in consuming.
         ArrayList<Group> newList = new ArrayList<Group>();
         for (Group target : consumeTargets) {
@@ -99,24 +133,110 @@ public class MultipleChannelsConsumer extends Thread {
         }
         newList.add(group);
         consumeTargets = newList;
-        size += channels.size();
+        size += group.channels.size();
+    }
+
+    private synchronized boolean removeTarget(Group group) {
+        ArrayList<Group> newList = new ArrayList<Group>(consumeTargets);
+        if (!newList.remove(group)) {
+            return false;
+        }
+        consumeTargets = newList;
+        size -= group.channels.size();
+        return true;
     }
 
     public long size() {
         return size;
     }
 
+    List<Group> getConsumeTargets() {
+        return consumeTargets;
+    }
+
+    /**
+     * Request to move the target to another consumer, which is executed by this consumer thread before the next round
+     * of consuming.
+     *
+     * @return false if the previous request hasn't been executed.
+     */
+    boolean requestMove(Group target, MultipleChannelsConsumer to) {
+        if (pendingMove != null) {
+            return false;
+        }
+        pendingMove = new Move(target, to);
+        return true;
+    }
+
+    boolean hasPendingMove() {
+        return pendingMove != null;
+    }
+
+    void executePendingMove() {
+        Move move = pendingMove;
+        if (move == null) {
+            return;
+        }
+        pendingMove = null;
+        if (removeTarget(move.target)) {
+            move.to.addTarget(move.target);
+        }
+    }
+
+    /**
+     * Sample the consuming time of all targets.
+     *
+     * @return the consuming time since the last sample, in nanoseconds.
+     */
+    long sampleConsumeNanos() {
+        long total = 0;
+        for (Group target : consumeTargets) {
+            total += target.sample();
+        }
+        return total;
+    }
+
     void shutdown() {
         running = false;
     }
 
-    private class Group {
-        private Channels channels;
-        private IConsumer consumer;
-
-        public Group(Channels channels, IConsumer consumer) {
+    static class Group {
+        private final Channels channels;
+        private final IConsumer consumer;
+        /**
+         * The total time of draining and consuming, only updated by the owner consumer thread.
+         */
+        private volatile long consumeNanos;
+        private long sampledNanos;
+        private long lastSampleNanos;
+
+        Group(Channels channels, IConsumer consumer) {
             this.channels = channels;
             this.consumer = consumer;
         }
+
+        private long sample() {
+            long current = consumeNanos;
+            lastSampleNanos = current - sampledNanos;
+            sampledNanos = current;
+            return lastSampleNanos;
+        }
+
+        /**
+         * @return the consuming time between the last two samples, in nanoseconds.
+         */
+        long getLastSampleNanos() {
+            return lastSampleNanos;
+        }
+    }
+
+    private static class Move {
+        private final Group target;
+        private final MultipleChannelsConsumer to;
+
+        private Move(Group target, MultipleChannelsConsumer to) {
+            this.target = target;
+            this.to = to;
+        }
     }
 }
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare {@link SequenceRingBuffer} with {@link Buffer} and {@link ArrayBlockingQueueBuffer}.
+ * <p>
+ * The group benchmarks run 4 producers and 1 consumer on one buffer in the IF_POSSIBLE strategy, so no thread blocks
+ * when the others stop at the end of the iteration. The saved and rejected counters are the real throughput of the
+ * producers. The obtain benchmarks drain an empty buffer, which is the cost of every idle consume cycle.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QueueBufferBenchmark {
+    private static final int BUFFER_SIZE = 10000;
+    private static final SampleData DATA = new SampleData().setName("data");
+
+    @State(Scope.Group)
+    public static class BufferState {
+        private final QueueBuffer<SampleData> buffer = new Buffer<SampleData>(BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
+    }
+
+    @State(Scope.Group)
+    public static class ArrayBlockingQueueBufferState {
+        private final QueueBuffer<SampleData> buffer = new ArrayBlockingQueueBuffer<SampleData>(
+            BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
+    }
+
+    @State(Scope.Group)
+    public static class SequenceRingBufferState {
+        private final QueueBuffer<SampleData> buffer = new SequenceRingBuffer<SampleData>(
+            BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class SaveCounters {
+        public long saved;
+        public long rejected;
+    }
+
+    @State(Scope.Thread)
+    public static class ConsumeList {
+        private final List<SampleData> list = new ArrayList<SampleData>(BUFFER_SIZE);
+    }
+
+    @Benchmark
+    @Group("buffer")
+    @GroupThreads(4)
+    public void bufferSave(BufferState state, SaveCounters counters) {
+        save(state.buffer, counters);
+    }
+
+    @Benchmark
+    @Group("buffer")
+    @GroupThreads(1)
+    public int bufferObtain(BufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    @Benchmark
+    @Group("arrayBlockingQueueBuffer")
+    @GroupThreads(4)
+    public void arrayBlockingQueueBufferSave(ArrayBlockingQueueBufferState state, SaveCounters counters) {
+        save(state.buffer, counters);
+    }
+
+    @Benchmark
+    @Group("arrayBlockingQueueBuffer")
+    @GroupThreads(1)
+    public int arrayBlockingQueueBufferObtain(ArrayBlockingQueueBufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    @Benchmark
+    @Group("sequenceRingBuffer")
+    @GroupThreads(4)
+    public void sequenceRingBufferSave(SequenceRingBufferState state, SaveCounters counters) {
+        save(state.buffer, counters);
+    }
+
+    @Benchmark
+    @Group("sequenceRingBuffer")
+    @GroupThreads(1)
+    public int sequenceRingBufferObtain(SequenceRingBufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    @Benchmark
+    public int bufferObtainEmpty(BufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    @Benchmark
+    public int arrayBlockingQueueBufferObtainEmpty(ArrayBlockingQueueBufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    @Benchmark
+    public int sequenceRingBufferObtainEmpty(SequenceRingBufferState state, ConsumeList consumeList) {
+        return obtain(state.buffer, consumeList);
+    }
+
+    private static void save(QueueBuffer<SampleData> buffer, SaveCounters counters) {
+        if (buffer.save(DATA)) {
+            counters.saved++;
+        } else {
+            counters.rejected++;
+        }
+    }
+
+    private static int obtain(QueueBuffer<SampleData> buffer, ConsumeList consumeList) {
+        buffer.obtain(consumeList.list);
+        int size = consumeList.list.size();
+        consumeList.list.clear();
+        return size;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(QueueBufferBenchmark.class.getName())
+                                          .forks(1)
+                                          .warmupIterations(3)
+                                          .measurementIterations(5)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SequenceRingBufferTest {
+
+    @Test
+    public void testIfPossibleSave() {
+        SequenceRingBuffer<Integer> buffer = new SequenceRingBuffer<Integer>(100, BufferStrategy.IF_POSSIBLE);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(buffer.save(i));
+        }
+        Assert.assertFalse(buffer.save(100));
+
+        List<Integer> result = new ArrayList<Integer>();
+        buffer.obtain(result);
+        Assert.assertEquals(100, result.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i, result.get(i).intValue());
+        }
+
+        // the slots are free after being obtained
+        Assert.assertTrue(buffer.save(100));
+        result.clear();
+        buffer.obtain(result);
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(100, result.get(0).intValue());
+    }
+
+    @Test
+    public void testMultipleProducers() throws InterruptedException {
+        final SequenceRingBuffer<int[]> buffer = new SequenceRingBuffer<int[]>(128, BufferStrategy.BLOCKING);
+        final int producerNum = 4;
+        final int dataNum = 10000;
+
+        Thread[] producers = new Thread[producerNum];
+        for (int i = 0; i < producerNum; i++) {
+            final int producer = i;
+            producers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < dataNum; j++) {
+                        buffer.save(new int[] {
+                            producer,
+                            j
+                        });
+                    }
+                }
+            });
+            producers[i].start();
+        }
+
+        int[] nextValues = new int[producerNum];
+        int count = 0;
+        List<int[]> result = new ArrayList<int[]>();
+        long deadline = System.currentTimeMillis() + 30000;
+        while (count < producerNum * dataNum && System.currentTimeMillis() < deadline) {
+            buffer.obtain(result);
+            for (int[] data : result) {
+                // no data is lost, duplicated or reordered in one producer
+                Assert.assertEquals(nextValues[data[0]], data[1]);
+                nextValues[data[0]]++;
+            }
+            count += result.size();
+            result.clear();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Assert.assertEquals(producerNum * dataNum, count);
+    }
+
+    @Test
+    public void testWakeUpConsumer() throws InterruptedException {
+        DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(
+            "SequenceRingBufferTest", "SequenceRingBufferTest", 1, 100, BufferType.SEQUENCE_RING);
+        final CountDownLatch latch = new CountDownLatch(1);
+        carrier.consume(new IConsumer<SampleData>() {
+            @Override
+            public void init() {
+
+            }
+
+            @Override
+            public void consume(List<SampleData> data) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(List<SampleData> data, Throwable t) {
+
+            }
+
+            @Override
+            public void onExit() {
+
+            }
+        }, 1, 60000);
+
+        // let the consumer be idle
+        Thread.sleep(200);
+        carrier.produce(new SampleData().setName("data"));
+        Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        carrier.shutdownConsumers();
+    }
+}
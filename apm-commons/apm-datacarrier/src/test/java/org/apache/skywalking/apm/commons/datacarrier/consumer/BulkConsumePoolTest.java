@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.skywalking.apm.commons.datacarrier.SampleData;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkConsumePoolTest {
+
+    @Test
+    public void testMoveHotChannels() {
+        final double[] utilizations = new double[2];
+        BulkConsumePool pool = new BulkConsumePool("BulkConsumePoolTest", 2, 20, new ConsumerLoadListener() {
+            @Override
+            public void onMeasured(int threadIndex, double utilization) {
+                utilizations[threadIndex] = utilization;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                Assert.fail(t.getMessage());
+            }
+        }, 10);
+
+        // assigned by the payload, the hot channels are both in the first consumer thread
+        Channels<SampleData> hot1 = newChannels();
+        Channels<SampleData> idle = newChannels();
+        Channels<SampleData> hot2 = newChannels();
+        pool.add("hot1", hot1, new SlowConsumer());
+        pool.add("idle", idle, new SlowConsumer());
+        pool.add("hot2", hot2, new SlowConsumer());
+        MultipleChannelsConsumer first = pool.getConsumers().get(0);
+        MultipleChannelsConsumer second = pool.getConsumers().get(1);
+        Assert.assertEquals(2, first.getConsumeTargets().size());
+        Assert.assertEquals(1, second.getConsumeTargets().size());
+
+        // consume in the test thread rather than starting the consumer threads, so the loads are known
+        hot1.save(new SampleData().setName("hot1"));
+        hot2.save(new SampleData().setName("hot2"));
+        List consumeList = new ArrayList();
+        Assert.assertTrue(first.consumeAll(consumeList));
+        Assert.assertFalse(second.consumeAll(consumeList));
+
+        // every slow consumer takes at least 5ms, so the first one is busy for more than 50% of 15ms
+        pool.rebalance(TimeUnit.MILLISECONDS.toNanos(15));
+        Assert.assertTrue(utilizations[0] > 0.5);
+        Assert.assertTrue(utilizations[1] < 0.2);
+        Assert.assertTrue(first.hasPendingMove());
+
+        // the move is executed by the owner thread before its next round of consuming
+        first.executePendingMove();
+        Assert.assertEquals(1, first.getConsumeTargets().size());
+        Assert.assertEquals(2, second.getConsumeTargets().size());
+
+        // balanced, nothing to move
+        hot1.save(new SampleData().setName("hot1"));
+        hot2.save(new SampleData().setName("hot2"));
+        Assert.assertTrue(first.consumeAll(consumeList));
+        Assert.assertTrue(second.consumeAll(consumeList));
+        pool.rebalance(TimeUnit.MILLISECONDS.toNanos(20));
+        Assert.assertFalse(first.hasPendingMove());
+        Assert.assertFalse(second.hasPendingMove());
+    }
+
+    @Test
+    public void testRebalanceDisabled() {
+        BulkConsumePool pool = new BulkConsumePool("BulkConsumePoolTest", 2, 20, new ConsumerLoadListener() {
+            @Override
+            public void onMeasured(int threadIndex, double utilization) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                Assert.fail(t.getMessage());
+            }
+        }, 0);
+        Channels<SampleData> hot1 = newChannels();
+        Channels<SampleData> hot2 = newChannels();
+        pool.add("hot1", hot1, new SlowConsumer());
+        pool.add("idle", newChannels(), new SlowConsumer());
+        pool.add("hot2", hot2, new SlowConsumer());
+        MultipleChannelsConsumer first = pool.getConsumers().get(0);
+
+        hot1.save(new SampleData().setName("hot1"));
+        hot2.save(new SampleData().setName("hot2"));
+        first.consumeAll(new ArrayList());
+        pool.rebalance(TimeUnit.MILLISECONDS.toNanos(20));
+        Assert.assertFalse(first.hasPendingMove());
+    }
+
+    @Test
+    public void testNothingToConsume() {
+        BulkConsumePool pool = new BulkConsumePool("BulkConsumePoolTest", 1, 10);
+        Channels<SampleData> channels = newChannels();
+        final AtomicInteger idleTimes = new AtomicInteger();
+        SlowConsumer consumer = new SlowConsumer() {
+            @Override
+            public void nothingToConsume() {
+                idleTimes.incrementAndGet();
+            }
+        };
+        pool.add("idle", channels, consumer);
+        MultipleChannelsConsumer multipleChannelsConsumer = pool.getConsumers().get(0);
+        List consumeList = new ArrayList();
+
+        Assert.assertFalse(multipleChannelsConsumer.consumeAll(consumeList));
+        Assert.assertEquals(1, idleTimes.get());
+        Assert.assertTrue(consumer.threads.isEmpty());
+
+        channels.save(new SampleData().setName("data"));
+        Assert.assertTrue(multipleChannelsConsumer.consumeAll(consumeList));
+        Assert.assertEquals(1, idleTimes.get());
+        Assert.assertEquals(1, consumer.threads.size());
+    }
+
+    private Channels<SampleData> newChannels() {
+        return new Channels<SampleData>(
+            1, 1000, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.IF_POSSIBLE);
+    }
+
+    private static class SlowConsumer implements IConsumer<SampleData> {
+        private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void init() {
+
+        }
+
+        @Override
+        public void consume(List<SampleData> data) {
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onError(List<SampleData> data, Throwable t) {
+
+        }
+
+        @Override
+        public void onExit() {
+
+        }
+    }
+}
@@ -156,6 +156,12 @@ public class Config {
          */
         public static int DUMP_MAX_STACK_DEPTH = 500;
 
+        /**
+         * If true, dump the stacks of all profiling threads through one ThreadMXBean#getThreadInfo call per dump
+         * period, which takes a single safepoint. Otherwise, dump each thread by Thread#getStackTrace.
+         */
+        public static boolean BATCH_SAMPLING = false;
+
         /**
          * Snapshot transport to backend buffer size
          */
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context.trace;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.context.util.KeyValuePair;
+import org.apache.skywalking.apm.agent.core.context.util.TagValuePair;
+import org.apache.skywalking.apm.agent.core.dictionary.DictionaryUtil;
+import org.apache.skywalking.apm.network.common.v3.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.v3.Log;
+import org.apache.skywalking.apm.network.language.agent.v3.RefType;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.apm.util.StringUtil;
+
+/**
+ * The <code>SegmentEncoder</code> writes the {@link TraceSegment} in the protobuf wire format of the {@link
+ * SegmentObject}, the same bytes as the serialized {@link TraceSegment#transform()}, but without building the
+ * messages. Keep it in sync with the <code>transform</code> methods.
+ * <p>
+ * The spans are encoded into a buffer reused across the segments, so an encoder must be used by one thread only.
+ */
+public class SegmentEncoder {
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_SPAN_CAPACITY = 64;
+
+    private byte[] spanBuffer = new byte[INITIAL_BUFFER_SIZE];
+    /**
+     * The end positions of the spans of the encoding segment in the {@link #spanBuffer}.
+     */
+    private int[] spanEnds = new int[INITIAL_SPAN_CAPACITY];
+    private String service;
+    private String serviceInstance;
+    /**
+     * The encoded service and service instance fields, the same in every segment.
+     */
+    private byte[] serviceFields;
+
+    /**
+     * @return the segment as the serialized {@link SegmentObject}.
+     */
+    public byte[] encode(TraceSegment segment) throws IOException {
+        List<AbstractTracingSpan> spans = segment.getSpans();
+        if (spanEnds.length < spans.size()) {
+            spanEnds = new int[Math.max(spans.size(), spanEnds.length * 2)];
+        }
+        int spanCount = 0;
+        int spansSize = 0;
+        int position = 0;
+        for (AbstractTracingSpan span : spans) {
+            int end = encodeSpan(span, position);
+            spansSize += lengthDelimitedSize(SegmentObject.SPANS_FIELD_NUMBER, end - position);
+            spanEnds[spanCount++] = end;
+            position = end;
+        }
+
+        String traceId = segment.getRelatedGlobalTraces().get(0).getId();
+        String traceSegmentId = segment.getTraceSegmentId();
+        byte[] serviceFields = serviceFields();
+        int size = stringSize(SegmentObject.TRACEID_FIELD_NUMBER, traceId)
+            + stringSize(SegmentObject.TRACESEGMENTID_FIELD_NUMBER, traceSegmentId)
+            + spansSize + serviceFields.length
+            + (segment.isSizeLimited() ? CodedOutputStream.computeBoolSize(
+            SegmentObject.ISSIZELIMITED_FIELD_NUMBER, true) : 0);
+
+        byte[] encoded = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(encoded);
+        writeString(output, SegmentObject.TRACEID_FIELD_NUMBER, traceId);
+        writeString(output, SegmentObject.TRACESEGMENTID_FIELD_NUMBER, traceSegmentId);
+        int start = 0;
+        for (int i = 0; i < spanCount; i++) {
+            writeLengthDelimitedTag(output, SegmentObject.SPANS_FIELD_NUMBER, spanEnds[i] - start);
+            output.writeRawBytes(spanBuffer, start, spanEnds[i] - start);
+            start = spanEnds[i];
+        }
+        output.writeRawBytes(serviceFields);
+        if (segment.isSizeLimited()) {
+            output.writeBool(SegmentObject.ISSIZELIMITED_FIELD_NUMBER, true);
+        }
+        output.checkNoSpaceLeft();
+        return encoded;
+    }
+
+    /**
+     * Encode the span into the {@link #spanBuffer} from the position, and grow the buffer if it is full.
+     *
+     * @return the end position of the span.
+     */
+    private int encodeSpan(AbstractTracingSpan span, int position) throws IOException {
+        while (true) {
+            CodedOutputStream output = CodedOutputStream.newInstance(
+                spanBuffer, position, spanBuffer.length - position);
+            try {
+                writeSpan(output, span);
+                return spanBuffer.length - output.spaceLeft();
+            } catch (CodedOutputStream.OutOfSpaceException e) {
+                spanBuffer = Arrays.copyOf(spanBuffer, spanBuffer.length * 2);
+            }
+        }
+    }
+
+    private byte[] serviceFields() throws IOException {
+        if (serviceFields == null || service != Config.Agent.SERVICE_NAME
+            || serviceInstance != Config.Agent.INSTANCE_NAME) {
+            service = Config.Agent.SERVICE_NAME;
+            serviceInstance = Config.Agent.INSTANCE_NAME;
+            byte[] fields = new byte[stringSize(SegmentObject.SERVICE_FIELD_NUMBER, service)
+                + stringSize(SegmentObject.SERVICEINSTANCE_FIELD_NUMBER, serviceInstance)];
+            CodedOutputStream output = CodedOutputStream.newInstance(fields);
+            writeString(output, SegmentObject.SERVICE_FIELD_NUMBER, service);
+            writeString(output, SegmentObject.SERVICEINSTANCE_FIELD_NUMBER, serviceInstance);
+            serviceFields = fields;
+        }
+        return serviceFields;
+    }
+
+    /**
+     * The same as {@link AbstractTracingSpan#transform()} and {@link StackBasedTracingSpan#transform()}.
+     */
+    private static void writeSpan(CodedOutputStream output, AbstractTracingSpan span) throws IOException {
+        if (span.spanId != 0) {
+            output.writeInt32(SpanObject.SPANID_FIELD_NUMBER, span.spanId);
+        }
+        if (span.parentSpanId != 0) {
+            output.writeInt32(SpanObject.PARENTSPANID_FIELD_NUMBER, span.parentSpanId);
+        }
+        if (span.startTime != 0) {
+            output.writeInt64(SpanObject.STARTTIME_FIELD_NUMBER, span.startTime);
+        }
+        if (span.endTime != 0) {
+            output.writeInt64(SpanObject.ENDTIME_FIELD_NUMBER, span.endTime);
+        }
+        if (span.refs != null) {
+            for (TraceSegmentRef ref : span.refs) {
+                writeLengthDelimitedTag(output, SpanObject.REFS_FIELD_NUMBER, refSize(ref));
+                writeRef(output, ref);
+            }
+        }
+        writeString(output, SpanObject.OPERATIONNAME_FIELD_NUMBER, span.operationName);
+        if (span instanceof StackBasedTracingSpan) {
+            String peer = ((StackBasedTracingSpan) span).peer;
+            if (StringUtil.isNotEmpty(peer)) {
+                output.writeString(SpanObject.PEER_FIELD_NUMBER, peer);
+            }
+        }
+        SpanType spanType = span.isEntry() ? SpanType.Entry : span.isExit() ? SpanType.Exit : SpanType.Local;
+        if (spanType.getNumber() != 0) {
+            output.writeEnum(SpanObject.SPANTYPE_FIELD_NUMBER, spanType.getNumber());
+        }
+        if (span.layer != null && span.layer.getCode() != 0) {
+            output.writeEnum(SpanObject.SPANLAYER_FIELD_NUMBER, span.layer.getCode());
+        }
+        if (span.componentId != DictionaryUtil.nullValue() && span.componentId != 0) {
+            output.writeInt32(SpanObject.COMPONENTID_FIELD_NUMBER, span.componentId);
+        }
+        if (span.errorOccurred) {
+            output.writeBool(SpanObject.ISERROR_FIELD_NUMBER, true);
+        }
+        if (span.tags != null) {
+            for (TagValuePair tag : span.tags) {
+                String key = tag.getKey().key();
+                writeLengthDelimitedTag(output, SpanObject.TAGS_FIELD_NUMBER, keyValueSize(key, tag.getValue()));
+                writeKeyValue(output, key, tag.getValue());
+            }
+        }
+        if (span.logs != null) {
+            for (LogDataEntity log : span.logs) {
+                writeLengthDelimitedTag(output, SpanObject.LOGS_FIELD_NUMBER, logSize(log));
+                writeLog(output, log);
+            }
+        }
+        if (span.skipAnalysis) {
+            output.writeBool(SpanObject.SKIPANALYSIS_FIELD_NUMBER, true);
+        }
+    }
+
+    /**
+     * The same as {@link TraceSegmentRef#transform()}.
+     */
+    private static int refSize(TraceSegmentRef ref) {
+        int refType = refType(ref);
+        int size = refType == 0 ? 0 : CodedOutputStream.computeEnumSize(SegmentReference.REFTYPE_FIELD_NUMBER, refType);
+        size += stringSize(SegmentReference.TRACEID_FIELD_NUMBER, ref.getTraceId());
+        size += stringSize(SegmentReference.PARENTTRACESEGMENTID_FIELD_NUMBER, ref.getTraceSegmentId());
+        if (ref.getSpanId() != 0) {
+            size += CodedOutputStream.computeInt32Size(SegmentReference.PARENTSPANID_FIELD_NUMBER, ref.getSpanId());
+        }
+        size += stringSize(SegmentReference.PARENTSERVICE_FIELD_NUMBER, ref.getParentService());
+        size += stringSize(SegmentReference.PARENTSERVICEINSTANCE_FIELD_NUMBER, ref.getParentServiceInstance());
+        size += stringSize(SegmentReference.PARENTENDPOINT_FIELD_NUMBER, ref.getParentEndpoint());
+        if (ref.getAddressUsedAtClient() != null) {
+            size += stringSize(SegmentReference.NETWORKADDRESSUSEDATPEER_FIELD_NUMBER, ref.getAddressUsedAtClient());
+        }
+        return size;
+    }
+
+    private static void writeRef(CodedOutputStream output, TraceSegmentRef ref) throws IOException {
+        int refType = refType(ref);
+        if (refType != 0) {
+            output.writeEnum(SegmentReference.REFTYPE_FIELD_NUMBER, refType);
+        }
+        writeString(output, SegmentReference.TRACEID_FIELD_NUMBER, ref.getTraceId());
+        writeString(output, SegmentReference.PARENTTRACESEGMENTID_FIELD_NUMBER, ref.getTraceSegmentId());
+        if (ref.getSpanId() != 0) {
+            output.writeInt32(SegmentReference.PARENTSPANID_FIELD_NUMBER, ref.getSpanId());
+        }
+        writeString(output, SegmentReference.PARENTSERVICE_FIELD_NUMBER, ref.getParentService());
+        writeString(output, SegmentReference.PARENTSERVICEINSTANCE_FIELD_NUMBER, ref.getParentServiceInstance());
+        writeString(output, SegmentReference.PARENTENDPOINT_FIELD_NUMBER, ref.getParentEndpoint());
+        if (ref.getAddressUsedAtClient() != null) {
+            writeString(
+                output, SegmentReference.NETWORKADDRESSUSEDATPEER_FIELD_NUMBER, ref.getAddressUsedAtClient());
+        }
+    }
+
+    private static int refType(TraceSegmentRef ref) {
+        return TraceSegmentRef.SegmentRefType.CROSS_PROCESS.equals(ref.getType())
+            ? RefType.CrossProcess.getNumber() : RefType.CrossThread.getNumber();
+    }
+
+    /**
+     * The same as {@link LogDataEntity#transform()}.
+     */
+    private static int logSize(LogDataEntity log) {
+        int size = 0;
+        for (KeyValuePair data : log.getLogs()) {
+            size += lengthDelimitedSize(Log.DATA_FIELD_NUMBER, keyValueSize(data.getKey(), data.getValue()));
+        }
+        if (log.getTimestamp() != 0) {
+            size += CodedOutputStream.computeInt64Size(Log.TIME_FIELD_NUMBER, log.getTimestamp());
+        }
+        return size;
+    }
+
+    private static void writeLog(CodedOutputStream output, LogDataEntity log) throws IOException {
+        if (log.getTimestamp() != 0) {
+            output.writeInt64(Log.TIME_FIELD_NUMBER, log.getTimestamp());
+        }
+        for (KeyValuePair data : log.getLogs()) {
+            writeLengthDelimitedTag(output, Log.DATA_FIELD_NUMBER, keyValueSize(data.getKey(), data.getValue()));
+            writeKeyValue(output, data.getKey(), data.getValue());
+        }
+    }
+
+    /**
+     * The same as {@link KeyValuePair#transform()} and {@link TagValuePair#transform()}.
+     */
+    private static int keyValueSize(String key, String value) {
+        int size = stringSize(KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        if (value != null) {
+            size += stringSize(KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+        }
+        return size;
+    }
+
+    private static void writeKeyValue(CodedOutputStream output, String key, String value) throws IOException {
+        writeString(output, KeyStringValuePair.KEY_FIELD_NUMBER, key);
+        if (value != null) {
+            writeString(output, KeyStringValuePair.VALUE_FIELD_NUMBER, value);
+        }
+    }
+
+    private static int lengthDelimitedSize(int fieldNumber, int length) {
+        return CodedOutputStream.computeTagSize(fieldNumber) + CodedOutputStream.computeUInt32SizeNoTag(length)
+            + length;
+    }
+
+    private static void writeLengthDelimitedTag(CodedOutputStream output, int fieldNumber,
+                                                int length) throws IOException {
+        output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(length);
+    }
+
+    /**
+     * The empty string is the default value, not written, and the null is rejected like setting it to the builder.
+     */
+    private static int stringSize(int fieldNumber, String value) {
+        if (value.isEmpty()) {
+            return 0;
+        }
+        return CodedOutputStream.computeStringSize(fieldNumber, value);
+    }
+
+    private static void writeString(CodedOutputStream output, int fieldNumber, String value) throws IOException {
+        if (!value.isEmpty()) {
+            output.writeString(fieldNumber, value);
+        }
+    }
+}
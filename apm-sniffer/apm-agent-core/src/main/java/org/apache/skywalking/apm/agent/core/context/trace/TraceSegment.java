@@ -133,6 +133,14 @@ public class TraceSegment {
         return relatedGlobalTraces.getRelatedGlobalTraces();
     }
 
+    List<AbstractTracingSpan> getSpans() {
+        return spans;
+    }
+
+    boolean isSizeLimited() {
+        return isSizeLimited;
+    }
+
     public boolean isSingleSpanSegment() {
         return this.spans != null && this.spans.size() == 1;
     }
@@ -146,7 +154,8 @@ public class TraceSegment {
     }
 
     /**
-     * This is a high CPU cost method, only called when sending to collector or test cases.
+     * This is a high CPU cost method, only called in test cases. The segments are sent to collector by the {@link
+     * SegmentEncoder}, which writes the same bytes without building the message.
      *
      * @return the segment as GRPC service parameter
      */
@@ -19,9 +19,15 @@
 package org.apache.skywalking.apm.agent.core.profile;
 
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
@@ -31,12 +37,20 @@ public class ProfileThread implements Runnable {
 
     private static final ILog logger = LogManager.getLogger(ProfileThread.class);
 
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
     // profiling task context
     private final ProfileTaskExecutionContext taskExecutionContext;
 
     private final ProfileTaskExecutionService profileTaskExecutionService;
     private final ProfileTaskChannelService profileTaskChannelService;
 
+    // dump statistics, to compare the cost of batch sampling and per thread sampling
+    // each dump call takes one safepoint
+    private long dumpCallCount;
+    private long dumpedThreadCount;
+    private long dumpCostNanos;
+
     public ProfileThread(ProfileTaskExecutionContext taskExecutionContext) {
         this.taskExecutionContext = taskExecutionContext;
         profileTaskExecutionService = ServiceManager.INSTANCE.findService(ProfileTaskExecutionService.class);
@@ -54,6 +68,12 @@ public class ProfileThread implements Runnable {
         } catch (Exception e) {
             logger.error(e, "Profiling task fail. taskId:{}", taskExecutionContext.getTask().getTaskId());
         } finally {
+            logger.info(
+                "Profiling task {} finished, batch sampling: {}, {} stack dump calls(safepoints) for {} threads, cost {} ms.",
+                taskExecutionContext.getTask().getTaskId(), Config.Profile.BATCH_SAMPLING, dumpCallCount,
+                dumpedThreadCount, dumpCostNanos / 1000000
+            );
+
             // finally stop current profiling task, tell execution service task has stop
             profileTaskExecutionService.stopCurrentProfileTask(taskExecutionContext);
         }
@@ -72,34 +92,10 @@ public class ProfileThread implements Runnable {
         while (!Thread.currentThread().isInterrupted()) {
             currentLoopStartTime = System.currentTimeMillis();
 
-            // each all slot
-            AtomicReferenceArray<ThreadProfiler> profilers = executionContext.threadProfilerSlots();
-            int profilerCount = profilers.length();
-            for (int slot = 0; slot < profilerCount; slot++) {
-                ThreadProfiler currentProfiler = profilers.get(slot);
-                if (currentProfiler == null) {
-                    continue;
-                }
-
-                switch (currentProfiler.profilingStatus().get()) {
-
-                    case PENDING:
-                        // check tracing context running time
-                        currentProfiler.startProfilingIfNeed();
-                        break;
-
-                    case PROFILING:
-                        // dump stack
-                        TracingThreadSnapshot snapshot = currentProfiler.buildSnapshot();
-                        if (snapshot != null) {
-                            profileTaskChannelService.addProfilingSnapshot(snapshot);
-                        } else {
-                            // tell execution context current tracing thread dump failed, stop it
-                            executionContext.stopTracingProfile(currentProfiler.tracingContext());
-                        }
-                        break;
-
-                }
+            if (Config.Profile.BATCH_SAMPLING) {
+                batchDump(executionContext);
+            } else {
+                dump(executionContext);
             }
 
             // sleep to next period
@@ -110,4 +106,108 @@ public class ProfileThread implements Runnable {
         }
     }
 
+    /**
+     * dump each profiling thread by its own {@link Thread#getStackTrace()}
+     */
+    private void dump(ProfileTaskExecutionContext executionContext) {
+        // each all slot
+        AtomicReferenceArray<ThreadProfiler> profilers = executionContext.threadProfilerSlots();
+        int profilerCount = profilers.length();
+        for (int slot = 0; slot < profilerCount; slot++) {
+            ThreadProfiler currentProfiler = profilers.get(slot);
+            if (currentProfiler == null) {
+                continue;
+            }
+
+            switch (currentProfiler.profilingStatus().get()) {
+
+                case PENDING:
+                    // check tracing context running time
+                    currentProfiler.startProfilingIfNeed();
+                    break;
+
+                case PROFILING:
+                    // dump stack
+                    long dumpStartTime = System.nanoTime();
+                    TracingThreadSnapshot snapshot = currentProfiler.buildSnapshot();
+                    dumpCostNanos += System.nanoTime() - dumpStartTime;
+                    dumpCallCount++;
+                    dumpedThreadCount++;
+
+                    addSnapshot(executionContext, currentProfiler, snapshot);
+                    break;
+
+            }
+        }
+    }
+
+    /**
+     * dump all profiling threads through one {@link ThreadMXBean#getThreadInfo(long[], int)} call, so only one
+     * safepoint is taken in this period no matter how many threads are profiling.
+     */
+    private void batchDump(ProfileTaskExecutionContext executionContext) {
+        AtomicReferenceArray<ThreadProfiler> profilers = executionContext.threadProfilerSlots();
+        int profilerCount = profilers.length();
+        List<ThreadProfiler> profilingProfilers = new ArrayList<>(profilerCount);
+        for (int slot = 0; slot < profilerCount; slot++) {
+            ThreadProfiler currentProfiler = profilers.get(slot);
+            if (currentProfiler == null) {
+                continue;
+            }
+
+            switch (currentProfiler.profilingStatus().get()) {
+
+                case PENDING:
+                    // check tracing context running time
+                    currentProfiler.startProfilingIfNeed();
+                    break;
+
+                case PROFILING:
+                    profilingProfilers.add(currentProfiler);
+                    break;
+
+            }
+        }
+
+        if (profilingProfilers.isEmpty()) {
+            return;
+        }
+
+        long[] threadIds = new long[profilingProfilers.size()];
+        for (int i = 0; i < threadIds.length; i++) {
+            threadIds[i] = profilingProfilers.get(i).profilingThread().getId();
+        }
+
+        long currentTime = System.currentTimeMillis();
+        long dumpStartTime = System.nanoTime();
+        ThreadInfo[] threadInfos;
+        try {
+            threadInfos = THREAD_MX_BEAN.getThreadInfo(threadIds, Config.Profile.DUMP_MAX_STACK_DEPTH);
+        } catch (Exception e) {
+            // dump error, make all these profilers stop
+            logger.warn(e, "Dump profiling threads fail. taskId:{}", executionContext.getTask().getTaskId());
+            threadInfos = new ThreadInfo[threadIds.length];
+        }
+        dumpCostNanos += System.nanoTime() - dumpStartTime;
+        dumpCallCount++;
+        dumpedThreadCount += threadIds.length;
+
+        for (int i = 0; i < threadInfos.length; i++) {
+            ThreadProfiler currentProfiler = profilingProfilers.get(i);
+            // thread info is null when the thread is already run finished
+            StackTraceElement[] stackTrace = threadInfos[i] == null ? null : threadInfos[i].getStackTrace();
+            addSnapshot(executionContext, currentProfiler, currentProfiler.buildSnapshot(stackTrace, currentTime));
+        }
+    }
+
+    private void addSnapshot(ProfileTaskExecutionContext executionContext, ThreadProfiler profiler,
+        TracingThreadSnapshot snapshot) {
+        if (snapshot != null) {
+            profileTaskChannelService.addProfilingSnapshot(snapshot);
+        } else {
+            // tell execution context current tracing thread dump failed, stop it
+            executionContext.stopTracingProfile(profiler.tracingContext());
+        }
+    }
+
 }
@@ -92,16 +92,33 @@ public class ThreadProfiler {
         StackTraceElement[] stackTrace;
         try {
             stackTrace = profilingThread.getStackTrace();
-
-            // stack depth is zero, means thread is already run finished
-            if (stackTrace.length == 0) {
-                return null;
-            }
         } catch (Exception e) {
             // dump error ignore and make this profiler stop
             return null;
         }
 
+        return toSnapshot(stackTrace, currentTime);
+    }
+
+    /**
+     * build thread snapshot from the stack, which has been dumped with others in one batch
+     *
+     * @param stackTrace the stack of the profiling thread, null or empty means the thread is already run finished
+     * @return snapshot, if null means dump snapshot error, should stop it
+     */
+    public TracingThreadSnapshot buildSnapshot(StackTraceElement[] stackTrace, long currentTime) {
+        if (!isProfilingContinuable()) {
+            return null;
+        }
+        return toSnapshot(stackTrace, currentTime);
+    }
+
+    private TracingThreadSnapshot toSnapshot(StackTraceElement[] stackTrace, long currentTime) {
+        // stack depth is zero, means thread is already run finished
+        if (stackTrace == null || stackTrace.length == 0) {
+            return null;
+        }
+
         // if is first dump, check is can start profiling
         if (dumpSequence == 0 && (!executionContext.isStartProfileable())) {
             return null;
@@ -145,6 +162,10 @@ public class ThreadProfiler {
         return System.currentTimeMillis() - profilingStartTime < profilingMaxTimeMills;
     }
 
+    public Thread profilingThread() {
+        return profilingThread;
+    }
+
     public TracingContext tracingContext() {
         return tracingContext;
     }
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
+
+/**
+ * EncodedSegmentMarshaller sends the segments encoded by the {@link SegmentEncoder} as they are, rather than
+ * serializing the messages.
+ */
+public class EncodedSegmentMarshaller implements MethodDescriptor.Marshaller<byte[]> {
+    @Override
+    public InputStream stream(byte[] value) {
+        return new EncodedSegmentStream(value);
+    }
+
+    @Override
+    public byte[] parse(InputStream stream) {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw Status.INTERNAL.withDescription("Failed to read the segment").withCause(e).asRuntimeException();
+        }
+    }
+
+    /**
+     * The length is known, so gRPC writes the message into the frame directly, without buffering it first.
+     */
+    private static class EncodedSegmentStream extends ByteArrayInputStream implements KnownLength {
+        private EncodedSegmentStream(byte[] buf) {
+            super(buf);
+        }
+    }
+}
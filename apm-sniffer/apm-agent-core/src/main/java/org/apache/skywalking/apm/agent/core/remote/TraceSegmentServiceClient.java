@@ -18,7 +18,11 @@
 
 package org.apache.skywalking.apm.agent.core.remote;
 
+import io.grpc.CallOptions;
 import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.MethodDescriptor;
+import io.grpc.protobuf.ProtoUtils;
 import io.grpc.stub.StreamObserver;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -29,6 +33,7 @@ import org.apache.skywalking.apm.agent.core.commands.CommandService;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.TracingContext;
 import org.apache.skywalking.apm.agent.core.context.TracingContextListener;
+import org.apache.skywalking.apm.agent.core.context.trace.SegmentEncoder;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
@@ -36,9 +41,9 @@ import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.network.common.v3.Commands;
-import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
 
+import static io.grpc.stub.ClientCalls.asyncClientStreamingCall;
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.BUFFER_SIZE;
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.CHANNEL_SIZE;
 import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONNECTED;
@@ -46,12 +51,23 @@ import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONN
 @DefaultImplementor
 public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSegment>, TracingContextListener, GRPCChannelListener {
     private static final ILog logger = LogManager.getLogger(TraceSegmentServiceClient.class);
+    /**
+     * The collect method sending the segments encoded by the {@link SegmentEncoder}.
+     */
+    private static final MethodDescriptor<byte[], Commands> COLLECT_METHOD = TraceSegmentReportServiceGrpc
+        .getCollectMethod()
+        .toBuilder(new EncodedSegmentMarshaller(), ProtoUtils.marshaller(Commands.getDefaultInstance()))
+        .build();
 
     private long lastLogTime;
     private long segmentUplinkedCounter;
     private long segmentAbandonedCounter;
     private volatile DataCarrier<TraceSegment> carrier;
-    private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
+    private volatile Channel channel;
+    /**
+     * Used in the only consumer thread of the {@link #carrier}.
+     */
+    private final SegmentEncoder encoder = new SegmentEncoder();
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
 
     @Override
@@ -89,9 +105,11 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     public void consume(List<TraceSegment> data) {
         if (CONNECTED.equals(status)) {
             final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
-            StreamObserver<SegmentObject> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(
+            ClientCall<byte[], Commands> call = channel.newCall(COLLECT_METHOD, CallOptions.DEFAULT.withDeadlineAfter(
                 Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
-            ).collect(new StreamObserver<Commands>() {
+            ));
+            StreamObserver<byte[]> upstreamSegmentStreamObserver = asyncClientStreamingCall(
+                call, new StreamObserver<Commands>() {
                 @Override
                 public void onNext(Commands commands) {
                     ServiceManager.INSTANCE.findService(CommandService.class)
@@ -121,11 +139,10 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
             try {
                 for (TraceSegment segment : data) {
-                    SegmentObject upstreamSegment = segment.transform();
-                    upstreamSegmentStreamObserver.onNext(upstreamSegment);
+                    upstreamSegmentStreamObserver.onNext(encoder.encode(segment));
                 }
             } catch (Throwable t) {
-                logger.error(t, "Transform and send UpstreamSegment to collector fail.");
+                logger.error(t, "Encode and send UpstreamSegment to collector fail.");
             }
 
             upstreamSegmentStreamObserver.onCompleted();
@@ -180,8 +197,7 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
     @Override
     public void statusChanged(GRPCChannelStatus status) {
         if (CONNECTED.equals(status)) {
-            Channel channel = ServiceManager.INSTANCE.findService(GRPCChannelManager.class).getChannel();
-            serviceStub = TraceSegmentReportServiceGrpc.newStub(channel);
+            channel = ServiceManager.INSTANCE.findService(GRPCChannelManager.class).getChannel();
         }
         this.status = status;
     }
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.context.trace;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.context.ContextCarrier;
+import org.apache.skywalking.apm.network.trace.component.ComponentsDefine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class SegmentEncoderTest {
+    private final SegmentEncoder encoder = new SegmentEncoder();
+
+    @Before
+    public void setUp() {
+        Config.Agent.SERVICE_NAME = "encoder-service";
+        Config.Agent.INSTANCE_NAME = "encoder-instance@127.0.0.1";
+    }
+
+    @After
+    public void tearDown() {
+        Config.Agent.SERVICE_NAME = "";
+        Config.Agent.INSTANCE_NAME = "";
+    }
+
+    @Test
+    public void testSingleSpan() throws IOException {
+        TraceSegment segment = new TraceSegment();
+        EntrySpan span = new EntrySpan(0, -1, "/single", null);
+        span.start();
+        span.finish(segment);
+
+        assertEncoded(segment);
+    }
+
+    @Test
+    public void testMultipleSpans() throws IOException {
+        assertEncoded(mockSegment(10));
+        assertEncoded(mockSegment(100));
+    }
+
+    @Test
+    public void testSizeLimitedSegment() throws IOException {
+        TraceSegment segment = mockSegment(3);
+        segment.finish(true);
+
+        assertEncoded(segment);
+    }
+
+    @Test
+    public void testLargeSpan() throws IOException {
+        StringBuilder statement = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            statement.append("SELECT \u00e9\u4e2d FROM t WHERE id = ").append(i).append(';');
+        }
+        TraceSegment segment = new TraceSegment();
+        ExitSpan span = new ExitSpan(0, -1, "/large", "127.0.0.1:3306", null);
+        span.start();
+        span.setComponent(ComponentsDefine.MYSQL_JDBC_DRIVER);
+        SpanLayer.asDB(span);
+        span.tag("db.statement", statement.toString());
+        span.finish(segment);
+
+        assertEncoded(segment);
+        assertEncoded(mockSegment(5));
+    }
+
+    @Test
+    public void testServiceChanged() throws IOException {
+        TraceSegment segment = mockSegment(2);
+        assertEncoded(segment);
+
+        Config.Agent.INSTANCE_NAME = "another-instance@127.0.0.1";
+        assertEncoded(segment);
+    }
+
+    private void assertEncoded(TraceSegment segment) throws IOException {
+        assertArrayEquals(segment.transform().toByteArray(), encoder.encode(segment));
+    }
+
+    /**
+     * @return a segment of one entry span, which has a cross process ref, and the local and exit spans under it.
+     */
+    static TraceSegment mockSegment(int spans) {
+        TraceSegment segment = new TraceSegment();
+
+        ContextCarrier carrier = new ContextCarrier();
+        carrier.setTraceId("trace.id.1");
+        carrier.setTraceSegmentId("parent.segment.id.1");
+        carrier.setSpanId(3);
+        carrier.setParentService("parent-service");
+        carrier.setParentServiceInstance("parent-instance@127.0.0.1");
+        carrier.setParentEndpoint("/parent/endpoint");
+        carrier.setAddressUsedAtClient("127.0.0.1:8080");
+        TraceSegmentRef ref = new TraceSegmentRef(carrier);
+        segment.ref(ref);
+
+        EntrySpan entrySpan = new EntrySpan(0, -1, "/entry", null);
+        entrySpan.start();
+        entrySpan.ref(ref);
+        entrySpan.setComponent(ComponentsDefine.TOMCAT);
+        SpanLayer.asHttp(entrySpan);
+        entrySpan.tag("url", "http://127.0.0.1:8080/entry");
+        entrySpan.tag("status_code", "500");
+        entrySpan.errorOccurred();
+        entrySpan.log(new RuntimeException("entry failed"));
+
+        for (int i = 1; i < spans; i++) {
+            AbstractTracingSpan span;
+            if (i % 2 == 0) {
+                span = new ExitSpan(i, 0, "/exit/" + i, "127.0.0.1:" + (9000 + i), null).start();
+                span.setComponent(ComponentsDefine.HTTPCLIENT);
+                SpanLayer.asHttp(span);
+                span.tag("url", "http://127.0.0.1:" + (9000 + i) + "/exit");
+            } else {
+                span = new LocalSpan(i, 0, "/local/" + i, null).start();
+                span.log(System.currentTimeMillis(), Collections.singletonMap("event", "local"));
+            }
+            span.finish(segment);
+        }
+
+        entrySpan.finish(segment);
+        return segment;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.profile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.apache.skywalking.apm.agent.core.boot.BootService;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.context.TracingContext;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProfileThreadTest {
+
+    private static final int DUMP_MAX_STACK_DEPTH = 3;
+
+    private ProfileTaskChannelService channelService;
+    private ProfileTaskExecutionContext executionContext;
+    private CountDownLatch finish;
+    private List<Thread> threads;
+    private int originalDumpMaxStackDepth;
+
+    @Before
+    public void setUp() {
+        channelService = mock(ProfileTaskChannelService.class);
+        Map<Class, BootService> services = new HashMap<>();
+        services.put(ProfileTaskChannelService.class, channelService);
+        services.put(ProfileTaskExecutionService.class, mock(ProfileTaskExecutionService.class));
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", services);
+
+        originalDumpMaxStackDepth = Config.Profile.DUMP_MAX_STACK_DEPTH;
+        Config.Profile.DUMP_MAX_STACK_DEPTH = DUMP_MAX_STACK_DEPTH;
+
+        ProfileTask task = new ProfileTask();
+        task.setTaskId("task-1");
+        task.setMinDurationThreshold(0);
+        task.setThreadDumpPeriod(10);
+        task.setMaxSamplingCount(10);
+        executionContext = new ProfileTaskExecutionContext(task);
+
+        finish = new CountDownLatch(1);
+        threads = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        finish.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Config.Profile.DUMP_MAX_STACK_DEPTH = originalDumpMaxStackDepth;
+        Whitebox.setInternalState(ServiceManager.INSTANCE, "bootedServices", new HashMap<Class, BootService>());
+    }
+
+    @Test
+    public void testBatchDumpInOnePass() throws Exception {
+        ThreadProfiler first = addProfiler(0, "trace-1");
+        ThreadProfiler second = addProfiler(1, "trace-2");
+        ThreadProfiler outOfDuration = addProfiler(2, "trace-3");
+
+        ProfileThread profileThread = new ProfileThread(executionContext);
+        // the first pass starts profiling the pending ones
+        Whitebox.invokeMethod(profileThread, "batchDump", executionContext);
+        Assert.assertEquals(ProfileStatus.PROFILING, first.profilingStatus().get());
+        Assert.assertEquals(0L, (long) Whitebox.<Long>getInternalState(profileThread, "dumpCallCount"));
+
+        Whitebox.setInternalState(outOfDuration, "profilingMaxTimeMills", 0L);
+        Whitebox.invokeMethod(profileThread, "batchDump", executionContext);
+
+        // all profiling threads are dumped through one call
+        Assert.assertEquals(1L, (long) Whitebox.<Long>getInternalState(profileThread, "dumpCallCount"));
+        Assert.assertEquals(3L, (long) Whitebox.<Long>getInternalState(profileThread, "dumpedThreadCount"));
+
+        ArgumentCaptor<TracingThreadSnapshot> snapshots = ArgumentCaptor.forClass(TracingThreadSnapshot.class);
+        verify(channelService, times(2)).addProfilingSnapshot(snapshots.capture());
+        List<String> segmentIds = new ArrayList<>();
+        for (TracingThreadSnapshot snapshot : snapshots.getAllValues()) {
+            segmentIds.add(Whitebox.<String>getInternalState(snapshot, "traceSegmentId"));
+            List<String> stackList = Whitebox.getInternalState(snapshot, "stackList");
+            Assert.assertTrue(stackList.size() > 0);
+            Assert.assertTrue(stackList.size() <= DUMP_MAX_STACK_DEPTH);
+        }
+        Assert.assertTrue(segmentIds.contains("segment-trace-1"));
+        Assert.assertTrue(segmentIds.contains("segment-trace-2"));
+
+        // the profiler beyond its max duration is stopped, the others keep profiling
+        Assert.assertEquals(ProfileStatus.STOPPED, outOfDuration.profilingStatus().get());
+        Assert.assertNull(executionContext.threadProfilerSlots().get(2));
+        Assert.assertEquals(ProfileStatus.PROFILING, second.profilingStatus().get());
+    }
+
+    @Test
+    public void testBatchDumpKeepsMaxSamplingCount() throws Exception {
+        executionContext.getTask().setMaxSamplingCount(1);
+        ThreadProfiler sampled = addProfiler(0, "trace-1");
+        ThreadProfiler overLimit = addProfiler(1, "trace-2");
+
+        ProfileThread profileThread = new ProfileThread(executionContext);
+        Whitebox.invokeMethod(profileThread, "batchDump", executionContext);
+        Whitebox.invokeMethod(profileThread, "batchDump", executionContext);
+
+        verify(channelService, times(1)).addProfilingSnapshot(any(TracingThreadSnapshot.class));
+        Assert.assertEquals(ProfileStatus.PROFILING, sampled.profilingStatus().get());
+        Assert.assertEquals(ProfileStatus.STOPPED, overLimit.profilingStatus().get());
+    }
+
+    private ThreadProfiler addProfiler(int slot, String traceId) {
+        Thread thread = new Thread(() -> {
+            try {
+                finish.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        thread.start();
+        threads.add(thread);
+
+        TracingContext tracingContext = mock(TracingContext.class);
+        when(tracingContext.profileStatus()).thenReturn(ProfileStatusReference.createWithPending());
+        when(tracingContext.getReadablePrimaryTraceId()).thenReturn(traceId);
+        when(tracingContext.createTime()).thenReturn(0L);
+
+        ThreadProfiler profiler = new ThreadProfiler(tracingContext, "segment-" + traceId, thread, executionContext);
+        executionContext.threadProfilerSlots().set(slot, profiler);
+        return profiler;
+    }
+}
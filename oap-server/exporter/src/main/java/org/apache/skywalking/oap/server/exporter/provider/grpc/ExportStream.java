@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.exporter.provider.grpc;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportMetricValue;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportResponse;
+import org.apache.skywalking.oap.server.exporter.grpc.MetricExportServiceGrpc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-lived export stream owned by one consumer thread. It follows the gRPC flow control through {@link
+ * ClientCallStreamObserver#isReady()} rather than waiting for the peer confirmation of every batch. The stream is
+ * completed and re-opened when it reaches {@link GRPCExporterSetting#getExportBatchSize()} metrics or {@link
+ * GRPCExporterSetting#getStreamMaxAgeSeconds()}, and re-opened after any error.
+ */
+class ExportStream {
+    private static final Logger logger = LoggerFactory.getLogger(ExportStream.class);
+
+    private final MetricExportServiceGrpc.MetricExportServiceStub stub;
+    private final GRPCExporterSetting setting;
+    private final Object readyLock = new Object();
+    private StreamHolder current;
+
+    ExportStream(MetricExportServiceGrpc.MetricExportServiceStub stub, GRPCExporterSetting setting) {
+        this.stub = stub;
+        this.setting = setting;
+    }
+
+    /**
+     * @return false if the target isn't ready in {@link GRPCExporterSetting#getFlowControlTimeout()}, or the stream is
+     * broken. The value is not sent in this case.
+     */
+    boolean send(ExportMetricValue value) {
+        if (current == null || current.broken) {
+            current = open();
+        }
+        if (!awaitReady(current)) {
+            return false;
+        }
+        current.requestStream.onNext(value);
+        current.sentNum++;
+
+        if (current.sentNum >= setting.getExportBatchSize()
+            || System.currentTimeMillis() - current.openTime > setting.getStreamMaxAgeSeconds() * 1000L) {
+            complete();
+        }
+        return true;
+    }
+
+    void complete() {
+        if (current != null) {
+            if (!current.broken) {
+                current.requestStream.onCompleted();
+            }
+            current = null;
+        }
+    }
+
+    private boolean awaitReady(StreamHolder holder) {
+        if (holder.requestStream.isReady()) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + setting.getFlowControlTimeout();
+        synchronized (readyLock) {
+            while (!holder.broken && !holder.requestStream.isReady()) {
+                long waitTime = deadline - System.currentTimeMillis();
+                if (waitTime <= 0) {
+                    logger.warn("Export stream to {}:{} isn't ready in {} milliseconds.", setting.getTargetHost(),
+                                setting.getTargetPort(), setting.getFlowControlTimeout()
+                    );
+                    return false;
+                }
+                try {
+                    readyLock.wait(waitTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !holder.broken;
+    }
+
+    private StreamHolder open() {
+        StreamHolder holder = new StreamHolder();
+        stub.export(new ClientResponseObserver<ExportMetricValue, ExportResponse>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<ExportMetricValue> requestStream) {
+                holder.requestStream = requestStream;
+                requestStream.setOnReadyHandler(ExportStream.this::wakeUp);
+            }
+
+            @Override
+            public void onNext(ExportResponse response) {
+
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                logger.error("Export stream to {}:{} is broken.", setting.getTargetHost(), setting.getTargetPort(),
+                             throwable
+                );
+                holder.broken = true;
+                wakeUp();
+            }
+
+            @Override
+            public void onCompleted() {
+
+            }
+        });
+        return holder;
+    }
+
+    private void wakeUp() {
+        synchronized (readyLock) {
+            readyLock.notifyAll();
+        }
+    }
+
+    private static class StreamHolder {
+        private final long openTime = System.currentTimeMillis();
+        private ClientCallStreamObserver<ExportMetricValue> requestStream;
+        private volatile boolean broken;
+        private int sentNum;
+    }
+}
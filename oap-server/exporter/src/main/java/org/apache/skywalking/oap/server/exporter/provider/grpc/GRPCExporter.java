@@ -20,13 +20,19 @@ package org.apache.skywalking.oap.server.exporter.provider.grpc;
 
 import io.grpc.ManagedChannel;
 import io.grpc.stub.StreamObserver;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DoubleValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.IntValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
@@ -46,6 +52,11 @@ import org.apache.skywalking.oap.server.exporter.grpc.ValueType;
 import org.apache.skywalking.oap.server.exporter.provider.MetricFormatter;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.util.GRPCStreamStatus;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -56,18 +67,78 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
     private final MetricExportServiceGrpc.MetricExportServiceStub exportServiceFutureStub;
     private final MetricExportServiceGrpc.MetricExportServiceBlockingStub blockingStub;
     private final DataCarrier exportBuffer;
-    private final Set<String> subscriptionSet;
+    /**
+     * Immutable snapshot of the subscribed metrics names. It is replaced as a whole when refreshing, so {@link
+     * #export(ExportEvent)} reads it without lock.
+     */
+    private volatile Set<String> subscriptionSet;
+    /**
+     * The long-lived stream of every consumer thread, only used when {@link GRPCExporterSetting#isStreamingEnabled()}.
+     */
+    private final ThreadLocal<ExportStream> exportStream;
+    private ScheduledExecutorService subscriptionRefresher;
+
+    /**
+     * The telemetry is replaced once by {@link #start(MetricsCreator)}, which is called from another thread than the
+     * one that produces the metrics.
+     */
+    private volatile CounterMetrics exportedCounter;
+    private volatile CounterMetrics bufferFullDroppedCounter;
+    private volatile CounterMetrics flowControlDroppedCounter;
+    private volatile HistogramMetrics exportLag;
 
     public GRPCExporter(GRPCExporterSetting setting) {
+        this(setting, connect(setting));
+    }
+
+    GRPCExporter(GRPCExporterSetting setting, ManagedChannel channel) {
         this.setting = setting;
-        GRPCClient client = new GRPCClient(setting.getTargetHost(), setting.getTargetPort());
-        client.connect();
-        ManagedChannel channel = client.getChannel();
-        exportServiceFutureStub = MetricExportServiceGrpc.newStub(channel);
+        MetricExportServiceGrpc.MetricExportServiceStub stub = MetricExportServiceGrpc.newStub(channel);
+        if (StringUtil.isNotEmpty(setting.getCompression())) {
+            stub = stub.withCompression(setting.getCompression());
+        }
+        exportServiceFutureStub = stub;
         blockingStub = MetricExportServiceGrpc.newBlockingStub(channel);
+        exportStream = ThreadLocal.withInitial(() -> new ExportStream(exportServiceFutureStub, setting));
+        initTelemetry(new MetricsCreatorNoop());
         exportBuffer = new DataCarrier<ExportData>(setting.getBufferChannelNum(), setting.getBufferChannelSize());
-        exportBuffer.consume(this, 1, 200);
-        subscriptionSet = new HashSet<>();
+        // Metrics are handed over by the persistence timer, which must not be blocked by a slow target.
+        exportBuffer.setBufferStrategy(BufferStrategy.IF_POSSIBLE);
+        subscriptionSet = Collections.emptySet();
+    }
+
+    private static ManagedChannel connect(GRPCExporterSetting setting) {
+        GRPCClient client = new GRPCClient(setting.getTargetHost(), setting.getTargetPort());
+        client.connect();
+        return client.getChannel();
+    }
+
+    /**
+     * Start the consumer threads of the export buffer. The telemetry is created before, so the consumers never report
+     * to the noop metrics.
+     */
+    public void start(MetricsCreator metricsCreator) {
+        initTelemetry(metricsCreator);
+        exportBuffer.consume(this, setting.getConsumerNum(), 200);
+    }
+
+    private void initTelemetry(MetricsCreator metricsCreator) {
+        exportedCounter = metricsCreator.createCounter(
+            "exporter_grpc_exported_count", "The number of metrics exported by the gRPC exporter",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        bufferFullDroppedCounter = metricsCreator.createCounter(
+            "exporter_grpc_dropped_count", "The number of metrics dropped by the gRPC exporter",
+            new MetricsTag.Keys("reason"), new MetricsTag.Values("buffer_full")
+        );
+        flowControlDroppedCounter = metricsCreator.createCounter(
+            "exporter_grpc_dropped_count", "The number of metrics dropped by the gRPC exporter",
+            new MetricsTag.Keys("reason"), new MetricsTag.Values("flow_control")
+        );
+        exportLag = metricsCreator.createHistogramMetric(
+            "exporter_grpc_lag", "The time between a metric handed to the gRPC exporter and sent to the target",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
     }
 
     @Override
@@ -76,18 +147,45 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
             Metrics metrics = event.getMetrics();
             if (metrics instanceof WithMetadata) {
                 MetricsMetaInfo meta = ((WithMetadata) metrics).getMeta();
-                if (subscriptionSet.size() == 0 || subscriptionSet.contains(meta.getMetricsName())) {
-                    exportBuffer.produce(new ExportData(meta, metrics));
+                Set<String> subscriptions = subscriptionSet;
+                if (subscriptions.size() == 0 || subscriptions.contains(meta.getMetricsName())) {
+                    if (!exportBuffer.produce(new ExportData(meta, metrics))) {
+                        bufferFullDroppedCounter.inc();
+                    }
                 }
             }
         }
     }
 
     public void initSubscriptionList() {
+        fetchSubscriptionList();
+
+        if (setting.getSubscriptionRefreshPeriod() > 0) {
+            subscriptionRefresher = Executors.newSingleThreadScheduledExecutor();
+            subscriptionRefresher.scheduleWithFixedDelay(
+                new RunnableWithExceptionProtection(this::fetchSubscriptionList, t -> logger.error(
+                    "Refresh exporter subscription list failure.", t)),
+                setting.getSubscriptionRefreshPeriod(), setting.getSubscriptionRefreshPeriod(), TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Stop refreshing the subscription list, and let the consumer threads complete their long-lived streams.
+     */
+    public void shutdown() {
+        if (subscriptionRefresher != null) {
+            subscriptionRefresher.shutdownNow();
+        }
+        exportBuffer.shutdownConsumers();
+    }
+
+    private void fetchSubscriptionList() {
         SubscriptionsResp subscription = blockingStub.withDeadlineAfter(10, TimeUnit.SECONDS)
                                                      .subscription(SubscriptionReq.newBuilder().build());
-        subscription.getMetricNamesList().forEach(subscriptionSet::add);
-        logger.debug("Get exporter subscription list, {}", subscriptionSet);
+        Set<String> subscriptions = new HashSet<>(subscription.getMetricNamesList());
+        subscriptionSet = Collections.unmodifiableSet(subscriptions);
+        logger.debug("Get exporter subscription list, {}", subscriptions);
     }
 
     @Override
@@ -101,6 +199,11 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
             return;
         }
 
+        if (setting.isStreamingEnabled()) {
+            consumeInStream(data);
+            return;
+        }
+
         GRPCStreamStatus status = new GRPCStreamStatus();
         StreamObserver<ExportMetricValue> streamObserver = exportServiceFutureStub.withDeadlineAfter(
             10, TimeUnit.SECONDS)
@@ -124,45 +227,16 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
                                                                                           }
                                                                                       });
         AtomicInteger exportNum = new AtomicInteger();
+        ExportMetricValue.Builder builder = ExportMetricValue.newBuilder();
         data.forEach(row -> {
-            ExportMetricValue.Builder builder = ExportMetricValue.newBuilder();
-
-            Metrics metrics = row.getMetrics();
-            if (metrics instanceof LongValueHolder) {
-                long value = ((LongValueHolder) metrics).getValue();
-                builder.setLongValue(value);
-                builder.setType(ValueType.LONG);
-            } else if (metrics instanceof IntValueHolder) {
-                long value = ((IntValueHolder) metrics).getValue();
-                builder.setLongValue(value);
-                builder.setType(ValueType.LONG);
-            } else if (metrics instanceof DoubleValueHolder) {
-                double value = ((DoubleValueHolder) metrics).getValue();
-                builder.setDoubleValue(value);
-                builder.setType(ValueType.DOUBLE);
-            } else if (metrics instanceof MultiIntValuesHolder) {
-                int[] values = ((MultiIntValuesHolder) metrics).getValues();
-                for (int value : values) {
-                    builder.addLongValues(value);
-                }
-                builder.setType(ValueType.MULTI_LONG);
-            } else {
-                return;
-            }
-
-            MetricsMetaInfo meta = row.getMeta();
-            builder.setMetricName(meta.getMetricsName());
-            String entityName = getEntityName(meta);
-            if (entityName == null) {
+            ExportMetricValue value = transform(row, builder);
+            if (value == null) {
                 return;
             }
-            builder.setEntityName(entityName);
-            builder.setEntityId(meta.getId());
-
-            builder.setTimeBucket(metrics.getTimeBucket());
-
-            streamObserver.onNext(builder.build());
+            streamObserver.onNext(value);
             exportNum.getAndIncrement();
+            exportedCounter.inc();
+            exportLag.observe((System.currentTimeMillis() - row.getProduceTime()) / 1000D);
         });
 
         streamObserver.onCompleted();
@@ -193,6 +267,78 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
                 .getTargetPort(), sleepTime);
     }
 
+    /**
+     * Send the data through the long-lived stream of the current consumer thread. The memory safety of oap is kept by
+     * the flow control of the stream, the data is dropped if the target isn't ready in time.
+     */
+    private void consumeInStream(List<ExportData> data) {
+        ExportStream stream = exportStream.get();
+        ExportMetricValue.Builder builder = ExportMetricValue.newBuilder();
+        int exportNum = 0;
+        for (ExportData row : data) {
+            ExportMetricValue value = transform(row, builder);
+            if (value == null) {
+                continue;
+            }
+            if (stream.send(value)) {
+                exportNum++;
+                exportedCounter.inc();
+                exportLag.observe((System.currentTimeMillis() - row.getProduceTime()) / 1000D);
+            } else {
+                flowControlDroppedCounter.inc();
+            }
+        }
+
+        logger.debug(
+            "Exported {} metrics to {}:{} through the long-lived stream.", exportNum, setting.getTargetHost(),
+            setting.getTargetPort()
+        );
+    }
+
+    /**
+     * @param builder reused by the rows of one batch, cleared before filling.
+     * @return null if the metrics value type or the entity isn't supported.
+     */
+    private ExportMetricValue transform(ExportData row, ExportMetricValue.Builder builder) {
+        builder.clear();
+
+        Metrics metrics = row.getMetrics();
+        if (metrics instanceof LongValueHolder) {
+            long value = ((LongValueHolder) metrics).getValue();
+            builder.setLongValue(value);
+            builder.setType(ValueType.LONG);
+        } else if (metrics instanceof IntValueHolder) {
+            long value = ((IntValueHolder) metrics).getValue();
+            builder.setLongValue(value);
+            builder.setType(ValueType.LONG);
+        } else if (metrics instanceof DoubleValueHolder) {
+            double value = ((DoubleValueHolder) metrics).getValue();
+            builder.setDoubleValue(value);
+            builder.setType(ValueType.DOUBLE);
+        } else if (metrics instanceof MultiIntValuesHolder) {
+            int[] values = ((MultiIntValuesHolder) metrics).getValues();
+            for (int value : values) {
+                builder.addLongValues(value);
+            }
+            builder.setType(ValueType.MULTI_LONG);
+        } else {
+            return null;
+        }
+
+        MetricsMetaInfo meta = row.getMeta();
+        builder.setMetricName(meta.getMetricsName());
+        String entityName = getEntityName(meta);
+        if (entityName == null) {
+            return null;
+        }
+        builder.setEntityName(entityName);
+        builder.setEntityId(meta.getId());
+
+        builder.setTimeBucket(metrics.getTimeBucket());
+
+        return builder.build();
+    }
+
     @Override
     public void onError(List<ExportData> data, Throwable t) {
         logger.error(t.getMessage(), t);
@@ -200,6 +346,8 @@ public class GRPCExporter extends MetricFormatter implements MetricValuesExportS
 
     @Override
     public void onExit() {
-
+        if (setting.isStreamingEnabled()) {
+            exportStream.get().complete();
+        }
     }
 }
@@ -26,6 +26,8 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefine;
 import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 public class GRPCExporterProvider extends ModuleProvider {
     private GRPCExporterSetting setting;
@@ -55,7 +57,8 @@ public class GRPCExporterProvider extends ModuleProvider {
 
     @Override
     public void start() throws ServiceNotProvidedException, ModuleStartException {
-
+        exporter.start(getManager().find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
+        Runtime.getRuntime().addShutdownHook(new Thread(exporter::shutdown, "GRPCExporterShutdown"));
     }
 
     @Override
@@ -65,6 +68,9 @@ public class GRPCExporterProvider extends ModuleProvider {
 
     @Override
     public String[] requiredModules() {
-        return new String[] {CoreModule.NAME};
+        return new String[] {
+            CoreModule.NAME,
+            TelemetryModule.NAME
+        };
     }
 }
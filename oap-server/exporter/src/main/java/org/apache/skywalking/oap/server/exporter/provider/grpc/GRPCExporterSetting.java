@@ -29,4 +29,34 @@ public class GRPCExporterSetting extends ModuleConfig {
     private int targetPort;
     private int bufferChannelSize = 20000;
     private int bufferChannelNum = 2;
+    /**
+     * The number of consumer threads draining the export buffer. Threads more than {@link #bufferChannelNum} stay
+     * idle.
+     */
+    private int consumerNum = 1;
+    /**
+     * Keep one long-lived export stream per consumer thread, instead of opening a new stream and waiting for the peer
+     * confirmation for every drained batch.
+     */
+    private boolean streamingEnabled = false;
+    /**
+     * The number of metrics sent through one long-lived stream before it is completed and re-opened.
+     */
+    private int exportBatchSize = 10000;
+    /**
+     * The max age of one long-lived stream in seconds, before it is completed and re-opened.
+     */
+    private int streamMaxAgeSeconds = 60;
+    /**
+     * How long the long-lived stream waits for the target to be ready in milliseconds, before dropping the metric.
+     */
+    private long flowControlTimeout = 5000;
+    /**
+     * The period of refreshing the subscription list from the target in seconds. 0 means fetching once at startup.
+     */
+    private int subscriptionRefreshPeriod = 0;
+    /**
+     * The compressor name of the export payload, such as gzip. Empty means no compression.
+     */
+    private String compression = "";
 }
@@ -22,17 +22,28 @@ import io.grpc.testing.GrpcServerRule;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsMetaInfo;
 import org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata;
 import org.apache.skywalking.oap.server.core.exporter.ExportData;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportMetricValue;
 import org.apache.skywalking.oap.server.exporter.grpc.MetricExportServiceGrpc;
+import org.apache.skywalking.oap.server.exporter.grpc.ValueType;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.powermock.reflect.Whitebox;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
 public class GRPCExporterTest {
 
     private GRPCExporter exporter;
@@ -40,7 +51,7 @@ public class GRPCExporterTest {
     @Rule
     public final GrpcServerRule grpcServerRule = new GrpcServerRule().directExecutor();
 
-    private MetricExportServiceGrpc.MetricExportServiceImplBase server = new MockMetricExportServiceImpl();
+    private MockMetricExportServiceImpl server = new MockMetricExportServiceImpl();
     private MetricsMetaInfo metaInfo = new MetricsMetaInfo("mock-metrics", DefaultScopeDefine.ALL);
 
     private MetricExportServiceGrpc.MetricExportServiceBlockingStub stub;
@@ -50,21 +61,37 @@ public class GRPCExporterTest {
         GRPCExporterSetting setting = new GRPCExporterSetting();
         setting.setTargetHost("localhost");
         setting.setTargetPort(9870);
-        exporter = new GRPCExporter(setting);
         grpcServerRule.getServiceRegistry().addService(server);
+        exporter = new GRPCExporter(setting, grpcServerRule.getChannel());
+        exporter.start(new MetricsCreatorNoop());
         stub = MetricExportServiceGrpc.newBlockingStub(grpcServerRule.getChannel());
     }
 
+    @After
+    public void tearDown() {
+        exporter.shutdown();
+    }
+
     @Test
     public void export() {
         ExportEvent event = new ExportEvent(new MockExporterMetrics(), ExportEvent.EventType.TOTAL);
         exporter.export(event);
     }
 
-    public static class MockExporterMetrics extends MockMetrics implements WithMetadata {
+    public static class MockExporterMetrics extends MockLongValueMetrics implements WithMetadata {
+        private final String metricsName;
+
+        public MockExporterMetrics() {
+            this("mock-metrics");
+        }
+
+        public MockExporterMetrics(String metricsName) {
+            this.metricsName = metricsName;
+        }
+
         @Override
         public MetricsMetaInfo getMeta() {
-            return new MetricsMetaInfo("mock-metrics", DefaultScopeDefine.ALL);
+            return new MetricsMetaInfo(metricsName, DefaultScopeDefine.ALL);
         }
     }
 
@@ -74,6 +101,50 @@ public class GRPCExporterTest {
         exporter.initSubscriptionList();
     }
 
+    @Test
+    public void exportSubscribedOnly() throws InterruptedException {
+        exporter.initSubscriptionList();
+        Set<String> subscriptionSet = Whitebox.getInternalState(exporter, "subscriptionSet");
+        assertEquals(2, subscriptionSet.size());
+        assertTrue(subscriptionSet.contains("first"));
+        assertFalse(subscriptionSet.contains("mock-metrics"));
+
+        exporter.export(new ExportEvent(new MockExporterMetrics(), ExportEvent.EventType.TOTAL));
+        exporter.export(new ExportEvent(new MockExporterMetrics("first"), ExportEvent.EventType.TOTAL));
+
+        // The unsubscribed metrics would be buffered, and so exported, before the subscribed one.
+        ExportMetricValue value = server.received.poll(10, TimeUnit.SECONDS);
+        assertNotNull(value);
+        assertEquals("first", value.getMetricName());
+        assertTrue(server.received.isEmpty());
+    }
+
+    @Test
+    public void consumeInStream() throws InterruptedException {
+        GRPCExporterSetting setting = new GRPCExporterSetting();
+        setting.setTargetHost("localhost");
+        setting.setTargetPort(9870);
+        setting.setStreamingEnabled(true);
+        setting.setFlowControlTimeout(100);
+        setting.setCompression("gzip");
+        GRPCExporter streamingExporter = new GRPCExporter(setting, grpcServerRule.getChannel());
+
+        streamingExporter.consume(dataList());
+        streamingExporter.consume(Collections.emptyList());
+        streamingExporter.onExit();
+        streamingExporter.shutdown();
+
+        // MockMetrics has no value holder, so it isn't exported.
+        ValueType[] expectedTypes = {ValueType.LONG, ValueType.LONG, ValueType.DOUBLE};
+        for (ValueType expectedType : expectedTypes) {
+            ExportMetricValue value = server.received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(value);
+            assertEquals("mock-metrics", value.getMetricName());
+            assertEquals(expectedType, value.getType());
+        }
+        assertTrue(server.received.isEmpty());
+    }
+
     @Test
     public void init() {
         exporter.init();
@@ -81,9 +152,11 @@ public class GRPCExporterTest {
 
     @Test
     public void consume() {
-
         exporter.consume(dataList());
         exporter.consume(Collections.emptyList());
+
+        // The batch mode waits for the peer confirmation, so all the values have been received.
+        assertEquals(3, server.received.size());
     }
 
     @Test
@@ -19,11 +19,41 @@
 package org.apache.skywalking.oap.server.exporter.provider.grpc;
 
 import io.grpc.stub.StreamObserver;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportMetricValue;
+import org.apache.skywalking.oap.server.exporter.grpc.ExportResponse;
 import org.apache.skywalking.oap.server.exporter.grpc.MetricExportServiceGrpc;
 import org.apache.skywalking.oap.server.exporter.grpc.SubscriptionReq;
 import org.apache.skywalking.oap.server.exporter.grpc.SubscriptionsResp;
 
 public class MockMetricExportServiceImpl extends MetricExportServiceGrpc.MetricExportServiceImplBase {
+    /**
+     * All the metrics values received through the export streams, in the receiving order.
+     */
+    final BlockingQueue<ExportMetricValue> received = new LinkedBlockingQueue<>();
+
+    @Override
+    public StreamObserver<ExportMetricValue> export(StreamObserver<ExportResponse> responseObserver) {
+        return new StreamObserver<ExportMetricValue>() {
+            @Override
+            public void onNext(ExportMetricValue value) {
+                received.add(value);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                responseObserver.onError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onNext(ExportResponse.newBuilder().build());
+                responseObserver.onCompleted();
+            }
+        };
+    }
+
     @Override
     public void subscription(SubscriptionReq request, StreamObserver<SubscriptionsResp> responseObserver) {
         SubscriptionsResp resp = SubscriptionsResp.newBuilder()
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.precompiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.skywalking.oal.rt.OALRuntime;
+import org.apache.skywalking.oap.server.core.annotation.ClassIndex;
+import org.apache.skywalking.oap.server.core.oal.rt.OALDefine;
+import org.apache.skywalking.oap.server.core.oal.rt.OfficialOALDefine;
+
+/**
+ * OALPrecompiler runs in the build, generates the classes of the official OAL script and the {@link ClassIndex} into
+ * the precompiled jar, so the OAP server loads them at startup, rather than parsing the script, generating the classes
+ * and scanning the classpath.
+ * <p>
+ * Arguments: the output directory, the OAL script, the directory of the OAP libs in the distribution, and whether the
+ * dispatchers are generated in the fused mode.
+ */
+@Slf4j
+public class OALPrecompiler {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                "Usage: OALPrecompiler <output directory> <OAL script> <OAP libs directory> [fusedDispatch]");
+        }
+        File outputDirectory = new File(args[0]);
+        String script = FileUtils.readFileToString(new File(args[1]), StandardCharsets.UTF_8);
+        File libsDirectory = new File(args[2]);
+        boolean fusedDispatch = args.length > 3 && Boolean.parseBoolean(args[3]);
+        OALDefine define = OfficialOALDefine.INSTANCE;
+        long startTime = System.currentTimeMillis();
+
+        // The outputs of the last build are on the classpath too, remove them before scanning.
+        FileUtils.deleteQuietly(new File(outputDirectory, ClassIndex.INDEX_FILE));
+        for (String classPackage : excludedPackages(define)) {
+            FileUtils.deleteDirectory(new File(outputDirectory, classPackage.replace('.', '/')));
+        }
+        writeClassIndex(outputDirectory, libsDirectory, define);
+
+        OALRuntime runtime = new OALRuntime(define);
+        runtime.setFusedDispatch(fusedDispatch);
+        runtime.precompile(outputDirectory, script);
+        log.info("{} is precompiled into {} in {} ms.", define.getConfigFile(), outputDirectory,
+                 System.currentTimeMillis() - startTime
+        );
+    }
+
+    private static void writeClassIndex(File outputDirectory, File libsDirectory, OALDefine define) throws IOException {
+        File[] jars = libsDirectory.listFiles((dir, name) -> name.endsWith(".jar"));
+        if (jars == null || jars.length == 0) {
+            throw new IllegalArgumentException("No jar in the OAP libs directory " + libsDirectory);
+        }
+        List<String> classNames = ClassIndex.INSTANCE.getClasses()
+                                                     .stream()
+                                                     .filter(ClassIndex::isIndexed)
+                                                     .map(Class::getName)
+                                                     .sorted()
+                                                     .collect(Collectors.toList());
+
+        File indexFile = new File(outputDirectory, ClassIndex.INDEX_FILE);
+        indexFile.getParentFile().mkdirs();
+        try (PrintWriter writer = new PrintWriter(indexFile, StandardCharsets.UTF_8.name())) {
+            writer.println("# Generated by the OALPrecompiler, the classes of the jars below.");
+            Arrays.stream(jars).map(File::getName).sorted().forEach(jar -> writer.println(ClassIndex.JAR + jar));
+            excludedPackages(define).forEach(classPackage -> writer.println(ClassIndex.EXCLUDE + classPackage));
+            classNames.forEach(className -> writer.println(ClassIndex.CLASS + className));
+        }
+        log.info("{} classes of {} jars are indexed.", classNames.size(), jars.length);
+    }
+
+    /**
+     * The generated classes are loaded by the {@link OALRuntime}, not the {@link ClassIndex}.
+     */
+    private static List<String> excludedPackages(OALDefine define) {
+        return Arrays.asList(
+            define.getDynamicMetricsClassPackage(),
+            define.getDynamicMetricsBuilderClassPackage(),
+            define.getDynamicDispatcherClassPackage()
+        );
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oal.rt;
 
+import com.google.common.hash.Hashing;
 import freemarker.template.Configuration;
 import freemarker.template.Version;
 import java.io.DataOutputStream;
@@ -25,12 +26,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
 import javassist.CtClass;
@@ -49,6 +57,7 @@ import javassist.bytecode.annotation.IntegerMemberValue;
 import javassist.bytecode.annotation.StringMemberValue;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oal.rt.output.AllDispatcherContext;
 import org.apache.skywalking.oal.rt.output.DispatcherContext;
@@ -74,12 +83,17 @@ import org.apache.skywalking.oap.server.library.util.ResourceUtils;
 /**
  * OAL Runtime is the class generation engine, which load the generated classes from OAL scrip definitions. This runtime
  * is loaded dynamically.
+ * <p>
+ * The classes could be {@link #precompile(File, String) precompiled} in the build too, along with a manifest of the
+ * script hash. Those classes are loaded directly when the script and the dispatching mode are not changed, skipping the
+ * parsing and the generation. Otherwise, the classes generated at runtime take their place in the classloader.
  */
 @Slf4j
 public class OALRuntime implements OALEngine {
 
     private static final String CLASS_FILE_CHARSET = "UTF-8";
     private static final String METRICS_FUNCTION_PACKAGE = "org.apache.skywalking.oap.server.core.analysis.metrics.";
+    private static final String METRICS_EXPRESSION_PACKAGE = "org.apache.skywalking.oap.server.core.analysis.metrics.expression.";
     private static final String WITH_METADATA_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata";
     private static final String STORAGE_BUILDER_INTERFACE = "org.apache.skywalking.oap.server.core.storage.StorageBuilder";
     private static final String DISPATCHER_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.SourceDispatcher";
@@ -99,6 +113,22 @@ public class OALRuntime implements OALEngine {
         "data2Map",
         "map2Data"
     };
+    /**
+     * The manifest of the precompiled classes of the script, in the properties format.
+     */
+    private static final String PRECOMPILED_MANIFEST_PATH = "META-INF/skywalking/oal/";
+    private static final String MANIFEST_SCRIPT_HASH = "script.sha256";
+    private static final String MANIFEST_FUSED_DISPATCH = "fusedDispatch";
+    private static final String MANIFEST_METRICS = "metrics";
+    private static final String MANIFEST_DISPATCHERS = "dispatchers";
+    private static final String MANIFEST_DISABLED = "disabled";
+    private static final String[] METRICS_EXPRESSION_CLASSES = {
+        "EqualMatch",
+        "GreaterMatch",
+        "GreaterEqualMatch",
+        "LessMatch",
+        "LessEqualMatch"
+    };
 
     private final OALDefine oalDefine;
     private final ClassPool classPool;
@@ -110,6 +140,7 @@ public class OALRuntime implements OALEngine {
     private final List<Class> metricsClasses;
     private final List<Class> dispatcherClasses;
     private final boolean openEngineDebug;
+    private boolean fusedDispatch;
 
     public OALRuntime(OALDefine define) {
         oalDefine = define;
@@ -133,34 +164,159 @@ public class OALRuntime implements OALEngine {
         dispatcherDetectorListener = listener;
     }
 
+    @Override
+    public void setFusedDispatch(boolean fusedDispatch) {
+        this.fusedDispatch = fusedDispatch;
+    }
+
     @Override
     public void start(ClassLoader currentClassLoader) throws ModuleStartException, OALCompileException {
         prepareRTTempFolder();
 
         this.currentClassLoader = currentClassLoader;
-        Reader read;
+        long startTime = System.currentTimeMillis();
+        String script;
 
+        try (Reader read = ResourceUtils.read(oalDefine.getConfigFile())) {
+            script = IOUtils.toString(read);
+        } catch (FileNotFoundException e) {
+            throw new ModuleStartException("Can't locate " + oalDefine.getConfigFile(), e);
+        } catch (IOException e) {
+            throw new ModuleStartException("Can't read " + oalDefine.getConfigFile(), e);
+        }
+
+        if (loadPrecompiledClasses(script)) {
+            log.info("{} metrics and {} dispatchers of {} are loaded from the precompiled classes in {} ms.",
+                     metricsClasses.size(), dispatcherClasses.size(), oalDefine.getConfigFile(),
+                     System.currentTimeMillis() - startTime
+            );
+            return;
+        }
+
+        this.generateClassAtRuntime(parse(script));
+        log.info("{} metrics and {} dispatchers of {} are generated in {} ms.",
+                 metricsClasses.size(), dispatcherClasses.size(), oalDefine.getConfigFile(),
+                 System.currentTimeMillis() - startTime
+        );
+    }
+
+    /**
+     * Generate the classes of the script into the output directory, with the manifest to load them at runtime, rather
+     * than generating. Used by the OAL precompiler in the build.
+     *
+     * @param outputDirectory the root of the class files.
+     * @param script          the content of the {@link OALDefine#getConfigFile()}.
+     */
+    public void precompile(File outputDirectory, String script) throws ModuleStartException, OALCompileException {
+        OALScripts oalScripts = parse(script);
+        List<AnalysisResult> metricsStmts = oalScripts.getMetricsStmts();
+        metricsStmts.forEach(this::buildDispatcherContext);
+
+        List<String> metricsClassNames = new ArrayList<>();
+        List<String> dispatcherClassNames = new ArrayList<>();
         try {
-            MetricsHolder.init();
+            for (AnalysisResult metricsStmt : metricsStmts) {
+                CtClass metricsClass = generateMetricsClass(metricsStmt);
+                metricsClass.writeFile(outputDirectory.getAbsolutePath());
+                metricsClassNames.add(metricsClass.getName());
+                generateMetricsBuilderClass(metricsStmt).writeFile(outputDirectory.getAbsolutePath());
+            }
+            for (Map.Entry<String, DispatcherContext> entry : allDispatcherContext.getAllContext().entrySet()) {
+                CtClass dispatcherClass = generateDispatcherClass(entry.getKey(), entry.getValue());
+                dispatcherClass.writeFile(outputDirectory.getAbsolutePath());
+                dispatcherClassNames.add(dispatcherClass.getName());
+            }
+        } catch (CannotCompileException | IOException e) {
+            throw new OALCompileException("Can't write the precompiled classes of " + oalDefine.getConfigFile(), e);
+        }
+
+        Properties manifest = new Properties();
+        manifest.setProperty(MANIFEST_SCRIPT_HASH, scriptHash(script));
+        manifest.setProperty(MANIFEST_FUSED_DISPATCH, String.valueOf(fusedDispatch));
+        manifest.setProperty(MANIFEST_METRICS, String.join(",", metricsClassNames));
+        manifest.setProperty(MANIFEST_DISPATCHERS, String.join(",", dispatcherClassNames));
+        manifest.setProperty(
+            MANIFEST_DISABLED, String.join(",", oalScripts.getDisableCollection().getAllDisableSources()));
+
+        File manifestFile = new File(outputDirectory, manifestPath());
+        manifestFile.getParentFile().mkdirs();
+        try (OutputStream output = new FileOutputStream(manifestFile)) {
+            manifest.store(output, "Precompiled classes of " + oalDefine.getConfigFile());
         } catch (IOException e) {
-            throw new ModuleStartException("load metrics functions error.", e);
+            throw new OALCompileException("Can't write " + manifestFile.getAbsolutePath(), e);
         }
+    }
 
+    private OALScripts parse(String script) throws ModuleStartException {
         try {
-            read = ResourceUtils.read(oalDefine.getConfigFile());
-        } catch (FileNotFoundException e) {
-            throw new ModuleStartException("Can't locate " + oalDefine.getConfigFile(), e);
+            MetricsHolder.init();
+        } catch (IOException e) {
+            throw new ModuleStartException("load metrics functions error.", e);
         }
 
-        OALScripts oalScripts;
         try {
-            ScriptParser scriptParser = ScriptParser.createFromFile(read, oalDefine.getSourcePackage());
-            oalScripts = scriptParser.parse();
+            ScriptParser scriptParser = ScriptParser.createFromScriptText(script, oalDefine.getSourcePackage());
+            return scriptParser.parse();
         } catch (IOException e) {
             throw new ModuleStartException("OAL script parse analysis failure.", e);
         }
+    }
 
-        this.generateClassAtRuntime(oalScripts);
+    /**
+     * Load the precompiled classes, if they are generated from the same script in the same dispatching mode.
+     *
+     * @return true if loaded.
+     */
+    private boolean loadPrecompiledClasses(String script) throws ModuleStartException {
+        Properties manifest = new Properties();
+        try (InputStream input = currentClassLoader.getResourceAsStream(manifestPath())) {
+            if (input == null) {
+                return false;
+            }
+            manifest.load(input);
+        } catch (IOException e) {
+            log.warn("Can't read the manifest of the precompiled classes of " + oalDefine.getConfigFile() + ", ignore.",
+                     e
+            );
+            return false;
+        }
+
+        if (!scriptHash(script).equals(manifest.getProperty(MANIFEST_SCRIPT_HASH))
+            || fusedDispatch != Boolean.parseBoolean(manifest.getProperty(MANIFEST_FUSED_DISPATCH))) {
+            log.info("The precompiled classes of {} are out of date, generate them at runtime.",
+                     oalDefine.getConfigFile()
+            );
+            return false;
+        }
+
+        try {
+            for (String className : manifestList(manifest, MANIFEST_METRICS)) {
+                metricsClasses.add(currentClassLoader.loadClass(className));
+            }
+            for (String className : manifestList(manifest, MANIFEST_DISPATCHERS)) {
+                dispatcherClasses.add(currentClassLoader.loadClass(className));
+            }
+        } catch (ClassNotFoundException e) {
+            throw new ModuleStartException("Can't load the precompiled class " + e.getMessage(), e);
+        }
+        manifestList(manifest, MANIFEST_DISABLED).forEach(DisableRegister.INSTANCE::add);
+        return true;
+    }
+
+    private String manifestPath() {
+        return PRECOMPILED_MANIFEST_PATH + oalDefine.getConfigFile() + ".properties";
+    }
+
+    private static List<String> manifestList(Properties manifest, String key) {
+        String value = manifest.getProperty(key);
+        if (StringUtil.isEmpty(value)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).collect(Collectors.toList());
+    }
+
+    private static String scriptHash(String script) {
+        return Hashing.sha256().hashString(script, StandardCharsets.UTF_8).toString();
     }
 
     @Override
@@ -186,12 +342,12 @@ public class OALRuntime implements OALEngine {
         metricsStmts.forEach(this::buildDispatcherContext);
 
         for (AnalysisResult metricsStmt : metricsStmts) {
-            metricsClasses.add(generateMetricsClass(metricsStmt));
-            generateMetricsBuilderClass(metricsStmt);
+            metricsClasses.add(toClass(generateMetricsClass(metricsStmt), "metrics"));
+            toClass(generateMetricsBuilderClass(metricsStmt), "metrics/builder");
         }
 
         for (Map.Entry<String, DispatcherContext> entry : allDispatcherContext.getAllContext().entrySet()) {
-            dispatcherClasses.add(generateDispatcherClass(entry.getKey(), entry.getValue()));
+            dispatcherClasses.add(toClass(generateDispatcherClass(entry.getKey(), entry.getValue()), "dispatcher"));
         }
 
         oalScripts.getDisableCollection().getAllDisableSources().forEach(disable -> {
@@ -200,9 +356,26 @@ public class OALRuntime implements OALEngine {
     }
 
     /**
-     * Generate metrics class, and inject it to classloader
+     * Inject the generated class to classloader
      */
-    private Class generateMetricsClass(AnalysisResult metricsStmt) throws OALCompileException {
+    private Class toClass(CtClass generatedClass, String type) throws OALCompileException {
+        Class targetClass;
+        try {
+            targetClass = generatedClass.toClass(currentClassLoader, null);
+        } catch (CannotCompileException e) {
+            log.error("Can't compile/load " + generatedClass.getSimpleName() + ".", e);
+            throw new OALCompileException(e.getMessage(), e);
+        }
+
+        log.debug("Generate " + type + " class, " + generatedClass.getName());
+        writeGeneratedFile(generatedClass, generatedClass.getSimpleName(), type);
+        return targetClass;
+    }
+
+    /**
+     * Generate metrics class
+     */
+    private CtClass generateMetricsClass(AnalysisResult metricsStmt) throws OALCompileException {
         String className = metricsClassName(metricsStmt, false);
         CtClass parentMetricsClass = null;
         try {
@@ -300,24 +473,13 @@ public class OALRuntime implements OALEngine {
         annotationsAttribute.addAnnotation(streamAnnotation);
         metricsClassClassFile.addAttribute(annotationsAttribute);
 
-        Class targetClass;
-        try {
-            targetClass = metricsClass.toClass(currentClassLoader, null);
-        } catch (CannotCompileException e) {
-            log.error("Can't compile/load " + className + ".", e);
-            throw new OALCompileException(e.getMessage(), e);
-        }
-
-        log.debug("Generate metrics class, " + metricsClass.getName());
-        writeGeneratedFile(metricsClass, metricsClass.getSimpleName(), "metrics");
-
-        return targetClass;
+        return metricsClass;
     }
 
     /**
-     * Generate metrics class builder and inject it to classloader
+     * Generate metrics class builder
      */
-    private void generateMetricsBuilderClass(AnalysisResult metricsStmt) throws OALCompileException {
+    private CtClass generateMetricsBuilderClass(AnalysisResult metricsStmt) throws OALCompileException {
         String className = metricsBuilderClassName(metricsStmt, false);
         CtClass metricsBuilderClass = classPool.makeClass(metricsBuilderClassName(metricsStmt, true));
         try {
@@ -353,20 +515,13 @@ public class OALRuntime implements OALEngine {
             }
         }
 
-        try {
-            metricsBuilderClass.toClass(currentClassLoader, null);
-        } catch (CannotCompileException e) {
-            log.error("Can't compile/load " + className + ".", e);
-            throw new OALCompileException(e.getMessage(), e);
-        }
-
-        writeGeneratedFile(metricsBuilderClass, className, "metrics/builder");
+        return metricsBuilderClass;
     }
 
     /**
-     * Generate SourceDispatcher class and inject it to classloader
+     * Generate SourceDispatcher class
      */
-    private Class generateDispatcherClass(String scopeName,
+    private CtClass generateDispatcherClass(String scopeName,
                                           DispatcherContext dispatcherContext) throws OALCompileException {
 
         String className = dispatcherClassName(scopeName, false);
@@ -403,13 +558,34 @@ public class OALRuntime implements OALEngine {
             throw new OALCompileException(e.getMessage(), e);
         }
 
+        /**
+         * Add the shared expression objects in the fused mode.
+         *
+         * private static final ${expressionClass} ${expressionClass?uncap_first} = new ${expressionClass}();
+         */
+        if (fusedDispatch) {
+            for (String expressionClass : METRICS_EXPRESSION_CLASSES) {
+                String fieldName = Character.toLowerCase(expressionClass.charAt(0)) + expressionClass.substring(1);
+                try {
+                    dispatcherClass.addField(CtField.make(
+                        "private static final " + METRICS_EXPRESSION_PACKAGE + expressionClass + " " + fieldName
+                            + " = new " + METRICS_EXPRESSION_PACKAGE + expressionClass + "();", dispatcherClass));
+                } catch (CannotCompileException e) {
+                    log.error("Can't add field " + fieldName + " in " + className + ".", e);
+                    throw new OALCompileException(e.getMessage(), e);
+                }
+            }
+        }
+        String doMetricsTemplate = fusedDispatch ? "dispatcher/doMetricsFused.ftl" : "dispatcher/doMetrics.ftl";
+        String dispatchTemplate = fusedDispatch ? "dispatcher/dispatchFused.ftl" : "dispatcher/dispatch.ftl";
+
         /**
          * Generate methods
          */
         for (AnalysisResult dispatcherContextMetric : dispatcherContext.getMetrics()) {
             StringWriter methodEntity = new StringWriter();
             try {
-                configuration.getTemplate("dispatcher/doMetrics.ftl").process(dispatcherContextMetric, methodEntity);
+                configuration.getTemplate(doMetricsTemplate).process(dispatcherContextMetric, methodEntity);
                 dispatcherClass.addMethod(CtNewMethod.make(methodEntity.toString(), dispatcherClass));
             } catch (Exception e) {
                 log.error(
@@ -423,23 +599,14 @@ public class OALRuntime implements OALEngine {
 
         try {
             StringWriter methodEntity = new StringWriter();
-            configuration.getTemplate("dispatcher/dispatch.ftl").process(dispatcherContext, methodEntity);
+            configuration.getTemplate(dispatchTemplate).process(dispatcherContext, methodEntity);
             dispatcherClass.addMethod(CtNewMethod.make(methodEntity.toString(), dispatcherClass));
         } catch (Exception e) {
             log.error("Can't generate method dispatch for " + className + ".", e);
             throw new OALCompileException(e.getMessage(), e);
         }
 
-        Class targetClass;
-        try {
-            targetClass = dispatcherClass.toClass(currentClassLoader, null);
-        } catch (CannotCompileException e) {
-            log.error("Can't compile/load " + className + ".", e);
-            throw new OALCompileException(e.getMessage(), e);
-        }
-
-        writeGeneratedFile(dispatcherClass, className, "dispatcher");
-        return targetClass;
+        return dispatcherClass;
     }
 
     private String metricsClassName(AnalysisResult metricsStmt, boolean fullName) {
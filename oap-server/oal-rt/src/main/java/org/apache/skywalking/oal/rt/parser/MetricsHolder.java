@@ -18,23 +18,18 @@
 
 package org.apache.skywalking.oal.rt.parser;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.annotation.MetricsFunction;
+import org.apache.skywalking.oap.server.core.annotation.ClassIndex;
 
 public class MetricsHolder {
     private static Map<String, Class<? extends Metrics>> REGISTER = new HashMap<>();
 
     public static void init() throws IOException {
-        ClassPath classpath = ClassPath.from(MetricsHolder.class.getClassLoader());
-        ImmutableSet<ClassPath.ClassInfo> classes = classpath.getTopLevelClassesRecursive("org.apache.skywalking");
-        for (ClassPath.ClassInfo classInfo : classes) {
-            Class<?> aClass = classInfo.load();
-
+        for (Class<?> aClass : ClassIndex.INSTANCE.getClasses()) {
             if (aClass.isAnnotationPresent(MetricsFunction.class)) {
                 MetricsFunction metricsFunction = aClass.getAnnotation(MetricsFunction.class);
                 REGISTER.put(
@@ -0,0 +1,10 @@
+public void dispatch(org.apache.skywalking.oap.server.core.source.Source source) {
+${sourcePackage}${source} _source = (${sourcePackage}${source})source;
+org.apache.skywalking.oap.server.core.analysis.worker.FusedDispatchBuffer buffer = org.apache.skywalking.oap.server.core.analysis.worker.FusedDispatch.INSTANCE.current();
+synchronized (buffer) {
+<#list metrics as metrics>
+    do${metrics.metricsName}(_source, buffer);
+</#list>
+buffer.afterDispatch();
+}
+}
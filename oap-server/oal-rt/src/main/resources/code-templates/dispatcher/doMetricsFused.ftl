@@ -0,0 +1,27 @@
+private void do${metricsName}(${sourcePackage}${sourceName} source, org.apache.skywalking.oap.server.core.analysis.worker.FusedDispatchBuffer buffer) {
+<#if filterExpressions??>
+    <#list filterExpressions as filterExpression>
+        if (!${filterExpression.expressionObject?uncap_first}.match(${filterExpression.left}, ${filterExpression.right})) {
+        return;
+        }
+    </#list>
+</#if>
+
+${metricsClassPackage}${metricsName}Metrics metrics = (${metricsClassPackage}${metricsName}Metrics)buffer.probe(${metricsClassPackage}${metricsName}Metrics.class);
+if (metrics == null) {
+metrics = new ${metricsClassPackage}${metricsName}Metrics();
+}
+metrics.setTimeBucket(source.getTimeBucket());
+<#list fieldsFromSource as field>
+    metrics.${field.fieldSetter}(source.${field.fieldGetter}());
+</#list>
+metrics = (${metricsClassPackage}${metricsName}Metrics)buffer.aggregate(metrics);
+metrics.${entryMethod.methodName}(
+<#list entryMethod.argsExpressions as arg>
+    <#if entryMethod.argTypes[arg_index] < 3>
+        ${arg}
+    <#else>
+        ${arg.expressionObject?uncap_first}.match(${arg.left}, ${arg.right})
+    </#if><#if arg_has_next>, </#if>
+</#list>);
+}
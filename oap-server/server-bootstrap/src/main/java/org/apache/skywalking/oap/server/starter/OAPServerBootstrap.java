@@ -18,7 +18,9 @@
 
 package org.apache.skywalking.oap.server.starter;
 
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.core.RunningMode;
 import org.apache.skywalking.oap.server.library.module.ApplicationConfiguration;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -32,22 +34,37 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
  */
 @Slf4j
 public class OAPServerBootstrap {
+    /**
+     * The max number of the modules starting at the same time, 1 means one by one.
+     */
+    private static final int DEFAULT_STARTUP_CONCURRENCY = 1;
+    private static final String STARTUP_CONCURRENCY_ENV = "SW_OAP_STARTUP_CONCURRENCY";
+
     public static void start() {
         String mode = System.getProperty("mode");
         RunningMode.setMode(mode);
 
         ApplicationConfigLoader configLoader = new ApplicationConfigLoader();
-        ModuleManager manager = new ModuleManager();
         try {
+            long startTime = System.currentTimeMillis();
+            ModuleManager manager = new ModuleManager(startupConcurrency());
             ApplicationConfiguration applicationConfiguration = configLoader.load();
             manager.init(applicationConfiguration);
+            log.info("OAP server started in {} ms.", System.currentTimeMillis() - startTime);
 
-            manager.find(TelemetryModule.NAME)
-                   .provider()
-                   .getService(MetricsCreator.class)
-                   .createGauge("uptime", "oap server start up time", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE)
-                   // Set uptime to second
-                   .setValue(System.currentTimeMillis() / 1000d);
+            MetricsCreator metricsCreator = manager.find(TelemetryModule.NAME)
+                                                   .provider()
+                                                   .getService(MetricsCreator.class);
+            // Set uptime to second
+            metricsCreator.createGauge(
+                "uptime", "oap server start up time", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+            ).setValue(System.currentTimeMillis() / 1000d);
+            for (Map.Entry<String, Long> startupTime : manager.getStartupTimes().entrySet()) {
+                metricsCreator.createGauge(
+                    "module_startup_time", "The time of starting the module in milliseconds",
+                    new MetricsTag.Keys("module"), new MetricsTag.Values(startupTime.getKey())
+                ).setValue(startupTime.getValue());
+            }
 
             if (RunningMode.isInitMode()) {
                 log.info("OAP starts up in init mode successfully, exit now...");
@@ -58,4 +75,26 @@ public class OAPServerBootstrap {
             System.exit(1);
         }
     }
+
+    /**
+     * @throws IllegalArgumentException if the concurrency isn't a number of at least 1.
+     */
+    private static int startupConcurrency() {
+        String concurrency = System.getenv(STARTUP_CONCURRENCY_ENV);
+        if (StringUtil.isEmpty(concurrency)) {
+            return DEFAULT_STARTUP_CONCURRENCY;
+        }
+        int value;
+        try {
+            value = Integer.parseInt(concurrency.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                STARTUP_CONCURRENCY_ENV + " should be an integer of at least 1, but is " + concurrency, e);
+        }
+        if (value < 1) {
+            throw new IllegalArgumentException(
+                STARTUP_CONCURRENCY_ENV + " should be an integer of at least 1, but is " + concurrency);
+        }
+        return value;
+    }
 }
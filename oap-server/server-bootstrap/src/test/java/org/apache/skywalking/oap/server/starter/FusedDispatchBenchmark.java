@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.starter;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oal.rt.OALRuntime;
+import org.apache.skywalking.oap.server.core.analysis.DispatcherManager;
+import org.apache.skywalking.oap.server.core.analysis.NodeType;
+import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.worker.FusedDispatch;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.oal.rt.OfficialOALDefine;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.source.ServiceRelation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the cost of dispatching one {@link ServiceRelation} source in the dispatching thread, by the dispatchers the
+ * {@link OALRuntime} generates from the official script in the standard and the fused mode. The source goes into 8
+ * metrics with the detect point filters, of {@link #ENTITIES} entities in one time bucket.
+ * <p>
+ * Every mode is generated in its own fork, as the classes of both modes share the names. No worker is created in the
+ * {@link MetricsStreamProcessor}, so the cost of the L1 queue and merging, which the standard dispatching pays for
+ * every metrics, is not included.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class FusedDispatchBenchmark {
+    private static final int ENTITIES = 100;
+    private static final long TIME_BUCKET = 202006011200L;
+
+    @Param({
+        "false",
+        "true"
+    })
+    public boolean fused;
+
+    private final DispatcherManager dispatcherManager = new DispatcherManager();
+    private int sequence;
+
+    @Setup
+    public void setup() throws Exception {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+        if (fused) {
+            FusedDispatch.INSTANCE.start(500L, 10000);
+        }
+
+        OALRuntime runtime = new OALRuntime(OfficialOALDefine.INSTANCE);
+        runtime.setStreamListener(new StreamAnnotationListener(null) {
+            @Override
+            public void notify(Class aClass) {
+            }
+        });
+        runtime.setDispatcherListener(dispatcherManager);
+        runtime.setFusedDispatch(fused);
+        runtime.start(FusedDispatchBenchmark.class.getClassLoader());
+        runtime.notifyAllListeners();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        sequence = (sequence + 1) % ENTITIES;
+        ServiceRelation source = new ServiceRelation();
+        source.setSourceServiceName("client-" + sequence);
+        source.setSourceServiceNodeType(NodeType.Normal);
+        source.setDestServiceName("server-" + sequence);
+        source.setDestServiceNodeType(NodeType.Normal);
+        source.setDetectPoint(sequence % 2 == 0 ? DetectPoint.CLIENT : DetectPoint.SERVER);
+        source.setLatency(sequence);
+        source.setStatus(true);
+        source.setTimeBucket(TIME_BUCKET);
+        dispatcherManager.forward(source);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(FusedDispatchBenchmark.class.getName())
+                                          .forks(1)
+                                          .warmupIterations(3)
+                                          .measurementIterations(5)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
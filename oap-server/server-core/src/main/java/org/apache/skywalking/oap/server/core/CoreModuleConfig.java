@@ -19,8 +19,13 @@
 package org.apache.skywalking.oap.server.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
+import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.core.source.ScopeDefaultColumn;
 import org.apache.skywalking.oap.server.library.module.ModuleConfig;
 
@@ -41,6 +46,35 @@ public class CoreModuleConfig extends ModuleConfig {
     private int maxConcurrentCallsPerConnection;
     private int maxMessageSize;
     private boolean enableDatabaseSession;
+    /**
+     * Keep the open hour and day buckets of the metrics in memory, and write them every flush interval or once the
+     * bucket is closed, rather than reading and updating the storage rows in every persistent period.
+     */
+    private boolean enableMetricsRollup = false;
+    /**
+     * The interval of writing the in-memory hour buckets, in seconds.
+     */
+    private int metricsRollupHourFlushInterval = 300;
+    /**
+     * The interval of writing the in-memory day buckets, in seconds.
+     */
+    private int metricsRollupDayFlushInterval = 1800;
+    /**
+     * The period of the L1 aggregation flushing the merged metrics to the L2 aggregation, in milliseconds. The metrics
+     * of the same ID received in the period are merged into one. 0 means flushing after every consuming.
+     */
+    private long l1FlushPeriod = 500;
+    /**
+     * The max number of the merged metrics held by one L1 aggregation worker, which are flushed before the period once
+     * reaching it.
+     */
+    private int l1MaxBufferSize = 10000;
+    /**
+     * Generate the OAL dispatchers aggregating the sources of the same entity and time bucket in the receiving threads,
+     * rather than creating a metrics object for every source. The aggregated metrics are flushed to the L1 aggregation
+     * in the {@link #l1FlushPeriod}, or once reaching the {@link #l1MaxBufferSize} in one thread.
+     */
+    private boolean enableFusedOALDispatch = false;
     private int topNReportPeriod;
     private final List<String> downsampling;
     /**
@@ -75,6 +109,87 @@ public class CoreModuleConfig extends ModuleConfig {
      * The size of network address alias.
      */
     private long maxSizeOfNetworkAddressAlias = 1_000_000L;
+    /**
+     * The max number of the service, service instance and endpoint IDs interned in memory, which are built from the
+     * names in every received data. 0 means no cache.
+     */
+    private long maxSizeOfEntityIdCache = 100_000L;
+    /**
+     * Broadcast the changed network address aliases to all OAP nodes through the cluster internal communication,
+     * rather than waiting for every node to poll them from the storage. Should be the same in the whole cluster.
+     */
+    private boolean enableNetworkAddressAliasSync = false;
+    /**
+     * How often the network address alias cache is recovered from the storage when the sync is enabled, in seconds.
+     * The recovery covers the aliases missed by the broadcast, such as the ones sent before this node joined.
+     */
+    private int networkAddressAliasRecoveryPeriod = 300;
+    /**
+     * Keep the service relations of the recent minutes in memory, updated as the relation metrics stream and broadcast
+     * to all OAP nodes, so the service topology of the recent time ranges is queried without the storage. Should be the
+     * same in the whole cluster.
+     */
+    private boolean enableTopologyIndex = false;
+    /**
+     * The minutes of the relations kept in the topology index.
+     */
+    private int topologyIndexWindow = 60;
+    /**
+     * The metrics names, separated by comma, of which the top n query is answered by the sketches of the highest and
+     * the lowest values, maintained as the metrics being persisted. The storage aggregation is still used when the
+     * sketches couldn't guarantee the result. Empty means none. Should be the same in the whole cluster.
+     */
+    private String topNSketchMetrics = "";
+    /**
+     * The number of the entities tracked in every sketch, for the highest and the lowest values respectively.
+     */
+    private int topNSketchSize = 50;
+    /**
+     * Buffer the segments of every trace for the {@link #traceTailSamplingWindow}, then persist or drop the whole trace
+     * by the error, latency, rare endpoint and baseline rules, rather than persisting every segment sampled by the
+     * receivers. The segments are routed to the OAP nodes by the trace ID. Should be the same in the whole cluster.
+     */
+    private boolean enableTraceTailSampling = false;
+    /**
+     * The seconds of buffering a trace since its first segment arrives.
+     */
+    private int traceTailSamplingWindow = 10;
+    /**
+     * Keep the traces including any error segment.
+     */
+    private boolean traceTailSamplingKeepError = true;
+    /**
+     * Keep the traces of which the duration reaches the threshold, in milliseconds. 0 means disabled.
+     */
+    private int traceTailSamplingLatencyThreshold = 2000;
+    /**
+     * Keep the traces of every endpoint, while the endpoint is in at most this number of traces in the current minute,
+     * counting the trace, so the endpoints of low traffic are always sampled. The traces are counted in every OAP node,
+     * so the cluster keeps up to this number times the number of the nodes. 0 means disabled.
+     */
+    private int traceTailSamplingRareEndpointTraces = 3;
+    /**
+     * The rate of the other traces kept, in the range of [0, 10000], as the sample rate of the receivers.
+     */
+    private int traceTailSamplingBaselineRate = 1000;
+    /**
+     * The max size of the segments buffered in memory, in MB.
+     */
+    private int traceTailSamplingMaxBufferSize = 256;
+    /**
+     * The max number of the decisions remembered for the segments arriving after them. The oldest decisions are
+     * forgotten beyond it, before their windows end.
+     */
+    private int traceTailSamplingMaxDecisions = 1_000_000;
+    /**
+     * The directory of spilling the segments beyond the {@link #traceTailSamplingMaxBufferSize}. Empty means no spill,
+     * the oldest traces are decided before their windows end instead.
+     */
+    private String traceTailSamplingSpillPath = "";
+    /**
+     * The max size of the spilled segments, in MB.
+     */
+    private int traceTailSamplingMaxSpillSize = 2048;
     /**
      * Following are cache setting for none stream(s)
      */
@@ -87,6 +202,11 @@ public class CoreModuleConfig extends ModuleConfig {
      * Analyze profile snapshots max size.
      */
     private int maxSizeOfAnalyzeProfileSnapshot = 12000;
+    /**
+     * Analyze profile with the stack summaries pre-aggregated by the profile receiver, the raw snapshots are only
+     * analyzed where no summary is available.
+     */
+    private boolean profileAnalyzeWithStackSummary = false;
     /**
      * Extra model column are the column defined by {@link ScopeDefaultColumn.DefinedByField#requireDynamicActive()} ==
      * true. These columns of model are not required logically in aggregation or further query, and it will cause more
@@ -116,6 +236,16 @@ public class CoreModuleConfig extends ModuleConfig {
         this.downsampling = new ArrayList<>();
     }
 
+    public Set<String> getTopNSketchMetrics() {
+        if (StringUtil.isEmpty(topNSketchMetrics)) {
+            return Collections.emptySet();
+        }
+        return Arrays.stream(topNSketchMetrics.split(","))
+                     .map(String::trim)
+                     .filter(StringUtil::isNotEmpty)
+                     .collect(Collectors.toSet());
+    }
+
     /**
      * OAP server could work in different roles.
      */
@@ -24,13 +24,19 @@ import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.analysis.ApdexThresholdConfig;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
+import org.apache.skywalking.oap.server.core.analysis.EntityIDCache;
 import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.FusedDispatch;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
 import org.apache.skywalking.oap.server.core.cache.CacheUpdateTimer;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.TopologyIndex;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.TraceTailSampler;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasSync;
 import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
 import org.apache.skywalking.oap.server.core.cache.ProfileTaskCache;
 import org.apache.skywalking.oap.server.core.cluster.ClusterModule;
@@ -216,7 +222,8 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
         this.registerServiceImplementation(MetadataQueryService.class, new MetadataQueryService(getManager()));
-        this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(getManager()));
+        this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(
+            getManager(), moduleConfig.getTopNSketchMetrics()));
         this.registerServiceImplementation(AlarmQueryService.class, new AlarmQueryService(getManager()));
         this.registerServiceImplementation(TopNRecordsQueryService.class, new TopNRecordsQueryService(getManager()));
 
@@ -230,7 +237,10 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(CommandService.class, new CommandService(getManager()));
 
         // add oal engine loader service implementations
-        this.registerServiceImplementation(OALEngineLoaderService.class, new OALEngineLoaderService(getManager()));
+        this.registerServiceImplementation(
+            OALEngineLoaderService.class,
+            new OALEngineLoaderService(getManager(), moduleConfig.isEnableFusedOALDispatch())
+        );
 
         annotationScan.registerListener(streamAnnotationListener);
 
@@ -245,7 +255,23 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setEnableMetricsRollup(moduleConfig.isEnableMetricsRollup());
+        MetricsStreamProcessor.getInstance()
+                              .setMetricsRollupHourFlushInterval(moduleConfig.getMetricsRollupHourFlushInterval());
+        MetricsStreamProcessor.getInstance()
+                              .setMetricsRollupDayFlushInterval(moduleConfig.getMetricsRollupDayFlushInterval());
+        MetricsStreamProcessor.getInstance().setL1FlushPeriod(moduleConfig.getL1FlushPeriod());
+        MetricsStreamProcessor.getInstance().setL1MaxBufferSize(moduleConfig.getL1MaxBufferSize());
+        MetricsStreamProcessor.getInstance().setTopNSketchMetrics(moduleConfig.getTopNSketchMetrics());
+        MetricsStreamProcessor.getInstance().setTopNSketchSize(moduleConfig.getTopNSketchSize());
         TopNStreamProcessor.getInstance().setTopNWorkerReportCycle(moduleConfig.getTopNReportPeriod());
+        if (moduleConfig.isEnableTraceTailSampling()) {
+            try {
+                RecordStreamProcessor.getInstance().setTraceTailSampler(new TraceTailSampler(moduleConfig));
+            } catch (IOException e) {
+                throw new ModuleStartException(e.getMessage(), e);
+            }
+        }
         apdexThresholdConfig = new ApdexThresholdConfig(this);
         ApdexMetrics.setDICT(apdexThresholdConfig);
     }
@@ -263,6 +289,17 @@ public class CoreModuleProvider extends ModuleProvider {
             throw new ModuleStartException(e.getMessage(), e);
         }
 
+        if (moduleConfig.isEnableFusedOALDispatch()) {
+            FusedDispatch.INSTANCE.start(moduleConfig.getL1FlushPeriod(), moduleConfig.getL1MaxBufferSize());
+        }
+        EntityIDCache.INSTANCE.start(getManager(), moduleConfig.getMaxSizeOfEntityIdCache());
+        NetworkAddressAliasSync.INSTANCE.start(
+            getManager(), moduleConfig.isEnableNetworkAddressAliasSync(), moduleConfig.getRole());
+        TopologyIndex.INSTANCE.start(
+            getManager(), moduleConfig.isEnableTopologyIndex(), moduleConfig.getTopologyIndexWindow(),
+            moduleConfig.getRole()
+        );
+
         if (CoreModuleConfig.Role.Mixed.name()
                                        .equalsIgnoreCase(
                                            moduleConfig.getRole())
@@ -300,7 +337,7 @@ public class CoreModuleProvider extends ModuleProvider {
             DataTTLKeeperTimer.INSTANCE.start(getManager(), moduleConfig);
         }
 
-        CacheUpdateTimer.INSTANCE.start(getManager(), moduleConfig.getMetricsDataTTL());
+        CacheUpdateTimer.INSTANCE.start(getManager(), moduleConfig);
     }
 
     @Override
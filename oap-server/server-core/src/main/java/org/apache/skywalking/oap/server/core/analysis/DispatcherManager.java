@@ -18,16 +18,15 @@
 
 package org.apache.skywalking.oap.server.core.analysis;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.annotation.ClassIndex;
 import org.apache.skywalking.oap.server.core.source.Source;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +38,8 @@ public class DispatcherManager implements DispatcherDetectorListener {
     private Map<Integer, List<SourceDispatcher>> dispatcherMap;
 
     public DispatcherManager() {
-        this.dispatcherMap = new HashMap<>();
+        // The dispatchers are added by the providers starting concurrently.
+        this.dispatcherMap = new ConcurrentHashMap<>();
     }
 
     public void forward(Source source) {
@@ -69,11 +69,7 @@ public class DispatcherManager implements DispatcherDetectorListener {
      * into this DispatcherManager based on the Source definition.
      */
     public void scan() throws IOException, IllegalAccessException, InstantiationException {
-        ClassPath classpath = ClassPath.from(this.getClass().getClassLoader());
-        ImmutableSet<ClassPath.ClassInfo> classes = classpath.getTopLevelClassesRecursive("org.apache.skywalking");
-        for (ClassPath.ClassInfo classInfo : classes) {
-            Class<?> aClass = classInfo.load();
-
+        for (Class<?> aClass : ClassIndex.INSTANCE.getClasses()) {
             addIfAsSourceDispatcher(aClass);
         }
     }
@@ -104,13 +100,7 @@ public class DispatcherManager implements DispatcherDetectorListener {
 
                     int scopeId = dispatcherSource.scope();
 
-                    List<SourceDispatcher> dispatchers = this.dispatcherMap.get(scopeId);
-                    if (dispatchers == null) {
-                        dispatchers = new ArrayList<>();
-                        this.dispatcherMap.put(scopeId, dispatchers);
-                    }
-
-                    dispatchers.add(dispatcher);
+                    this.dispatcherMap.computeIfAbsent(scopeId, key -> new CopyOnWriteArrayList<>()).add(dispatcher);
 
                     logger.info("Dispatcher {} is added into DefaultScopeDefine {}.", dispatcher.getClass()
                                                                                                 .getName(), scopeId);
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * EntityIDCache interns the service, service instance and endpoint IDs built by {@link IDManager}. The names are
+ * received in every segment, metrics and heartbeat, but the distinct ones are few, so the cache saves the encoding and
+ * shares the same ID instance in the whole analysis and aggregation.
+ * <p>
+ * The cache is disabled until {@link #start(ModuleDefineHolder, long)} and after {@link #stop()}, then the IDs are
+ * built every time.
+ */
+@Slf4j
+public class EntityIDCache {
+    public static final EntityIDCache INSTANCE = new EntityIDCache();
+
+    /**
+     * The lookup key of every thread is reused, only the key of a new ID is allocated and cached.
+     */
+    private final ThreadLocal<Key> lookupKey = ThreadLocal.withInitial(Key::new);
+    private volatile Cache<Key, String> cache;
+    private ScheduledExecutorService reportExecutor;
+    private CacheStats lastStats;
+    private GaugeMetrics hitRatio;
+    private GaugeMetrics cacheSize;
+    private CounterMetrics evictionCounter;
+
+    EntityIDCache() {
+    }
+
+    /**
+     * Start caching, ignored if it has been started already.
+     *
+     * @param maxSize the max number of the cached IDs, 0 means no cache.
+     */
+    public synchronized void start(ModuleDefineHolder moduleDefineHolder, long maxSize) {
+        if (maxSize <= 0 || cache != null) {
+            return;
+        }
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        hitRatio = metricsCreator.createGauge(
+            "entity_id_cache_hit_ratio", "The hit ratio of the entity ID cache in the last period",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        cacheSize = metricsCreator.createGauge(
+            "entity_id_cache_size", "The number of the IDs in the entity ID cache",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        evictionCounter = metricsCreator.createCounter(
+            "entity_id_cache_eviction_count", "The number of the IDs evicted from the entity ID cache",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+
+        Cache<Key, String> cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+        lastStats = cache.stats();
+        this.cache = cache;
+
+        reportExecutor = Executors.newSingleThreadScheduledExecutor();
+        reportExecutor.scheduleAtFixedRate(
+            new RunnableWithExceptionProtection(this::report, t -> log
+                .error("Entity ID cache report failure.", t)), 10, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the report and drop the cached IDs, the IDs are built every time after that.
+     */
+    public synchronized void stop() {
+        if (cache == null) {
+            return;
+        }
+        reportExecutor.shutdownNow();
+        reportExecutor = null;
+        cache = null;
+    }
+
+    /**
+     * @return the cached ID of the key, or the one built by the builder and cached then.
+     */
+    String get(Type type, String parentId, String name, Function<Key, String> builder) {
+        final Key lookup = lookupKey.get().reset(type, parentId, name);
+        final Cache<Key, String> cache = this.cache;
+        if (cache == null) {
+            return builder.apply(lookup);
+        }
+        String id = cache.getIfPresent(lookup);
+        if (id == null) {
+            id = builder.apply(lookup);
+            cache.put(new Key(type, parentId, name), id);
+        }
+        return id;
+    }
+
+    private void report() {
+        final Cache<Key, String> cache = this.cache;
+        if (cache == null) {
+            return;
+        }
+        final CacheStats stats = cache.stats();
+        final CacheStats increment = stats.minus(lastStats);
+        lastStats = stats;
+        hitRatio.setValue(increment.hitRate());
+        cacheSize.setValue(cache.size());
+        evictionCounter.inc(increment.evictionCount());
+    }
+
+    enum Type {
+        NORMAL_SERVICE, CONJECTURAL_SERVICE, SERVICE_INSTANCE, ENDPOINT
+    }
+
+    /**
+     * The key is only changed while it is the lookup key of a thread, never after it is cached.
+     */
+    @NoArgsConstructor(access = AccessLevel.PRIVATE)
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    @Getter
+    @EqualsAndHashCode
+    static class Key {
+        private Type type;
+        /**
+         * The service ID of the instance and endpoint, null for the service.
+         */
+        private String parentId;
+        private String name;
+
+        private Key reset(Type type, String parentId, String name) {
+            this.type = type;
+            this.parentId = parentId;
+            this.name = name;
+            return this;
+        }
+    }
+}
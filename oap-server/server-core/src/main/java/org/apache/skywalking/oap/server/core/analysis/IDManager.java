@@ -43,7 +43,10 @@ public class IDManager {
         }
 
         public static String buildId(String name, boolean isNormal) {
-            return encode(name) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.booleanToValue(isNormal);
+            return EntityIDCache.INSTANCE.get(
+                isNormal ? EntityIDCache.Type.NORMAL_SERVICE : EntityIDCache.Type.CONJECTURAL_SERVICE,
+                null, name, IDManager::build
+            );
         }
 
         /**
@@ -107,9 +110,8 @@ public class IDManager {
          * @return service instance id
          */
         public static String buildId(String serviceId, String instanceName) {
-            return serviceId
-                + Const.ID_CONNECTOR
-                + encode(instanceName);
+            return EntityIDCache.INSTANCE.get(
+                EntityIDCache.Type.SERVICE_INSTANCE, serviceId, instanceName, IDManager::build);
         }
 
         /**
@@ -179,9 +181,7 @@ public class IDManager {
          * @return endpoint id
          */
         public static String buildId(String serviceId, String endpointName) {
-            return serviceId
-                + Const.ID_CONNECTOR
-                + encode(endpointName);
+            return EntityIDCache.INSTANCE.get(EntityIDCache.Type.ENDPOINT, serviceId, endpointName, IDManager::build);
         }
 
         /**
@@ -273,6 +273,20 @@ public class IDManager {
         }
     }
 
+    /**
+     * Build the service, service instance and endpoint IDs, cached by the {@link EntityIDCache}.
+     */
+    static String build(EntityIDCache.Key key) {
+        switch (key.getType()) {
+            case NORMAL_SERVICE:
+                return encode(key.getName()) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.booleanToValue(true);
+            case CONJECTURAL_SERVICE:
+                return encode(key.getName()) + Const.SERVICE_ID_CONNECTOR + BooleanUtils.booleanToValue(false);
+            default:
+                return key.getParentId() + Const.ID_CONNECTOR + encode(key.getName());
+        }
+    }
+
     /**
      * @param text normal literal string
      * @return Base74 encoded UTF-8 string
@@ -52,9 +52,17 @@ public class MergableBufferedData<METRICS extends Metrics> implements BufferedDa
             buffer.put(id, data);
         } else {
             existed.combine(data);
+            existed.keepEarliestTimestamps(data);
         }
     }
 
+    /**
+     * @return the number of the merged metrics in the cache.
+     */
+    public int size() {
+        return buffer.size();
+    }
+
     @Override
     public List<METRICS> read() {
         try {
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+
+/**
+ * TopologyEdge is a service relation in the {@link TopologyIndex}, in one minute time bucket.
+ */
+@Getter
+@Setter
+@EqualsAndHashCode(of = {
+    "detectPoint",
+    "entityId",
+    "timeBucket"
+})
+public class TopologyEdge extends StreamData {
+    private DetectPoint detectPoint;
+    private String entityId;
+    private String sourceServiceId;
+    private String destServiceId;
+    private int componentId;
+    private long timeBucket;
+
+    @Override
+    public int remoteHashCode() {
+        return hashCode();
+    }
+
+    @Override
+    public void deserialize(final RemoteData remoteData) {
+        setEntityId(remoteData.getDataStrings(0));
+        setSourceServiceId(remoteData.getDataStrings(1));
+        setDestServiceId(remoteData.getDataStrings(2));
+
+        setDetectPoint(DetectPoint.valueOf(remoteData.getDataIntegers(0)));
+        setComponentId(remoteData.getDataIntegers(1));
+
+        setTimeBucket(remoteData.getDataLongs(0));
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        final RemoteData.Builder builder = RemoteData.newBuilder();
+        builder.addDataStrings(entityId);
+        builder.addDataStrings(sourceServiceId);
+        builder.addDataStrings(destServiceId);
+
+        builder.addDataIntegers(detectPoint.value());
+        builder.addDataIntegers(componentId);
+
+        builder.addDataLongs(timeBucket);
+        return builder;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * TopologyIndex keeps the service relations of the recent minutes in memory, updated by the service relation
+ * dispatcher as the data streams, so the service topology of a recent time range could be queried without aggregating
+ * the relation metrics in the storage. The instance relations are not indexed, as they are queried from the storage by
+ * the service pair, and a missed one couldn't be repaired without querying every service pair every minute.
+ *
+ * The relations are indexed by the minute time bucket. A relation is broadcast to all OAP nodes the first time it is
+ * seen in the time bucket by this cluster, so every node has the merged index. The index only covers the time buckets
+ * after this node started, and inside the window.
+ *
+ * The broadcast only reaches the nodes in the Mixed and Aggregator roles, so the index of a Receiver node never covers
+ * any time range. The relations missed by the broadcast, such as the ones sent while a node restarts, are repaired from
+ * the storage every minute, once the relation metrics of the time bucket are persisted.
+ */
+@Slf4j
+public enum TopologyIndex {
+    INSTANCE;
+
+    public static final String SYNC_WORKER_NAME = "topology_index_sync";
+    /**
+     * The relations broadcast before the other nodes discovered this one are missed, wait for the cluster before
+     * covering any time bucket.
+     */
+    private static final long COVERAGE_DELAY = TimeUnit.MINUTES.toMillis(2);
+    /**
+     * The time bucket is repaired from the storage after this delay, when its relation metrics have been persisted.
+     */
+    private static final long REPAIR_DELAY = TimeUnit.MINUTES.toMillis(3);
+
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private volatile boolean enabled = false;
+    private volatile boolean receivingBroadcast = false;
+    private long windowMillis;
+    private long coveredSince;
+    /**
+     * The time before which all minutes have been repaired, in milliseconds.
+     */
+    private long repairedUntil;
+    private ScheduledExecutorService repairExecutor;
+    private RemoteSenderService remoteSender;
+    private CounterMetrics syncOutCounter;
+    private CounterMetrics syncInCounter;
+    private CounterMetrics repairedCounter;
+
+    /**
+     * @param window the minutes of the time buckets kept in the index.
+     * @param role   of this OAP node, see {@link CoreModuleConfig.Role}.
+     */
+    public void start(ModuleDefineHolder moduleDefineHolder, boolean enabled, int window, String role) {
+        this.enabled = false;
+        if (repairExecutor != null) {
+            repairExecutor.shutdownNow();
+            repairExecutor = null;
+        }
+        if (!enabled) {
+            return;
+        }
+        remoteSender = moduleDefineHolder.find(CoreModule.NAME).provider().getService(RemoteSenderService.class);
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        syncOutCounter = metricsCreator.createCounter(
+            "topology_index_sync_out_count", "The number of topology relations broadcast by this node.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        syncInCounter = metricsCreator.createCounter(
+            "topology_index_sync_in_count", "The number of topology relations received from the broadcast.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        repairedCounter = metricsCreator.createCounter(
+            "topology_index_repaired_count",
+            "The number of topology relations missed by the index, and loaded from the storage.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+
+        moduleDefineHolder.find(CoreModule.NAME)
+                          .provider()
+                          .getService(IWorkerInstanceSetter.class)
+                          .put(SYNC_WORKER_NAME, new SyncWorker(moduleDefineHolder), TopologyEdge.class);
+
+        buckets.clear();
+        windowMillis = TimeUnit.MINUTES.toMillis(window);
+        repairedUntil = System.currentTimeMillis() + COVERAGE_DELAY;
+        coveredSince = TimeBucket.getMinuteTimeBucket(repairedUntil);
+        receivingBroadcast = !CoreModuleConfig.Role.Receiver.name().equalsIgnoreCase(role);
+        if (receivingBroadcast) {
+            repairExecutor = Executors.newSingleThreadScheduledExecutor();
+            repairExecutor.scheduleAtFixedRate(
+                new RunnableWithExceptionProtection(() -> repair(moduleDefineHolder), t -> log.error(
+                    "Repair topology index failure.", t)), 1, 1, TimeUnit.MINUTES);
+        }
+        this.enabled = true;
+        log.info("Topology index enabled, window: {} minutes, receiving broadcast: {}.", window, receivingBroadcast);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add the service relation detected by this node, and broadcast it if it is new in the time bucket.
+     *
+     * @param timeBucket  in minute
+     * @param componentId of the relation
+     */
+    public void record(DetectPoint detectPoint, long timeBucket, String entityId,
+                       String sourceServiceId, String destServiceId, int componentId) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, TopologyEdge> edges = edgesOf(timeBucket, detectPoint);
+        if (edges == null || edges.containsKey(entityId)) {
+            return;
+        }
+
+        TopologyEdge edge = new TopologyEdge();
+        edge.setDetectPoint(detectPoint);
+        edge.setTimeBucket(timeBucket);
+        edge.setEntityId(entityId);
+        edge.setSourceServiceId(sourceServiceId);
+        edge.setDestServiceId(destServiceId);
+        edge.setComponentId(componentId);
+        if (edges.putIfAbsent(entityId, edge) != null) {
+            return;
+        }
+
+        try {
+            remoteSender.send(SYNC_WORKER_NAME, edge, Selector.Broadcast);
+            syncOutCounter.inc();
+        } catch (Throwable t) {
+            log.error("Broadcast topology relation failure.", t);
+        }
+    }
+
+    /**
+     * @return true if all minutes of the given time range are in the index, always false on a Receiver node.
+     */
+    public boolean covers(long startTB, long endTB) {
+        if (!enabled || !receivingBroadcast) {
+            return false;
+        }
+        long start = toMinuteTimeBucket(startTB, false);
+        return start >= coveredSince && start >= oldestTimeBucket() && start <= toMinuteTimeBucket(endTB, true);
+    }
+
+    /**
+     * @param serviceIds the source or dest service of the relations, null means all relations.
+     */
+    public List<Call.CallDetail> loadServiceRelations(DetectPoint detectPoint, long startTB, long endTB,
+                                                      List<String> serviceIds) {
+        Set<String> serviceIdSet = serviceIds == null ? null : new HashSet<>(serviceIds);
+        List<Call.CallDetail> calls = new ArrayList<>();
+        for (TopologyEdge edge : load(detectPoint, startTB, endTB)) {
+            if (serviceIdSet == null
+                || serviceIdSet.contains(edge.getSourceServiceId())
+                || serviceIdSet.contains(edge.getDestServiceId())) {
+                Call.CallDetail call = new Call.CallDetail();
+                call.buildFromServiceRelation(edge.getEntityId(), edge.getComponentId(), detectPoint);
+                calls.add(call);
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * @return the distinct relations in the time range, the first one of every relation wins.
+     */
+    private Iterable<TopologyEdge> load(DetectPoint detectPoint, long startTB, long endTB) {
+        ConcurrentNavigableMap<Long, Bucket> range = buckets.subMap(
+            toMinuteTimeBucket(startTB, false), true, toMinuteTimeBucket(endTB, true), true);
+        Map<String, TopologyEdge> distinct = new LinkedHashMap<>();
+        for (Bucket bucket : range.values()) {
+            for (TopologyEdge edge : bucket.edges(detectPoint).values()) {
+                distinct.putIfAbsent(edge.getEntityId(), edge);
+            }
+        }
+        return distinct.values();
+    }
+
+    /**
+     * Add the relation broadcast by any node, or loaded from the storage.
+     *
+     * @return true if the relation is new in the index.
+     */
+    boolean load(TopologyEdge edge) {
+        Map<String, TopologyEdge> edges = edgesOf(edge.getTimeBucket(), edge.getDetectPoint());
+        return edges != null && edges.putIfAbsent(edge.getEntityId(), edge) == null;
+    }
+
+    private void repair(ModuleDefineHolder moduleDefineHolder) {
+        ITopologyQueryDAO topologyQueryDAO = moduleDefineHolder.find(StorageModule.NAME)
+                                                               .provider()
+                                                               .getService(ITopologyQueryDAO.class);
+        try {
+            repair(topologyQueryDAO, System.currentTimeMillis());
+        } catch (IOException e) {
+            log.error("Load topology relations from the storage failure, repair again in the next minute.", e);
+        }
+    }
+
+    /**
+     * Load the relations of every minute persisted since the last time from the storage, and add the ones missed by the
+     * index.
+     *
+     * @param now in milliseconds, the minutes before {@link #REPAIR_DELAY} are repaired.
+     */
+    synchronized void repair(ITopologyQueryDAO topologyQueryDAO, long now) throws IOException {
+        final long until = now - REPAIR_DELAY;
+        for (; repairedUntil <= until; repairedUntil += TimeUnit.MINUTES.toMillis(1)) {
+            long timeBucket = TimeBucket.getMinuteTimeBucket(repairedUntil);
+            if (timeBucket < oldestTimeBucket(now)) {
+                continue;
+            }
+            for (DetectPoint detectPoint : new DetectPoint[] {DetectPoint.SERVER, DetectPoint.CLIENT}) {
+                List<Call.CallDetail> calls = DetectPoint.SERVER.equals(detectPoint)
+                    ? topologyQueryDAO.loadServiceRelationsDetectedAtServerSide(timeBucket, timeBucket)
+                    : topologyQueryDAO.loadServiceRelationDetectedAtClientSide(timeBucket, timeBucket);
+                for (Call.CallDetail call : calls) {
+                    repair(detectPoint, timeBucket, call);
+                }
+            }
+        }
+    }
+
+    private void repair(DetectPoint detectPoint, long timeBucket, Call.CallDetail call) {
+        TopologyEdge edge = new TopologyEdge();
+        edge.setDetectPoint(detectPoint);
+        edge.setTimeBucket(timeBucket);
+        edge.setEntityId(call.getId());
+        edge.setSourceServiceId(call.getSource());
+        edge.setDestServiceId(call.getTarget());
+        edge.setComponentId(call.getComponentId() == null ? 0 : call.getComponentId());
+        if (load(edge)) {
+            repairedCounter.inc();
+        }
+    }
+
+    /**
+     * @return the relations of the time bucket, or null if the time bucket is out of the window.
+     */
+    private Map<String, TopologyEdge> edgesOf(long timeBucket, DetectPoint detectPoint) {
+        long now = System.currentTimeMillis();
+        if (timeBucket < oldestTimeBucket(now)
+            || timeBucket > TimeBucket.getMinuteTimeBucket(now + windowMillis)) {
+            return null;
+        }
+        Bucket bucket = buckets.get(timeBucket);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(timeBucket, key -> new Bucket());
+            // the new time bucket comes every minute, remove the expired ones along with it
+            buckets.headMap(oldestTimeBucket(now)).clear();
+        }
+        return bucket.edges(detectPoint);
+    }
+
+    private long oldestTimeBucket() {
+        return oldestTimeBucket(System.currentTimeMillis());
+    }
+
+    private long oldestTimeBucket(long now) {
+        return TimeBucket.getMinuteTimeBucket(now - windowMillis);
+    }
+
+    /**
+     * Convert the time bucket of the query in any step to minute.
+     *
+     * @param end true if the time bucket is the end of the range, which includes all minutes in it.
+     */
+    private static long toMinuteTimeBucket(long timeBucket, boolean end) {
+        if (TimeBucket.isSecondBucket(timeBucket)) {
+            return timeBucket / 100;
+        } else if (TimeBucket.isHourBucket(timeBucket)) {
+            return timeBucket * 100 + (end ? 59 : 0);
+        } else if (TimeBucket.isDayBucket(timeBucket)) {
+            return timeBucket * 10000 + (end ? 2359 : 0);
+        }
+        return timeBucket;
+    }
+
+    private static class Bucket {
+        private final Map<String, TopologyEdge> serverSide = new ConcurrentHashMap<>();
+        private final Map<String, TopologyEdge> clientSide = new ConcurrentHashMap<>();
+
+        private Map<String, TopologyEdge> edges(DetectPoint detectPoint) {
+            return DetectPoint.SERVER.equals(detectPoint) ? serverSide : clientSide;
+        }
+    }
+
+    private class SyncWorker extends AbstractWorker<TopologyEdge> {
+        private SyncWorker(ModuleDefineHolder moduleDefineHolder) {
+            super(moduleDefineHolder);
+        }
+
+        @Override
+        public void in(TopologyEdge edge) {
+            load(edge);
+            syncInCounter.inc();
+        }
+    }
+}
@@ -19,7 +19,9 @@
 package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
 
 import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.TopologyIndex;
 import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
 import org.apache.skywalking.oap.server.core.source.ServiceRelation;
 
 public class ServiceCallRelationDispatcher implements SourceDispatcher<ServiceRelation> {
@@ -44,6 +46,10 @@ public class ServiceCallRelationDispatcher implements SourceDispatcher<ServiceRe
         metrics.setComponentId(source.getComponentId());
         metrics.setEntityId(source.getEntityId());
         MetricsStreamProcessor.getInstance().in(metrics);
+        TopologyIndex.INSTANCE.record(
+            DetectPoint.SERVER, metrics.getTimeBucket(), metrics.getEntityId(), metrics.getSourceServiceId(),
+            metrics.getDestServiceId(), metrics.getComponentId()
+        );
     }
 
     private void clientSide(ServiceRelation source) {
@@ -54,5 +60,9 @@ public class ServiceCallRelationDispatcher implements SourceDispatcher<ServiceRe
         metrics.setComponentId(source.getComponentId());
         metrics.setEntityId(source.getEntityId());
         MetricsStreamProcessor.getInstance().in(metrics);
+        TopologyIndex.INSTANCE.record(
+            DetectPoint.CLIENT, metrics.getTimeBucket(), metrics.getEntityId(), metrics.getSourceServiceId(),
+            metrics.getDestServiceId(), metrics.getComponentId()
+        );
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+
+/**
+ * The storage formats of the {@link SegmentRecord#getDataBinary()}, the serialized {@link SegmentObject}, or the GZIP
+ * compressed one.
+ * <p>
+ * The formats are told apart by the GZIP magic number, which can't be the head of a serialized {@link SegmentObject},
+ * as 0x1f is the tag of an invalid wire type. So the records stored before and after the compression is enabled or
+ * disabled are all readable.
+ */
+public final class SegmentDataBinary {
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+
+    private SegmentDataBinary() {
+    }
+
+    /**
+     * @param dataBinary the serialized {@link SegmentObject}.
+     * @return the GZIP compressed data.
+     */
+    public static byte[] compress(byte[] dataBinary) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(dataBinary.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(dataBinary);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @param dataBinary the stored data of the segment, in any format.
+     * @return the segment.
+     */
+    public static SegmentObject parse(byte[] dataBinary) throws IOException {
+        if (!isCompressed(dataBinary)) {
+            return SegmentObject.parseFrom(dataBinary);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(dataBinary))) {
+            return SegmentObject.parseFrom(in);
+        }
+    }
+
+    static boolean isCompressed(byte[] dataBinary) {
+        return dataBinary.length > 2
+            && (dataBinary[0] & 0xff) == GZIP_MAGIC_FIRST
+            && (dataBinary[1] & 0xff) == GZIP_MAGIC_SECOND;
+    }
+}
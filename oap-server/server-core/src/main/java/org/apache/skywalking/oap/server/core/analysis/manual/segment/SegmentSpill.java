@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * SegmentSpill writes the segments buffered by the {@link TraceTailSampler} beyond its memory bound into the files of
+ * the spill directory, and reads them back once their traces are kept. A file is deleted once all the segments in it
+ * are released, and a new file is started once the active one reaches {@link #maxFileSize}. Not thread safe, used in
+ * the lock of the sampler, except {@link #read(Position)}, which is called out of the lock for the segments not
+ * released yet.
+ */
+@Slf4j
+class SegmentSpill {
+    private static final String FILE_PREFIX = "segment-";
+    private static final String FILE_SUFFIX = ".spill";
+
+    private final File directory;
+    private final long maxSize;
+    private final long maxFileSize;
+    /**
+     * The files not deleted yet, the active one included.
+     */
+    private final Set<SpillFile> files = new HashSet<>();
+    private SpillFile activeFile;
+    private long size;
+    private long fileSequence;
+
+    /**
+     * @param maxSize the max size of all the spill files, in bytes.
+     */
+    SegmentSpill(File directory, long maxSize) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create the spill directory " + directory.getAbsolutePath());
+        }
+        File[] staleFiles = directory.listFiles(
+            (dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                if (!staleFile.delete()) {
+                    log.warn("Can't delete the stale spill file {}", staleFile.getAbsolutePath());
+                }
+            }
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.maxFileSize = Math.max(maxSize / 8, 1);
+    }
+
+    boolean isFull() {
+        return size >= maxSize;
+    }
+
+    /**
+     * @return the size of all the spill files, in bytes.
+     */
+    long size() {
+        return size;
+    }
+
+    Position write(SegmentRecord record) throws IOException {
+        byte[] data = new SegmentStreamData(record).serialize().build().toByteArray();
+        if (activeFile == null || activeFile.size >= maxFileSize) {
+            activeFile = new SpillFile(new File(directory, FILE_PREFIX + fileSequence++ + FILE_SUFFIX));
+            files.add(activeFile);
+        }
+        Position position = activeFile.append(data);
+        size += data.length;
+        return position;
+    }
+
+    /**
+     * Read the segment, safe to run concurrently with the other methods, as long as the segment isn't released.
+     */
+    SegmentRecord read(Position position) throws IOException {
+        SegmentStreamData streamData = new SegmentStreamData();
+        streamData.deserialize(RemoteData.parseFrom(position.file.read(position.offset, position.length)));
+        return streamData.getRecord();
+    }
+
+    /**
+     * Release the segment, which is read or dropped. The file is removed, or reset if it is the active one, once all
+     * the segments in it are released.
+     */
+    void release(Position position) {
+        SpillFile file = position.file;
+        if (!files.contains(file)) {
+            // deleted by the close already
+            return;
+        }
+        if (--file.pending > 0) {
+            return;
+        }
+        size -= file.size;
+        try {
+            if (file == activeFile) {
+                file.reset();
+            } else {
+                files.remove(file);
+                file.delete();
+            }
+        } catch (IOException e) {
+            log.error("Release the spill file " + file.file.getAbsolutePath() + " failure.", e);
+        }
+    }
+
+    /**
+     * Close and delete all the files, the segments in them are lost.
+     */
+    void close() {
+        for (SpillFile file : files) {
+            try {
+                file.delete();
+            } catch (IOException e) {
+                log.error("Close the spill file " + file.file.getAbsolutePath() + " failure.", e);
+            }
+        }
+        files.clear();
+        activeFile = null;
+        size = 0;
+    }
+
+    static class Position {
+        private final SpillFile file;
+        private final long offset;
+        private final int length;
+
+        private Position(SpillFile file, long offset, int length) {
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private static class SpillFile {
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        /**
+         * The number of the segments in this file not released yet.
+         */
+        private int pending;
+
+        private SpillFile(File file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(
+                file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        private Position append(byte[] data) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+            Position position = new Position(this, size, data.length);
+            size += data.length;
+            pending++;
+            return position;
+        }
+
+        /**
+         * Read in the given position, rather than the position of the channel, so it doesn't interfere with the
+         * appending.
+         */
+        private byte[] read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("The spilled segment is truncated.");
+                }
+            }
+            return buffer.array();
+        }
+
+        private void reset() throws IOException {
+            channel.truncate(0);
+            size = 0;
+        }
+
+        private void delete() throws IOException {
+            channel.close();
+            if (!file.delete()) {
+                throw new IOException("Can't delete the file.");
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import com.google.common.base.Strings;
+import com.google.protobuf.ByteString;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+
+/**
+ * SegmentStreamData carries the {@link SegmentRecord} to the OAP node sampling its trace, and to the spill files of
+ * the {@link TraceTailSampler}. The segments of one trace are routed to the same node by the trace ID.
+ */
+public class SegmentStreamData extends StreamData {
+    @Getter
+    private SegmentRecord record;
+
+    public SegmentStreamData() {
+        this.record = new SegmentRecord();
+    }
+
+    public SegmentStreamData(SegmentRecord record) {
+        this.record = record;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return record.getTraceId().hashCode();
+    }
+
+    @Override
+    public void deserialize(final RemoteData remoteData) {
+        record.setSegmentId(remoteData.getDataStrings(0));
+        record.setTraceId(remoteData.getDataStrings(1));
+        record.setServiceId(remoteData.getDataStrings(2));
+        record.setServiceInstanceId(remoteData.getDataStrings(3));
+        record.setEndpointName(remoteData.getDataStrings(4));
+        record.setEndpointId(remoteData.getDataStrings(5));
+        record.setDataBinary(remoteData.getDataBinary().toByteArray());
+
+        record.setStartTime(remoteData.getDataLongs(0));
+        record.setEndTime(remoteData.getDataLongs(1));
+        record.setTimeBucket(remoteData.getDataLongs(2));
+
+        record.setLatency(remoteData.getDataIntegers(0));
+        record.setIsError(remoteData.getDataIntegers(1));
+        record.setVersion(remoteData.getDataIntegers(2));
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        final RemoteData.Builder builder = RemoteData.newBuilder();
+        builder.addDataStrings(record.getSegmentId());
+        builder.addDataStrings(record.getTraceId());
+        builder.addDataStrings(Strings.nullToEmpty(record.getServiceId()));
+        builder.addDataStrings(Strings.nullToEmpty(record.getServiceInstanceId()));
+        builder.addDataStrings(Strings.nullToEmpty(record.getEndpointName()));
+        builder.addDataStrings(Strings.nullToEmpty(record.getEndpointId()));
+        byte[] dataBinary = record.getDataBinary();
+        if (CollectionUtils.isNotEmpty(dataBinary)) {
+            builder.setDataBinary(ByteString.copyFrom(dataBinary));
+        }
+
+        builder.addDataLongs(record.getStartTime());
+        builder.addDataLongs(record.getEndTime());
+        builder.addDataLongs(record.getTimeBucket());
+
+        builder.addDataIntegers(record.getLatency());
+        builder.addDataIntegers(record.getIsError());
+        builder.addDataIntegers(record.getVersion());
+        return builder;
+    }
+}
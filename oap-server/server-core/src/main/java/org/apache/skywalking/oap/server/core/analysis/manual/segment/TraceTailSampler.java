@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.library.util.BooleanUtils;
+
+/**
+ * TraceTailSampler buffers the segments of every trace for the sampling window since its first segment arrives, then
+ * keeps or drops the whole trace. A trace is kept, if
+ * <ul>
+ * <li>any segment of it is in error.</li>
+ * <li>the duration from the earliest start to the latest end of its segments reaches the latency threshold.</li>
+ * <li>any endpoint of it is in at most the rare endpoint threshold of traces in the current minute, counting this
+ * trace.</li>
+ * <li>its trace ID is in the baseline rate.</li>
+ * </ul>
+ * The segments arriving after the decision follow it, as the decisions are remembered for another window.
+ * <p>
+ * The endpoints are counted in every OAP node. The traces are routed by the trace ID, so the traces of one endpoint
+ * spread over the nodes, and the cluster keeps up to the threshold times the number of the nodes of them every minute.
+ * <p>
+ * The segments beyond the max buffer size are spilled into the {@link SegmentSpill}. Once the spill is disabled or
+ * full, the oldest traces are decided before their windows end, to keep the buffer in the bound. The decisions beyond
+ * the max decisions are forgotten from the oldest, the late segments of their traces are buffered as new traces.
+ */
+@Slf4j
+public class TraceTailSampler {
+    /**
+     * The estimated memory size of one buffered segment, besides the data binary.
+     */
+    private static final int SEGMENT_OVERHEAD = 512;
+
+    private final long window;
+    private final boolean keepError;
+    private final int latencyThreshold;
+    private final int rareEndpointTraces;
+    private final int baselineRate;
+    private final long maxBufferSize;
+    private final int maxDecisions;
+    private final SegmentSpill spill;
+
+    /**
+     * The buffered traces, in the order of their first segments arriving.
+     */
+    private final LinkedHashMap<String, BufferedTrace> traces = new LinkedHashMap<>();
+    /**
+     * The recent decisions, in the order of being made.
+     */
+    private final LinkedHashMap<String, Decision> decisions = new LinkedHashMap<>();
+    /**
+     * The number of the traces of every endpoint in the {@link #endpointMinute}.
+     */
+    private final Map<String, Integer> endpointTraces = new HashMap<>();
+    private long endpointMinute;
+    private long bufferSize;
+
+    public TraceTailSampler(CoreModuleConfig config) throws IOException {
+        this(
+            config.getTraceTailSamplingWindow() * 1000L,
+            config.isTraceTailSamplingKeepError(),
+            config.getTraceTailSamplingLatencyThreshold(),
+            config.getTraceTailSamplingRareEndpointTraces(),
+            config.getTraceTailSamplingBaselineRate(),
+            config.getTraceTailSamplingMaxBufferSize() * 1024L * 1024L,
+            config.getTraceTailSamplingMaxDecisions(),
+            StringUtil.isEmpty(config.getTraceTailSamplingSpillPath()) ? null : new SegmentSpill(
+                new File(config.getTraceTailSamplingSpillPath()),
+                config.getTraceTailSamplingMaxSpillSize() * 1024L * 1024L
+            )
+        );
+    }
+
+    /**
+     * @param window           the time of buffering a trace, in milliseconds.
+     * @param latencyThreshold the min duration of the traces kept by latency, in milliseconds. 0 means disabled.
+     * @param maxBufferSize    the max size of the segments buffered in memory, in bytes.
+     * @param maxDecisions     the max number of the decisions remembered.
+     * @param spill            spills the segments beyond the max buffer size, null means disabled.
+     */
+    TraceTailSampler(long window, boolean keepError, int latencyThreshold, int rareEndpointTraces, int baselineRate,
+                     long maxBufferSize, int maxDecisions, SegmentSpill spill) {
+        this.window = window;
+        this.keepError = keepError;
+        this.latencyThreshold = latencyThreshold;
+        this.rareEndpointTraces = rareEndpointTraces;
+        this.baselineRate = baselineRate;
+        this.maxBufferSize = maxBufferSize;
+        this.maxDecisions = maxDecisions;
+        this.spill = spill;
+    }
+
+    /**
+     * Buffer the segment, or follow the decision of its trace if made.
+     *
+     * @param kept collects the segments of the kept traces, to be persisted.
+     * @return the number of the segments dropped.
+     */
+    public int add(SegmentRecord record, long now, List<SegmentRecord> kept) {
+        List<SegmentSpill.Position> spilled = new ArrayList<>(0);
+        int dropped;
+        synchronized (this) {
+            dropped = buffer(record, now, kept, spilled);
+        }
+        return dropped + readSpilled(spilled, kept);
+    }
+
+    private int buffer(SegmentRecord record, long now, List<SegmentRecord> kept,
+                       List<SegmentSpill.Position> spilled) {
+        Decision decision = decisions.get(record.getTraceId());
+        if (decision != null) {
+            if (decision.kept) {
+                kept.add(record);
+                return 0;
+            }
+            return 1;
+        }
+
+        BufferedTrace trace = traces.get(record.getTraceId());
+        if (trace == null) {
+            trace = new BufferedTrace(record.getTraceId(), now);
+            traces.put(record.getTraceId(), trace);
+        }
+        trace.merge(record);
+
+        long segmentSize = SEGMENT_OVERHEAD + (record.getDataBinary() == null ? 0 : record.getDataBinary().length);
+        if (bufferSize + segmentSize > maxBufferSize && spill != null && !spill.isFull()) {
+            try {
+                trace.spilled.add(spill.write(record));
+                return 0;
+            } catch (IOException e) {
+                log.error("Spill the segment " + record.getSegmentId() + " failure, keep it in memory.", e);
+            }
+        }
+        trace.segments.add(record);
+        trace.size += segmentSize;
+        bufferSize += segmentSize;
+
+        int dropped = 0;
+        Iterator<BufferedTrace> oldest = traces.values().iterator();
+        while (bufferSize > maxBufferSize && oldest.hasNext()) {
+            BufferedTrace oldestTrace = oldest.next();
+            oldest.remove();
+            dropped += decide(oldestTrace, now, kept, spilled);
+        }
+        return dropped;
+    }
+
+    /**
+     * Decide the traces of which the window ends, and forget the decisions made one window ago.
+     *
+     * @param kept collects the segments of the kept traces, to be persisted.
+     * @return the number of the segments dropped.
+     */
+    public int expire(long now, List<SegmentRecord> kept) {
+        List<SegmentSpill.Position> spilled = new ArrayList<>();
+        int dropped = 0;
+        synchronized (this) {
+            Iterator<BufferedTrace> iterator = traces.values().iterator();
+            while (iterator.hasNext()) {
+                BufferedTrace trace = iterator.next();
+                if (now - trace.arrival < window) {
+                    break;
+                }
+                iterator.remove();
+                dropped += decide(trace, now, kept, spilled);
+            }
+
+            Iterator<Decision> decisionIterator = decisions.values().iterator();
+            while (decisionIterator.hasNext() && now - decisionIterator.next().time >= window) {
+                decisionIterator.remove();
+            }
+        }
+        return dropped + readSpilled(spilled, kept);
+    }
+
+    /**
+     * @return the estimated size of the segments buffered in memory, in bytes.
+     */
+    public synchronized long getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return the number of the decisions remembered.
+     */
+    public synchronized int getDecisionSize() {
+        return decisions.size();
+    }
+
+    /**
+     * Close the spill, the segments buffered are lost.
+     */
+    public synchronized void close() {
+        if (spill != null) {
+            spill.close();
+        }
+    }
+
+    /**
+     * @return the size of the spilled segments, in bytes.
+     */
+    public synchronized long getSpillSize() {
+        return spill == null ? 0 : spill.size();
+    }
+
+    /**
+     * @param spilled collects the spilled segments of the kept trace, read out of the lock by {@link
+     *                #readSpilled(List, List)}.
+     */
+    private int decide(BufferedTrace trace, long now, List<SegmentRecord> kept, List<SegmentSpill.Position> spilled) {
+        boolean keep = shouldKeep(trace, now);
+        decisions.put(trace.traceId, new Decision(keep, now));
+        if (decisions.size() > maxDecisions) {
+            Iterator<Decision> eldest = decisions.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        bufferSize -= trace.size;
+
+        int dropped = 0;
+        if (keep) {
+            kept.addAll(trace.segments);
+        } else {
+            dropped += trace.segments.size();
+        }
+        if (keep) {
+            spilled.addAll(trace.spilled);
+        } else {
+            for (SegmentSpill.Position position : trace.spilled) {
+                spill.release(position);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Read the spilled segments of the kept traces out of the lock, so the other segments are not blocked by the disk,
+     * then release them.
+     *
+     * @return the number of the segments failing to be read, which are dropped.
+     */
+    private int readSpilled(List<SegmentSpill.Position> spilled, List<SegmentRecord> kept) {
+        if (spilled.isEmpty()) {
+            return 0;
+        }
+        int dropped = 0;
+        for (SegmentSpill.Position position : spilled) {
+            try {
+                kept.add(spill.read(position));
+            } catch (IOException e) {
+                log.error("Read the spilled segment failure.", e);
+                dropped++;
+            }
+        }
+        synchronized (this) {
+            spilled.forEach(spill::release);
+        }
+        return dropped;
+    }
+
+    private boolean shouldKeep(BufferedTrace trace, long now) {
+        // Count the endpoints of every trace, the kept by other rules included.
+        boolean rareEndpoint = countEndpoints(trace, now);
+        if (keepError && trace.error) {
+            return true;
+        }
+        if (latencyThreshold > 0 && trace.endTime - trace.startTime >= latencyThreshold) {
+            return true;
+        }
+        if (rareEndpoint) {
+            return true;
+        }
+        return Math.abs(trace.traceId.hashCode() % 10000) < baselineRate;
+    }
+
+    /**
+     * @return true if any endpoint of the trace is rare, in at most {@link #rareEndpointTraces} traces in the current
+     * minute of this node, counting this trace.
+     */
+    private boolean countEndpoints(BufferedTrace trace, long now) {
+        if (rareEndpointTraces <= 0) {
+            return false;
+        }
+        long minute = now / 60000;
+        if (minute != endpointMinute) {
+            endpointTraces.clear();
+            endpointMinute = minute;
+        }
+        boolean rare = false;
+        for (String endpointId : trace.endpointIds) {
+            if (endpointTraces.merge(endpointId, 1, Integer::sum) <= rareEndpointTraces) {
+                rare = true;
+            }
+        }
+        return rare;
+    }
+
+    private static class BufferedTrace {
+        private final String traceId;
+        private final long arrival;
+        private final List<SegmentRecord> segments = new ArrayList<>(4);
+        private final List<SegmentSpill.Position> spilled = new ArrayList<>(0);
+        private final Set<String> endpointIds = new HashSet<>(4);
+        private long startTime = Long.MAX_VALUE;
+        private long endTime;
+        private boolean error;
+        /**
+         * The estimated size of the {@link #segments} in memory.
+         */
+        private long size;
+
+        private BufferedTrace(String traceId, long arrival) {
+            this.traceId = traceId;
+            this.arrival = arrival;
+        }
+
+        private void merge(SegmentRecord record) {
+            startTime = Math.min(startTime, record.getStartTime());
+            endTime = Math.max(endTime, record.getEndTime());
+            error = error || BooleanUtils.valueToBoolean(record.getIsError());
+            if (StringUtil.isNotEmpty(record.getEndpointId())) {
+                endpointIds.add(record.getEndpointId());
+            }
+        }
+    }
+
+    private static class Decision {
+        private final boolean kept;
+        private final long time;
+
+        private Decision(boolean kept, long time) {
+            this.kept = kept;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+
+/**
+ * TopNSketch is the ranking summary of one metrics in one time bucket. Every OAP node tracks the entities of the
+ * highest and the lowest values it persisted, and reports them as a {@link NodeSketch}. The sketch keeps the latest
+ * report of every node, as the entities are routed to the nodes by their IDs, the reports together cover all of them
+ * once every node has reported, see {@link #isComplete()}.
+ */
+public class TopNSketch {
+    private final Map<String, NodeSketch> nodeSketches = new HashMap<>();
+
+    public Collection<NodeSketch> getNodeSketches() {
+        return nodeSketches.values();
+    }
+
+    /**
+     * Keep the given report, unless there is a later one of the same node.
+     */
+    public void add(NodeSketch sketch) {
+        NodeSketch existed = nodeSketches.get(sketch.getNodeId());
+        if (existed == null || existed.getTime() <= sketch.getTime()) {
+            nodeSketches.put(sketch.getNodeId(), sketch);
+        }
+    }
+
+    /**
+     * @return true if every node of the cluster, as seen by the reporting nodes, has reported. A node restarted with a
+     * new node ID is counted once, by its address. A node without any entity of the time bucket never reports, so the
+     * sketch is incomplete then.
+     */
+    public boolean isComplete() {
+        Set<String> addresses = new HashSet<>();
+        int clusterSize = 0;
+        for (NodeSketch sketch : nodeSketches.values()) {
+            addresses.add(sketch.getAddress());
+            clusterSize = Math.max(clusterSize, sketch.getClusterSize());
+        }
+        return !addresses.isEmpty() && addresses.size() >= clusterSize;
+    }
+
+    public void combine(TopNSketch sketch) {
+        sketch.getNodeSketches().forEach(this::add);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(nodeSketches.size());
+            for (NodeSketch sketch : nodeSketches.values()) {
+                output.writeUTF(sketch.getNodeId());
+                output.writeUTF(sketch.getAddress());
+                output.writeInt(sketch.getClusterSize());
+                output.writeLong(sketch.getTime());
+                writeSide(output, sketch.getHighest());
+                writeSide(output, sketch.getLowest());
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static TopNSketch fromBytes(byte[] bytes) {
+        TopNSketch sketch = new TopNSketch();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                String nodeId = input.readUTF();
+                String address = input.readUTF();
+                int clusterSize = input.readInt();
+                long time = input.readLong();
+                sketch.add(new NodeSketch(nodeId, address, clusterSize, time, readSide(input), readSide(input)));
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException("Broken top n sketch, " + e.getMessage(), e);
+        }
+        return sketch;
+    }
+
+    private static void writeSide(DataOutputStream output, Side side) throws IOException {
+        output.writeBoolean(side.isComplete());
+        output.writeDouble(side.getBound());
+        output.writeInt(side.getValues().size());
+        for (Map.Entry<String, Double> entry : side.getValues().entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeDouble(entry.getValue());
+        }
+    }
+
+    private static Side readSide(DataInputStream input) throws IOException {
+        boolean complete = input.readBoolean();
+        double bound = input.readDouble();
+        int size = input.readInt();
+        Map<String, Double> values = new HashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            values.put(input.readUTF(), input.readDouble());
+        }
+        return new Side(values, complete, bound);
+    }
+
+    /**
+     * The report of one OAP node, identified by the node ID generated at startup.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class NodeSketch {
+        private final String nodeId;
+        /**
+         * The address of the node in the cluster, which is kept after restarting.
+         */
+        private final String address;
+        /**
+         * The number of the nodes persisting the metrics in the cluster, when the node reported.
+         */
+        private final int clusterSize;
+        /**
+         * The time of the report, in milliseconds.
+         */
+        private final long time;
+        private final Side highest;
+        private final Side lowest;
+    }
+
+    /**
+     * The tracked entities of the highest or the lowest values in one node.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Side {
+        /**
+         * Entity ID to the value.
+         */
+        private final Map<String, Double> values;
+        /**
+         * True if no entity has been dropped, then all entities of the node are in the {@link #values}.
+         */
+        private final boolean complete;
+        /**
+         * The highest(in the highest side) or the lowest(in the lowest side) value of the dropped entities. Every
+         * entity not in the {@link #values} doesn't go beyond it. Meaningless if {@link #complete}.
+         */
+        private final double bound;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DoubleValueHolder;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntValueHolder;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+
+/**
+ * TopNSketchCollector tracks the entities of the highest and the lowest values of one metrics in the recent time
+ * buckets, as they are persisted by this OAP node. At most {@link #capacity} entities are tracked in every side of
+ * every bucket, the weakest one is dropped and its value goes into the bound of the side.
+ * <p>
+ * The changed buckets are reported as {@link TopNSketchMetrics} after every persistence, and merged with the reports of
+ * the other nodes. Every report carries the address of this node and the size of the cluster it sees, so the query
+ * could tell whether all nodes have reported. The metrics persisted after the bucket is out of the retention invalidate
+ * the sketch of the bucket, rather than restarting it from empty.
+ * <p>
+ * Not thread safe, it is accessed by the persistence timer only.
+ */
+public class TopNSketchCollector {
+    /**
+     * Every startup is a new node, so the reports before the restart are kept.
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString().replace("-", "");
+
+    private final String metricName;
+    private final DownSampling downsampling;
+    private final int capacity;
+    private final long retention;
+    private final Supplier<List<Address>> clusterNodes;
+    private final Consumer<TopNSketchMetrics> reporter;
+    private final Map<Long, BucketSketch> buckets = new HashMap<>();
+    private final Set<Long> changedBuckets = new HashSet<>();
+    /**
+     * The time bucket before the retention, updated in every report.
+     */
+    private long expiredTimeBucket = 0L;
+    /**
+     * False if the metrics has no single value, which couldn't be sorted.
+     */
+    private boolean supported = true;
+
+    /**
+     * @param clusterNodes the addresses of the nodes persisting the metrics, including this one.
+     */
+    public TopNSketchCollector(String metricName, DownSampling downsampling, int capacity,
+                               Supplier<List<Address>> clusterNodes, Consumer<TopNSketchMetrics> reporter) {
+        this.metricName = metricName;
+        this.downsampling = downsampling;
+        this.capacity = capacity;
+        this.clusterNodes = clusterNodes;
+        this.reporter = reporter;
+        switch (downsampling) {
+            case Hour:
+                this.retention = 2 * 60 * 60 * 1000L;
+                break;
+            case Day:
+                this.retention = 2 * 24 * 60 * 60 * 1000L;
+                break;
+            default:
+                this.retention = 10 * 60 * 1000L;
+        }
+    }
+
+    /**
+     * Track the final value of the persisted metrics.
+     */
+    public void collect(Metrics metrics) {
+        if (!supported) {
+            return;
+        }
+        double value;
+        if (metrics instanceof LongValueHolder) {
+            value = ((LongValueHolder) metrics).getValue();
+        } else if (metrics instanceof IntValueHolder) {
+            value = ((IntValueHolder) metrics).getValue();
+        } else if (metrics instanceof DoubleValueHolder) {
+            value = ((DoubleValueHolder) metrics).getValue();
+        } else {
+            supported = false;
+            buckets.clear();
+            changedBuckets.clear();
+            return;
+        }
+        if (!(metrics instanceof WithMetadata)) {
+            return;
+        }
+        String entityId = ((WithMetadata) metrics).getMeta().getId();
+
+        long timeBucket = metrics.getTimeBucket();
+        BucketSketch bucket = buckets.get(timeBucket);
+        if (bucket == null) {
+            bucket = new BucketSketch(capacity);
+            if (timeBucket <= expiredTimeBucket) {
+                bucket.invalidate();
+            }
+            buckets.put(timeBucket, bucket);
+        }
+        bucket.update(entityId, value);
+        changedBuckets.add(timeBucket);
+    }
+
+    /**
+     * Report the changed buckets, and evict the ones out of the retention.
+     */
+    public void report(long now) {
+        String address = NODE_ID;
+        int clusterSize = 1;
+        if (!changedBuckets.isEmpty()) {
+            List<Address> nodes = clusterNodes.get();
+            for (Address node : nodes) {
+                if (node.isSelf()) {
+                    address = node.toString();
+                }
+            }
+            clusterSize = Math.max(clusterSize, nodes.size());
+        }
+        for (Long timeBucket : changedBuckets) {
+            TopNSketch sketch = new TopNSketch();
+            sketch.add(buckets.get(timeBucket).snapshot(NODE_ID, address, clusterSize, now));
+
+            TopNSketchMetrics metrics = new TopNSketchMetrics();
+            metrics.setMetricName(metricName);
+            metrics.setDownsampling(downsampling.getValue());
+            metrics.setSketchTimeBucket(timeBucket);
+            metrics.setTimeBucket(TimeBucket.getMinuteTimeBucket(TimeBucket.getTimestamp(timeBucket, downsampling)));
+            metrics.setSketch(sketch.toBytes());
+            reporter.accept(metrics);
+        }
+        changedBuckets.clear();
+
+        expiredTimeBucket = TimeBucket.getTimeBucket(now - retention, downsampling);
+        Iterator<Long> iterator = buckets.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() <= expiredTimeBucket) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class BucketSketch {
+        private final TrackedSide highest;
+        private final TrackedSide lowest;
+
+        private BucketSketch(int capacity) {
+            this.highest = new TrackedSide(capacity, true);
+            this.lowest = new TrackedSide(capacity, false);
+        }
+
+        private void update(String entityId, double value) {
+            highest.update(entityId, value);
+            lowest.update(entityId, value);
+        }
+
+        /**
+         * Nothing could be told about the bucket, as the previous values have been evicted.
+         */
+        private void invalidate() {
+            highest.drop(Double.POSITIVE_INFINITY);
+            lowest.drop(Double.NEGATIVE_INFINITY);
+        }
+
+        private TopNSketch.NodeSketch snapshot(String nodeId, String address, int clusterSize, long time) {
+            return new TopNSketch.NodeSketch(
+                nodeId, address, clusterSize, time, highest.snapshot(), lowest.snapshot());
+        }
+    }
+
+    /**
+     * Keep the entities of the highest values, or the lowest values if not {@link #highest}.
+     */
+    static class TrackedSide {
+        private final int capacity;
+        private final boolean highest;
+        private final Map<String, Double> values = new HashMap<>();
+        private boolean complete = true;
+        private double bound;
+        /**
+         * The entity of the value closest to be dropped, null if it should be found again.
+         */
+        private String weakest;
+
+        TrackedSide(int capacity, boolean highest) {
+            this.capacity = capacity;
+            this.highest = highest;
+        }
+
+        void update(String entityId, double value) {
+            if (values.containsKey(entityId) || values.size() < capacity) {
+                values.put(entityId, value);
+                weakest = null;
+                return;
+            }
+            if (weakest == null) {
+                findWeakest();
+            }
+            double weakestValue = values.get(weakest);
+            if (stronger(value, weakestValue)) {
+                values.remove(weakest);
+                values.put(entityId, value);
+                weakest = null;
+                drop(weakestValue);
+            } else {
+                drop(value);
+            }
+        }
+
+        private void findWeakest() {
+            for (Map.Entry<String, Double> entry : values.entrySet()) {
+                if (weakest == null || stronger(values.get(weakest), entry.getValue())) {
+                    weakest = entry.getKey();
+                }
+            }
+        }
+
+        private boolean stronger(double value, double than) {
+            return highest ? value > than : value < than;
+        }
+
+        void drop(double value) {
+            if (complete || stronger(value, bound)) {
+                bound = value;
+            }
+            complete = false;
+        }
+
+        TopNSketch.Side snapshot() {
+            return new TopNSketch.Side(new HashMap<>(values), complete, bound);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.MetricsExtension;
+import org.apache.skywalking.oap.server.core.analysis.Stream;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.source.ScopeDeclaration;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+
+import static org.apache.skywalking.oap.server.core.source.DefaultScopeDefine.TOP_N_SKETCH;
+
+/**
+ * The persisted {@link TopNSketch} of one metrics in one minute, hour or day bucket. The {@link #getTimeBucket()} is
+ * always in the minute format, the start minute of the {@link #sketchTimeBucket}, so all sketches expire by the same
+ * TTL rule.
+ */
+@ScopeDeclaration(id = TOP_N_SKETCH, name = "TopNSketch")
+@Stream(name = TopNSketchMetrics.INDEX_NAME, scopeId = TOP_N_SKETCH,
+    builder = TopNSketchMetrics.Builder.class, processor = MetricsStreamProcessor.class)
+@MetricsExtension(supportDownSampling = false, supportUpdate = true)
+@EqualsAndHashCode(of = {
+    "metricName",
+    "downsampling",
+    "timeBucket"
+})
+public class TopNSketchMetrics extends Metrics {
+    public static final String INDEX_NAME = "top_n_sketch";
+    public static final String METRIC_NAME = "metric_name";
+    public static final String DOWNSAMPLING = "downsampling";
+    public static final String SKETCH_TIME_BUCKET = "sketch_time_bucket";
+    public static final String SKETCH = "sketch";
+
+    @Setter
+    @Getter
+    @Column(columnName = METRIC_NAME)
+    private String metricName;
+    /**
+     * The value of the {@link org.apache.skywalking.oap.server.core.analysis.DownSampling} of the sketched metrics.
+     */
+    @Setter
+    @Getter
+    @Column(columnName = DOWNSAMPLING)
+    private int downsampling;
+    /**
+     * The time bucket of the sketched metrics, in the format of its downsampling.
+     */
+    @Setter
+    @Getter
+    @Column(columnName = SKETCH_TIME_BUCKET)
+    private long sketchTimeBucket;
+    /**
+     * The binary of the {@link TopNSketch}.
+     */
+    @Setter
+    @Getter
+    @Column(columnName = SKETCH, storageOnly = true)
+    private byte[] sketch = new byte[] {};
+
+    public static String buildId(long timeBucket, String metricName, int downsampling) {
+        return timeBucket + Const.ID_CONNECTOR + metricName + Const.ID_CONNECTOR + downsampling;
+    }
+
+    @Override
+    public String id() {
+        return buildId(getTimeBucket(), metricName, downsampling);
+    }
+
+    @Override
+    public void combine(final Metrics metrics) {
+        TopNSketch combined = TopNSketch.fromBytes(sketch);
+        combined.combine(TopNSketch.fromBytes(((TopNSketchMetrics) metrics).getSketch()));
+        this.sketch = combined.toBytes();
+    }
+
+    @Override
+    public void calculate() {
+
+    }
+
+    @Override
+    public Metrics toHour() {
+        return null;
+    }
+
+    @Override
+    public Metrics toDay() {
+        return null;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return this.hashCode();
+    }
+
+    @Override
+    public void deserialize(final RemoteData remoteData) {
+        setMetricName(remoteData.getDataStrings(0));
+        setSketch(Base64.getDecoder().decode(remoteData.getDataStrings(1)));
+
+        setDownsampling(remoteData.getDataIntegers(0));
+
+        setSketchTimeBucket(remoteData.getDataLongs(0));
+        setTimeBucket(remoteData.getDataLongs(1));
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        final RemoteData.Builder builder = RemoteData.newBuilder();
+        builder.addDataStrings(metricName);
+        builder.addDataStrings(Base64.getEncoder().encodeToString(sketch));
+
+        builder.addDataIntegers(downsampling);
+
+        builder.addDataLongs(sketchTimeBucket);
+        builder.addDataLongs(getTimeBucket());
+        return builder;
+    }
+
+    public static class Builder implements StorageBuilder<TopNSketchMetrics> {
+        @Override
+        public TopNSketchMetrics map2Data(final Map<String, Object> dbMap) {
+            final TopNSketchMetrics metrics = new TopNSketchMetrics();
+            metrics.setMetricName((String) dbMap.get(METRIC_NAME));
+            metrics.setDownsampling(((Number) dbMap.get(DOWNSAMPLING)).intValue());
+            metrics.setSketchTimeBucket(((Number) dbMap.get(SKETCH_TIME_BUCKET)).longValue());
+            final String sketch = (String) dbMap.get(SKETCH);
+            if (StringUtil.isEmpty(sketch)) {
+                metrics.setSketch(new byte[] {});
+            } else {
+                metrics.setSketch(Base64.getDecoder().decode(sketch));
+            }
+            metrics.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
+            return metrics;
+        }
+
+        @Override
+        public Map<String, Object> data2Map(final TopNSketchMetrics storageData) {
+            Map<String, Object> map = new HashMap<>();
+            map.put(METRIC_NAME, storageData.getMetricName());
+            map.put(DOWNSAMPLING, storageData.getDownsampling());
+            map.put(SKETCH_TIME_BUCKET, storageData.getSketchTimeBucket());
+            map.put(SKETCH, new String(Base64.getEncoder().encode(storageData.getSketch())));
+            map.put(TIME_BUCKET, storageData.getTimeBucket());
+            return map;
+        }
+    }
+}
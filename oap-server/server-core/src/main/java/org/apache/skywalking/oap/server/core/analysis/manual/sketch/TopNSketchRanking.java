@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
+
+/**
+ * TopNSketchRanking sorts the entities by the average of their values in the time buckets, as the aggregation query
+ * does in the storage, but from the {@link TopNSketch}es of these buckets. The result is only given when it is
+ * guaranteed to be the same, which means the values of the selected entities are known in every bucket, and no other
+ * entity could go beyond the last selected one.
+ * <p>
+ * The sorting works on the scores, which are the values in the descending order, and the negative values in the
+ * ascending order, so both orders look for the highest scores.
+ */
+public class TopNSketchRanking {
+    private final boolean descending;
+    private final Predicate<String> entityFilter;
+    private final List<BucketView> buckets = new ArrayList<>();
+
+    /**
+     * @param entityFilter accepts the entity IDs could be in the result.
+     */
+    public TopNSketchRanking(boolean descending, Predicate<String> entityFilter) {
+        this.descending = descending;
+        this.entityFilter = entityFilter;
+    }
+
+    /**
+     * Add the sketch of one time bucket in the duration.
+     */
+    public void addBucket(TopNSketch sketch) {
+        buckets.add(new BucketView(sketch));
+    }
+
+    /**
+     * @return the top n entities and their average values, or null if the sketches couldn't guarantee the result.
+     */
+    public List<SelectedRecord> rank(int topN) {
+        double untrackedUpperBound = Double.NEGATIVE_INFINITY;
+        Set<String> entityIds = new HashSet<>();
+        for (BucketView bucket : buckets) {
+            untrackedUpperBound = Math.max(untrackedUpperBound, bucket.bound);
+            bucket.knownScores.keySet().stream().filter(entityFilter).forEach(entityIds::add);
+            bucket.uncertainScores.keySet().stream().filter(entityFilter).forEach(entityIds::add);
+        }
+
+        List<Candidate> exactCandidates = new ArrayList<>();
+        double otherUpperBound = untrackedUpperBound;
+        for (String entityId : entityIds) {
+            Candidate candidate = evaluate(entityId);
+            if (candidate.exact) {
+                exactCandidates.add(candidate);
+            } else {
+                otherUpperBound = Math.max(otherUpperBound, candidate.score);
+            }
+        }
+        exactCandidates.sort(
+            Comparator.comparingDouble((Candidate candidate) -> candidate.score).reversed()
+                      .thenComparing(candidate -> candidate.entityId));
+
+        if (exactCandidates.size() < topN) {
+            // The entities in the result are less than the top n, only if there is no other one.
+            if (otherUpperBound != Double.NEGATIVE_INFINITY) {
+                return null;
+            }
+        } else {
+            for (int i = topN; i < exactCandidates.size(); i++) {
+                otherUpperBound = Math.max(otherUpperBound, exactCandidates.get(i).score);
+            }
+            if (exactCandidates.get(topN - 1).score < otherUpperBound) {
+                return null;
+            }
+        }
+
+        List<SelectedRecord> records = new ArrayList<>(topN);
+        for (Candidate candidate : exactCandidates.subList(0, Math.min(topN, exactCandidates.size()))) {
+            SelectedRecord record = new SelectedRecord();
+            record.setId(candidate.entityId);
+            record.setValue(String.valueOf((long) (descending ? candidate.score : -candidate.score)));
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * @return the exact average score of the entity, or the upper bound of it if any bucket is unknown.
+     */
+    private Candidate evaluate(String entityId) {
+        double sum = 0;
+        int count = 0;
+        List<Double> unknownUpperBounds = new ArrayList<>();
+        for (BucketView bucket : buckets) {
+            Double score = bucket.knownScores.get(entityId);
+            if (score != null) {
+                sum += score;
+                count++;
+                continue;
+            }
+            Double uncertainScore = bucket.uncertainScores.get(entityId);
+            if (uncertainScore != null) {
+                unknownUpperBounds.add(Math.max(uncertainScore, bucket.bound));
+            } else if (bucket.bound != Double.NEGATIVE_INFINITY) {
+                unknownUpperBounds.add(bucket.bound);
+            }
+            // Otherwise, all entities of the bucket are known, and this one has no value in it.
+        }
+        if (unknownUpperBounds.isEmpty()) {
+            return new Candidate(entityId, sum / count, true);
+        }
+
+        // The unknown bucket may have no value of the entity, so only the ones raising the average are counted.
+        unknownUpperBounds.sort(Collections.reverseOrder());
+        for (double upperBound : unknownUpperBounds) {
+            if (count > 0 && upperBound <= sum / count) {
+                break;
+            }
+            sum += upperBound;
+            count++;
+        }
+        return new Candidate(entityId, sum / count, false);
+    }
+
+    private static class Candidate {
+        private final String entityId;
+        private final double score;
+        private final boolean exact;
+
+        private Candidate(String entityId, double score, boolean exact) {
+            this.entityId = entityId;
+            this.score = score;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * The scores of one time bucket, merged from the reports of all nodes.
+     */
+    private class BucketView {
+        private final Map<String, Double> knownScores = new HashMap<>();
+        /**
+         * The entities reported by more than one node, which happens when the entities are routed to other nodes,
+         * such as the restart of the OAP cluster. The value could be any of them, or below the bound of the later
+         * reports, so only the highest score is kept.
+         */
+        private final Map<String, Double> uncertainScores = new HashMap<>();
+        /**
+         * The highest score of the entities not reported, negative infinity if all entities are reported.
+         */
+        private double bound = Double.NEGATIVE_INFINITY;
+
+        private BucketView(TopNSketch sketch) {
+            for (TopNSketch.NodeSketch nodeSketch : sketch.getNodeSketches()) {
+                TopNSketch.Side side = descending ? nodeSketch.getHighest() : nodeSketch.getLowest();
+                if (!side.isComplete()) {
+                    bound = Math.max(bound, toScore(side.getBound()));
+                }
+                side.getValues().forEach((entityId, value) -> {
+                    double score = toScore(value);
+                    Double uncertainScore = uncertainScores.get(entityId);
+                    if (uncertainScore != null) {
+                        uncertainScores.put(entityId, Math.max(uncertainScore, score));
+                        return;
+                    }
+                    Double knownScore = knownScores.put(entityId, score);
+                    if (knownScore != null) {
+                        knownScores.remove(entityId);
+                        uncertainScores.put(entityId, Math.max(knownScore, score));
+                    }
+                });
+            }
+        }
+
+        private double toScore(double value) {
+            return descending ? value : -value;
+        }
+    }
+}
@@ -18,12 +18,11 @@
 
 package org.apache.skywalking.oap.server.core.analysis.meter;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
@@ -36,6 +35,7 @@ import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.annotation.ClassIndex;
 import org.apache.skywalking.oap.server.core.analysis.StreamDefinition;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.meter.function.AcceptableValue;
@@ -68,16 +68,13 @@ public class MeterSystem implements Service {
         this.manager = manager;
         classPool = ClassPool.getDefault();
 
-        ClassPath classpath = null;
+        List<Class<?>> classes;
         try {
-            classpath = ClassPath.from(MeterSystem.class.getClassLoader());
+            classes = ClassIndex.INSTANCE.getClasses();
         } catch (IOException e) {
             throw new UnexpectedException("Load class path failure.");
         }
-        ImmutableSet<ClassPath.ClassInfo> classes = classpath.getTopLevelClassesRecursive("org.apache.skywalking");
-        for (ClassPath.ClassInfo classInfo : classes) {
-            Class<?> functionClass = classInfo.load();
-
+        for (Class<?> functionClass : classes) {
             if (functionClass.isAnnotationPresent(MeterFunction.class)) {
                 MeterFunction metricsFunction = functionClass.getAnnotation(MeterFunction.class);
                 if (!AcceptableValue.class.isAssignableFrom(functionClass)) {
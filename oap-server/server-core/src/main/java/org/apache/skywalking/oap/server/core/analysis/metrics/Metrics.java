@@ -48,6 +48,22 @@ public abstract class Metrics extends StreamData implements StorageData {
     @Getter
     private long survivalTime = 0L;
 
+    /**
+     * Time(ms) of the earliest data in this metrics received by this OAP cluster, 0 means unknown. Only for the
+     * pipeline lag telemetry, not persisted.
+     */
+    @Getter
+    @Setter
+    private long receivedTimestamp = 0L;
+
+    /**
+     * Time(ms) of this metrics entering the queue or cache of the current worker. Only for the pipeline lag telemetry,
+     * not persisted.
+     */
+    @Getter
+    @Setter
+    private long stageTimestamp = 0L;
+
     /**
      * Merge the given metrics instance, these two must be the same metrics type.
      *
@@ -83,6 +99,23 @@ public abstract class Metrics extends StreamData implements StorageData {
         survivalTime += value;
     }
 
+    /**
+     * Keep the earliest timestamps of the pipeline lag telemetry, after the given metrics is combined into this one.
+     *
+     * @param metrics combined into this one
+     */
+    public void keepEarliestTimestamps(Metrics metrics) {
+        receivedTimestamp = earlier(receivedTimestamp, metrics.receivedTimestamp);
+        stageTimestamp = earlier(stageTimestamp, metrics.stageTimestamp);
+    }
+
+    private static long earlier(long timestamp, long another) {
+        if (timestamp == 0L) {
+            return another;
+        }
+        return another == 0L ? timestamp : Math.min(timestamp, another);
+    }
+
     public long toTimeBucketInHour() {
         if (isMinuteBucket()) {
             return timeBucket / 100;
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerLoadListener;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * Export the utilization of every consumer thread in the {@link BulkConsumePool} as a gauge.
+ */
+@Slf4j
+class BulkConsumePoolTelemetry implements ConsumerLoadListener {
+    private final String poolName;
+    private final MetricsCreator metricsCreator;
+    private final Map<Integer, GaugeMetrics> utilizationGauges = new ConcurrentHashMap<>();
+
+    BulkConsumePoolTelemetry(ModuleDefineHolder moduleDefineHolder, String poolName) {
+        this.poolName = poolName;
+        this.metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                .provider()
+                                                .getService(MetricsCreator.class);
+    }
+
+    @Override
+    public void onMeasured(int threadIndex, double utilization) {
+        utilizationGauges.computeIfAbsent(threadIndex, index -> metricsCreator.createGauge(
+            "data_carrier_consumer_utilization", "The utilization of the consumer thread in the bulk consume pool",
+            new MetricsTag.Keys("pool", "thread"), new MetricsTag.Values(poolName, String.valueOf(index))
+        )).setValue(utilization);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.error("Measure or rebalance the consumer threads of {} failure.", poolName, t);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+
+/**
+ * FusedDispatch hosts the {@link FusedDispatchBuffer}s of the dispatching threads, used by the dispatchers generated in
+ * the fused mode of the OAL engine. A buffer is flushed by its thread in the dispatching, and by the flush timer if the
+ * thread receives no more source. All the buffers are flushed in the shutdown of the OAP server.
+ */
+@Slf4j
+public enum FusedDispatch {
+    INSTANCE;
+
+    private final List<FusedDispatchBuffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<FusedDispatchBuffer> currentBuffer = ThreadLocal.withInitial(this::newBuffer);
+    private volatile long flushPeriod = 0L;
+    private volatile int maxSize = 10000;
+    private ScheduledExecutorService flushExecutor;
+
+    /**
+     * @param flushPeriod the period of flushing the aggregated metrics to the L1 aggregation, in milliseconds.
+     * @param maxSize     the max number of the metrics aggregated in one thread, which are flushed before the period
+     *                    once reaching it.
+     */
+    public void start(long flushPeriod, int maxSize) {
+        this.flushPeriod = flushPeriod;
+        this.maxSize = maxSize;
+
+        flushExecutor = Executors.newSingleThreadScheduledExecutor();
+        flushExecutor.scheduleAtFixedRate(
+            new RunnableWithExceptionProtection(this::flushIdleBuffers, t -> log
+                .error("Fused dispatch buffer flush failure.", t)), 1, Math.max(flushPeriod, 100),
+            TimeUnit.MILLISECONDS
+        );
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "FusedDispatchShutdown"));
+    }
+
+    /**
+     * Stop the flush timer, and flush the metrics left in all the buffers to the L1 aggregation.
+     */
+    void shutdown() {
+        flushExecutor.shutdown();
+        for (FusedDispatchBuffer buffer : buffers) {
+            buffer.flushAll();
+        }
+    }
+
+    /**
+     * @return the buffer of the current thread.
+     */
+    public FusedDispatchBuffer current() {
+        return currentBuffer.get();
+    }
+
+    private FusedDispatchBuffer newBuffer() {
+        FusedDispatchBuffer buffer = new FusedDispatchBuffer(Thread.currentThread(), flushPeriod, maxSize);
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    private void flushIdleBuffers() {
+        long now = System.currentTimeMillis();
+        for (FusedDispatchBuffer buffer : buffers) {
+            buffer.flushIfPeriodReached(now);
+            if (buffer.isIdle()) {
+                buffers.remove(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * FusedDispatchBuffer is the per thread aggregation of the fused OAL dispatchers. The sources of the same entity and
+ * time bucket are combined into one metrics object directly, rather than a new metrics object for every source, which
+ * is merged by the {@link MetricsAggregateWorker} later.
+ * <p>
+ * The generated dispatcher holds the lock of the buffer in the whole dispatching, and builds every metrics as
+ * following.
+ * <pre>
+ * XxxMetrics metrics = (XxxMetrics) buffer.probe(XxxMetrics.class);
+ * if (metrics == null) {
+ *     metrics = new XxxMetrics();
+ * }
+ * metrics.setTimeBucket(source.getTimeBucket());
+ * metrics.setEntityId(source.getEntityId());
+ * metrics = (XxxMetrics) buffer.aggregate(metrics);
+ * metrics.combine(...);
+ * </pre>
+ * The probe is only the ID of the metrics, the entrance method is called on the aggregated one. It works, as all the
+ * entrance methods of the metrics functions accumulate the values.
+ */
+public class FusedDispatchBuffer {
+    private final Thread thread;
+    private final long flushPeriod;
+    private final int maxSize;
+    private final Map<Metrics, Metrics> aggregated = new HashMap<>();
+    /**
+     * The probes not added into the {@link #aggregated}, reused by the next metrics of the same type.
+     */
+    private final Map<Class<?>, Metrics> probes = new HashMap<>();
+    private long lastFlushTime;
+
+    FusedDispatchBuffer(Thread thread, long flushPeriod, int maxSize) {
+        this.thread = thread;
+        this.flushPeriod = flushPeriod;
+        this.maxSize = maxSize;
+        this.lastFlushTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the reusable probe of the metrics type, or null if none.
+     */
+    public Metrics probe(Class<?> metricsClass) {
+        return probes.remove(metricsClass);
+    }
+
+    /**
+     * @param probe the metrics including the ID fields only.
+     * @return the aggregated metrics of the same ID, the probe itself is kept if it is the first one.
+     */
+    public Metrics aggregate(Metrics probe) {
+        Metrics metrics = aggregated.get(probe);
+        if (metrics != null) {
+            probes.put(probe.getClass(), probe);
+            return metrics;
+        }
+        probe.setReceivedTimestamp(System.currentTimeMillis());
+        aggregated.put(probe, probe);
+        return probe;
+    }
+
+    /**
+     * Flush the aggregated metrics to the {@link MetricsStreamProcessor}, if the flush period is reached or the buffer
+     * is full. Called in the end of every dispatching.
+     */
+    public void afterDispatch() {
+        if (aggregated.size() >= maxSize) {
+            flush(System.currentTimeMillis());
+        } else {
+            flushIfPeriodReached(System.currentTimeMillis());
+        }
+    }
+
+    synchronized void flushIfPeriodReached(long now) {
+        if (now - lastFlushTime >= flushPeriod) {
+            flush(now);
+        }
+    }
+
+    /**
+     * Flush the aggregated metrics whatever the period, used in the shutdown.
+     */
+    synchronized void flushAll() {
+        flush(System.currentTimeMillis());
+    }
+
+    synchronized boolean isIdle() {
+        return aggregated.isEmpty() && !thread.isAlive();
+    }
+
+    private void flush(long now) {
+        lastFlushTime = now;
+        if (aggregated.isEmpty()) {
+            return;
+        }
+        aggregated.values().forEach(MetricsStreamProcessor.getInstance()::in);
+        aggregated.clear();
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
@@ -39,24 +40,46 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
  * it merges the data just after the receiver analysis. The metrics belonging to the same entity, metrics type and time
  * bucket, the L1 aggregation will merge them into one metrics object to reduce the unnecessary memory and network
  * payload.
+ * <p>
+ * The merged metrics are held for the {@link #l1FlushPeriod} before being sent to the next worker, so the metrics
+ * received in the period are merged rather than the ones in one round of consuming only. The metrics are flushed
+ * earlier once there are {@link #maxBufferSize} of them, to bound the memory.
  */
 @Slf4j
 public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
     private AbstractWorker<Metrics> nextWorker;
     private final DataCarrier<Metrics> dataCarrier;
     private final MergableBufferedData<Metrics> mergeDataCache;
+    private final long l1FlushPeriod;
+    private final int maxBufferSize;
+    /**
+     * The time of the last flush, accessed by the consumer thread only.
+     */
+    private long lastFlushTime;
     private CounterMetrics aggregationCounter;
+    private CounterMetrics flushedCounter;
+    private CounterMetrics earlyFlushCounter;
+    private HistogramMetrics queueLatency;
 
+    /**
+     * @param l1FlushPeriod the period of flushing the merged metrics, in milliseconds.
+     * @param maxBufferSize the number of the merged metrics triggering the flush before the period.
+     */
     MetricsAggregateWorker(ModuleDefineHolder moduleDefineHolder, AbstractWorker<Metrics> nextWorker,
-                           String modelName) {
+                           String modelName, long l1FlushPeriod, int maxBufferSize) {
         super(moduleDefineHolder);
         this.nextWorker = nextWorker;
         this.mergeDataCache = new MergableBufferedData();
+        this.l1FlushPeriod = l1FlushPeriod;
+        this.maxBufferSize = maxBufferSize;
+        this.lastFlushTime = System.currentTimeMillis();
         String name = "METRICS_L1_AGGREGATION";
         this.dataCarrier = new DataCarrier<>("MetricsAggregateWorker." + modelName, name, 2, 10000);
 
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(
-            name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20);
+            name, BulkConsumePool.Creator.recommendMaxSize() * 2, 20,
+            new BulkConsumePoolTelemetry(moduleDefineHolder, name)
+        );
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
@@ -71,6 +94,15 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
             "metrics_aggregation", "The number of rows in aggregation",
             new MetricsTag.Keys("metricName", "level", "dimensionality"), new MetricsTag.Values(modelName, "1", "min")
         );
+        flushedCounter = metricsCreator.createCounter(
+            "metrics_aggregation_flushed", "The number of rows flushed to the next level after the aggregation",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"), new MetricsTag.Values(modelName, "1", "min")
+        );
+        earlyFlushCounter = metricsCreator.createCounter(
+            "metrics_aggregation_early_flush", "The number of flushes before the period as the buffer is full",
+            new MetricsTag.Keys("metricName", "level", "dimensionality"), new MetricsTag.Values(modelName, "1", "min")
+        );
+        queueLatency = PipelineStage.L1_QUEUE.createLatencyHistogram(metricsCreator);
     }
 
     /**
@@ -78,6 +110,12 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
      */
     @Override
     public final void in(Metrics metrics) {
+        long now = System.currentTimeMillis();
+        if (metrics.getReceivedTimestamp() == 0L) {
+            // Set already if aggregated by the fused OAL dispatcher.
+            metrics.setReceivedTimestamp(now);
+        }
+        metrics.setStageTimestamp(now);
         dataCarrier.produce(metrics);
     }
 
@@ -88,12 +126,35 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
      * @param metricsList from the queue.
      */
     private void onWork(List<Metrics> metricsList) {
+        PipelineStage.observeSince(
+            queueLatency, PipelineStage.earliestStageTimestamp(metricsList), System.currentTimeMillis());
         metricsList.forEach(metrics -> {
             aggregationCounter.inc();
             mergeDataCache.accept(metrics);
         });
 
-        mergeDataCache.read().forEach(
+        if (mergeDataCache.size() >= maxBufferSize) {
+            earlyFlushCounter.inc();
+            flush();
+        } else {
+            flushIfPeriodReached();
+        }
+    }
+
+    private void flushIfPeriodReached() {
+        if (System.currentTimeMillis() - lastFlushTime >= l1FlushPeriod) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        lastFlushTime = System.currentTimeMillis();
+        if (mergeDataCache.size() == 0) {
+            return;
+        }
+        List<Metrics> merged = mergeDataCache.read();
+        flushedCounter.inc(merged.size());
+        merged.forEach(
             data -> {
                 if (log.isDebugEnabled()) {
                     log.debug(data.toString());
@@ -103,7 +164,7 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
         );
     }
 
-    private class AggregatorConsumer implements IConsumer<Metrics> {
+    class AggregatorConsumer implements IConsumer<Metrics> {
         @Override
         public void init() {
         }
@@ -120,6 +181,12 @@ public class MetricsAggregateWorker extends AbstractWorker<Metrics> {
 
         @Override
         public void onExit() {
+            flush();
+        }
+
+        @Override
+        public void nothingToConsume() {
+            flushIfPeriodReached();
         }
     }
 }
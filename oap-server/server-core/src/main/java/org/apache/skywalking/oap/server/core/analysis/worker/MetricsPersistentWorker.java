@@ -32,8 +32,10 @@ import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.manual.sketch.TopNSketchCollector;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -41,6 +43,10 @@ import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * MetricsPersistentWorker is an extension of {@link PersistenceWorker} and focuses on the Metrics data persistent.
@@ -56,6 +62,22 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     private final Optional<MetricsTransWorker> transWorker;
     private final boolean enableDatabaseSession;
     private final boolean supportUpdate;
+    /**
+     * The pipeline lag is only traced in the minute dimensionality, which all received data goes through.
+     */
+    private final boolean traceLag;
+    private final HistogramMetrics queueLatency;
+    private final HistogramMetrics cacheLatency;
+    private final HistogramMetrics dataAge;
+    /**
+     * The earliest received time of the metrics in the last prepared batch, accessed by the persistence timer only.
+     */
+    private long earliestReceivedTimestamp = 0L;
+    /**
+     * Track the persisted values for the top n query, only if the metrics is listed in
+     * CoreModuleConfig#topNSketchMetrics.
+     */
+    private Optional<TopNSketchCollector> topNSketchCollector = Optional.empty();
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
@@ -69,13 +91,26 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         this.nextExportWorker = Optional.ofNullable(nextExportWorker);
         this.transWorker = Optional.ofNullable(transWorker);
         this.supportUpdate = supportUpdate;
+        this.traceLag = DownSampling.Minute.equals(model.getDownsampling());
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        this.queueLatency = PipelineStage.L2_QUEUE.createLatencyHistogram(metricsCreator);
+        this.cacheLatency = PipelineStage.L2_CACHE.createLatencyHistogram(metricsCreator);
+        this.dataAge = metricsCreator.createHistogramMetric(
+            "metrics_pipeline_data_age",
+            "The age(in seconds) of the oldest minute metrics, from being received to being persisted",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE, 1, 5, 10, 20, 30, 45, 60, 90, 120, 180, 300, 600
+        );
 
         String name = "METRICS_L2_AGGREGATION";
         int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
         if (size == 0) {
             size = 1;
         }
-        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, size, 20);
+        BulkConsumePool.Creator creator = new BulkConsumePool.Creator(
+            name, size, 20, new BulkConsumePoolTelemetry(moduleDefineHolder, name));
         try {
             ConsumerPoolFactory.INSTANCE.createIfAbsent(name, creator);
         } catch (Exception e) {
@@ -97,20 +132,44 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         );
     }
 
+    void setTopNSketchCollector(TopNSketchCollector topNSketchCollector) {
+        this.topNSketchCollector = Optional.of(topNSketchCollector);
+    }
+
     /**
      * Accept all metrics data and push them into the queue for serial processing
      */
     @Override
     public void in(Metrics metrics) {
+        if (traceLag) {
+            metrics.setStageTimestamp(System.currentTimeMillis());
+        }
         dataCarrier.produce(metrics);
     }
 
+    @Override
+    void onWork(List<Metrics> input) {
+        if (traceLag) {
+            long now = System.currentTimeMillis();
+            PipelineStage.observeSince(queueLatency, PipelineStage.earliestStageTimestamp(input), now);
+            // From now on, the stage timestamp is the time entering the cache.
+            for (int i = 0; i < input.size(); i++) {
+                input.get(i).setStageTimestamp(now);
+            }
+        }
+        super.onWork(input);
+    }
+
     @Override
     public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
         long start = System.currentTimeMillis();
+        earliestReceivedTimestamp = 0L;
         if (lastCollection.size() == 0) {
             return;
         }
+        if (traceLag) {
+            traceLagBeforePersistence(lastCollection, start);
+        }
 
         /*
          * Hard coded the max size. This is only the batch size of one metrics, too large number is meaningless.
@@ -140,6 +199,23 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         }
     }
 
+    private void traceLagBeforePersistence(Collection<Metrics> lastCollection, long now) {
+        long earliestStageTimestamp = 0L;
+        long earliestReceived = 0L;
+        for (Metrics metrics : lastCollection) {
+            long stageTimestamp = metrics.getStageTimestamp();
+            if (stageTimestamp > 0L && (earliestStageTimestamp == 0L || stageTimestamp < earliestStageTimestamp)) {
+                earliestStageTimestamp = stageTimestamp;
+            }
+            long receivedTimestamp = metrics.getReceivedTimestamp();
+            if (receivedTimestamp > 0L && (earliestReceived == 0L || receivedTimestamp < earliestReceived)) {
+                earliestReceived = receivedTimestamp;
+            }
+        }
+        PipelineStage.observeSince(cacheLatency, earliestStageTimestamp, now);
+        earliestReceivedTimestamp = earliestReceived;
+    }
+
     private void flushDataToStorage(List<Metrics> metricsList,
                                     List<PrepareRequest> prepareRequests) {
         try {
@@ -161,6 +237,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                     cachedMetrics.combine(metrics);
                     cachedMetrics.calculate();
                     prepareRequests.add(metricsDAO.prepareBatchUpdate(model, cachedMetrics));
+                    collectTopNSketch(cachedMetrics);
                     nextWorker(cachedMetrics);
 
                     /*
@@ -171,6 +248,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
                 } else {
                     metrics.calculate();
                     prepareRequests.add(metricsDAO.prepareBatchInsert(model, metrics));
+                    collectTopNSketch(metrics);
                     nextWorker(metrics);
                 }
             }
@@ -181,6 +259,13 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         }
     }
 
+    /**
+     * Track the calculated value of the metrics being persisted.
+     */
+    void collectTopNSketch(Metrics metrics) {
+        topNSketchCollector.ifPresent(collector -> collector.collect(metrics));
+    }
+
     private void nextWorker(Metrics metrics) {
         nextAlarmWorker.ifPresent(nextAlarmWorker -> nextAlarmWorker.in(metrics));
         nextExportWorker.ifPresent(
@@ -225,6 +310,13 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         }
     }
 
+    @Override
+    public void afterPersistence(long now) {
+        PipelineStage.observeSince(dataAge, earliestReceivedTimestamp, now);
+        earliestReceivedTimestamp = 0L;
+        topNSketchCollector.ifPresent(collector -> collector.report(now));
+    }
+
     /**
      * Metrics queue processor, merge the received metrics if existing one with same ID(s) and time bucket.
      *
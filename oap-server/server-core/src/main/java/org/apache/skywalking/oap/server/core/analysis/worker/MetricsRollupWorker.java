@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * MetricsRollupWorker keeps the open hour or day buckets in memory, rather than reading, combining and updating the
+ * storage rows in every persistence round like {@link MetricsPersistentWorker} does. The down sampled metrics from
+ * {@link MetricsTransWorker} are combined into the in-memory buckets, and the changed buckets are written every flush
+ * interval, or once they are closed.
+ *
+ * The storage row is the checkpoint of the bucket. When a bucket is not in memory, because it is new, this node has
+ * been restarted, or the bucket has been evicted after closing, it is recovered from the storage row before combining
+ * the new data. All changed buckets are written in the last persistence round of a graceful shutdown, so only a crash
+ * loses data, at most the data of one flush interval.
+ *
+ * When the OAP cluster changes, the metrics are routed to other nodes, which update the same storage rows. So all
+ * changed buckets are written and dropped from memory, to be recovered from the storage rows next time.
+ */
+@Slf4j
+public class MetricsRollupWorker extends MetricsPersistentWorker {
+    /**
+     * The bucket is closed after this delay since its end, as the down sampled data of the last minute arrives in the
+     * next persistence rounds.
+     */
+    private static final long CLOSE_DELAY = 2 * 60 * 1000L;
+    /**
+     * Hard coded the max size, same as the batch get size of {@link MetricsPersistentWorker}.
+     */
+    private static final int MAX_BATCH_GET_SIZE = 2000;
+
+    private final Model model;
+    private final IMetricsDAO metricsDAO;
+    private final long flushInterval;
+    private final Map<Metrics, Bucket> buckets;
+    private final HistogramMetrics writeAmplification;
+    private final RemoteClientManager remoteClientManager;
+    private long lastFlushTime;
+    /**
+     * The addresses of the OAP cluster in the last persistence round, null before the first round.
+     */
+    private List<Address> clusterAddresses;
+    private volatile boolean shuttingDown = false;
+
+    /**
+     * @param flushInterval the interval of writing the changed open buckets, in milliseconds.
+     */
+    MetricsRollupWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
+                        long flushInterval) {
+        super(moduleDefineHolder, model, metricsDAO, false, true);
+        this.model = model;
+        this.metricsDAO = metricsDAO;
+        this.flushInterval = flushInterval;
+        this.buckets = new HashMap<>(100);
+        this.lastFlushTime = System.currentTimeMillis();
+        this.remoteClientManager = moduleDefineHolder.find(CoreModule.NAME)
+                                                     .provider()
+                                                     .getService(RemoteClientManager.class);
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        writeAmplification = metricsCreator.createHistogramMetric(
+            "metrics_rollup_write_amplification", "The number of storage writes of every closed rollup bucket",
+            new MetricsTag.Keys("metricName", "dimensionality"),
+            new MetricsTag.Values(model.getName(), model.getDownsampling().getName()),
+            1, 2, 5, 10, 20, 50, 100, 500, 1500
+        );
+    }
+
+    @Override
+    public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
+        long start = System.currentTimeMillis();
+        try {
+            rollup(lastCollection);
+        } catch (Throwable t) {
+            log.error(t.getMessage(), t);
+        }
+        boolean clusterChanged = clusterChanged();
+        flush(start, clusterChanged || shuttingDown, prepareRequests);
+        if (clusterChanged) {
+            log.info("OAP cluster changed, drop {} in-memory buckets of model {}", buckets.size(), model.getName());
+            buckets.clear();
+        }
+
+        if (prepareRequests.size() > 0) {
+            log.debug(
+                "prepare rollup requests for model {}, took time: {}", model.getName(),
+                System.currentTimeMillis() - start
+            );
+        }
+    }
+
+    private void rollup(Collection<Metrics> lastCollection) throws IOException {
+        List<Metrics> notInMemory = new ArrayList<>();
+        for (Metrics metrics : lastCollection) {
+            Bucket bucket = buckets.get(metrics);
+            if (bucket != null) {
+                bucket.combine(metrics);
+            } else {
+                notInMemory.add(metrics);
+            }
+        }
+
+        for (int i = 0; i < notInMemory.size(); i += MAX_BATCH_GET_SIZE) {
+            recover(notInMemory.subList(i, Math.min(i + MAX_BATCH_GET_SIZE, notInMemory.size())));
+        }
+    }
+
+    /**
+     * Recover the buckets from their last checkpoints in the storage, then combine the given metrics.
+     */
+    private void recover(List<Metrics> metricsList) throws IOException {
+        List<String> ids = new ArrayList<>(metricsList.size());
+        for (Metrics metrics : metricsList) {
+            ids.add(metrics.id());
+        }
+        Map<Metrics, Metrics> checkpoints = new HashMap<>();
+        for (Metrics checkpoint : metricsDAO.multiGet(model, ids)) {
+            checkpoints.put(checkpoint, checkpoint);
+        }
+
+        for (Metrics metrics : metricsList) {
+            Metrics checkpoint = checkpoints.get(metrics);
+            Bucket bucket;
+            if (checkpoint == null) {
+                bucket = new Bucket(metrics, false);
+            } else {
+                bucket = new Bucket(checkpoint, true);
+                bucket.combine(metrics);
+            }
+            buckets.put(bucket.metrics, bucket);
+        }
+    }
+
+    @Override
+    public void beforeShutdown() {
+        shuttingDown = true;
+    }
+
+    private boolean clusterChanged() {
+        List<RemoteClient> remoteClients = remoteClientManager.getRemoteClient();
+        List<Address> addresses = new ArrayList<>(remoteClients.size());
+        for (RemoteClient remoteClient : remoteClients) {
+            addresses.add(remoteClient.getAddress());
+        }
+        if (addresses.equals(clusterAddresses)) {
+            return false;
+        }
+        boolean changed = clusterAddresses != null;
+        clusterAddresses = addresses;
+        return changed;
+    }
+
+    /**
+     * Write the changed buckets if the flush interval is reached or all are required, and the changed closed buckets
+     * in any case. The closed buckets are evicted after being written.
+     */
+    private void flush(long now, boolean writeAll, List<PrepareRequest> prepareRequests) {
+        boolean intervalReached = now - lastFlushTime >= flushInterval;
+        if (intervalReached) {
+            lastFlushTime = now;
+        }
+        boolean writeOpen = intervalReached || writeAll;
+        long openTimeBucket = TimeBucket.getTimeBucket(now - CLOSE_DELAY, model.getDownsampling());
+
+        Iterator<Bucket> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            Bucket bucket = iterator.next();
+            boolean closed = bucket.metrics.getTimeBucket() < openTimeBucket;
+            if (bucket.dirty && (writeOpen || closed)) {
+                try {
+                    prepareRequests.add(bucket.prepareWrite());
+                } catch (Throwable t) {
+                    log.error(t.getMessage(), t);
+                }
+            }
+            if (closed && !bucket.dirty) {
+                writeAmplification.observe(bucket.writeCount);
+                iterator.remove();
+            }
+        }
+    }
+
+    private class Bucket {
+        private final Metrics metrics;
+        private boolean existInStorage;
+        private boolean dirty;
+        private int writeCount;
+
+        private Bucket(Metrics metrics, boolean existInStorage) {
+            this.metrics = metrics;
+            this.existInStorage = existInStorage;
+            this.dirty = !existInStorage;
+        }
+
+        private void combine(Metrics metrics) {
+            this.metrics.combine(metrics);
+            dirty = true;
+        }
+
+        private PrepareRequest prepareWrite() throws IOException {
+            metrics.calculate();
+            PrepareRequest request = existInStorage
+                ? metricsDAO.prepareBatchUpdate(model, metrics)
+                : metricsDAO.prepareBatchInsert(model, metrics);
+            collectTopNSketch(metrics);
+            existInStorage = true;
+            dirty = false;
+            writeCount++;
+            return request;
+        }
+    }
+}
@@ -19,9 +19,12 @@
 package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.CoreModule;
@@ -32,8 +35,11 @@ import org.apache.skywalking.oap.server.core.analysis.MetricsExtension;
 import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.StreamDefinition;
 import org.apache.skywalking.oap.server.core.analysis.StreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.manual.sketch.TopNSketchCollector;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.DownSamplingConfigService;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
@@ -75,6 +81,55 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     @Getter
     private boolean enableDatabaseSession;
 
+    /**
+     * Hold and forward CoreModuleConfig#enableMetricsRollup to create the {@link MetricsRollupWorker}s.
+     */
+    @Setter
+    @Getter
+    private boolean enableMetricsRollup;
+
+    /**
+     * Hold and forward CoreModuleConfig#metricsRollupHourFlushInterval to the hour rollup worker, in seconds.
+     */
+    @Setter
+    @Getter
+    private int metricsRollupHourFlushInterval;
+
+    /**
+     * Hold and forward CoreModuleConfig#metricsRollupDayFlushInterval to the day rollup worker, in seconds.
+     */
+    @Setter
+    @Getter
+    private int metricsRollupDayFlushInterval;
+
+    /**
+     * Hold and forward CoreModuleConfig#l1FlushPeriod to the {@link MetricsAggregateWorker}s, in milliseconds.
+     */
+    @Setter
+    @Getter
+    private long l1FlushPeriod;
+
+    /**
+     * Hold and forward CoreModuleConfig#l1MaxBufferSize to the {@link MetricsAggregateWorker}s.
+     */
+    @Setter
+    @Getter
+    private int l1MaxBufferSize;
+
+    /**
+     * Hold and forward CoreModuleConfig#topNSketchMetrics to create the {@link TopNSketchCollector}s.
+     */
+    @Setter
+    @Getter
+    private Set<String> topNSketchMetrics = Collections.emptySet();
+
+    /**
+     * Hold and forward CoreModuleConfig#topNSketchSize to the {@link TopNSketchCollector}s.
+     */
+    @Setter
+    @Getter
+    private int topNSketchSize;
+
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
     }
@@ -98,9 +153,9 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     }
 
     @SuppressWarnings("unchecked")
-    public void create(ModuleDefineHolder moduleDefineHolder,
-                       StreamDefinition stream,
-                       Class<? extends Metrics> metricsClass) throws StorageException {
+    public synchronized void create(ModuleDefineHolder moduleDefineHolder,
+                                    StreamDefinition stream,
+                                    Class<? extends Metrics> metricsClass) throws StorageException {
         if (DisableRegister.INSTANCE.include(stream.getName())) {
             return;
         }
@@ -160,13 +215,38 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                                        .getService(IWorkerInstanceSetter.class);
         workerInstanceSetter.put(remoteReceiverWorkerName, minutePersistentWorker, metricsClass);
 
+        if (topNSketchMetrics.contains(stream.getName())) {
+            enableTopNSketch(moduleDefineHolder, stream.getName(), DownSampling.Minute, minutePersistentWorker);
+            enableTopNSketch(moduleDefineHolder, stream.getName(), DownSampling.Hour, hourPersistentWorker);
+            enableTopNSketch(moduleDefineHolder, stream.getName(), DownSampling.Day, dayPersistentWorker);
+        }
+
         MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
-            moduleDefineHolder, remoteWorker, stream.getName());
+            moduleDefineHolder, remoteWorker, stream.getName(), l1FlushPeriod, l1MaxBufferSize);
 
         entryWorkers.put(metricsClass, aggregateWorker);
     }
 
+    private void enableTopNSketch(ModuleDefineHolder moduleDefineHolder,
+                                  String metricName,
+                                  DownSampling downsampling,
+                                  MetricsPersistentWorker persistentWorker) {
+        if (persistentWorker != null) {
+            RemoteClientManager remoteClientManager = moduleDefineHolder.find(CoreModule.NAME)
+                                                                        .provider()
+                                                                        .getService(RemoteClientManager.class);
+            persistentWorker.setTopNSketchCollector(new TopNSketchCollector(
+                metricName, downsampling, topNSketchSize,
+                () -> remoteClientManager.getRemoteClient()
+                                         .stream()
+                                         .map(RemoteClient::getAddress)
+                                         .collect(Collectors.toList()),
+                this::in
+            ));
+        }
+    }
+
     private MetricsPersistentWorker minutePersistentWorker(ModuleDefineHolder moduleDefineHolder,
                                                            IMetricsDAO metricsDAO,
                                                            Model model,
@@ -188,8 +268,15 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                        IMetricsDAO metricsDAO,
                                                        Model model,
                                                        boolean supportUpdate) {
-        MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate);
+        MetricsPersistentWorker persistentWorker;
+        if (enableMetricsRollup && supportUpdate) {
+            int flushInterval = DownSampling.Day.equals(model.getDownsampling())
+                ? metricsRollupDayFlushInterval : metricsRollupHourFlushInterval;
+            persistentWorker = new MetricsRollupWorker(moduleDefineHolder, model, metricsDAO, flushInterval * 1000L);
+        } else {
+            persistentWorker = new MetricsPersistentWorker(
+                moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate);
+        }
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
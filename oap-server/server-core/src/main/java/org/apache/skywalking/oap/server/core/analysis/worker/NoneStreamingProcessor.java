@@ -59,7 +59,7 @@ public class NoneStreamingProcessor implements StreamProcessor<NoneStream> {
     }
 
     @Override
-    public void create(ModuleDefineHolder moduleDefineHolder, Stream stream, Class<? extends NoneStream> streamClass) throws StorageException {
+    public synchronized void create(ModuleDefineHolder moduleDefineHolder, Stream stream, Class<? extends NoneStream> streamClass) throws StorageException {
         if (DisableRegister.INSTANCE.include(stream.name())) {
             return;
         }
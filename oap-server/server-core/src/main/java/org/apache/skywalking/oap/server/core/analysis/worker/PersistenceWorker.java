@@ -60,6 +60,21 @@ public abstract class PersistenceWorker<INPUT extends StorageData> extends Abstr
      */
     public abstract void endOfRound(long tookTime);
 
+    /**
+     * Notification method for the worker when the batch requests of this round have been executed by the storage.
+     *
+     * @param now The time of the execution finished.
+     */
+    public void afterPersistence(long now) {
+    }
+
+    /**
+     * Notification method for the worker before the last round, which runs when the OAP server is shutting down. The
+     * worker should prepare all the data it still holds in that round.
+     */
+    public void beforeShutdown() {
+    }
+
     /**
      * Prepare the batch persistence, transfer all prepared data to the executable data format based on the storage
      * implementations.
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * The stages of the metrics pipeline, from the receiver to the storage. The latency of every stage is observed once
+ * per batch, by the oldest data in it, so the cost is not related to the number of metrics.
+ */
+public enum PipelineStage {
+    /**
+     * From the receiver to the consumer of {@link MetricsAggregateWorker}.
+     */
+    L1_QUEUE("l1_queue"),
+    /**
+     * From the L1 aggregation to being sent by the gRPC remote client.
+     */
+    REMOTE_QUEUE("remote_queue"),
+    /**
+     * From the L1 aggregation to being received by the target OAP node, it depends on the clock of both nodes.
+     */
+    REMOTE_TRANSFER("remote_transfer"),
+    /**
+     * From being received by the L2 node to the consumer of {@link MetricsPersistentWorker}.
+     */
+    L2_QUEUE("l2_queue"),
+    /**
+     * From the L2 aggregation cache to the batch persistence.
+     */
+    L2_CACHE("l2_cache");
+
+    private static final double[] LATENCY_BUCKETS = {
+        0.01, 0.05, 0.1, 0.5, 1, 2, 5, 10, 20, 30, 60, 120, 300
+    };
+
+    private final String stageName;
+
+    PipelineStage(String stageName) {
+        this.stageName = stageName;
+    }
+
+    public HistogramMetrics createLatencyHistogram(MetricsCreator metricsCreator) {
+        return metricsCreator.createHistogramMetric(
+            "metrics_pipeline_stage_latency", "The latency(in seconds) of the oldest metrics in the pipeline stage",
+            new MetricsTag.Keys("stage"), new MetricsTag.Values(stageName), LATENCY_BUCKETS
+        );
+    }
+
+    /**
+     * @return the earliest {@link Metrics#getStageTimestamp()} in the list, or 0 if none is known.
+     */
+    static long earliestStageTimestamp(List<Metrics> metricsList) {
+        long earliest = 0L;
+        for (int i = 0; i < metricsList.size(); i++) {
+            long timestamp = metricsList.get(i).getStageTimestamp();
+            if (timestamp > 0L && (earliest == 0L || timestamp < earliest)) {
+                earliest = timestamp;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Observe the latency from the given timestamp, ignore the unknown(0) one.
+     */
+    public static void observeSince(HistogramMetrics histogram, long timestamp, long now) {
+        if (timestamp > 0L) {
+            histogram.observe(Math.max(0L, now - timestamp) / 1000.0D);
+        }
+    }
+}
@@ -20,12 +20,17 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.HashMap;
 import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.StreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentStreamData;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.TraceTailSampler;
 import org.apache.skywalking.oap.server.core.analysis.record.Record;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageDAO;
@@ -34,27 +39,37 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.annotation.Storage;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
 public class RecordStreamProcessor implements StreamProcessor<Record> {
 
     private final static RecordStreamProcessor PROCESSOR = new RecordStreamProcessor();
 
-    private Map<Class<? extends Record>, RecordPersistentWorker> workers = new HashMap<>();
+    private Map<Class<? extends Record>, AbstractWorker<Record>> workers = new HashMap<>();
+
+    /**
+     * Hold the sampler of CoreModuleConfig#enableTraceTailSampling, the {@link SegmentRecord}s are persisted after
+     * being sampled by it. Null means disabled.
+     */
+    @Setter
+    @Getter
+    private TraceTailSampler traceTailSampler;
 
     public static RecordStreamProcessor getInstance() {
         return PROCESSOR;
     }
 
     public void in(Record record) {
-        RecordPersistentWorker worker = workers.get(record.getClass());
+        AbstractWorker<Record> worker = workers.get(record.getClass());
         if (worker != null) {
             worker.in(record);
         }
     }
 
     @SuppressWarnings("unchecked")
-    public void create(ModuleDefineHolder moduleDefineHolder, Stream stream, Class<? extends Record> recordClass) throws StorageException {
+    public synchronized void create(ModuleDefineHolder moduleDefineHolder, Stream stream, Class<? extends Record> recordClass) throws StorageException {
         if (DisableRegister.INSTANCE.include(stream.name())) {
             return;
         }
@@ -72,6 +87,19 @@ public class RecordStreamProcessor implements StreamProcessor<Record> {
             recordClass, stream.scopeId(), new Storage(stream.name(), DownSampling.Second), true);
         RecordPersistentWorker persistentWorker = new RecordPersistentWorker(moduleDefineHolder, model, recordDAO);
 
-        workers.put(recordClass, persistentWorker);
+        if (traceTailSampler != null && SegmentRecord.class.equals(recordClass)) {
+            String remoteReceiverWorkerName = stream.name() + "_tail_sampling";
+            IWorkerInstanceSetter workerInstanceSetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                                           .provider()
+                                                                           .getService(IWorkerInstanceSetter.class);
+            workerInstanceSetter.put(
+                remoteReceiverWorkerName,
+                new TraceTailSamplingWorker(moduleDefineHolder, traceTailSampler, persistentWorker),
+                SegmentStreamData.class
+            );
+            workers.put(recordClass, new SegmentRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName));
+        } else {
+            workers.put(recordClass, persistentWorker);
+        }
     }
 }
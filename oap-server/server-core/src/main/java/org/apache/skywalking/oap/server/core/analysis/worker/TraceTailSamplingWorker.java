@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentStreamData;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.TraceTailSampler;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * TraceTailSamplingWorker samples the segments routed to this OAP node by the trace ID through the {@link
+ * TraceTailSampler}, and forwards the segments of the kept traces to the {@link RecordPersistentWorker}. The traces are
+ * decided every second, once their windows end.
+ */
+@Slf4j
+public class TraceTailSamplingWorker extends AbstractWorker<SegmentStreamData> {
+    private final TraceTailSampler sampler;
+    private final AbstractWorker<Record> nextWorker;
+    private final CounterMetrics keptCounter;
+    private final CounterMetrics droppedCounter;
+    private final GaugeMetrics bufferSizeGauge;
+    private final GaugeMetrics spillSizeGauge;
+    private final GaugeMetrics decisionSizeGauge;
+    private final ScheduledExecutorService expireExecutor;
+
+    TraceTailSamplingWorker(ModuleDefineHolder moduleDefineHolder, TraceTailSampler sampler,
+                            AbstractWorker<Record> nextWorker) {
+        super(moduleDefineHolder);
+        this.sampler = sampler;
+        this.nextWorker = nextWorker;
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        keptCounter = metricsCreator.createCounter(
+            "trace_tail_sampling_kept_count", "The number of the segments of the traces kept by tail sampling",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        droppedCounter = metricsCreator.createCounter(
+            "trace_tail_sampling_dropped_count", "The number of the segments of the traces dropped by tail sampling",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        bufferSizeGauge = metricsCreator.createGauge(
+            "trace_tail_sampling_buffer_size", "The estimated size of the segments buffered in memory, in bytes",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        spillSizeGauge = metricsCreator.createGauge(
+            "trace_tail_sampling_spill_size", "The size of the segments spilled to disk, in bytes",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        decisionSizeGauge = metricsCreator.createGauge(
+            "trace_tail_sampling_decision_size", "The number of the decisions remembered for the late segments",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+
+        expireExecutor = Executors.newSingleThreadScheduledExecutor();
+        expireExecutor.scheduleAtFixedRate(
+            new RunnableWithExceptionProtection(this::expire, t -> log
+                .error("Trace tail sampling failure.", t)), 1, 1, TimeUnit.SECONDS
+        );
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "TraceTailSamplingShutdown"));
+    }
+
+    /**
+     * Stop deciding the traces, and close the spill files of the sampler.
+     */
+    void shutdown() {
+        expireExecutor.shutdown();
+        sampler.close();
+    }
+
+    @Override
+    public void in(SegmentStreamData segmentStreamData) {
+        List<SegmentRecord> kept = new ArrayList<>(1);
+        int dropped = sampler.add(segmentStreamData.getRecord(), System.currentTimeMillis(), kept);
+        forward(kept, dropped);
+    }
+
+    private void expire() {
+        List<SegmentRecord> kept = new ArrayList<>();
+        int dropped = sampler.expire(System.currentTimeMillis(), kept);
+        forward(kept, dropped);
+        bufferSizeGauge.setValue(sampler.getBufferSize());
+        spillSizeGauge.setValue(sampler.getSpillSize());
+        decisionSizeGauge.setValue(sampler.getDecisionSize());
+    }
+
+    private void forward(List<SegmentRecord> kept, int dropped) {
+        for (SegmentRecord record : kept) {
+            nextWorker.in(record);
+        }
+        if (!kept.isEmpty()) {
+            keptCounter.inc(kept.size());
+        }
+        if (dropped > 0) {
+            droppedCounter.inc(dropped);
+        }
+    }
+}
@@ -18,8 +18,6 @@
 
 package org.apache.skywalking.oap.server.core.annotation;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.Comparator;
@@ -51,11 +49,7 @@ public class AnnotationScan {
      * Begin to scan classes.
      */
     public void scan() throws IOException, StorageException {
-        ClassPath classpath = ClassPath.from(this.getClass().getClassLoader());
-        ImmutableSet<ClassPath.ClassInfo> classes = classpath.getTopLevelClassesRecursive("org.apache.skywalking");
-        for (ClassPath.ClassInfo classInfo : classes) {
-            Class<?> aClass = classInfo.load();
-
+        for (Class<?> aClass : ClassIndex.INSTANCE.getClasses()) {
             for (AnnotationListenerCache listener : listeners) {
                 if (aClass.isAnnotationPresent(listener.annotation())) {
                     listener.addMatch(aClass);
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.annotation;
+
+import com.google.common.reflect.ClassPath;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+
+/**
+ * ClassIndex provides the classes for the {@link AnnotationScan}s, the DispatcherManager, the MeterSystem and the OAL
+ * runtime. They used to scan the classpath and load every class under {@link #SCAN_PACKAGE} by themselves, now the
+ * classes are loaded once and shared.
+ * <p>
+ * If the index built by the OAL precompiler is on the classpath, only the classes listed in it are loaded. It lists the
+ * {@link #isIndexed(Class) indexed classes}, and the jars they are found in. Once there is any jar on the classpath not
+ * covered by the index, such as an extension, or a listed class is missing, the classpath is scanned as before.
+ */
+@Slf4j
+public enum ClassIndex {
+    INSTANCE;
+
+    /**
+     * The index, in the lines of {@link #JAR}, {@link #EXCLUDE} and {@link #CLASS}.
+     */
+    public static final String INDEX_FILE = "META-INF/skywalking/class-index";
+    /**
+     * The file name of the jar covered by the index.
+     */
+    public static final String JAR = "jar:";
+    /**
+     * The package of the precompiled classes, which are excluded from the scan too.
+     */
+    public static final String EXCLUDE = "exclude:";
+    /**
+     * The name of the indexed class.
+     */
+    public static final String CLASS = "class:";
+    public static final String SCAN_PACKAGE = "org.apache.skywalking";
+
+    private List<Class<?>> classes;
+    private boolean indexed;
+
+    /**
+     * @return the classes, all the top level classes under {@link #SCAN_PACKAGE}, or the indexed ones only.
+     */
+    public synchronized List<Class<?>> getClasses() throws IOException {
+        if (classes == null) {
+            long startTime = System.currentTimeMillis();
+            ClassLoader classLoader = ClassIndex.class.getClassLoader();
+            URL index = classLoader.getResource(INDEX_FILE);
+            List<String> excludes = new ArrayList<>();
+            List<Class<?>> loaded = index == null ? null : loadIndex(index, classLoader, excludes);
+            indexed = loaded != null;
+            if (!indexed) {
+                loaded = scan(classLoader, excludes);
+            }
+            classes = Collections.unmodifiableList(loaded);
+            log.info("{} classes are {} in {} ms.", classes.size(), indexed ? "loaded from the class index" : "scanned",
+                     System.currentTimeMillis() - startTime
+            );
+        }
+        return classes;
+    }
+
+    /**
+     * @return true if the classes are loaded from the index, rather than scanning.
+     */
+    public synchronized boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * @return true if the class should be in the index, annotated by any annotation under {@link #SCAN_PACKAGE}, or
+     * implementing the {@link SourceDispatcher}.
+     */
+    public static boolean isIndexed(Class<?> aClass) {
+        if (!aClass.isInterface() && SourceDispatcher.class.isAssignableFrom(aClass)) {
+            return true;
+        }
+        for (Annotation annotation : aClass.getAnnotations()) {
+            if (annotation.annotationType().getName().startsWith(SCAN_PACKAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the indexed classes, or null if the index doesn't cover the classpath.
+     */
+    private static List<Class<?>> loadIndex(URL index, ClassLoader classLoader, List<String> excludes)
+        throws IOException {
+        Set<String> jars = new HashSet<>();
+        List<String> classNames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(JAR)) {
+                    jars.add(line.substring(JAR.length()));
+                } else if (line.startsWith(EXCLUDE)) {
+                    excludes.add(line.substring(EXCLUDE.length()));
+                } else if (line.startsWith(CLASS)) {
+                    classNames.add(line.substring(CLASS.length()));
+                }
+            }
+        }
+
+        String indexJar = jarName(index);
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            String jar = new File(entry).getName();
+            if (jar.endsWith(".jar") && !jar.equals(indexJar) && !jars.contains(jar)) {
+                log.info("The class index doesn't cover {}, scan the classpath instead.", jar);
+                return null;
+            }
+        }
+
+        List<Class<?>> indexedClasses = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            try {
+                indexedClasses.add(classLoader.loadClass(className));
+            } catch (ClassNotFoundException e) {
+                log.info("{} in the class index is missing, scan the classpath instead.", className);
+                return null;
+            }
+        }
+        return indexedClasses;
+    }
+
+    private static List<Class<?>> scan(ClassLoader classLoader, List<String> excludes) throws IOException {
+        List<Class<?>> scannedClasses = new ArrayList<>();
+        ClassPath classpath = ClassPath.from(classLoader);
+        for (ClassPath.ClassInfo classInfo : classpath.getTopLevelClassesRecursive(SCAN_PACKAGE)) {
+            if (excludes.stream().noneMatch(classInfo.getName()::startsWith)) {
+                scannedClasses.add(classInfo.load());
+            }
+        }
+        return scannedClasses;
+    }
+
+    /**
+     * @return the file name of the jar of the resource, or null if not in a jar.
+     */
+    private static String jarName(URL resource) {
+        if (!"jar".equals(resource.getProtocol())) {
+            return null;
+        }
+        String path = resource.getPath();
+        int end = path.indexOf("!/");
+        String jarPath = end < 0 ? path : path.substring(0, end);
+        return jarPath.substring(jarPath.lastIndexOf('/') + 1);
+    }
+}
@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.manual.networkalias.NetworkAddressAlias;
@@ -41,8 +42,13 @@ public enum CacheUpdateTimer {
     INSTANCE;
 
     private int ttl = 10;
+    private int networkAddressAliasRecoveryPeriod;
+    /**
+     * The broadcast aliases could arrive before the first load, so the cache size doesn't mean it has been loaded.
+     */
+    private boolean networkAddressAliasLoaded = false;
 
-    public void start(ModuleDefineHolder moduleDefineHolder, int ttl) {
+    public void start(ModuleDefineHolder moduleDefineHolder, CoreModuleConfig moduleConfig) {
         log.info("Cache updateServiceInventory timer start");
 
         final long timeInterval = 10;
@@ -51,7 +57,8 @@ public enum CacheUpdateTimer {
                  .scheduleAtFixedRate(
                      new RunnableWithExceptionProtection(() -> update(moduleDefineHolder), t -> log
                          .error("Cache update failure.", t)), 1, timeInterval, TimeUnit.SECONDS);
-        this.ttl = ttl;
+        this.ttl = moduleConfig.getMetricsDataTTL();
+        this.networkAddressAliasRecoveryPeriod = moduleConfig.getNetworkAddressAliasRecoveryPeriod();
 
     }
 
@@ -64,7 +71,9 @@ public enum CacheUpdateTimer {
     }
 
     /**
-     * Update the cached data updated in last 1 minutes.
+     * Update the cached data updated in last 10 minutes. When this node receives the network address alias broadcast,
+     * the changes are pushed by {@link NetworkAddressAliasSync}, so the cache is only recovered from the storage once
+     * per recovery period.
      */
     private void updateNetAddressAliasCache(ModuleDefineHolder moduleDefineHolder) {
         INetworkAddressAliasDAO networkAddressAliasDAO = moduleDefineHolder.find(StorageModule.NAME)
@@ -74,18 +83,34 @@ public enum CacheUpdateTimer {
         NetworkAddressAliasCache addressInventoryCache = moduleDefineHolder.find(CoreModule.NAME)
                                                                            .provider()
                                                                            .getService(NetworkAddressAliasCache.class);
+        final NetworkAddressAliasSync networkAddressAliasSync = NetworkAddressAliasSync.INSTANCE;
+        final long currentTime = System.currentTimeMillis();
         long loadStartTime;
-        if (addressInventoryCache.currentSize() == 0) {
+        if (!networkAddressAliasLoaded || addressInventoryCache.currentSize() == 0) {
             /**
              * As a new start process, load all known network alias information.
              */
-            loadStartTime = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() - 60_000L * 60 * 24 * ttl);
+            loadStartTime = TimeBucket.getMinuteTimeBucket(currentTime - 60_000L * 60 * 24 * ttl);
+        } else if (networkAddressAliasSync.isReceivingBroadcast()) {
+            final long recoveryPeriod = 1000L * networkAddressAliasRecoveryPeriod;
+            if (currentTime - networkAddressAliasSync.getLastRecoveryTime() < recoveryPeriod) {
+                networkAddressAliasSync.reportCacheStatus();
+                return;
+            }
+            loadStartTime = TimeBucket.getMinuteTimeBucket(currentTime - Math.max(60_000L * 10, recoveryPeriod + 60_000L));
         } else {
-            loadStartTime = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() - 60_000L * 10);
+            loadStartTime = TimeBucket.getMinuteTimeBucket(currentTime - 60_000L * 10);
         }
         List<NetworkAddressAlias> addressInventories = networkAddressAliasDAO.loadLastUpdate(loadStartTime);
 
-        addressInventoryCache.load(addressInventories);
+        if (networkAddressAliasSync.isReceivingBroadcast()) {
+            addressInventoryCache.merge(addressInventories);
+        } else {
+            addressInventoryCache.load(addressInventories);
+        }
+        networkAddressAliasLoaded = true;
+        networkAddressAliasSync.recovered();
+        networkAddressAliasSync.reportCacheStatus();
     }
 
     /**
@@ -57,6 +57,20 @@ public class NetworkAddressAliasCache implements Service {
         });
     }
 
+    /**
+     * Load the aliases, unless the cached one has a later update, such as the one pushed by {@link
+     * NetworkAddressAliasSync} but not persisted yet. Only used when the aliases are synced by broadcast.
+     */
+    void merge(List<NetworkAddressAlias> networkAddressAliasList) {
+        networkAddressAliasList.forEach(networkAddressAlias -> {
+            NetworkAddressAlias cached = networkAddressAliasCache.getIfPresent(networkAddressAlias.getAddress());
+            if (cached != null && cached.getLastUpdateTimeBucket() > networkAddressAlias.getLastUpdateTimeBucket()) {
+                return;
+            }
+            networkAddressAliasCache.put(networkAddressAlias.getAddress(), networkAddressAlias);
+        });
+    }
+
     long currentSize() {
         return networkAddressAliasCache.size();
     }
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.manual.networkalias.NetworkAddressAlias;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * NetworkAddressAliasSync pushes the network address aliases set up by this OAP node to the {@link
+ * NetworkAddressAliasCache} of all nodes, once the alias is new or changed in the local cache. It also reports the
+ * cache size, and the staleness as the seconds since the cache was recovered from the storage by {@link
+ * CacheUpdateTimer}.
+ *
+ * The broadcast only reaches the nodes registered as remote instances, in the Mixed and Aggregator roles. A node in the
+ * Receiver role still publishes its aliases, but keeps polling the changes of others from the storage.
+ */
+@Slf4j
+public enum NetworkAddressAliasSync {
+    INSTANCE;
+
+    public static final String SYNC_WORKER_NAME = "network_address_alias_sync";
+
+    private volatile boolean enabled = false;
+    private volatile boolean receivingBroadcast = false;
+    private NetworkAddressAliasCache networkAddressAliasCache;
+    private RemoteSenderService remoteSender;
+    private CounterMetrics syncOutCounter;
+    private CounterMetrics syncInCounter;
+    private GaugeMetrics cacheSizeGauge;
+    private GaugeMetrics stalenessGauge;
+    private volatile long lastRecoveryTime = System.currentTimeMillis();
+
+    /**
+     * @param role of this OAP node, see {@link CoreModuleConfig.Role}.
+     */
+    public void start(ModuleDefineHolder moduleDefineHolder, boolean enabled, String role) {
+        networkAddressAliasCache = moduleDefineHolder.find(CoreModule.NAME)
+                                                     .provider()
+                                                     .getService(NetworkAddressAliasCache.class);
+        remoteSender = moduleDefineHolder.find(CoreModule.NAME).provider().getService(RemoteSenderService.class);
+
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        syncOutCounter = metricsCreator.createCounter(
+            "network_address_alias_sync_out_count", "The number of network address aliases broadcast by this node.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        syncInCounter = metricsCreator.createCounter(
+            "network_address_alias_sync_in_count", "The number of network address aliases received from the broadcast.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        cacheSizeGauge = metricsCreator.createGauge(
+            "network_address_alias_cache_size", "The number of network address aliases in the cache.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        stalenessGauge = metricsCreator.createGauge(
+            "network_address_alias_cache_staleness",
+            "The seconds since the network address alias cache was recovered from the storage.",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+
+        final boolean receivingBroadcast = enabled && !CoreModuleConfig.Role.Receiver.name().equalsIgnoreCase(role);
+        if (receivingBroadcast) {
+            moduleDefineHolder.find(CoreModule.NAME)
+                              .provider()
+                              .getService(IWorkerInstanceSetter.class)
+                              .put(SYNC_WORKER_NAME, new SyncWorker(moduleDefineHolder), NetworkAddressAlias.class);
+            log.info("Network address alias sync enabled.");
+        }
+        this.enabled = enabled;
+        this.receivingBroadcast = receivingBroadcast;
+    }
+
+    /**
+     * @return true if the aliases of other nodes are pushed to this node, so the storage is only loaded to recover.
+     */
+    public boolean isReceivingBroadcast() {
+        return receivingBroadcast;
+    }
+
+    /**
+     * Broadcast the alias set up by this node, unless the same mapping has been in the local cache.
+     */
+    public void publish(NetworkAddressAlias networkAddressAlias) {
+        if (!enabled) {
+            return;
+        }
+        NetworkAddressAlias cached = networkAddressAliasCache.get(networkAddressAlias.getAddress());
+        if (cached != null
+            && Objects.equals(cached.getRepresentServiceId(), networkAddressAlias.getRepresentServiceId())
+            && Objects.equals(
+            cached.getRepresentServiceInstanceId(), networkAddressAlias.getRepresentServiceInstanceId())) {
+            return;
+        }
+
+        // the given alias continues in the stream, keep a copy for the cache and the remote sender
+        NetworkAddressAlias copy = new NetworkAddressAlias();
+        copy.setAddress(networkAddressAlias.getAddress());
+        copy.setRepresentServiceId(networkAddressAlias.getRepresentServiceId());
+        copy.setRepresentServiceInstanceId(networkAddressAlias.getRepresentServiceInstanceId());
+        copy.setLastUpdateTimeBucket(networkAddressAlias.getLastUpdateTimeBucket());
+        copy.setTimeBucket(networkAddressAlias.getTimeBucket());
+
+        networkAddressAliasCache.merge(Collections.singletonList(copy));
+        try {
+            remoteSender.send(SYNC_WORKER_NAME, copy, Selector.Broadcast);
+            syncOutCounter.inc();
+        } catch (Throwable t) {
+            log.error("Broadcast network address alias failure.", t);
+        }
+    }
+
+    /**
+     * Called after the cache loaded aliases from the storage.
+     */
+    void recovered() {
+        lastRecoveryTime = System.currentTimeMillis();
+    }
+
+    long getLastRecoveryTime() {
+        return lastRecoveryTime;
+    }
+
+    void reportCacheStatus() {
+        if (cacheSizeGauge == null) {
+            return;
+        }
+        cacheSizeGauge.setValue(networkAddressAliasCache.currentSize());
+        stalenessGauge.setValue(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - lastRecoveryTime));
+    }
+
+    private class SyncWorker extends AbstractWorker<NetworkAddressAlias> {
+        private SyncWorker(ModuleDefineHolder moduleDefineHolder) {
+            super(moduleDefineHolder);
+        }
+
+        @Override
+        public void in(NetworkAddressAlias networkAddressAlias) {
+            networkAddressAliasCache.merge(Collections.singletonList(networkAddressAlias));
+            syncInCounter.inc();
+        }
+    }
+}
@@ -26,9 +26,14 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsMetaInfo;
 public class ExportData {
     private MetricsMetaInfo meta;
     private Metrics metrics;
+    /**
+     * The time when the data was handed to the exporter, used to measure the export lag.
+     */
+    private long produceTime;
 
     public ExportData(MetricsMetaInfo meta, Metrics metrics) {
         this.meta = meta;
         this.metrics = metrics;
+        this.produceTime = System.currentTimeMillis();
     }
 }
\ No newline at end of file
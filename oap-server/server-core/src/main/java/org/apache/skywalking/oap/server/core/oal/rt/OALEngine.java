@@ -30,6 +30,11 @@ public interface OALEngine {
 
     void setDispatcherListener(DispatcherDetectorListener listener) throws ModuleStartException;
 
+    /**
+     * Generate the dispatchers aggregating the sources in the dispatching threads, see FusedDispatchBuffer.
+     */
+    void setFusedDispatch(boolean fusedDispatch);
+
     void start(ClassLoader currentClassLoader) throws ModuleStartException, OALCompileException;
 
     void notifyAllListeners() throws ModuleStartException;
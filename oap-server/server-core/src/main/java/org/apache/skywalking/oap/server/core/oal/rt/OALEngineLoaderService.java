@@ -20,7 +20,6 @@ package org.apache.skywalking.oap.server.core.oal.rt;
 import java.lang.reflect.Constructor;
 import java.util.HashSet;
 import java.util.Set;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
@@ -34,16 +33,26 @@ import org.apache.skywalking.oap.server.library.module.Service;
  * Activate {@link OALEngine} according to {@link OALDefine}
  */
 @Slf4j
-@RequiredArgsConstructor
 public class OALEngineLoaderService implements Service {
 
     private final Set<OALDefine> oalDefineSet = new HashSet<>();
     private final ModuleManager moduleManager;
+    private final boolean fusedDispatch;
 
     /**
-     * Normally it is invoked in the {@link ModuleProvider#start()} of the receiver-plugin module.
+     * @param fusedDispatch true to generate the dispatchers in the fused mode.
      */
-    public void load(OALDefine define) throws ModuleStartException {
+    public OALEngineLoaderService(ModuleManager moduleManager, boolean fusedDispatch) {
+        this.moduleManager = moduleManager;
+        this.fusedDispatch = fusedDispatch;
+    }
+
+    /**
+     * Normally it is invoked in the {@link ModuleProvider#start()} of the receiver-plugin module. The providers may
+     * start concurrently, while the OAL engine generates the classes in the shared class pool, so the loading is
+     * serialized.
+     */
+    public synchronized void load(OALDefine define) throws ModuleStartException {
         if (oalDefineSet.contains(define)) {
             // each oal define will only be activated once
             return;
@@ -56,6 +65,7 @@ public class OALEngineLoaderService implements Service {
                                                       .provider()
                                                       .getService(SourceReceiver.class)
                                                       .getDispatcherDetectorListener());
+            engine.setFusedDispatch(fusedDispatch);
 
             engine.start(OALEngineLoaderService.class.getClassLoader());
             engine.notifyAllListeners();
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.profile;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.Stream;
+import org.apache.skywalking.oap.server.core.analysis.record.Record;
+import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
+import org.apache.skywalking.oap.server.core.profile.analyze.ProfileStackSummary;
+import org.apache.skywalking.oap.server.core.source.ScopeDeclaration;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.annotation.QueryUnifiedIndex;
+import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+
+import static org.apache.skywalking.oap.server.core.source.DefaultScopeDefine.PROFILE_TASK_SEGMENT_STACK_SUMMARY;
+
+/**
+ * The {@link ProfileStackSummary} of the snapshots of one profiling segment in a time slice, use record
+ */
+@Getter
+@Setter
+@ScopeDeclaration(id = PROFILE_TASK_SEGMENT_STACK_SUMMARY, name = "ProfileStackSummary")
+@Stream(name = ProfileStackSummaryRecord.INDEX_NAME, scopeId = PROFILE_TASK_SEGMENT_STACK_SUMMARY, builder = ProfileStackSummaryRecord.Builder.class, processor = RecordStreamProcessor.class)
+public class ProfileStackSummaryRecord extends Record {
+
+    public static final String INDEX_NAME = "profile_task_segment_stack_summary";
+    public static final String TASK_ID = "task_id";
+    public static final String SEGMENT_ID = "segment_id";
+    public static final String NODE_ID = "node_id";
+    public static final String SLICE_START = "slice_start";
+    public static final String SLICE_END = "slice_end";
+    public static final String MIN_SEQUENCE = "min_sequence";
+    public static final String MAX_SEQUENCE = "max_sequence";
+    public static final String SNAPSHOT_COUNT = "snapshot_count";
+    public static final String SUMMARY_BINARY = "summary_binary";
+
+    @Column(columnName = TASK_ID)
+    private String taskId;
+    @Column(columnName = SEGMENT_ID)
+    @QueryUnifiedIndex(withColumns = {SLICE_START})
+    private String segmentId;
+    /**
+     * The OAP node aggregating the slice, as the snapshots of one slice could be received by several nodes.
+     */
+    @Column(columnName = NODE_ID)
+    private String nodeId;
+    /**
+     * The start of the time slice, include self.
+     */
+    @Column(columnName = SLICE_START)
+    private long sliceStart;
+    /**
+     * The end of the time slice, exclude self.
+     */
+    @Column(columnName = SLICE_END)
+    private long sliceEnd;
+    @Column(columnName = MIN_SEQUENCE)
+    private int minSequence;
+    @Column(columnName = MAX_SEQUENCE)
+    private int maxSequence;
+    @Column(columnName = SNAPSHOT_COUNT)
+    private int snapshotCount;
+    @Column(columnName = SUMMARY_BINARY)
+    private byte[] summaryBinary;
+
+    @Override
+    public String id() {
+        return getTaskId() + Const.ID_CONNECTOR + getSegmentId() + Const.ID_CONNECTOR + getSliceStart()
+            + Const.ID_CONNECTOR + getNodeId();
+    }
+
+    public static class Builder implements StorageBuilder<ProfileStackSummaryRecord> {
+
+        @Override
+        public ProfileStackSummaryRecord map2Data(Map<String, Object> dbMap) {
+            final ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+            record.setTaskId((String) dbMap.get(TASK_ID));
+            record.setSegmentId((String) dbMap.get(SEGMENT_ID));
+            record.setNodeId((String) dbMap.get(NODE_ID));
+            record.setSliceStart(((Number) dbMap.get(SLICE_START)).longValue());
+            record.setSliceEnd(((Number) dbMap.get(SLICE_END)).longValue());
+            record.setMinSequence(((Number) dbMap.get(MIN_SEQUENCE)).intValue());
+            record.setMaxSequence(((Number) dbMap.get(MAX_SEQUENCE)).intValue());
+            record.setSnapshotCount(((Number) dbMap.get(SNAPSHOT_COUNT)).intValue());
+            record.setTimeBucket(((Number) dbMap.get(TIME_BUCKET)).longValue());
+            if (StringUtil.isEmpty((String) dbMap.get(SUMMARY_BINARY))) {
+                record.setSummaryBinary(new byte[] {});
+            } else {
+                record.setSummaryBinary(Base64.getDecoder().decode((String) dbMap.get(SUMMARY_BINARY)));
+            }
+            return record;
+        }
+
+        @Override
+        public Map<String, Object> data2Map(ProfileStackSummaryRecord storageData) {
+            final HashMap<String, Object> map = new HashMap<>();
+            map.put(TASK_ID, storageData.getTaskId());
+            map.put(SEGMENT_ID, storageData.getSegmentId());
+            map.put(NODE_ID, storageData.getNodeId());
+            map.put(SLICE_START, storageData.getSliceStart());
+            map.put(SLICE_END, storageData.getSliceEnd());
+            map.put(MIN_SEQUENCE, storageData.getMinSequence());
+            map.put(MAX_SEQUENCE, storageData.getMaxSequence());
+            map.put(SNAPSHOT_COUNT, storageData.getSnapshotCount());
+            map.put(TIME_BUCKET, storageData.getTimeBucket());
+            if (CollectionUtils.isEmpty(storageData.getSummaryBinary())) {
+                map.put(SUMMARY_BINARY, Const.EMPTY_STRING);
+            } else {
+                map.put(SUMMARY_BINARY, new String(Base64.getEncoder().encode(storageData.getSummaryBinary())));
+            }
+            return map;
+        }
+    }
+}
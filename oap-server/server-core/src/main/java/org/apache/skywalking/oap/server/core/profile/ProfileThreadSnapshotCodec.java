@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.profile;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding of the {@link ProfileThreadSnapshotRecord#getStackBinary()}. The legacy encoding is the {@code
+ * ThreadStack} protobuf message, which keeps every frame as a full {@code className.methodName:line} string.
+ * <p>
+ * The compact encoding starts with {@link #FORMAT_MARKER}, which never begins a protobuf message. The class and method
+ * names are interned in a dictionary, and each frame refers to them by index. Besides that, a snapshot only carries the
+ * frames after the bottom frames shared with the previous sequence of the same segment. Every {@link
+ * #KEY_FRAME_INTERVAL} sequences, a snapshot carries the full stack, so any snapshot could be decoded from its nearest
+ * key snapshot.
+ * <p>
+ * Layout: marker, version, shared frame count, dictionary size, dictionary words, frame count, then (class index,
+ * method index + 1, line number) of every frame. Method index 0 means the class word is the raw frame.
+ */
+public class ProfileThreadSnapshotCodec {
+    public static final byte FORMAT_MARKER = 0;
+    public static final int VERSION = 1;
+    public static final int KEY_FRAME_INTERVAL = 10;
+
+    /**
+     * @param previousStack the stack of the previous sequence, null means encoding as a key snapshot.
+     */
+    public static byte[] encode(List<String> stack, List<String> previousStack) {
+        int sharedCount = 0;
+        if (previousStack != null) {
+            int maxShared = Math.min(stack.size(), previousStack.size());
+            while (sharedCount < maxShared && stack.get(sharedCount).equals(previousStack.get(sharedCount))) {
+                sharedCount++;
+            }
+        }
+
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        int frameCount = stack.size() - sharedCount;
+        int[] frames = new int[frameCount * 3];
+        for (int i = 0; i < frameCount; i++) {
+            String frame = stack.get(sharedCount + i);
+            int lineSeparator = frame.lastIndexOf(':');
+            int methodSeparator = lineSeparator < 0 ? -1 : frame.lastIndexOf('.', lineSeparator);
+            int line = 0;
+            if (methodSeparator > 0) {
+                String lineText = frame.substring(lineSeparator + 1);
+                try {
+                    line = Integer.parseInt(lineText);
+                } catch (NumberFormatException e) {
+                    methodSeparator = -1;
+                }
+                // keep the frame raw if the line number couldn't be rebuilt as the same text
+                if (methodSeparator > 0 && !Integer.toString(line).equals(lineText)) {
+                    methodSeparator = -1;
+                }
+            }
+
+            if (methodSeparator > 0) {
+                frames[i * 3] = wordIndex(frame.substring(0, methodSeparator), dictionary, words);
+                frames[i * 3 + 1] = wordIndex(frame.substring(methodSeparator + 1, lineSeparator), dictionary, words) + 1;
+                frames[i * 3 + 2] = line;
+            } else {
+                frames[i * 3] = wordIndex(frame, dictionary, words);
+            }
+        }
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(frameCount * 8 + 64);
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            output.writeRawByte(FORMAT_MARKER);
+            output.writeUInt32NoTag(VERSION);
+            output.writeUInt32NoTag(sharedCount);
+            output.writeUInt32NoTag(words.size());
+            for (String word : words) {
+                output.writeStringNoTag(word);
+            }
+            output.writeUInt32NoTag(frameCount);
+            for (int i = 0; i < frameCount; i++) {
+                output.writeUInt32NoTag(frames[i * 3]);
+                output.writeUInt32NoTag(frames[i * 3 + 1]);
+                output.writeSInt32NoTag(frames[i * 3 + 2]);
+            }
+            output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    public static boolean isCompact(byte[] stackBinary) {
+        return stackBinary != null && stackBinary.length > 0 && stackBinary[0] == FORMAT_MARKER;
+    }
+
+    /**
+     * @return the count of the bottom frames shared with the previous sequence, 0 means it is a key snapshot.
+     */
+    public static int sharedFrameCount(byte[] stackBinary) {
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(stackBinary, 1, stackBinary.length - 1);
+            checkVersion(input.readUInt32());
+            return input.readUInt32();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("wrong stack data", e);
+        }
+    }
+
+    /**
+     * @param previousStack the decoded stack of the previous sequence, required if {@link #sharedFrameCount(byte[])}
+     *                      is not 0.
+     */
+    public static List<String> decode(byte[] stackBinary, List<String> previousStack) {
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(stackBinary, 1, stackBinary.length - 1);
+            checkVersion(input.readUInt32());
+            int sharedCount = input.readUInt32();
+            if (sharedCount > 0 && (previousStack == null || previousStack.size() < sharedCount)) {
+                throw new IllegalArgumentException("the previous stack is required to decode the stack data");
+            }
+
+            String[] words = new String[input.readUInt32()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = input.readString();
+            }
+
+            int frameCount = input.readUInt32();
+            List<String> stack = new ArrayList<>(sharedCount + frameCount);
+            if (sharedCount > 0) {
+                stack.addAll(previousStack.subList(0, sharedCount));
+            }
+            StringBuilder frame = new StringBuilder();
+            for (int i = 0; i < frameCount; i++) {
+                String className = words[input.readUInt32()];
+                int methodIndex = input.readUInt32();
+                int line = input.readSInt32();
+                if (methodIndex == 0) {
+                    stack.add(className);
+                } else {
+                    frame.setLength(0);
+                    stack.add(frame.append(className)
+                                   .append('.')
+                                   .append(words[methodIndex - 1])
+                                   .append(':')
+                                   .append(line)
+                                   .toString());
+                }
+            }
+            return stack;
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("wrong stack data", e);
+        }
+    }
+
+    /**
+     * @return true if the snapshot of this sequence should be encoded without the previous stack.
+     */
+    public static boolean isKeySequence(int sequence) {
+        return sequence % KEY_FRAME_INTERVAL == 0;
+    }
+
+    /**
+     * @return the nearest key sequence not greater than the given one.
+     */
+    public static int keySequence(int sequence) {
+        return sequence - sequence % KEY_FRAME_INTERVAL;
+    }
+
+    private static int wordIndex(String word, Map<String, Integer> dictionary, List<String> words) {
+        Integer index = dictionary.get(word);
+        if (index == null) {
+            index = words.size();
+            dictionary.put(word, index);
+            words.add(word);
+        }
+        return index;
+    }
+
+    private static void checkVersion(int version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("unknown stack data version: " + version);
+        }
+    }
+}
@@ -22,16 +22,20 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotCodec;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 import org.apache.skywalking.oap.server.core.query.type.ProfileAnalyzation;
 import org.apache.skywalking.oap.server.core.query.type.ProfileAnalyzeTimeRange;
 import org.apache.skywalking.oap.server.core.query.type.ProfileStackTree;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
@@ -51,20 +55,35 @@ public class ProfileAnalyzer {
 
     private final int threadSnapshotAnalyzeBatchSize;
     private final int analyzeSnapshotMaxSize;
+    private final boolean analyzeWithStackSummary;
 
     private final ModuleManager moduleManager;
     protected IProfileThreadSnapshotQueryDAO profileThreadSnapshotQueryDAO;
+    protected IProfileStackSummaryQueryDAO profileStackSummaryQueryDAO;
 
     public ProfileAnalyzer(ModuleManager moduleManager, int snapshotAnalyzeBatchSize, int analyzeSnapshotMaxSize) {
+        this(moduleManager, snapshotAnalyzeBatchSize, analyzeSnapshotMaxSize, false);
+    }
+
+    /**
+     * @param analyzeWithStackSummary if true, merge the {@link ProfileStackSummaryRecord}s, and only analyze the raw
+     *                                snapshots not covered by them.
+     */
+    public ProfileAnalyzer(ModuleManager moduleManager, int snapshotAnalyzeBatchSize, int analyzeSnapshotMaxSize,
+                           boolean analyzeWithStackSummary) {
         this.moduleManager = moduleManager;
         this.threadSnapshotAnalyzeBatchSize = snapshotAnalyzeBatchSize;
         this.analyzeSnapshotMaxSize = analyzeSnapshotMaxSize;
+        this.analyzeWithStackSummary = analyzeWithStackSummary;
     }
 
     /**
      * search snapshots and analyze
      */
     public ProfileAnalyzation analyze(String segmentId, List<ProfileAnalyzeTimeRange> timeRanges) throws IOException {
+        if (analyzeWithStackSummary) {
+            return analyzeWithStackSummary(segmentId, timeRanges);
+        }
         ProfileAnalyzation analyzation = new ProfileAnalyzation();
 
         // query sequence range list
@@ -78,14 +97,15 @@ public class ProfileAnalyzer {
         }
 
         // query snapshots
-        List<ProfileStack> stacks = sequenceSearch.getRanges().parallelStream().map(r -> {
+        List<ProfileThreadSnapshotRecord> records = sequenceSearch.getRanges().parallelStream().map(r -> {
             try {
                 return getProfileThreadSnapshotQueryDAO().queryRecords(segmentId, r.getMinSequence(), r.getMaxSequence());
             } catch (IOException e) {
                 LOGGER.warn(e.getMessage(), e);
                 return Collections.<ProfileThreadSnapshotRecord>emptyList();
             }
-        }).flatMap(Collection::stream).map(ProfileStack::deserialize).distinct().collect(Collectors.toList());
+        }).flatMap(Collection::stream).collect(Collectors.toList());
+        List<ProfileStack> stacks = deserialize(segmentId, records, true);
 
         // analyze
         final List<ProfileStackTree> trees = analyze(stacks);
@@ -96,6 +116,143 @@ public class ProfileAnalyzer {
         return analyzation;
     }
 
+    /**
+     * Merge the stack summaries of the time slices inside the time ranges, and the raw snapshots between them. The
+     * summary is used only if it covers continuous sequences, otherwise its snapshots are analyzed as the raw ones.
+     */
+    protected ProfileAnalyzation analyzeWithStackSummary(String segmentId,
+                                                         List<ProfileAnalyzeTimeRange> timeRanges) throws IOException {
+        ProfileAnalyzation analyzation = new ProfileAnalyzation();
+
+        List<ProfileStackSummary> parts = new ArrayList<>();
+        boolean found = false;
+        int rawSnapshotCount = 0;
+        int skippedSnapshotCount = 0;
+        for (ProfileAnalyzeTimeRange timeRange : mergeTimeRanges(timeRanges)) {
+            final long start = timeRange.getStart();
+            final long end = timeRange.getEnd();
+            int minSequence = getProfileThreadSnapshotQueryDAO().queryMinSequence(segmentId, start, end);
+            int maxSequence = getProfileThreadSnapshotQueryDAO().queryMaxSequence(segmentId, start, end) + 1;
+            if (maxSequence <= 0 || maxSequence <= minSequence) {
+                continue;
+            }
+            found = true;
+
+            // the sequence ranges not covered by summaries, [min, max)
+            List<SequenceRange> rawRanges = new ArrayList<>();
+            int cursor = minSequence;
+            // the nodes receiving the snapshots of one slice store a summary each, use them in sequence order
+            List<ProfileStackSummaryRecord> records = new ArrayList<>(
+                getProfileStackSummaryQueryDAO().querySummaries(segmentId, start, end));
+            records.sort(Comparator.comparingInt(ProfileStackSummaryRecord::getMinSequence));
+            for (ProfileStackSummaryRecord record : records) {
+                if (record.getSnapshotCount() != record.getMaxSequence() - record.getMinSequence() + 1
+                    || record.getMinSequence() < cursor || record.getMaxSequence() >= maxSequence) {
+                    continue;
+                }
+                final ProfileStackSummary summary;
+                try {
+                    summary = ProfileStackSummary.parse(record.getSummaryBinary());
+                } catch (IllegalArgumentException e) {
+                    LOGGER.warn("Parse stack summary {} of segment {} failure.", record.getSliceStart(), segmentId, e);
+                    continue;
+                }
+                if (record.getMinSequence() > cursor) {
+                    rawRanges.add(new SequenceRange(cursor, record.getMinSequence()));
+                }
+                parts.add(summary);
+                cursor = record.getMaxSequence() + 1;
+            }
+            if (cursor < maxSequence) {
+                rawRanges.add(new SequenceRange(cursor, maxSequence));
+            }
+
+            for (SequenceRange range : rawRanges) {
+                int count = range.getMaxSequence() - range.getMinSequence();
+                if (rawSnapshotCount + count > analyzeSnapshotMaxSize) {
+                    skippedSnapshotCount += count;
+                    continue;
+                }
+                rawSnapshotCount += count;
+                parts.add(summarize(segmentId, range, start, end));
+            }
+        }
+
+        if (!found) {
+            analyzation.setTip("Data not found");
+            return analyzation;
+        }
+        if (skippedSnapshotCount > 0) {
+            analyzation.setTip("Out of snapshot analyze limit, " + (rawSnapshotCount + skippedSnapshotCount) + " snapshots aren't summarized, but analysis first " + rawSnapshotCount + " snapshots only.");
+        }
+
+        // merge in sequence order
+        parts.sort(Comparator.comparingInt(ProfileStackSummary::getMinSequence));
+        ProfileStackSummary merged = new ProfileStackSummary();
+        for (ProfileStackSummary part : parts) {
+            if (part.isEmpty() || (!merged.isEmpty() && part.getMinSequence() <= merged.getMaxSequence())) {
+                continue;
+            }
+            merged.mergeLater(part);
+        }
+        if (!merged.isEmpty()) {
+            analyzation.getTrees().addAll(merged.buildTrees());
+        }
+        return analyzation;
+    }
+
+    /**
+     * Load the raw snapshots of the sequence range, and summarize the ones dumped inside the time range.
+     */
+    private ProfileStackSummary summarize(String segmentId, SequenceRange range, long start, long end) {
+        List<SequenceRange> batches = new ArrayList<>();
+        int minSequence = range.getMinSequence();
+        do {
+            int batchMax = Math.min(minSequence + threadSnapshotAnalyzeBatchSize, range.getMaxSequence());
+            batches.add(new SequenceRange(minSequence, batchMax));
+            minSequence = batchMax;
+        }
+        while (minSequence < range.getMaxSequence());
+
+        List<ProfileThreadSnapshotRecord> records = batches.parallelStream().map(r -> {
+            try {
+                return getProfileThreadSnapshotQueryDAO().queryRecords(segmentId, r.getMinSequence(), r.getMaxSequence());
+            } catch (IOException e) {
+                LOGGER.warn(e.getMessage(), e);
+                return Collections.<ProfileThreadSnapshotRecord>emptyList();
+            }
+        }).flatMap(Collection::stream).collect(Collectors.toList());
+
+        ProfileStackSummary summary = new ProfileStackSummary();
+        for (ProfileStack stack : deserialize(segmentId, records, true)) {
+            if (stack.getDumpTime() >= start && stack.getDumpTime() <= end) {
+                summary.accumulate(stack);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * @return sorted time ranges without overlapping, so no snapshot is analyzed twice.
+     */
+    private List<ProfileAnalyzeTimeRange> mergeTimeRanges(List<ProfileAnalyzeTimeRange> timeRanges) {
+        List<ProfileAnalyzeTimeRange> sorted = new ArrayList<>(timeRanges);
+        sorted.sort(Comparator.comparingLong(ProfileAnalyzeTimeRange::getStart));
+
+        LinkedList<ProfileAnalyzeTimeRange> merged = new LinkedList<>();
+        for (ProfileAnalyzeTimeRange range : sorted) {
+            if (!merged.isEmpty() && range.getStart() <= merged.getLast().getEnd()) {
+                merged.getLast().setEnd(Math.max(merged.getLast().getEnd(), range.getEnd()));
+                continue;
+            }
+            ProfileAnalyzeTimeRange copy = new ProfileAnalyzeTimeRange();
+            copy.setStart(range.getStart());
+            copy.setEnd(range.getEnd());
+            merged.add(copy);
+        }
+        return merged;
+    }
+
     protected SequenceSearch getAllSequenceRange(String segmentId, List<ProfileAnalyzeTimeRange> timeRanges) throws IOException {
         final List<SequenceSearch> searches = timeRanges.parallelStream().map(r -> {
             try {
@@ -133,6 +290,58 @@ public class ProfileAnalyzer {
         return sequenceSearch;
     }
 
+    /**
+     * Deserialize records in sequence order, the compact snapshot is decoded with the stack of its previous sequence.
+     *
+     * @param loadBase if true, load the missing previous snapshots from storage, back to the nearest key snapshot.
+     */
+    protected List<ProfileStack> deserialize(String segmentId, List<ProfileThreadSnapshotRecord> records,
+                                             boolean loadBase) {
+        records.sort(Comparator.comparingInt(ProfileThreadSnapshotRecord::getSequence));
+
+        List<ProfileStack> stacks = new ArrayList<>(records.size());
+        ProfileStack previous = null;
+        for (ProfileThreadSnapshotRecord record : records) {
+            if (previous != null && previous.getSequence() == record.getSequence()) {
+                continue;
+            }
+            ProfileStack base = previous != null && previous.getSequence() == record.getSequence() - 1 ? previous : null;
+            try {
+                if (base == null && loadBase && ProfileThreadSnapshotCodec.isCompact(record.getStackBinary())
+                    && ProfileThreadSnapshotCodec.sharedFrameCount(record.getStackBinary()) > 0) {
+                    base = loadBaseStack(segmentId, record.getSequence());
+                }
+                previous = ProfileStack.deserialize(record, base);
+                stacks.add(previous);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Deserialize snapshot {} of segment {} failure.", record.getSequence(), segmentId, e);
+                previous = null;
+            }
+        }
+        return stacks;
+    }
+
+    /**
+     * Load the snapshots from the nearest key snapshot to the previous one, and decode the previous stack.
+     */
+    private ProfileStack loadBaseStack(String segmentId, int sequence) {
+        int previousSequence = sequence - 1;
+        try {
+            List<ProfileThreadSnapshotRecord> records = new ArrayList<>(getProfileThreadSnapshotQueryDAO().queryRecords(
+                segmentId, ProfileThreadSnapshotCodec.keySequence(previousSequence), sequence));
+            List<ProfileStack> stacks = deserialize(segmentId, records, false);
+            if (CollectionUtils.isNotEmpty(stacks)) {
+                ProfileStack last = stacks.get(stacks.size() - 1);
+                if (last.getSequence() == previousSequence) {
+                    return last;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn(e.getMessage(), e);
+        }
+        return null;
+    }
+
     /**
      * Analyze records
      */
@@ -160,6 +369,15 @@ public class ProfileAnalyzer {
         return profileThreadSnapshotQueryDAO;
     }
 
+    protected IProfileStackSummaryQueryDAO getProfileStackSummaryQueryDAO() {
+        if (profileStackSummaryQueryDAO == null) {
+            profileStackSummaryQueryDAO = moduleManager.find(StorageModule.NAME)
+                                                       .provider()
+                                                       .getService(IProfileStackSummaryQueryDAO.class);
+        }
+        return profileStackSummaryQueryDAO;
+    }
+
     private static class SequenceSearch {
         private LinkedList<SequenceRange> ranges = new LinkedList<>();
         private int totalSequenceCount;
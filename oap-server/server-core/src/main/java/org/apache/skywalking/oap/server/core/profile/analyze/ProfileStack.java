@@ -25,6 +25,7 @@ import java.util.Objects;
 
 import lombok.Data;
 import org.apache.skywalking.apm.network.language.profile.v3.ThreadStack;
+import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotCodec;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 
 /**
@@ -38,17 +39,31 @@ public class ProfileStack implements Comparable<ProfileStack> {
     private List<String> stack;
 
     public static ProfileStack deserialize(ProfileThreadSnapshotRecord record) {
+        return deserialize(record, null);
+    }
+
+    /**
+     * @param previous the stack of the previous sequence of the same segment, only required when the record is a
+     *                 compact delta of it, see {@link ProfileThreadSnapshotCodec}.
+     */
+    public static ProfileStack deserialize(ProfileThreadSnapshotRecord record, ProfileStack previous) {
+        // build data
+        ProfileStack stack = new ProfileStack();
+        stack.sequence = record.getSequence();
+        stack.dumpTime = record.getDumpTime();
+
+        if (ProfileThreadSnapshotCodec.isCompact(record.getStackBinary())) {
+            stack.stack = ProfileThreadSnapshotCodec.decode(
+                record.getStackBinary(), previous == null ? null : previous.getStack());
+            return stack;
+        }
+
         ThreadStack threadStack = null;
         try {
             threadStack = ThreadStack.parseFrom(record.getStackBinary());
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException("wrong stack data");
         }
-
-        // build data
-        ProfileStack stack = new ProfileStack();
-        stack.sequence = record.getSequence();
-        stack.dumpTime = record.getDumpTime();
         stack.stack = threadStack.getCodeSignaturesList();
 
         return stack;
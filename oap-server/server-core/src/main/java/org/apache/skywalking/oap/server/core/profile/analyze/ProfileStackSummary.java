@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.profile.analyze;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import org.apache.skywalking.oap.server.core.query.type.ProfileStackElement;
+import org.apache.skywalking.oap.server.core.query.type.ProfileStackTree;
+
+/**
+ * The pre-aggregated stack trees of continuous sequences of one segment. Unlike {@link ProfileStackNode}, the nodes
+ * don't keep the detected stacks, but only the count, the duration, and the first and last detected sequence. Stacks
+ * must be accumulated in the sequence order, and a summary could be merged with the summary of the later sequences,
+ * the result is the same as analyzing all their stacks by {@link ProfileAnalyzer#analyze(List)}.
+ */
+public class ProfileStackSummary {
+    private static final int VERSION = 1;
+
+    /**
+     * Root nodes by their code signature, same as grouping the stacks by their first element.
+     */
+    private final Map<String, Node> roots = new HashMap<>();
+    @Getter
+    private int minSequence = -1;
+    @Getter
+    private int maxSequence = -1;
+    @Getter
+    private int snapshotCount;
+
+    /**
+     * @return true if no stack is accumulated.
+     */
+    public boolean isEmpty() {
+        return snapshotCount == 0;
+    }
+
+    /**
+     * @return true if all sequences from {@link #getMinSequence()} to {@link #getMaxSequence()} are accumulated.
+     */
+    public boolean isContinuous() {
+        return !isEmpty() && snapshotCount == maxSequence - minSequence + 1;
+    }
+
+    /**
+     * Accumulate the stack, its sequence must be greater than {@link #getMaxSequence()}.
+     */
+    public void accumulate(ProfileStack stack) {
+        if (!isEmpty() && stack.getSequence() <= maxSequence) {
+            throw new IllegalArgumentException(
+                "sequence " + stack.getSequence() + " is not after the max sequence " + maxSequence);
+        }
+        if (isEmpty()) {
+            minSequence = stack.getSequence();
+        }
+        maxSequence = stack.getSequence();
+        snapshotCount++;
+
+        List<String> stackList = stack.getStack();
+        if (stackList == null || stackList.isEmpty()) {
+            return;
+        }
+        Node node = roots.computeIfAbsent(stackList.get(0), Node::new);
+        node.detectedBy(stack);
+        for (int depth = 1; depth < stackList.size(); depth++) {
+            node = node.children.computeIfAbsent(stackList.get(depth), Node::new);
+            node.detectedBy(stack);
+        }
+    }
+
+    /**
+     * Merge the summary of the later sequences into this one.
+     */
+    public ProfileStackSummary mergeLater(ProfileStackSummary later) {
+        if (later.isEmpty()) {
+            return this;
+        }
+        if (!isEmpty() && later.minSequence <= maxSequence) {
+            throw new IllegalArgumentException(
+                "min sequence " + later.minSequence + " is not after the max sequence " + maxSequence);
+        }
+        if (isEmpty()) {
+            minSequence = later.minSequence;
+        }
+        maxSequence = later.maxSequence;
+        snapshotCount += later.snapshotCount;
+
+        // using stack to avoid recursion
+        LinkedList<Node[]> stack = new LinkedList<>();
+        mergeChildren(roots, later.roots, stack);
+        while (!stack.isEmpty()) {
+            Node[] pair = stack.pop();
+            pair[0].mergeLater(pair[1]);
+            mergeChildren(pair[0].children, pair[1].children, stack);
+        }
+        return this;
+    }
+
+    private static void mergeChildren(Map<String, Node> target, Map<String, Node> later, LinkedList<Node[]> stack) {
+        for (Node node : later.values()) {
+            Node exist = target.get(node.codeSignature);
+            if (exist == null) {
+                target.put(node.codeSignature, node);
+            } else {
+                stack.push(new Node[] {
+                    exist,
+                    node
+                });
+            }
+        }
+    }
+
+    /**
+     * Build the GraphQL result, same as {@link ProfileStackNode#buildAnalyzeResult()} of every root.
+     */
+    public List<ProfileStackTree> buildTrees() {
+        List<ProfileStackTree> trees = new ArrayList<>(roots.size());
+        for (Node root : roots.values()) {
+            ProfileStackTree tree = new ProfileStackTree();
+            int idGenerator = 1;
+
+            LinkedList<Node> nodes = new LinkedList<>();
+            LinkedList<ProfileStackElement> elements = new LinkedList<>();
+            nodes.add(root);
+            elements.add(root.buildElement(idGenerator++, 0));
+            while (!nodes.isEmpty()) {
+                Node node = nodes.pop();
+                ProfileStackElement element = elements.pop();
+                tree.getElements().add(element);
+
+                for (Node child : node.children.values()) {
+                    nodes.add(child);
+                    elements.add(child.buildElement(idGenerator++, element.getId()));
+                }
+            }
+            trees.add(tree);
+        }
+        return trees;
+    }
+
+    /**
+     * Layout: version, min sequence, max sequence, snapshot count, root count, then all nodes in pre-order, every node
+     * is (code signature, count, duration, first sequence, first dump time, last sequence, last dump time, child
+     * count).
+     */
+    public byte[] serialize() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            output.writeByte(VERSION);
+            output.writeInt(minSequence);
+            output.writeInt(maxSequence);
+            output.writeInt(snapshotCount);
+            output.writeInt(roots.size());
+
+            LinkedList<Node> stack = new LinkedList<>();
+            pushReversed(stack, roots);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                output.writeUTF(node.codeSignature);
+                output.writeInt(node.count);
+                output.writeLong(node.duration);
+                output.writeInt(node.firstSequence);
+                output.writeLong(node.firstDumpTime);
+                output.writeInt(node.lastSequence);
+                output.writeLong(node.lastDumpTime);
+                output.writeInt(node.children.size());
+                pushReversed(stack, node.children);
+            }
+            output.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static void pushReversed(LinkedList<Node> stack, Map<String, Node> nodes) {
+        List<Node> list = new ArrayList<>(nodes.values());
+        for (int i = list.size() - 1; i >= 0; i--) {
+            stack.push(list.get(i));
+        }
+    }
+
+    public static ProfileStackSummary parse(byte[] bytes) {
+        ProfileStackSummary summary = new ProfileStackSummary();
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+            int version = input.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unknown stack summary version: " + version);
+            }
+            summary.minSequence = input.readInt();
+            summary.maxSequence = input.readInt();
+            summary.snapshotCount = input.readInt();
+
+            // the parents and their remaining child counts
+            LinkedList<Map<String, Node>> parents = new LinkedList<>();
+            LinkedList<int[]> remaining = new LinkedList<>();
+            parents.push(summary.roots);
+            remaining.push(new int[] {input.readInt()});
+            while (!parents.isEmpty()) {
+                if (remaining.peek()[0] == 0) {
+                    parents.pop();
+                    remaining.pop();
+                    continue;
+                }
+                remaining.peek()[0]--;
+
+                Node node = new Node(input.readUTF());
+                node.count = input.readInt();
+                node.duration = input.readLong();
+                node.firstSequence = input.readInt();
+                node.firstDumpTime = input.readLong();
+                node.lastSequence = input.readInt();
+                node.lastDumpTime = input.readLong();
+                parents.peek().put(node.codeSignature, node);
+
+                parents.push(node.children);
+                remaining.push(new int[] {input.readInt()});
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("wrong stack summary data", e);
+        }
+        return summary;
+    }
+
+    private static class Node {
+        private final String codeSignature;
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private int count;
+        private long duration;
+        private int firstSequence;
+        private long firstDumpTime;
+        private int lastSequence;
+        private long lastDumpTime;
+
+        private Node(String codeSignature) {
+            this.codeSignature = codeSignature;
+        }
+
+        private void detectedBy(ProfileStack stack) {
+            if (count == 0) {
+                firstSequence = stack.getSequence();
+                firstDumpTime = stack.getDumpTime();
+            } else if (lastSequence + 1 == stack.getSequence()) {
+                // is continuity
+                duration += stack.getDumpTime() - lastDumpTime;
+            }
+            lastSequence = stack.getSequence();
+            lastDumpTime = stack.getDumpTime();
+            count++;
+        }
+
+        private void mergeLater(Node later) {
+            duration += later.duration;
+            if (lastSequence + 1 == later.firstSequence) {
+                duration += later.firstDumpTime - lastDumpTime;
+            }
+            lastSequence = later.lastSequence;
+            lastDumpTime = later.lastDumpTime;
+            count += later.count;
+        }
+
+        private ProfileStackElement buildElement(int id, int parentId) {
+            ProfileStackElement element = new ProfileStackElement();
+            element.setId(id);
+            element.setParentId(parentId);
+            element.setCodeSignature(codeSignature);
+            element.setCount(count);
+            element.setDuration(Math.toIntExact(duration));
+            element.setDurationChildExcluded(
+                Math.toIntExact(duration - children.values().stream().mapToLong(c -> c.duration).sum()));
+            return element;
+        }
+    }
+}
@@ -20,27 +20,54 @@ package org.apache.skywalking.oap.server.core.query;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.apache.skywalking.apm.util.StringUtil;
 import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.manual.instance.InstanceTraffic;
+import org.apache.skywalking.oap.server.core.analysis.manual.sketch.TopNSketch;
+import org.apache.skywalking.oap.server.core.analysis.manual.sketch.TopNSketchMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.sketch.TopNSketchRanking;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.query.enumeration.Order;
 import org.apache.skywalking.oap.server.core.query.input.Duration;
 import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
 import org.apache.skywalking.oap.server.core.query.type.KeyValue;
 import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.StorageDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
+import org.apache.skywalking.oap.server.core.storage.model.IModelManager;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.module.Service;
 
 public class AggregationQueryService implements Service {
+    /**
+     * The max number of the time buckets sorted by the {@link TopNSketch}es, the longer duration is sorted by the
+     * storage.
+     */
+    private static final int MAX_SKETCH_BUCKETS = 120;
+
     private final ModuleManager moduleManager;
+    private final Set<String> topNSketchMetrics;
     private IAggregationQueryDAO aggregationQueryDAO;
+    private IMetricsDAO topNSketchDAO;
+    private Model topNSketchModel;
 
-    public AggregationQueryService(ModuleManager moduleManager) {
+    public AggregationQueryService(ModuleManager moduleManager, Set<String> topNSketchMetrics) {
         this.moduleManager = moduleManager;
+        this.topNSketchMetrics = topNSketchMetrics;
     }
 
     private IAggregationQueryDAO getAggregationQueryDAO() {
@@ -52,6 +79,29 @@ public class AggregationQueryService implements Service {
         return aggregationQueryDAO;
     }
 
+    @SuppressWarnings("unchecked")
+    private IMetricsDAO getTopNSketchDAO() {
+        if (topNSketchDAO == null) {
+            StorageDAO storageDAO = moduleManager.find(StorageModule.NAME).provider().getService(StorageDAO.class);
+            topNSketchDAO = storageDAO.newMetricsDao((StorageBuilder) new TopNSketchMetrics.Builder());
+        }
+        return topNSketchDAO;
+    }
+
+    private Model getTopNSketchModel() {
+        if (topNSketchModel == null) {
+            topNSketchModel = moduleManager.find(CoreModule.NAME)
+                                           .provider()
+                                           .getService(IModelManager.class)
+                                           .allModels()
+                                           .stream()
+                                           .filter(model -> TopNSketchMetrics.INDEX_NAME.equals(model.getName()))
+                                           .findFirst()
+                                           .orElse(null);
+        }
+        return topNSketchModel;
+    }
+
     public List<SelectedRecord> sortMetrics(TopNCondition condition, Duration duration) throws IOException {
         final String valueCName = ValueColumnMetadata.INSTANCE.getValueCName(condition.getName());
         List<KeyValue> additionalConditions = null;
@@ -60,8 +110,14 @@ public class AggregationQueryService implements Service {
             final String serviceId = IDManager.ServiceID.buildId(condition.getParentService(), condition.isNormal());
             additionalConditions.add(new KeyValue(InstanceTraffic.SERVICE_ID, serviceId));
         }
-        final List<SelectedRecord> selectedRecords = getAggregationQueryDAO().sortMetrics(
-            condition, valueCName, duration, additionalConditions);
+        List<SelectedRecord> selectedRecords = null;
+        if (topNSketchMetrics.contains(condition.getName())) {
+            selectedRecords = sortMetricsBySketch(condition, duration);
+        }
+        if (selectedRecords == null) {
+            selectedRecords = getAggregationQueryDAO().sortMetrics(
+                condition, valueCName, duration, additionalConditions);
+        }
         selectedRecords.forEach(selectedRecord -> {
             switch (condition.getScope()) {
                 case Service:
@@ -102,4 +158,86 @@ public class AggregationQueryService implements Service {
         });
         return selectedRecords;
     }
+
+    /**
+     * Sort the metrics by the {@link TopNSketch}es of the time buckets in the duration.
+     *
+     * @return null if any sketch is absent or not reported by all nodes, or the sketches couldn't guarantee the result.
+     */
+    private List<SelectedRecord> sortMetricsBySketch(TopNCondition condition, Duration duration) throws IOException {
+        if (condition.getTopN() <= 0) {
+            return null;
+        }
+        final DownSampling downsampling;
+        final long bucketLength;
+        switch (duration.getStep()) {
+            case MINUTE:
+                downsampling = DownSampling.Minute;
+                bucketLength = 60 * 1000L;
+                break;
+            case HOUR:
+                downsampling = DownSampling.Hour;
+                bucketLength = 60 * 60 * 1000L;
+                break;
+            case DAY:
+                downsampling = DownSampling.Day;
+                bucketLength = 24 * 60 * 60 * 1000L;
+                break;
+            default:
+                return null;
+        }
+
+        Predicate<String> entityFilter = entityId -> true;
+        if (StringUtil.isNotEmpty(condition.getParentService())) {
+            final String serviceId = IDManager.ServiceID.buildId(condition.getParentService(), condition.isNormal());
+            switch (condition.getScope()) {
+                case ServiceInstance:
+                    entityFilter = entityId -> serviceId.equals(
+                        IDManager.ServiceInstanceID.analysisId(entityId).getServiceId());
+                    break;
+                case Endpoint:
+                    entityFilter = entityId -> serviceId.equals(
+                        IDManager.EndpointID.analysisId(entityId).getServiceId());
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        final long startTime = TimeBucket.getTimestamp(duration.getStartTimeBucket(), downsampling);
+        final long endTime = TimeBucket.getTimestamp(duration.getEndTimeBucket(), downsampling);
+        final Model model = getTopNSketchModel();
+        if (model == null || (endTime - startTime) / bucketLength >= MAX_SKETCH_BUCKETS) {
+            return null;
+        }
+
+        final List<String> ids = new ArrayList<>();
+        for (PointOfTime point : duration.assembleDurationPoints()) {
+            final long bucketStartTime = TimeBucket.getTimestamp(point.getPoint(), downsampling);
+            ids.add(TopNSketchMetrics.buildId(
+                TimeBucket.getMinuteTimeBucket(bucketStartTime), condition.getName(), downsampling.getValue()));
+        }
+        if (ids.isEmpty()) {
+            return null;
+        }
+        final Map<String, TopNSketchMetrics> sketches = new HashMap<>();
+        for (Metrics metrics : getTopNSketchDAO().multiGet(model, ids)) {
+            sketches.put(metrics.id(), (TopNSketchMetrics) metrics);
+        }
+
+        final TopNSketchRanking ranking = new TopNSketchRanking(!Order.ASC.equals(condition.getOrder()), entityFilter);
+        for (String id : ids) {
+            final TopNSketchMetrics sketchMetrics = sketches.get(id);
+            // The sketch of a recent time bucket may not be saved yet, or miss the reports of some nodes.
+            if (sketchMetrics == null) {
+                return null;
+            }
+            final TopNSketch sketch = TopNSketch.fromBytes(sketchMetrics.getSketch());
+            if (!sketch.isComplete()) {
+                return null;
+            }
+            ranking.addBucket(sketch);
+        }
+        return ranking.rank(condition.getTopN());
+    }
 }
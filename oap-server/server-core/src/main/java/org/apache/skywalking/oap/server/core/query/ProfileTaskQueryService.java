@@ -28,6 +28,7 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.CoreModuleConfig;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentDataBinary;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
@@ -68,7 +69,7 @@ public class ProfileTaskQueryService implements Service {
         this.moduleManager = moduleManager;
         this.profileAnalyzer = new ProfileAnalyzer(
             moduleManager, moduleConfig.getMaxPageSizeOfQueryProfileSnapshot(),
-            moduleConfig.getMaxSizeOfAnalyzeProfileSnapshot()
+            moduleConfig.getMaxSizeOfAnalyzeProfileSnapshot(), moduleConfig.isProfileAnalyzeWithStackSummary()
         );
     }
 
@@ -173,7 +174,7 @@ public class ProfileTaskQueryService implements Service {
         }
 
         ProfiledSegment profiledSegment = new ProfiledSegment();
-        SegmentObject segmentObject = SegmentObject.parseFrom(segmentRecord.getDataBinary());
+        SegmentObject segmentObject = SegmentDataBinary.parse(segmentRecord.getDataBinary());
         profiledSegment.getSpans().addAll(buildProfiledSpanList(segmentObject));
 
         return profiledSegment;
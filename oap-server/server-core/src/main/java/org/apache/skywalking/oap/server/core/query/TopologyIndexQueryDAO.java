@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.TopologyIndex;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+
+/**
+ * Query the service relations from the {@link TopologyIndex}. The service instance and endpoint relations are not
+ * indexed, they are still queried from the storage.
+ */
+class TopologyIndexQueryDAO implements ITopologyQueryDAO {
+    private final TopologyIndex topologyIndex;
+    private final ITopologyQueryDAO storageDAO;
+
+    TopologyIndexQueryDAO(TopologyIndex topologyIndex, ITopologyQueryDAO storageDAO) {
+        this.topologyIndex = topologyIndex;
+        this.storageDAO = storageDAO;
+    }
+
+    @Override
+    public List<Call.CallDetail> loadServiceRelationsDetectedAtServerSide(long startTB, long endTB,
+                                                                          List<String> serviceIds) {
+        return topologyIndex.loadServiceRelations(DetectPoint.SERVER, startTB, endTB, serviceIds);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadServiceRelationDetectedAtClientSide(long startTB, long endTB,
+                                                                         List<String> serviceIds) {
+        return topologyIndex.loadServiceRelations(DetectPoint.CLIENT, startTB, endTB, serviceIds);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadServiceRelationsDetectedAtServerSide(long startTB, long endTB) {
+        return topologyIndex.loadServiceRelations(DetectPoint.SERVER, startTB, endTB, null);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadServiceRelationDetectedAtClientSide(long startTB, long endTB) {
+        return topologyIndex.loadServiceRelations(DetectPoint.CLIENT, startTB, endTB, null);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadInstanceRelationDetectedAtServerSide(String clientServiceId,
+                                                                          String serverServiceId,
+                                                                          long startTB,
+                                                                          long endTB) throws IOException {
+        return storageDAO.loadInstanceRelationDetectedAtServerSide(clientServiceId, serverServiceId, startTB, endTB);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadInstanceRelationDetectedAtClientSide(String clientServiceId,
+                                                                          String serverServiceId,
+                                                                          long startTB,
+                                                                          long endTB) throws IOException {
+        return storageDAO.loadInstanceRelationDetectedAtClientSide(clientServiceId, serverServiceId, startTB, endTB);
+    }
+
+    @Override
+    public List<Call.CallDetail> loadEndpointRelation(long startTB,
+                                                      long endTB,
+                                                      String destEndpointId) throws IOException {
+        return storageDAO.loadEndpointRelation(startTB, endTB, destEndpointId);
+    }
+}
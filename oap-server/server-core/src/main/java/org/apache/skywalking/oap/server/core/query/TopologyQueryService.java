@@ -28,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.TopologyIndex;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
 import org.apache.skywalking.oap.server.core.query.type.Call;
 import org.apache.skywalking.oap.server.core.query.type.Node;
@@ -44,6 +45,7 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 public class TopologyQueryService implements Service {
     private final ModuleManager moduleManager;
     private ITopologyQueryDAO topologyQueryDAO;
+    private ITopologyQueryDAO topologyIndexQueryDAO;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
     public TopologyQueryService(ModuleManager moduleManager) {
@@ -57,6 +59,19 @@ public class TopologyQueryService implements Service {
         return topologyQueryDAO;
     }
 
+    /**
+     * @return the DAO of the {@link TopologyIndex} if it covers the whole time range, otherwise the storage DAO.
+     */
+    private ITopologyQueryDAO getTopologyQueryDAO(final long startTB, final long endTB) {
+        if (TopologyIndex.INSTANCE.covers(startTB, endTB)) {
+            if (topologyIndexQueryDAO == null) {
+                topologyIndexQueryDAO = new TopologyIndexQueryDAO(TopologyIndex.INSTANCE, getTopologyQueryDAO());
+            }
+            return topologyIndexQueryDAO;
+        }
+        return getTopologyQueryDAO();
+    }
+
     private IComponentLibraryCatalogService getComponentLibraryCatalogService() {
         if (componentLibraryCatalogService == null) {
             componentLibraryCatalogService = moduleManager.find(CoreModule.NAME)
@@ -68,9 +83,10 @@ public class TopologyQueryService implements Service {
 
     public Topology getGlobalTopology(final long startTB,
                                       final long endTB) throws IOException {
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
+        ITopologyQueryDAO queryDAO = getTopologyQueryDAO(startTB, endTB);
+        List<Call.CallDetail> serviceRelationServerCalls = queryDAO.loadServiceRelationsDetectedAtServerSide(
             startTB, endTB);
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
+        List<Call.CallDetail> serviceRelationClientCalls = queryDAO.loadServiceRelationDetectedAtClientSide(
             startTB, endTB);
 
         ServiceTopologyBuilder builder = new ServiceTopologyBuilder(moduleManager);
@@ -79,9 +95,10 @@ public class TopologyQueryService implements Service {
 
     public Topology getServiceTopology(final long startTB, final long endTB,
                                        final List<String> serviceIds) throws IOException {
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
+        ITopologyQueryDAO queryDAO = getTopologyQueryDAO(startTB, endTB);
+        List<Call.CallDetail> serviceRelationClientCalls = queryDAO.loadServiceRelationDetectedAtClientSide(
             startTB, endTB, serviceIds);
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
+        List<Call.CallDetail> serviceRelationServerCalls = queryDAO.loadServiceRelationsDetectedAtServerSide(
             startTB, endTB, serviceIds);
 
         ServiceTopologyBuilder builder = new ServiceTopologyBuilder(moduleManager);
@@ -102,7 +119,7 @@ public class TopologyQueryService implements Service {
         });
         if (CollectionUtils.isNotEmpty(outScopeSourceServiceIds)) {
             // If exist, query them as the server side to get the target's component.
-            List<Call.CallDetail> sourceCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
+            List<Call.CallDetail> sourceCalls = queryDAO.loadServiceRelationsDetectedAtServerSide(
                 startTB, endTB, outScopeSourceServiceIds);
             topology.getNodes().forEach(node -> {
                 if (Strings.isNullOrEmpty(node.getType())) {
@@ -123,9 +140,10 @@ public class TopologyQueryService implements Service {
                                                               final String serverServiceId,
                                                               final long startTB,
                                                               final long endTB) throws IOException {
-        List<Call.CallDetail> serviceInstanceRelationClientCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtClientSide(
+        ITopologyQueryDAO queryDAO = getTopologyQueryDAO(startTB, endTB);
+        List<Call.CallDetail> serviceInstanceRelationClientCalls = queryDAO.loadInstanceRelationDetectedAtClientSide(
             clientServiceId, serverServiceId, startTB, endTB);
-        List<Call.CallDetail> serviceInstanceRelationServerCalls = getTopologyQueryDAO().loadInstanceRelationDetectedAtServerSide(
+        List<Call.CallDetail> serviceInstanceRelationServerCalls = queryDAO.loadInstanceRelationDetectedAtServerSide(
             clientServiceId, serverServiceId, startTB, endTB);
 
         ServiceInstanceTopologyBuilder builder = new ServiceInstanceTopologyBuilder(moduleManager);
@@ -26,6 +26,7 @@ import java.util.List;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentDataBinary;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
 import org.apache.skywalking.oap.server.core.query.type.KeyValue;
@@ -102,7 +103,7 @@ public class TraceQueryService implements Service {
         } else {
             for (SegmentRecord segment : segmentRecords) {
                 if (nonNull(segment)) {
-                    SegmentObject segmentObject = SegmentObject.parseFrom(segment.getDataBinary());
+                    SegmentObject segmentObject = SegmentDataBinary.parse(segment.getDataBinary());
                     trace.getSpans()
                          .addAll(buildSpanList(segmentObject));
                 }
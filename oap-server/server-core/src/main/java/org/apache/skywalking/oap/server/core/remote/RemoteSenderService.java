@@ -80,6 +80,9 @@ public class RemoteSenderService implements Service {
             case ForeverFirst:
                 remoteClient = foreverFirstSelector.select(clientList, streamData);
                 break;
+            case Broadcast:
+                clientList.forEach(client -> client.push(nextWorkName, streamData));
+                return;
         }
         remoteClient.push(nextWorkName, streamData);
     }
@@ -21,6 +21,8 @@ package org.apache.skywalking.oap.server.core.remote;
 import io.grpc.stub.StreamObserver;
 import java.util.Objects;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.PipelineStage;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
@@ -54,6 +56,7 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
     private CounterMetrics remoteInErrorCounter;
     private CounterMetrics remoteInTargetNotFoundCounter;
     private HistogramMetrics remoteInHistogram;
+    private HistogramMetrics remoteTransferLatency;
 
     public RemoteServiceHandler(ModuleDefineHolder moduleDefineHolder) {
         this.moduleDefineHolder = moduleDefineHolder;
@@ -90,6 +93,8 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                                                   "The latency(server side) of inside remote inside aggregate rpc.",
                                                   MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
                                               );
+        remoteTransferLatency = PipelineStage.REMOTE_TRANSFER.createLatencyHistogram(
+            moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
     }
 
     /**
@@ -108,9 +113,18 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
         }
 
         return new StreamObserver<RemoteMessage>() {
+            /**
+             * The earliest send time of the messages in this stream, observed once when the stream is completed.
+             */
+            private long earliestSendTimestamp = 0L;
+
             @Override
             public void onNext(RemoteMessage message) {
                 remoteInCounter.inc();
+                long sendTimestamp = message.getSendTimestamp();
+                if (sendTimestamp > 0L && (earliestSendTimestamp == 0L || sendTimestamp < earliestSendTimestamp)) {
+                    earliestSendTimestamp = sendTimestamp;
+                }
                 HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
                 try {
                     String nextWorkerName = message.getNextWorkerName();
@@ -122,6 +136,9 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                             AbstractWorker nextWorker = handleWorker.getWorker();
                             StreamData streamData = handleWorker.getStreamDataClass().newInstance();
                             streamData.deserialize(remoteData);
+                            if (streamData instanceof Metrics) {
+                                ((Metrics) streamData).setReceivedTimestamp(message.getReceivedTimestamp());
+                            }
                             nextWorker.in(streamData);
                         } else {
                             remoteInTargetNotFoundCounter.inc();
@@ -146,6 +163,7 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
 
             @Override
             public void onCompleted() {
+                PipelineStage.observeSince(remoteTransferLatency, earliestSendTimestamp, System.currentTimeMillis());
                 responseObserver.onNext(Empty.newBuilder().build());
                 responseObserver.onCompleted();
             }
@@ -27,6 +27,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.worker.PipelineStage;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
@@ -35,6 +37,7 @@ import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
@@ -54,10 +57,11 @@ public class GRPCRemoteClient implements RemoteClient {
     private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
     private SslContext sslContext;
     private GRPCClient client;
-    private DataCarrier<RemoteMessage> carrier;
+    private DataCarrier<RemoteMessage.Builder> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private HistogramMetrics remoteQueueLatency;
     private int remoteTimeout;
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
@@ -83,6 +87,8 @@ public class GRPCRemoteClient implements RemoteClient {
                                                   .getService(MetricsCreator.class)
                                                   .createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.", new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address
                                                                                                                                                                                                                                   .toString(), "N"));
+        remoteQueueLatency = PipelineStage.REMOTE_QUEUE.createLatencyHistogram(
+            moduleDefineHolder.find(TelemetryModule.NAME).provider().getService(MetricsCreator.class));
     }
 
     @Override
@@ -118,7 +124,7 @@ public class GRPCRemoteClient implements RemoteClient {
         return RemoteServiceGrpc.newStub(getChannel());
     }
 
-    DataCarrier<RemoteMessage> getDataCarrier() {
+    DataCarrier<RemoteMessage.Builder> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
                 if (Objects.isNull(this.carrier)) {
@@ -140,22 +146,40 @@ public class GRPCRemoteClient implements RemoteClient {
         RemoteMessage.Builder builder = RemoteMessage.newBuilder();
         builder.setNextWorkerName(nextWorkerName);
         builder.setRemoteData(streamData.serialize());
+        if (streamData instanceof Metrics) {
+            builder.setReceivedTimestamp(((Metrics) streamData).getReceivedTimestamp());
+        }
+        // Until the message is sent by the consumer, the send timestamp holds the time entering the queue.
+        builder.setSendTimestamp(System.currentTimeMillis());
 
-        this.getDataCarrier().produce(builder.build());
+        this.getDataCarrier().produce(builder);
     }
 
-    class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
+    /**
+     * The messages are built when being sent, so the send timestamp excludes the time waiting in the queue and for a
+     * stream observer.
+     */
+    class RemoteMessageConsumer implements IConsumer<RemoteMessage.Builder> {
         @Override
         public void init() {
         }
 
         @Override
-        public void consume(List<RemoteMessage> remoteMessages) {
+        public void consume(List<RemoteMessage.Builder> remoteMessages) {
+            long earliestQueuedTimestamp = 0L;
+            for (RemoteMessage.Builder remoteMessage : remoteMessages) {
+                long queuedTimestamp = remoteMessage.getSendTimestamp();
+                if (earliestQueuedTimestamp == 0L || queuedTimestamp < earliestQueuedTimestamp) {
+                    earliestQueuedTimestamp = queuedTimestamp;
+                }
+            }
+            PipelineStage.observeSince(remoteQueueLatency, earliestQueuedTimestamp, System.currentTimeMillis());
             try {
                 StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
+                long sendTimestamp = System.currentTimeMillis();
+                for (RemoteMessage.Builder remoteMessage : remoteMessages) {
                     remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                    streamObserver.onNext(remoteMessage.setSendTimestamp(sendTimestamp).build());
                 }
                 streamObserver.onCompleted();
             } catch (Throwable t) {
@@ -165,7 +189,7 @@ public class GRPCRemoteClient implements RemoteClient {
         }
 
         @Override
-        public void onError(List<RemoteMessage> remoteMessages, Throwable t) {
+        public void onError(List<RemoteMessage.Builder> remoteMessages, Throwable t) {
             logger.error(t.getMessage(), t);
         }
 
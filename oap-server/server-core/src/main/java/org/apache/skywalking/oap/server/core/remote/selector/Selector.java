@@ -19,5 +19,9 @@
 package org.apache.skywalking.oap.server.core.remote.selector;
 
 public enum Selector {
-    HashCode, Rolling, ForeverFirst
+    HashCode, Rolling, ForeverFirst,
+    /**
+     * Send to all OAP nodes, including the current one.
+     */
+    Broadcast
 }
@@ -66,6 +66,8 @@ public class DefaultScopeDefine {
     public static final int SERVICE_META = 29;
     public static final int SERVICE_INSTANCE_UPDATE = 30;
     public static final int NETWORK_ADDRESS_ALIAS = 31;
+    public static final int PROFILE_TASK_SEGMENT_STACK_SUMMARY = 32;
+    public static final int TOP_N_SKETCH = 33;
 
     /**
      * Catalog of scope, the metrics processor could use this to group all generated metrics by oal rt.
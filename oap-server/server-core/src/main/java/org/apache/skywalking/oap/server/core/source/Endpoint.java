@@ -78,6 +78,8 @@ public class Endpoint extends Source {
 
     @Override
     public void prepare() {
+        // The entity ID of the reused source is built again from the new IDs.
+        entityId = null;
         serviceId = IDManager.ServiceID.buildId(serviceName, serviceNodeType);
     }
 }
@@ -105,6 +105,8 @@ public class ServiceInstanceRelation extends Source {
 
     @Override
     public void prepare() {
+        // The entity ID of the reused source is built again from the new IDs.
+        entityId = null;
         sourceServiceId = IDManager.ServiceID.buildId(sourceServiceName, sourceServiceNodeType);
         destServiceId = IDManager.ServiceID.buildId(destServiceName, destServiceNodeType);
         sourceServiceInstanceId = IDManager.ServiceInstanceID.buildId(sourceServiceId, sourceServiceInstanceName);
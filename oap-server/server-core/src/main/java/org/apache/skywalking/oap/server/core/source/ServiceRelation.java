@@ -95,6 +95,8 @@ public class ServiceRelation extends Source {
 
     @Override
     public void prepare() {
+        // The entity ID of the reused source is built again from the new IDs.
+        entityId = null;
         sourceServiceId = IDManager.ServiceID.buildId(sourceServiceName, sourceServiceNodeType);
         destServiceId = IDManager.ServiceID.buildId(destServiceName, destServiceNodeType);
     }
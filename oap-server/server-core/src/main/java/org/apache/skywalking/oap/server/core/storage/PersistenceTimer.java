@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.core.storage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -47,6 +48,8 @@ public enum PersistenceTimer {
     private HistogramMetrics executeLatency;
     private long lastTime = System.currentTimeMillis();
     private final List<PrepareRequest> prepareRequests = new ArrayList<>(50000);
+    private IBatchDAO batchDAO;
+    private ScheduledExecutorService executor;
 
     PersistenceTimer() {
         this.debug = System.getProperty("debug") != null;
@@ -54,7 +57,7 @@ public enum PersistenceTimer {
 
     public void start(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         log.info("persistence timer start");
-        IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
+        batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
         MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
                                                      .provider()
@@ -73,17 +76,37 @@ public enum PersistenceTimer {
         );
 
         if (!isStarted) {
-            Executors.newSingleThreadScheduledExecutor()
-                     .scheduleWithFixedDelay(
-                         new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO), t -> log
-                             .error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(),
-                         TimeUnit.SECONDS
-                     );
+            executor = Executors.newSingleThreadScheduledExecutor();
+            executor.scheduleWithFixedDelay(
+                new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO), t -> log
+                    .error("Extract data and save failure.", t)), 5, moduleConfig.getPersistentPeriod(),
+                TimeUnit.SECONDS
+            );
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "PersistenceTimerShutdown"));
 
             this.isStarted = true;
         }
     }
 
+    /**
+     * Stop the timer, then run the last round, in which the workers prepare all the data they still hold.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("The running persistence round is not finished before shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        TopNStreamProcessor.getInstance().getPersistentWorkers().forEach(PersistenceWorker::beforeShutdown);
+        MetricsStreamProcessor.getInstance().getPersistentWorkers().forEach(PersistenceWorker::beforeShutdown);
+        extractDataAndSave(batchDAO);
+        log.info("persistence timer stopped");
+    }
+
     private void extractDataAndSave(IBatchDAO batchDAO) {
         if (log.isDebugEnabled()) {
             log.debug("Extract data and save");
@@ -94,8 +117,8 @@ public enum PersistenceTimer {
         try {
             HistogramMetrics.Timer timer = prepareLatency.createTimer();
 
+            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
             try {
-                List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
                 persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
                 persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
 
@@ -124,6 +147,9 @@ public enum PersistenceTimer {
             } finally {
                 executeLatencyTimer.finish();
             }
+
+            long persistedTime = System.currentTimeMillis();
+            persistenceWorkers.forEach(worker -> worker.afterPersistence(persistedTime));
         } catch (Throwable e) {
             errorCounter.inc();
             log.error(e.getMessage(), e);
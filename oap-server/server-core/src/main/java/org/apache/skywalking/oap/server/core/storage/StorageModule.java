@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressAliasDAO;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskLogQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
@@ -61,7 +62,8 @@ public class StorageModule extends ModuleDefine {
             ILogQueryDAO.class,
             IProfileTaskQueryDAO.class,
             IProfileTaskLogQueryDAO.class,
-            IProfileThreadSnapshotQueryDAO.class
+            IProfileThreadSnapshotQueryDAO.class,
+            IProfileStackSummaryQueryDAO.class
         };
     }
 }
@@ -48,7 +48,7 @@ public class StorageModels implements IModelManager, ModelCreator, ModelManipula
     }
 
     @Override
-    public Model add(Class<?> aClass, int scopeId, Storage storage, boolean record) throws StorageException {
+    public synchronized Model add(Class<?> aClass, int scopeId, Storage storage, boolean record) throws StorageException {
         // Check this scope id is valid.
         DefaultScopeDefine.nameOf(scopeId);
 
@@ -74,7 +74,7 @@ public class StorageModels implements IModelManager, ModelCreator, ModelManipula
      * added models are being notified in this add operation.
      */
     @Override
-    public void addModelListener(final CreatingListener listener) throws StorageException {
+    public synchronized void addModelListener(final CreatingListener listener) throws StorageException {
         listeners.add(listener);
         for (Model model : models) {
             listener.whenCreating(model);
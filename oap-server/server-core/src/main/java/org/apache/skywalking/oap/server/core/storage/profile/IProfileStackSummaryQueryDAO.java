@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.profile;
+
+import java.io.IOException;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.storage.DAO;
+
+/**
+ * {@link ProfileStackSummaryRecord} database queries
+ */
+public interface IProfileStackSummaryQueryDAO extends DAO {
+
+    /**
+     * search the summaries of the time slices inside the time range
+     *
+     * @param start include self, the slice start should not be less than it
+     * @param end   include self, the slice end(exclude self) should not be greater than it + 1
+     * @return summaries sorted by slice start
+     */
+    List<ProfileStackSummaryRecord> querySummaries(String segmentId, long start, long end) throws IOException;
+}
@@ -18,8 +18,8 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.slf4j.Logger;
@@ -34,7 +34,7 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     private final Map<String, RemoteHandleWorker> instances;
 
     public WorkerInstancesService() {
-        this.instances = new HashMap<>();
+        this.instances = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -45,10 +45,11 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     @Override
     public void put(String remoteReceiverWorkName, AbstractWorker instance,
         Class<? extends StreamData> streamDataClass) {
-        if (instances.containsKey(remoteReceiverWorkName)) {
+        RemoteHandleWorker existed = instances.putIfAbsent(
+            remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
+        if (existed != null) {
             throw new UnexpectedException("Duplicate worker name:" + remoteReceiverWorkName);
         }
-        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
         logger.debug("Worker {} has been registered as {}", instance.toString(), remoteReceiverWorkName);
     }
 }
@@ -18,6 +18,12 @@
 
 package org.apache.skywalking.oap.server.core.analysis;
 
+import java.util.function.Function;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -49,4 +55,53 @@ public class IDManagerTest {
         Assert.assertEquals(define, serviceRelationDefine);
     }
 
+    @Test
+    public void testCachedID() {
+        final String serviceId = IDManager.ServiceID.buildId("Service", true);
+        final String instanceId = IDManager.ServiceInstanceID.buildId(serviceId, "Instance");
+        final String endpointId = IDManager.EndpointID.buildId(serviceId, "Endpoint");
+
+        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+        final Function<EntityIDCache.Key, String> builder = IDManager::build;
+        EntityIDCache cache = new EntityIDCache();
+        cache.start(moduleManager, 100);
+        // started already, ignored
+        cache.start(moduleManager, 100);
+
+        try {
+            final String cachedServiceId = cache.get(
+                EntityIDCache.Type.NORMAL_SERVICE, null, "Service", builder);
+            Assert.assertEquals(serviceId, cachedServiceId);
+            Assert.assertSame(
+                cachedServiceId, cache.get(EntityIDCache.Type.NORMAL_SERVICE, null, "Service", builder));
+            Assert.assertNotEquals(
+                cachedServiceId, cache.get(EntityIDCache.Type.CONJECTURAL_SERVICE, null, "Service", builder));
+
+            final String cachedInstanceId = cache.get(
+                EntityIDCache.Type.SERVICE_INSTANCE, serviceId, "Instance", builder);
+            Assert.assertEquals(instanceId, cachedInstanceId);
+            Assert.assertSame(
+                cachedInstanceId, cache.get(EntityIDCache.Type.SERVICE_INSTANCE, serviceId, "Instance", builder));
+
+            final String cachedEndpointId = cache.get(
+                EntityIDCache.Type.ENDPOINT, serviceId, "Endpoint", builder);
+            Assert.assertEquals(endpointId, cachedEndpointId);
+            Assert.assertSame(
+                cachedEndpointId, cache.get(EntityIDCache.Type.ENDPOINT, serviceId, "Endpoint", builder));
+            // The same name of the instance and endpoint doesn't share the ID.
+            Assert.assertNotSame(
+                cachedEndpointId, cache.get(EntityIDCache.Type.SERVICE_INSTANCE, serviceId, "Endpoint", builder));
+        } finally {
+            cache.stop();
+        }
+
+        // The IDs are built every time after stopped.
+        final String builtEndpointId = cache.get(EntityIDCache.Type.ENDPOINT, serviceId, "Endpoint", builder);
+        Assert.assertEquals(endpointId, builtEndpointId);
+        Assert.assertNotSame(
+            builtEndpointId, cache.get(EntityIDCache.Type.ENDPOINT, serviceId, "Endpoint", builder));
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TopologyIndexTest {
+
+    private RemoteSenderService remoteSender;
+    private AbstractWorker<TopologyEdge> syncWorker;
+    private long currentTimeBucket;
+    private long startTime;
+    private ModuleManagerTesting moduleManager;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting coreModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(CoreModule.NAME, coreModuleDefine);
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+
+        remoteSender = mock(RemoteSenderService.class);
+        IWorkerInstanceSetter workerInstanceSetter = mock(IWorkerInstanceSetter.class);
+        coreModuleDefine.provider().registerServiceImplementation(RemoteSenderService.class, remoteSender);
+        coreModuleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstanceSetter);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+
+        startTime = System.currentTimeMillis();
+        TopologyIndex.INSTANCE.start(moduleManager, true, 60, CoreModuleConfig.Role.Mixed.name());
+
+        ArgumentCaptor<AbstractWorker> workerCaptor = ArgumentCaptor.forClass(AbstractWorker.class);
+        verify(workerInstanceSetter).put(
+            eq(TopologyIndex.SYNC_WORKER_NAME), workerCaptor.capture(), eq(TopologyEdge.class));
+        syncWorker = workerCaptor.getValue();
+        currentTimeBucket = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis());
+    }
+
+    @After
+    public void tearDown() {
+        TopologyIndex.INSTANCE.start(null, false, 0, null);
+    }
+
+    @Test
+    public void testBroadcastNewRelationOnly() {
+        String relationId = serviceRelationId("service-a", "service-b");
+        recordServiceRelation(relationId, currentTimeBucket);
+        recordServiceRelation(relationId, currentTimeBucket);
+        verify(remoteSender, times(1)).send(
+            eq(TopologyIndex.SYNC_WORKER_NAME), any(TopologyEdge.class), eq(Selector.Broadcast));
+
+        // new in the next minute
+        recordServiceRelation(relationId, currentTimeBucket + 1);
+        verify(remoteSender, times(2)).send(
+            eq(TopologyIndex.SYNC_WORKER_NAME), any(TopologyEdge.class), eq(Selector.Broadcast));
+
+        // out of the window
+        recordServiceRelation(relationId, 202001010000L);
+        verify(remoteSender, times(2)).send(
+            eq(TopologyIndex.SYNC_WORKER_NAME), any(TopologyEdge.class), eq(Selector.Broadcast));
+    }
+
+    @Test
+    public void testMergeAndQuery() {
+        recordServiceRelation(serviceRelationId("service-a", "service-b"), currentTimeBucket);
+
+        // broadcast by another node
+        TopologyEdge edge = new TopologyEdge();
+        edge.setDetectPoint(DetectPoint.SERVER);
+        edge.setEntityId(serviceRelationId("service-c", "service-d"));
+        edge.setSourceServiceId("service-c");
+        edge.setDestServiceId("service-d");
+        edge.setComponentId(2);
+        edge.setTimeBucket(currentTimeBucket);
+        syncWorker.in(edge);
+
+        List<Call.CallDetail> calls = TopologyIndex.INSTANCE.loadServiceRelations(
+            DetectPoint.SERVER, currentTimeBucket, currentTimeBucket, null);
+        Assert.assertEquals(2, calls.size());
+
+        calls = TopologyIndex.INSTANCE.loadServiceRelations(
+            DetectPoint.SERVER, currentTimeBucket, currentTimeBucket, Collections.singletonList("service-d"));
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("service-c", calls.get(0).getSource());
+        Assert.assertEquals(2, calls.get(0).getComponentId().intValue());
+
+        // the hour step covers the minute
+        calls = TopologyIndex.INSTANCE.loadServiceRelations(
+            DetectPoint.SERVER, currentTimeBucket / 100, currentTimeBucket / 100, null);
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals(0, TopologyIndex.INSTANCE.loadServiceRelations(
+            DetectPoint.CLIENT, currentTimeBucket, currentTimeBucket, null).size());
+    }
+
+    @Test
+    public void testCoverRecentRangeOnly() {
+        // the cluster is just started
+        Assert.assertFalse(TopologyIndex.INSTANCE.covers(currentTimeBucket, currentTimeBucket));
+        Assert.assertFalse(TopologyIndex.INSTANCE.covers(202001010000L, currentTimeBucket));
+
+        long later = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(3));
+        Assert.assertTrue(TopologyIndex.INSTANCE.covers(later, later));
+    }
+
+    @Test
+    public void testReceiverNeverCovers() {
+        TopologyIndex.INSTANCE.start(moduleManager, true, 60, CoreModuleConfig.Role.Receiver.name());
+        long later = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(3));
+        Assert.assertFalse(TopologyIndex.INSTANCE.covers(later, later));
+    }
+
+    @Test
+    public void testRepairFromStorage() throws Exception {
+        ITopologyQueryDAO topologyQueryDAO = mock(ITopologyQueryDAO.class);
+        Call.CallDetail serviceCall = new Call.CallDetail();
+        serviceCall.buildFromServiceRelation(serviceRelationId("service-c", "service-d"), 3, DetectPoint.SERVER);
+        when(topologyQueryDAO.loadServiceRelationsDetectedAtServerSide(anyLong(), anyLong()))
+            .thenReturn(Collections.singletonList(serviceCall));
+
+        // only the first covered minute has been persisted 3 minutes later
+        long now = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5);
+        TopologyIndex.INSTANCE.repair(topologyQueryDAO, now);
+        TopologyIndex.INSTANCE.repair(topologyQueryDAO, now);
+        verify(topologyQueryDAO, times(1)).loadServiceRelationsDetectedAtServerSide(anyLong(), anyLong());
+
+        long startTB = TimeBucket.getMinuteTimeBucket(startTime + TimeUnit.MINUTES.toMillis(2));
+        long endTB = TimeBucket.getMinuteTimeBucket(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2));
+        List<Call.CallDetail> calls = TopologyIndex.INSTANCE.loadServiceRelations(
+            DetectPoint.SERVER, startTB, endTB, null);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("service-c", calls.get(0).getSource());
+        Assert.assertEquals(3, calls.get(0).getComponentId().intValue());
+        // the instance relations are not indexed
+        verify(topologyQueryDAO, never()).loadInstanceRelationDetectedAtServerSide(
+            anyString(), anyString(), anyLong(), anyLong());
+    }
+
+    private void recordServiceRelation(String entityId, long timeBucket) {
+        IDManager.ServiceID.ServiceRelationDefine define = IDManager.ServiceID.analysisRelationId(entityId);
+        TopologyIndex.INSTANCE.record(
+            DetectPoint.SERVER, timeBucket, entityId, define.getSourceId(), define.getDestId(), 1);
+    }
+
+    private String serviceRelationId(String sourceServiceId, String destServiceId) {
+        return IDManager.ServiceID.buildRelationId(
+            new IDManager.ServiceID.ServiceRelationDefine(sourceServiceId, destServiceId));
+    }
+}
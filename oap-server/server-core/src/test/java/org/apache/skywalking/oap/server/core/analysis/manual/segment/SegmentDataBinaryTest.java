@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.IOException;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentDataBinaryTest {
+
+    @Test
+    public void testParseBothFormats() throws IOException {
+        SegmentObject segment = SegmentObject.newBuilder()
+                                             .setTraceId("trace-id")
+                                             .setTraceSegmentId("segment-id")
+                                             .setService("service")
+                                             .setServiceInstance("instance")
+                                             .addSpans(SpanObject.newBuilder().setOperationName("/endpoint"))
+                                             .build();
+        byte[] dataBinary = segment.toByteArray();
+        byte[] compressed = SegmentDataBinary.compress(dataBinary);
+
+        Assert.assertFalse(SegmentDataBinary.isCompressed(dataBinary));
+        Assert.assertTrue(SegmentDataBinary.isCompressed(compressed));
+        Assert.assertEquals(segment, SegmentDataBinary.parse(dataBinary));
+        Assert.assertEquals(segment, SegmentDataBinary.parse(compressed));
+    }
+
+    @Test
+    public void testParseEmpty() throws IOException {
+        Assert.assertEquals(SegmentObject.getDefaultInstance(), SegmentDataBinary.parse(new byte[] {}));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.segment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TraceTailSamplerTest {
+    private static final long WINDOW = 10_000;
+    private static final long MB = 1024 * 1024;
+    private static final int MAX_DECISIONS = 1000;
+
+    @Test
+    public void testKeepErrorTrace() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        Assert.assertEquals(0, sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 10, false), 1000, kept));
+        Assert.assertEquals(0, sampler.add(segment("trace-1", "segment-2", "endpoint-2", 2, 5, true), 1500, kept));
+        Assert.assertTrue(kept.isEmpty());
+
+        Assert.assertEquals(0, sampler.expire(1000 + WINDOW - 1, kept));
+        Assert.assertTrue(kept.isEmpty());
+
+        Assert.assertEquals(0, sampler.expire(1000 + WINDOW, kept));
+        Assert.assertEquals(2, kept.size());
+        Assert.assertEquals("segment-1", kept.get(0).getSegmentId());
+        Assert.assertEquals("segment-2", kept.get(1).getSegmentId());
+        Assert.assertEquals(0, sampler.getBufferSize());
+    }
+
+    @Test
+    public void testDropNormalTrace() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 1000, 0, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 500, false), 1000, kept);
+        sampler.add(segment("trace-1", "segment-2", "endpoint-2", 100, 999, false), 1000, kept);
+
+        Assert.assertEquals(2, sampler.expire(1000 + WINDOW, kept));
+        Assert.assertTrue(kept.isEmpty());
+    }
+
+    @Test
+    public void testKeepSlowTrace() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 1000, 0, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        // Neither segment reaches the threshold, but the whole trace does.
+        sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 600, false), 1000, kept);
+        sampler.add(segment("trace-1", "segment-2", "endpoint-2", 500, 1000, false), 1000, kept);
+
+        Assert.assertEquals(0, sampler.expire(1000 + WINDOW, kept));
+        Assert.assertEquals(2, kept.size());
+    }
+
+    @Test
+    public void testKeepRareEndpoint() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 2, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sampler.add(segment("trace-" + i, "segment-" + i, "endpoint-1", 0, 10, false), 1000 + i, kept);
+        }
+        sampler.add(segment("trace-3", "segment-3", "endpoint-2", 0, 10, false), 1003, kept);
+
+        Assert.assertEquals(1, sampler.expire(1003 + WINDOW, kept));
+        Assert.assertEquals(3, kept.size());
+        Assert.assertEquals("segment-0", kept.get(0).getSegmentId());
+        Assert.assertEquals("segment-1", kept.get(1).getSegmentId());
+        Assert.assertEquals("segment-3", kept.get(2).getSegmentId());
+    }
+
+    @Test
+    public void testBaseline() {
+        TraceTailSampler keepAll = new TraceTailSampler(WINDOW, true, 0, 0, 10000, MB, MAX_DECISIONS, null);
+        TraceTailSampler keepNone = new TraceTailSampler(WINDOW, true, 0, 0, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keepAll.add(segment("trace-" + i, "segment-" + i, "endpoint-1", 0, 10, false), 1000, kept);
+            keepNone.add(segment("trace-" + i, "segment-" + i, "endpoint-1", 0, 10, false), 1000, kept);
+        }
+
+        Assert.assertEquals(0, keepAll.expire(1000 + WINDOW, kept));
+        Assert.assertEquals(100, kept.size());
+        Assert.assertEquals(100, keepNone.expire(1000 + WINDOW, kept));
+    }
+
+    @Test
+    public void testLateSegmentFollowsDecision() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, MB, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 10, true), 1000, kept);
+        sampler.add(segment("trace-2", "segment-2", "endpoint-1", 0, 10, false), 1000, kept);
+        sampler.expire(1000 + WINDOW, kept);
+        Assert.assertEquals(1, kept.size());
+
+        kept.clear();
+        Assert.assertEquals(0, sampler.add(segment("trace-1", "segment-3", "endpoint-2", 0, 10, false), 12000, kept));
+        Assert.assertEquals(1, kept.size());
+        Assert.assertEquals("segment-3", kept.get(0).getSegmentId());
+        Assert.assertEquals(1, sampler.add(segment("trace-2", "segment-4", "endpoint-2", 0, 10, true), 12000, kept));
+        Assert.assertEquals(1, kept.size());
+        Assert.assertEquals(0, sampler.getBufferSize());
+
+        // The decisions are forgotten one window later, the late segments are buffered as a new trace.
+        sampler.expire(1000 + 2 * WINDOW, kept);
+        kept.clear();
+        sampler.add(segment("trace-2", "segment-5", "endpoint-2", 0, 10, true), 21000, kept);
+        Assert.assertTrue(kept.isEmpty());
+        Assert.assertTrue(sampler.getBufferSize() > 0);
+    }
+
+    @Test
+    public void testForgetOldestDecisionsBeyondMax() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, MB, 2, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sampler.add(segment("trace-" + i, "segment-" + i, "endpoint-1", 0, 10, true), 1000 + i, kept);
+        }
+        sampler.expire(1002 + WINDOW, kept);
+        Assert.assertEquals(3, kept.size());
+        Assert.assertEquals(2, sampler.getDecisionSize());
+
+        // The decision of trace-0 is forgotten, its late segment is buffered as a new trace.
+        kept.clear();
+        sampler.add(segment("trace-0", "segment-3", "endpoint-2", 0, 10, false), 12002, kept);
+        Assert.assertTrue(kept.isEmpty());
+        Assert.assertTrue(sampler.getBufferSize() > 0);
+        sampler.add(segment("trace-2", "segment-4", "endpoint-2", 0, 10, false), 12002, kept);
+        Assert.assertEquals(1, kept.size());
+        Assert.assertEquals("segment-4", kept.get(0).getSegmentId());
+    }
+
+    @Test
+    public void testDecideEarlyOnceBufferFull() {
+        TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, 1100, MAX_DECISIONS, null);
+        List<SegmentRecord> kept = new ArrayList<>();
+        sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 10, true), 1000, kept);
+        sampler.add(segment("trace-2", "segment-2", "endpoint-1", 0, 10, false), 1001, kept);
+        Assert.assertTrue(kept.isEmpty());
+
+        Assert.assertEquals(0, sampler.add(segment("trace-3", "segment-3", "endpoint-1", 0, 10, false), 1002, kept));
+        Assert.assertEquals(1, kept.size());
+        Assert.assertEquals("segment-1", kept.get(0).getSegmentId());
+        Assert.assertEquals(1, sampler.add(segment("trace-4", "segment-4", "endpoint-1", 0, 10, false), 1003, kept));
+        Assert.assertTrue(sampler.getBufferSize() <= 1100);
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        File directory = Files.createTempDirectory("segment-spill").toFile();
+        try {
+            SegmentSpill spill = new SegmentSpill(directory, MB);
+            TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, 1024, MAX_DECISIONS, spill);
+            List<SegmentRecord> kept = new ArrayList<>();
+            sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 10, false), 1000, kept);
+            sampler.add(segment("trace-1", "segment-2", "endpoint-2", 0, 10, true), 1000, kept);
+            sampler.add(segment("trace-2", "segment-3", "endpoint-1", 0, 10, false), 1000, kept);
+            Assert.assertTrue(kept.isEmpty());
+            Assert.assertTrue(sampler.getSpillSize() > 0);
+
+            Assert.assertEquals(1, sampler.expire(1000 + WINDOW, kept));
+            Assert.assertEquals(2, kept.size());
+            SegmentRecord spilled = kept.get(1);
+            Assert.assertEquals("segment-2", spilled.getSegmentId());
+            Assert.assertEquals("trace-1", spilled.getTraceId());
+            Assert.assertEquals("endpoint-2", spilled.getEndpointId());
+            Assert.assertEquals(1, spilled.getIsError());
+            Assert.assertArrayEquals(new byte[] {1, 2, 3}, spilled.getDataBinary());
+            Assert.assertEquals(0, sampler.getSpillSize());
+            Assert.assertEquals(0, sampler.getBufferSize());
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testCloseSpill() throws IOException {
+        File directory = Files.createTempDirectory("segment-spill").toFile();
+        try {
+            SegmentSpill spill = new SegmentSpill(directory, MB);
+            TraceTailSampler sampler = new TraceTailSampler(WINDOW, true, 0, 0, 0, 1024, MAX_DECISIONS, spill);
+            List<SegmentRecord> kept = new ArrayList<>();
+            sampler.add(segment("trace-1", "segment-1", "endpoint-1", 0, 10, false), 1000, kept);
+            sampler.add(segment("trace-1", "segment-2", "endpoint-2", 0, 10, false), 1000, kept);
+            sampler.add(segment("trace-1", "segment-3", "endpoint-3", 0, 10, false), 1000, kept);
+            Assert.assertTrue(sampler.getSpillSize() > 0);
+            Assert.assertTrue(directory.list().length > 0);
+
+            sampler.close();
+            Assert.assertEquals(0, sampler.getSpillSize());
+            Assert.assertEquals(0, directory.list().length);
+        } finally {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    private static SegmentRecord segment(String traceId, String segmentId, String endpointId, long startTime,
+                                         long endTime, boolean isError) {
+        SegmentRecord record = new SegmentRecord();
+        record.setTraceId(traceId);
+        record.setSegmentId(segmentId);
+        record.setServiceId("service");
+        record.setServiceInstanceId("instance");
+        record.setEndpointId(endpointId);
+        record.setEndpointName(endpointId);
+        record.setStartTime(startTime);
+        record.setEndTime(endTime);
+        record.setLatency((int) (endTime - startTime));
+        record.setIsError(isError ? 1 : 0);
+        record.setDataBinary(new byte[] {1, 2, 3});
+        record.setTimeBucket(20200601120000L);
+        record.setVersion(3);
+        return record;
+    }
+}
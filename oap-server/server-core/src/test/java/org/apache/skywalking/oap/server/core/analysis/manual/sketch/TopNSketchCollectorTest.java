@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongValueHolder;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MetricsMetaInfo;
+import org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopNSketchCollectorTest {
+    private static final long TIME_BUCKET = 202010181200L;
+    private static final long NOW = TimeBucket.getTimestamp(TIME_BUCKET, DownSampling.Minute) + 30 * 1000L;
+
+    private final List<TopNSketchMetrics> reports = new ArrayList<>();
+
+    @Test
+    public void testReportChangedBuckets() {
+        TopNSketchCollector collector = collector(2, Collections.emptyList());
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 3));
+        collector.collect(new LongMetrics("b", TIME_BUCKET, 1));
+        collector.collect(new LongMetrics("c", TIME_BUCKET + 1, 2));
+        collector.report(NOW);
+
+        Assert.assertEquals(2, reports.size());
+        for (TopNSketchMetrics report : reports) {
+            Assert.assertEquals("metrics", report.getMetricName());
+            Assert.assertEquals(DownSampling.Minute.getValue(), report.getDownsampling());
+            Assert.assertEquals(report.getSketchTimeBucket(), report.getTimeBucket());
+        }
+        TopNSketch.NodeSketch sketch = nodeSketch(TIME_BUCKET);
+        Assert.assertTrue(sketch.getHighest().isComplete());
+        Assert.assertEquals(3.0, sketch.getHighest().getValues().get("a"), 0);
+        Assert.assertEquals(1.0, sketch.getLowest().getValues().get("b"), 0);
+        Assert.assertEquals(NOW, sketch.getTime());
+
+        // Only the changed buckets are reported again.
+        reports.clear();
+        collector.report(NOW);
+        Assert.assertTrue(reports.isEmpty());
+        collector.collect(new LongMetrics("b", TIME_BUCKET, 5));
+        collector.report(NOW);
+        Assert.assertEquals(1, reports.size());
+        Assert.assertEquals(5.0, nodeSketch(TIME_BUCKET).getHighest().getValues().get("b"), 0);
+    }
+
+    @Test
+    public void testCapacity() {
+        TopNSketchCollector collector = collector(2, Collections.emptyList());
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 10));
+        collector.collect(new LongMetrics("b", TIME_BUCKET, 8));
+        collector.collect(new LongMetrics("c", TIME_BUCKET, 5));
+        collector.collect(new LongMetrics("d", TIME_BUCKET, 20));
+        collector.report(NOW);
+
+        TopNSketch.Side highest = nodeSketch(TIME_BUCKET).getHighest();
+        Assert.assertFalse(highest.isComplete());
+        Assert.assertEquals(2, highest.getValues().size());
+        Assert.assertTrue(highest.getValues().containsKey("a"));
+        Assert.assertTrue(highest.getValues().containsKey("d"));
+        Assert.assertEquals(8.0, highest.getBound(), 0);
+
+        TopNSketch.Side lowest = nodeSketch(TIME_BUCKET).getLowest();
+        Assert.assertFalse(lowest.isComplete());
+        Assert.assertTrue(lowest.getValues().containsKey("b"));
+        Assert.assertTrue(lowest.getValues().containsKey("c"));
+        Assert.assertEquals(10.0, lowest.getBound(), 0);
+    }
+
+    @Test
+    public void testClusterCoverage() {
+        Address self = new Address("10.0.0.1", 11800, true);
+        Address other = new Address("10.0.0.2", 11800, false);
+        TopNSketchCollector collector = collector(10, Arrays.asList(self, other));
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 1));
+        collector.report(NOW);
+
+        TopNSketch.NodeSketch sketch = nodeSketch(TIME_BUCKET);
+        Assert.assertEquals(self.toString(), sketch.getAddress());
+        Assert.assertEquals(2, sketch.getClusterSize());
+
+        TopNSketch merged = TopNSketch.fromBytes(reports.get(0).getSketch());
+        Assert.assertFalse(merged.isComplete());
+        merged.add(new TopNSketch.NodeSketch(
+            "restarted", self.toString(), 2, NOW, sketch.getHighest(), sketch.getLowest()));
+        Assert.assertFalse(merged.isComplete());
+        merged.add(new TopNSketch.NodeSketch(
+            "other", other.toString(), 2, NOW, sketch.getHighest(), sketch.getLowest()));
+        Assert.assertTrue(merged.isComplete());
+    }
+
+    @Test
+    public void testStandalone() {
+        TopNSketchCollector collector = collector(10, Collections.emptyList());
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 1));
+        collector.report(NOW);
+
+        Assert.assertEquals(1, nodeSketch(TIME_BUCKET).getClusterSize());
+        Assert.assertTrue(TopNSketch.fromBytes(reports.get(0).getSketch()).isComplete());
+    }
+
+    @Test
+    public void testInvalidateExpiredBucket() {
+        TopNSketchCollector collector = collector(10, Collections.emptyList());
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 1));
+        collector.report(NOW);
+        collector.report(NOW + 20 * 60 * 1000L);
+
+        reports.clear();
+        collector.collect(new LongMetrics("b", TIME_BUCKET, 2));
+        collector.report(NOW + 20 * 60 * 1000L);
+        TopNSketch.NodeSketch sketch = nodeSketch(TIME_BUCKET);
+        Assert.assertFalse(sketch.getHighest().isComplete());
+        Assert.assertEquals(Double.POSITIVE_INFINITY, sketch.getHighest().getBound(), 0);
+        Assert.assertFalse(sketch.getLowest().isComplete());
+        Assert.assertEquals(Double.NEGATIVE_INFINITY, sketch.getLowest().getBound(), 0);
+    }
+
+    @Test
+    public void testUnsupportedMetrics() {
+        TopNSketchCollector collector = collector(10, Collections.emptyList());
+        collector.collect(new LongMetrics("a", TIME_BUCKET, 1));
+        collector.collect(new NoValueMetrics(TIME_BUCKET));
+        collector.collect(new LongMetrics("b", TIME_BUCKET, 2));
+        collector.report(NOW);
+        Assert.assertTrue(reports.isEmpty());
+    }
+
+    private TopNSketchCollector collector(int capacity, List<Address> clusterNodes) {
+        return new TopNSketchCollector("metrics", DownSampling.Minute, capacity, () -> clusterNodes, reports::add);
+    }
+
+    private TopNSketch.NodeSketch nodeSketch(long timeBucket) {
+        for (TopNSketchMetrics report : reports) {
+            if (report.getSketchTimeBucket() == timeBucket) {
+                TopNSketch sketch = TopNSketch.fromBytes(report.getSketch());
+                Assert.assertEquals(1, sketch.getNodeSketches().size());
+                return sketch.getNodeSketches().iterator().next();
+            }
+        }
+        throw new AssertionError("No report of " + timeBucket);
+    }
+
+    private static class NoValueMetrics extends Metrics {
+        private NoValueMetrics(long timeBucket) {
+            setTimeBucket(timeBucket);
+        }
+
+        @Override
+        public String id() {
+            return null;
+        }
+
+        @Override
+        public void combine(Metrics metrics) {
+        }
+
+        @Override
+        public void calculate() {
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+    }
+
+    private static class LongMetrics extends NoValueMetrics implements LongValueHolder, WithMetadata {
+        private final String entityId;
+        private final long value;
+
+        private LongMetrics(String entityId, long timeBucket, long value) {
+            super(timeBucket);
+            this.entityId = entityId;
+            this.value = value;
+        }
+
+        @Override
+        public long getValue() {
+            return value;
+        }
+
+        @Override
+        public MetricsMetaInfo getMeta() {
+            return new MetricsMetaInfo("metrics", 0, entityId);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.sketch;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopNSketchRankingTest {
+
+    @Test
+    public void testCompleteSketch() {
+        TopNSketch sketch = sketch("node", 1L, 10, "a", 3, "b", 1, "c", 2);
+
+        TopNSketchRanking descending = new TopNSketchRanking(true, entityId -> true);
+        descending.addBucket(sketch);
+        assertRecords(descending.rank(2), "a", "3", "c", "2");
+
+        TopNSketchRanking ascending = new TopNSketchRanking(false, entityId -> true);
+        ascending.addBucket(sketch);
+        assertRecords(ascending.rank(5), "b", "1", "c", "2", "a", "3");
+
+        TopNSketchRanking filtered = new TopNSketchRanking(true, entityId -> !entityId.equals("a"));
+        filtered.addBucket(sketch);
+        assertRecords(filtered.rank(1), "c", "2");
+    }
+
+    @Test
+    public void testDroppedEntities() {
+        TopNSketch sketch = sketch("node", 1L, 2, "a", 10, "b", 8, "c", 5, "d", 20);
+
+        TopNSketchRanking ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(sketch);
+        assertRecords(ranking.rank(2), "d", "20", "a", "10");
+
+        // The third one may be any of the dropped entities.
+        ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(sketch);
+        Assert.assertNull(ranking.rank(3));
+    }
+
+    @Test
+    public void testMultipleBuckets() {
+        TopNSketch bucket1 = sketch("node", 1L, 2, "a", 10, "b", 9, "c", 1);
+        // "c" and "d" are dropped in the bucket 2, so the average of "c" could be up to (1 + 3) / 2.
+        TopNSketch bucket2 = sketch("node", 1L, 2, "a", 9, "b", 7, "c", 3, "d", 2);
+
+        TopNSketchRanking ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(bucket1);
+        ranking.addBucket(bucket2);
+        assertRecords(ranking.rank(2), "a", "9", "b", "8");
+
+        // The third one could be "c" or "d".
+        ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(bucket1);
+        ranking.addBucket(bucket2);
+        Assert.assertNull(ranking.rank(3));
+    }
+
+    @Test
+    public void testMergeNodes() {
+        TopNSketch sketch = sketch("node1", 1L, 2, "a", 5, "b", 3);
+        sketch.combine(sketch("node2", 1L, 2, "c", 4));
+        // The later report of the same node replaces the earlier one.
+        sketch.combine(sketch("node1", 2L, 2, "a", 1, "b", 3));
+        sketch.combine(sketch("node1", 0L, 2, "a", 100));
+
+        TopNSketch decoded = TopNSketch.fromBytes(sketch.toBytes());
+        Assert.assertEquals(2, decoded.getNodeSketches().size());
+        TopNSketchRanking ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(decoded);
+        assertRecords(ranking.rank(3), "c", "4", "b", "3", "a", "1");
+    }
+
+    @Test
+    public void testEntityInMultipleNodes() {
+        TopNSketch sketch = sketch("node1", 1L, 1, "a", 5, "b", 1);
+        sketch.combine(sketch("node2", 2L, 1, "a", 2));
+
+        TopNSketchRanking ranking = new TopNSketchRanking(true, entityId -> true);
+        ranking.addBucket(sketch);
+        Assert.assertNull(ranking.rank(1));
+    }
+
+    private static TopNSketch sketch(String nodeId, long time, int capacity, Object... values) {
+        TopNSketchCollector.TrackedSide highest = new TopNSketchCollector.TrackedSide(capacity, true);
+        TopNSketchCollector.TrackedSide lowest = new TopNSketchCollector.TrackedSide(capacity, false);
+        for (int i = 0; i < values.length; i += 2) {
+            highest.update((String) values[i], ((Number) values[i + 1]).doubleValue());
+            lowest.update((String) values[i], ((Number) values[i + 1]).doubleValue());
+        }
+        TopNSketch sketch = new TopNSketch();
+        sketch.add(new TopNSketch.NodeSketch(nodeId, nodeId, 1, time, highest.snapshot(), lowest.snapshot()));
+        return sketch;
+    }
+
+    private static void assertRecords(List<SelectedRecord> records, String... idAndValues) {
+        Assert.assertNotNull(records);
+        Assert.assertEquals(idAndValues.length / 2, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(idAndValues[i * 2], records.get(i).getId());
+            Assert.assertEquals(idAndValues[i * 2 + 1], records.get(i).getValue());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FusedDispatchBufferTest {
+
+    @Test
+    public void testAggregate() {
+        FusedDispatchBuffer buffer = new FusedDispatchBuffer(Thread.currentThread(), 60_000L, 100);
+
+        CountMetrics service1 = dispatch(buffer, "service1");
+        Assert.assertNotEquals(0L, service1.getReceivedTimestamp());
+        CountMetrics service2 = dispatch(buffer, "service2");
+        Assert.assertNotSame(service1, service2);
+
+        // The probe of the existing ID is reused by the next one.
+        Assert.assertSame(service1, dispatch(buffer, "service1"));
+        Metrics probe = buffer.probe(CountMetricsImpl.class);
+        Assert.assertNotNull(probe);
+        Assert.assertNull(buffer.probe(CountMetricsImpl.class));
+        buffer.aggregate(probe);
+
+        Assert.assertEquals(2L, service1.getValue());
+        Assert.assertEquals(1L, service2.getValue());
+    }
+
+    @Test
+    public void testFlushOnceFull() {
+        FusedDispatchBuffer buffer = new FusedDispatchBuffer(Thread.currentThread(), 60_000L, 2);
+
+        CountMetrics service1 = dispatch(buffer, "service1");
+        dispatch(buffer, "service2");
+        Assert.assertNotSame(service1, dispatch(buffer, "service1"));
+        Assert.assertEquals(1L, service1.getValue());
+    }
+
+    @Test
+    public void testFlushInPeriod() {
+        FusedDispatchBuffer buffer = new FusedDispatchBuffer(Thread.currentThread(), 60_000L, 100);
+
+        CountMetrics service1 = dispatch(buffer, "service1");
+        buffer.flushIfPeriodReached(System.currentTimeMillis());
+        Assert.assertSame(service1, dispatch(buffer, "service1"));
+
+        buffer.flushIfPeriodReached(System.currentTimeMillis() + 60_000L);
+        Assert.assertNotSame(service1, dispatch(buffer, "service1"));
+        Assert.assertEquals(2L, service1.getValue());
+    }
+
+    @Test
+    public void testFlushAll() {
+        FusedDispatchBuffer buffer = new FusedDispatchBuffer(Thread.currentThread(), 60_000L, 100);
+
+        CountMetrics service1 = dispatch(buffer, "service1");
+        buffer.flushAll();
+        Assert.assertNotSame(service1, dispatch(buffer, "service1"));
+        Assert.assertEquals(1L, service1.getValue());
+    }
+
+    /**
+     * Do what the fused dispatcher does for one source.
+     */
+    private static CountMetrics dispatch(FusedDispatchBuffer buffer, String entityId) {
+        CountMetricsImpl metrics = (CountMetricsImpl) buffer.probe(CountMetricsImpl.class);
+        if (metrics == null) {
+            metrics = new CountMetricsImpl();
+        }
+        metrics.setTimeBucket(202006011200L);
+        metrics.entityId = entityId;
+        metrics = (CountMetricsImpl) buffer.aggregate(metrics);
+        metrics.combine(1);
+        buffer.afterDispatch();
+        return metrics;
+    }
+
+    private static class CountMetricsImpl extends CountMetrics {
+        private String entityId;
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountMetricsImpl)) {
+                return false;
+            }
+            CountMetricsImpl that = (CountMetricsImpl) o;
+            return getTimeBucket() == that.getTimeBucket() && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, getTimeBucket());
+        }
+    }
+}
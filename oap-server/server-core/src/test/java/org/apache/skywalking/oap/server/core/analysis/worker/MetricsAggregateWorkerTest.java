@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MetricsAggregateWorkerTest {
+
+    private ModuleManagerTesting moduleManager;
+    private AbstractWorker<Metrics> nextWorker;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+
+        nextWorker = mock(AbstractWorker.class);
+    }
+
+    @Test
+    public void testMergeAcrossConsumesWithinPeriod() {
+        MetricsAggregateWorker worker = new MetricsAggregateWorker(
+            moduleManager, nextWorker, "aggregate_test", 60 * 1000L, 100);
+        MetricsAggregateWorker.AggregatorConsumer consumer = worker.new AggregatorConsumer();
+
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.consume(Arrays.asList(buildMetrics("service-a"), buildMetrics("service-b")));
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.nothingToConsume();
+
+        // held in the buffer until the period is reached
+        verify(nextWorker, never()).in(any(Metrics.class));
+
+        // the merged metrics are flushed when the consumer exits
+        consumer.onExit();
+        ArgumentCaptor<Metrics> flushed = ArgumentCaptor.forClass(Metrics.class);
+        verify(nextWorker, times(2)).in(flushed.capture());
+        for (Metrics metrics : flushed.getAllValues()) {
+            long expected = ((CountMetricsImpl) metrics).entityId.equals("service-a") ? 3 : 1;
+            Assert.assertEquals(expected, ((CountMetrics) metrics).getValue());
+        }
+    }
+
+    @Test
+    public void testEarlyFlushAtMaxBufferSize() {
+        MetricsAggregateWorker worker = new MetricsAggregateWorker(
+            moduleManager, nextWorker, "aggregate_test", 60 * 1000L, 2);
+        MetricsAggregateWorker.AggregatorConsumer consumer = worker.new AggregatorConsumer();
+
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        verify(nextWorker, never()).in(any(Metrics.class));
+
+        // the buffer is full with the second entity
+        consumer.consume(Collections.singletonList(buildMetrics("service-b")));
+        verify(nextWorker, times(2)).in(any(Metrics.class));
+
+        // the period starts again after the early flush
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.nothingToConsume();
+        verify(nextWorker, times(2)).in(any(Metrics.class));
+    }
+
+    @Test
+    public void testFlushWhenIdleAfterPeriod() throws InterruptedException {
+        MetricsAggregateWorker worker = new MetricsAggregateWorker(
+            moduleManager, nextWorker, "aggregate_test", 500L, 100);
+        MetricsAggregateWorker.AggregatorConsumer consumer = worker.new AggregatorConsumer();
+
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.consume(Collections.singletonList(buildMetrics("service-a")));
+        consumer.nothingToConsume();
+        verify(nextWorker, never()).in(any(Metrics.class));
+
+        // no more data arrives, the idle consumer flushes once the period passed
+        TimeUnit.MILLISECONDS.sleep(600);
+        consumer.nothingToConsume();
+        ArgumentCaptor<Metrics> flushed = ArgumentCaptor.forClass(Metrics.class);
+        verify(nextWorker, times(1)).in(flushed.capture());
+        Assert.assertEquals(2, ((CountMetrics) flushed.getValue()).getValue());
+
+        // nothing left to flush
+        TimeUnit.MILLISECONDS.sleep(600);
+        consumer.nothingToConsume();
+        verify(nextWorker, times(1)).in(any(Metrics.class));
+    }
+
+    private Metrics buildMetrics(String entityId) {
+        CountMetricsImpl metrics = new CountMetricsImpl(entityId);
+        metrics.setTimeBucket(202006011201L);
+        metrics.combine(1);
+        return metrics;
+    }
+
+    private static class CountMetricsImpl extends CountMetrics {
+        private final String entityId;
+
+        private CountMetricsImpl(String entityId) {
+            this.entityId = entityId;
+        }
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountMetricsImpl)) {
+                return false;
+            }
+            CountMetricsImpl that = (CountMetricsImpl) o;
+            return getTimeBucket() == that.getTimeBucket() && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, getTimeBucket());
+        }
+    }
+}
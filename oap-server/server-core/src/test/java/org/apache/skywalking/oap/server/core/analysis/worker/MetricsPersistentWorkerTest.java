@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyListOf;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsPersistentWorkerTest {
+
+    private final Map<String, List<Double>> observations = new HashMap<>();
+    private ModuleManagerTesting moduleManager;
+    private Model model;
+    private IMetricsDAO metricsDAO;
+
+    @Before
+    public void setup() throws Exception {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new RecordingMetricsCreator());
+
+        model = new Model(
+            "pipeline_test", Collections.emptyList(), Collections.emptyList(), 0, DownSampling.Minute, false);
+        metricsDAO = mock(IMetricsDAO.class);
+        when(metricsDAO.multiGet(eq(model), anyListOf(String.class))).thenReturn(new ArrayList<>());
+        when(metricsDAO.prepareBatchInsert(eq(model), any(Metrics.class))).thenReturn(mock(InsertRequest.class));
+    }
+
+    @Test
+    public void testTraceLagThroughCombineAndPersistence() throws Exception {
+        MetricsPersistentWorker worker = new MetricsPersistentWorker(moduleManager, model, metricsDAO, false, true);
+        long now = System.currentTimeMillis();
+
+        // the same metrics received twice, the later one is consumed first
+        worker.onWork(Collections.singletonList(buildMetrics(now - 10 * 1000L, now - 2 * 1000L)));
+        worker.onWork(Collections.singletonList(buildMetrics(now - 30 * 1000L, now - 5 * 1000L)));
+        List<Double> queueLatencies = observations.get("metrics_pipeline_stage_latency_l2_queue");
+        Assert.assertEquals(2, queueLatencies.size());
+        Assert.assertTrue(queueLatencies.get(0) >= 2 && queueLatencies.get(1) >= 5);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.buildBatchRequests(prepareRequests);
+
+        // combined in the cache, keeping the earliest received time
+        ArgumentCaptor<Metrics> inserted = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO, times(1)).prepareBatchInsert(eq(model), inserted.capture());
+        Assert.assertEquals(2, ((CountMetrics) inserted.getValue()).getValue());
+        Assert.assertEquals(now - 30 * 1000L, inserted.getValue().getReceivedTimestamp());
+        Assert.assertEquals(1, observations.get("metrics_pipeline_stage_latency_l2_cache").size());
+
+        // the data age is only observed after the requests are executed
+        Assert.assertTrue(observations.get("metrics_pipeline_data_age").isEmpty());
+        worker.afterPersistence(now + 1000L);
+        Assert.assertEquals(Collections.singletonList(31.0D), observations.get("metrics_pipeline_data_age"));
+
+        // nothing persisted in the next round
+        worker.buildBatchRequests(prepareRequests);
+        worker.afterPersistence(now + 2000L);
+        Assert.assertEquals(1, observations.get("metrics_pipeline_data_age").size());
+    }
+
+    @Test
+    public void testIgnoreUnknownTimestamps() throws Exception {
+        MetricsPersistentWorker worker = new MetricsPersistentWorker(moduleManager, model, metricsDAO, false, true);
+
+        // received from an older node, which sends no timestamp
+        worker.onWork(Collections.singletonList(buildMetrics(0L, 0L)));
+        Assert.assertTrue(observations.get("metrics_pipeline_stage_latency_l2_queue").isEmpty());
+
+        worker.buildBatchRequests(new ArrayList<>());
+        worker.afterPersistence(System.currentTimeMillis());
+        Assert.assertTrue(observations.get("metrics_pipeline_data_age").isEmpty());
+    }
+
+    private Metrics buildMetrics(long receivedTimestamp, long stageTimestamp) {
+        CountMetricsImpl metrics = new CountMetricsImpl("service-a");
+        metrics.setTimeBucket(202006011201L);
+        metrics.combine(1);
+        metrics.setReceivedTimestamp(receivedTimestamp);
+        metrics.setStageTimestamp(stageTimestamp);
+        return metrics;
+    }
+
+    /**
+     * Record the observed values of the histograms, by the name and the tag values.
+     */
+    private class RecordingMetricsCreator extends MetricsCreatorNoop {
+        @Override
+        public HistogramMetrics createHistogramMetric(String name, String tips, MetricsTag.Keys tagKeys,
+                                                      MetricsTag.Values tagValues, double... buckets) {
+            StringBuilder key = new StringBuilder(name);
+            for (String value : tagValues.getValues()) {
+                key.append('_').append(value);
+            }
+            List<Double> values = observations.computeIfAbsent(key.toString(), k -> new ArrayList<>());
+            return new HistogramMetrics() {
+                @Override
+                public void observe(double value) {
+                    values.add(value);
+                }
+            };
+        }
+    }
+
+    private static class CountMetricsImpl extends CountMetrics {
+        private final String entityId;
+
+        private CountMetricsImpl(String entityId) {
+            this.entityId = entityId;
+        }
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountMetricsImpl)) {
+                return false;
+            }
+            CountMetricsImpl that = (CountMetricsImpl) o;
+            return getTimeBucket() == that.getTimeBucket() && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, getTimeBucket());
+        }
+    }
+}
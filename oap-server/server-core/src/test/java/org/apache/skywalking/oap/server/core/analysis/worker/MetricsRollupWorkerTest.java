@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyListOf;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MetricsRollupWorkerTest {
+
+    private static final long CLOSED_HOUR = 2020060112L;
+
+    private ModuleManagerTesting moduleManager;
+    private Model model;
+    private IMetricsDAO metricsDAO;
+    private RemoteClientManager remoteClientManager;
+
+    @Before
+    public void setup() throws Exception {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+        ModuleDefineTesting coreModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(CoreModule.NAME, coreModuleDefine);
+        remoteClientManager = mock(RemoteClientManager.class);
+        when(remoteClientManager.getRemoteClient()).thenReturn(remoteClients("10.0.0.1"));
+        coreModuleDefine.provider().registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
+
+        model = new Model(
+            "rollup_test", Collections.emptyList(), Collections.emptyList(), 0, DownSampling.Hour, false);
+        metricsDAO = mock(IMetricsDAO.class);
+        when(metricsDAO.multiGet(eq(model), anyListOf(String.class))).thenReturn(new ArrayList<>());
+        when(metricsDAO.prepareBatchInsert(eq(model), any(Metrics.class))).thenReturn(mock(InsertRequest.class));
+        when(metricsDAO.prepareBatchUpdate(eq(model), any(Metrics.class))).thenReturn(mock(UpdateRequest.class));
+    }
+
+    @Test
+    public void testKeepOpenBucketInMemory() throws Exception {
+        MetricsRollupWorker worker = new MetricsRollupWorker(moduleManager, model, metricsDAO, 3600 * 1000L);
+        long openHour = TimeBucket.getTimeBucket(System.currentTimeMillis(), DownSampling.Hour);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 5)), prepareRequests);
+        }
+
+        // recovered from the storage once, and not written before the flush interval
+        verify(metricsDAO, times(1)).multiGet(eq(model), anyListOf(String.class));
+        verify(metricsDAO, never()).prepareBatchInsert(eq(model), any(Metrics.class));
+        Assert.assertTrue(prepareRequests.isEmpty());
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        MetricsRollupWorker worker = new MetricsRollupWorker(moduleManager, model, metricsDAO, 0);
+        long openHour = TimeBucket.getTimeBucket(System.currentTimeMillis(), DownSampling.Hour);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 5)), prepareRequests);
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 6)), prepareRequests);
+        // nothing changed in this round
+        worker.prepareBatch(Collections.emptyList(), prepareRequests);
+
+        ArgumentCaptor<Metrics> updated = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO, times(1)).prepareBatchInsert(eq(model), any(Metrics.class));
+        verify(metricsDAO, times(1)).prepareBatchUpdate(eq(model), updated.capture());
+        Assert.assertEquals(11, ((CountMetrics) updated.getValue()).getValue());
+        Assert.assertEquals(2, prepareRequests.size());
+    }
+
+    @Test
+    public void testFlushClosedBucketAndRecover() throws Exception {
+        MetricsRollupWorker worker = new MetricsRollupWorker(moduleManager, model, metricsDAO, 3600 * 1000L);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", CLOSED_HOUR, 5)), prepareRequests);
+        verify(metricsDAO, times(1)).prepareBatchInsert(eq(model), any(Metrics.class));
+        Assert.assertEquals(1, prepareRequests.size());
+
+        // the late data of the evicted bucket is combined with the checkpoint in the storage
+        when(metricsDAO.multiGet(eq(model), anyListOf(String.class))).thenReturn(
+            Collections.singletonList(buildMetrics("service-a", CLOSED_HOUR, 5)));
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", CLOSED_HOUR, 3)), prepareRequests);
+
+        ArgumentCaptor<Metrics> updated = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO, times(2)).multiGet(eq(model), anyListOf(String.class));
+        verify(metricsDAO, times(1)).prepareBatchUpdate(eq(model), updated.capture());
+        Assert.assertEquals(8, ((CountMetrics) updated.getValue()).getValue());
+        Assert.assertEquals(2, prepareRequests.size());
+    }
+
+    @Test
+    public void testWriteOpenBucketBeforeShutdown() throws Exception {
+        MetricsRollupWorker worker = new MetricsRollupWorker(moduleManager, model, metricsDAO, 3600 * 1000L);
+        long openHour = TimeBucket.getTimeBucket(System.currentTimeMillis(), DownSampling.Hour);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 5)), prepareRequests);
+        Assert.assertTrue(prepareRequests.isEmpty());
+
+        // the last round writes the changed open bucket, although the flush interval is not reached
+        worker.beforeShutdown();
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 6)), prepareRequests);
+
+        ArgumentCaptor<Metrics> inserted = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO, times(1)).prepareBatchInsert(eq(model), inserted.capture());
+        Assert.assertEquals(11, ((CountMetrics) inserted.getValue()).getValue());
+        Assert.assertEquals(1, prepareRequests.size());
+    }
+
+    @Test
+    public void testDropBucketsWhenClusterChanged() throws Exception {
+        MetricsRollupWorker worker = new MetricsRollupWorker(moduleManager, model, metricsDAO, 3600 * 1000L);
+        long openHour = TimeBucket.getTimeBucket(System.currentTimeMillis(), DownSampling.Hour);
+
+        List<PrepareRequest> prepareRequests = new ArrayList<>();
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 5)), prepareRequests);
+        Assert.assertTrue(prepareRequests.isEmpty());
+
+        // a new node joins, the changed bucket is written and dropped
+        when(remoteClientManager.getRemoteClient()).thenReturn(remoteClients("10.0.0.1", "10.0.0.2"));
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 6)), prepareRequests);
+        verify(metricsDAO, times(1)).prepareBatchInsert(eq(model), any(Metrics.class));
+        Assert.assertEquals(1, prepareRequests.size());
+
+        // the bucket is recovered from the storage row, which the other node may have updated
+        when(metricsDAO.multiGet(eq(model), anyListOf(String.class))).thenReturn(
+            Collections.singletonList(buildMetrics("service-a", openHour, 20)));
+        worker.prepareBatch(Collections.singletonList(buildMetrics("service-a", openHour, 1)), prepareRequests);
+        verify(metricsDAO, times(2)).multiGet(eq(model), anyListOf(String.class));
+        verify(metricsDAO, never()).prepareBatchUpdate(eq(model), any(Metrics.class));
+
+        worker.beforeShutdown();
+        worker.prepareBatch(Collections.emptyList(), prepareRequests);
+        ArgumentCaptor<Metrics> updated = ArgumentCaptor.forClass(Metrics.class);
+        verify(metricsDAO, times(1)).prepareBatchUpdate(eq(model), updated.capture());
+        Assert.assertEquals(21, ((CountMetrics) updated.getValue()).getValue());
+    }
+
+    private List<RemoteClient> remoteClients(String... hosts) {
+        List<RemoteClient> clients = new ArrayList<>();
+        for (String host : hosts) {
+            RemoteClient client = mock(RemoteClient.class);
+            when(client.getAddress()).thenReturn(new Address(host, 11800, false));
+            clients.add(client);
+        }
+        return clients;
+    }
+
+    private Metrics buildMetrics(String entityId, long timeBucket, long value) {
+        CountMetricsImpl metrics = new CountMetricsImpl(entityId);
+        metrics.setTimeBucket(timeBucket);
+        metrics.combine(value);
+        return metrics;
+    }
+
+    private static class CountMetricsImpl extends CountMetrics {
+        private final String entityId;
+
+        private CountMetricsImpl(String entityId) {
+            this.entityId = entityId;
+        }
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CountMetricsImpl)) {
+                return false;
+            }
+            CountMetricsImpl that = (CountMetricsImpl) o;
+            return getTimeBucket() == that.getTimeBucket() && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, getTimeBucket());
+        }
+    }
+}
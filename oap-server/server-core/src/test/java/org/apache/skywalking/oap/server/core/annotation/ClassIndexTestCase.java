@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.annotation;
+
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.manual.log.HTTPAccessLogDispatcher;
+import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
+import org.apache.skywalking.oap.server.core.source.All;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassIndexTestCase {
+    @Test
+    public void testIsIndexed() {
+        Assert.assertTrue(ClassIndex.isIndexed(ProfileThreadSnapshotRecord.class));
+        Assert.assertTrue(ClassIndex.isIndexed(All.class));
+        Assert.assertTrue(ClassIndex.isIndexed(HTTPAccessLogDispatcher.class));
+        Assert.assertFalse(ClassIndex.isIndexed(SourceDispatcher.class));
+        Assert.assertFalse(ClassIndex.isIndexed(ClassIndexTestCase.class));
+    }
+
+    @Test
+    public void testScanWithoutIndex() throws Exception {
+        List<Class<?>> classes = ClassIndex.INSTANCE.getClasses();
+
+        Assert.assertFalse(ClassIndex.INSTANCE.isIndexed());
+        Assert.assertTrue(classes.contains(ProfileThreadSnapshotRecord.class));
+        Assert.assertTrue(classes.contains(HTTPAccessLogDispatcher.class));
+        Assert.assertSame(classes, ClassIndex.INSTANCE.getClasses());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.cache;
+
+import java.util.Collections;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.manual.networkalias.NetworkAddressAlias;
+import org.apache.skywalking.oap.server.core.remote.RemoteSenderService;
+import org.apache.skywalking.oap.server.core.remote.selector.Selector;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class NetworkAddressAliasSyncTest {
+
+    private NetworkAddressAliasCache cache;
+    private RemoteSenderService remoteSender;
+    private AbstractWorker<NetworkAddressAlias> syncWorker;
+    private ModuleManagerTesting moduleManager;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting coreModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(CoreModule.NAME, coreModuleDefine);
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+
+        cache = new NetworkAddressAliasCache(new CoreModuleConfig());
+        remoteSender = mock(RemoteSenderService.class);
+        IWorkerInstanceSetter workerInstanceSetter = mock(IWorkerInstanceSetter.class);
+        coreModuleDefine.provider().registerServiceImplementation(NetworkAddressAliasCache.class, cache);
+        coreModuleDefine.provider().registerServiceImplementation(RemoteSenderService.class, remoteSender);
+        coreModuleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstanceSetter);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+
+        NetworkAddressAliasSync.INSTANCE.start(moduleManager, true, CoreModuleConfig.Role.Mixed.name());
+        Assert.assertTrue(NetworkAddressAliasSync.INSTANCE.isReceivingBroadcast());
+
+        ArgumentCaptor<AbstractWorker> workerCaptor = ArgumentCaptor.forClass(AbstractWorker.class);
+        verify(workerInstanceSetter).put(
+            eq(NetworkAddressAliasSync.SYNC_WORKER_NAME), workerCaptor.capture(), eq(NetworkAddressAlias.class));
+        syncWorker = workerCaptor.getValue();
+    }
+
+    @Test
+    public void testBroadcastChangedAliasOnly() {
+        NetworkAddressAliasSync.INSTANCE.publish(buildAlias("10.0.0.1:8080", "service-a", "instance-a", 202006011200L));
+        Assert.assertEquals("instance-a", cache.get("10.0.0.1:8080").getRepresentServiceInstanceId());
+        verify(remoteSender, times(1)).send(
+            eq(NetworkAddressAliasSync.SYNC_WORKER_NAME), any(NetworkAddressAlias.class), eq(Selector.Broadcast));
+
+        // the same mapping in a later minute
+        NetworkAddressAliasSync.INSTANCE.publish(buildAlias("10.0.0.1:8080", "service-a", "instance-a", 202006011201L));
+        verify(remoteSender, times(1)).send(
+            eq(NetworkAddressAliasSync.SYNC_WORKER_NAME), any(NetworkAddressAlias.class), eq(Selector.Broadcast));
+
+        // the address is taken by another instance
+        NetworkAddressAliasSync.INSTANCE.publish(buildAlias("10.0.0.1:8080", "service-a", "instance-b", 202006011202L));
+        Assert.assertEquals("instance-b", cache.get("10.0.0.1:8080").getRepresentServiceInstanceId());
+        verify(remoteSender, times(2)).send(
+            eq(NetworkAddressAliasSync.SYNC_WORKER_NAME), any(NetworkAddressAlias.class), eq(Selector.Broadcast));
+    }
+
+    @Test
+    public void testReceiveAndRecover() {
+        syncWorker.in(buildAlias("10.0.0.2:8080", "service-b", "instance-c", 202006011205L));
+        Assert.assertEquals("instance-c", cache.get("10.0.0.2:8080").getRepresentServiceInstanceId());
+
+        // the storage snapshot hasn't persisted the pushed alias yet
+        cache.merge(Collections.singletonList(buildAlias("10.0.0.2:8080", "service-b", "instance-d", 202006011100L)));
+        Assert.assertEquals("instance-c", cache.get("10.0.0.2:8080").getRepresentServiceInstanceId());
+
+        cache.merge(Collections.singletonList(buildAlias("10.0.0.2:8080", "service-b", "instance-d", 202006011210L)));
+        Assert.assertEquals("instance-d", cache.get("10.0.0.2:8080").getRepresentServiceInstanceId());
+    }
+
+    @Test
+    public void testPollingLoadOverwrites() {
+        cache.load(Collections.singletonList(buildAlias("10.0.0.3:8080", "service-c", "instance-e", 202006011205L)));
+        cache.load(Collections.singletonList(buildAlias("10.0.0.3:8080", "service-c", "instance-f", 202006011100L)));
+        Assert.assertEquals("instance-f", cache.get("10.0.0.3:8080").getRepresentServiceInstanceId());
+    }
+
+    @Test
+    public void testReceiverRoleKeepsPolling() {
+        IWorkerInstanceSetter receiverWorkerSetter = mock(IWorkerInstanceSetter.class);
+        moduleManager.find(CoreModule.NAME)
+                     .provider()
+                     .registerServiceImplementation(IWorkerInstanceSetter.class, receiverWorkerSetter);
+        NetworkAddressAliasSync.INSTANCE.start(moduleManager, true, CoreModuleConfig.Role.Receiver.name());
+        Assert.assertFalse(NetworkAddressAliasSync.INSTANCE.isReceivingBroadcast());
+        verify(receiverWorkerSetter, never()).put(any(), any(), any());
+
+        // the aliases set up by the receiver are still broadcast to the aggregators
+        NetworkAddressAliasSync.INSTANCE.publish(buildAlias("10.0.0.4:8080", "service-d", "instance-g", 202006011200L));
+        verify(remoteSender, times(1)).send(
+            eq(NetworkAddressAliasSync.SYNC_WORKER_NAME), any(NetworkAddressAlias.class), eq(Selector.Broadcast));
+    }
+
+    private NetworkAddressAlias buildAlias(String address, String serviceId, String instanceId, long timeBucket) {
+        NetworkAddressAlias alias = new NetworkAddressAlias();
+        alias.setAddress(address);
+        alias.setRepresentServiceId(serviceId);
+        alias.setRepresentServiceInstanceId(instanceId);
+        alias.setLastUpdateTimeBucket(timeBucket);
+        alias.setTimeBucket(timeBucket);
+        return alias;
+    }
+}
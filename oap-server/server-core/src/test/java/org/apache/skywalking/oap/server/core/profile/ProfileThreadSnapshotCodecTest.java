@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.profile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.apm.network.language.profile.v3.ThreadStack;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProfileThreadSnapshotCodecTest {
+
+    /**
+     * A typical Spring MVC request on Tomcat, from the thread bottom, waiting on the database.
+     */
+    private static final List<String> SPRING_STACK = Collections.unmodifiableList(Arrays.asList(
+        "java.lang.Thread.run:748",
+        "org.apache.tomcat.util.threads.TaskThread$WrappingRunnable.run:61",
+        "java.util.concurrent.ThreadPoolExecutor$Worker.run:624",
+        "java.util.concurrent.ThreadPoolExecutor.runWorker:1149",
+        "org.apache.tomcat.util.net.SocketProcessorBase.run:49",
+        "org.apache.tomcat.util.net.NioEndpoint$SocketProcessor.doRun:1590",
+        "org.apache.coyote.AbstractProtocol$ConnectionHandler.process:868",
+        "org.apache.coyote.AbstractProcessorLight.process:65",
+        "org.apache.coyote.http11.Http11Processor.service:374",
+        "org.apache.catalina.connector.CoyoteAdapter.service:343",
+        "org.apache.catalina.core.StandardEngineValve.invoke:74",
+        "org.apache.catalina.valves.ErrorReportValve.invoke:92",
+        "org.apache.catalina.core.StandardHostValve.invoke:139",
+        "org.apache.catalina.authenticator.AuthenticatorBase.invoke:541",
+        "org.apache.catalina.core.StandardContextValve.invoke:96",
+        "org.apache.catalina.core.StandardWrapperValve.invoke:202",
+        "org.apache.catalina.core.ApplicationFilterChain.doFilter:166",
+        "org.apache.catalina.core.ApplicationFilterChain.internalDoFilter:193",
+        "org.springframework.web.filter.OncePerRequestFilter.doFilter:119",
+        "org.springframework.web.filter.CharacterEncodingFilter.doFilterInternal:201",
+        "org.apache.catalina.core.ApplicationFilterChain.doFilter:166",
+        "org.apache.catalina.core.ApplicationFilterChain.internalDoFilter:193",
+        "org.springframework.web.filter.OncePerRequestFilter.doFilter:119",
+        "org.springframework.web.filter.FormContentFilter.doFilterInternal:93",
+        "org.apache.catalina.core.ApplicationFilterChain.doFilter:166",
+        "org.apache.catalina.core.ApplicationFilterChain.internalDoFilter:193",
+        "org.springframework.web.filter.OncePerRequestFilter.doFilter:119",
+        "org.springframework.web.filter.RequestContextFilter.doFilterInternal:100",
+        "org.apache.catalina.core.ApplicationFilterChain.doFilter:166",
+        "org.apache.catalina.core.ApplicationFilterChain.internalDoFilter:231",
+        "javax.servlet.http.HttpServlet.service:741",
+        "org.springframework.web.servlet.FrameworkServlet.service:883",
+        "javax.servlet.http.HttpServlet.service:634",
+        "org.springframework.web.servlet.FrameworkServlet.doGet:898",
+        "org.springframework.web.servlet.FrameworkServlet.processRequest:1006",
+        "org.springframework.web.servlet.DispatcherServlet.doService:943",
+        "org.springframework.web.servlet.DispatcherServlet.doDispatch:1040",
+        "org.springframework.web.servlet.mvc.method.AbstractHandlerMethodAdapter.handle:87",
+        "org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter.handleInternal:797",
+        "org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter.invokeHandlerMethod:888",
+        "org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod.invokeAndHandle:105",
+        "org.springframework.web.method.support.InvocableHandlerMethod.invokeForRequest:138",
+        "org.springframework.web.method.support.InvocableHandlerMethod.doInvoke:190",
+        "sun.reflect.DelegatingMethodAccessorImpl.invoke:43",
+        "java.lang.reflect.Method.invoke:498",
+        "com.example.order.web.OrderController.list:52",
+        "com.example.order.service.OrderService$$EnhancerBySpringCGLIB$$a1b2c3.list:-1",
+        "org.springframework.aop.framework.CglibAopProxy$DynamicAdvisedInterceptor.intercept:691",
+        "org.springframework.aop.framework.ReflectiveMethodInvocation.proceed:186",
+        "org.springframework.transaction.interceptor.TransactionInterceptor.invoke:99",
+        "org.springframework.transaction.interceptor.TransactionAspectSupport.invokeWithinTransaction:366",
+        "org.springframework.aop.framework.ReflectiveMethodInvocation.proceed:186",
+        "org.springframework.aop.framework.CglibAopProxy$CglibMethodInvocation.invokeJoinpoint:750",
+        "com.example.order.service.OrderService.list:78",
+        "org.springframework.jdbc.core.JdbcTemplate.query:732",
+        "org.springframework.jdbc.core.JdbcTemplate.execute:617",
+        "org.springframework.jdbc.core.JdbcTemplate$1.doInPreparedStatement:678",
+        "com.zaxxer.hikari.pool.HikariProxyPreparedStatement.executeQuery:-1",
+        "com.zaxxer.hikari.pool.ProxyPreparedStatement.executeQuery:52",
+        "com.mysql.cj.jdbc.ClientPreparedStatement.executeQuery:1003",
+        "com.mysql.cj.jdbc.ClientPreparedStatement.executeInternal:953",
+        "com.mysql.cj.NativeSession.execSQL:1109",
+        "com.mysql.cj.protocol.a.NativeProtocol.sendQueryPacket:980",
+        "com.mysql.cj.protocol.a.NativeProtocol.readMessage:558",
+        "com.mysql.cj.protocol.a.MultiPacketReader.readHeader:41",
+        "com.mysql.cj.protocol.FullReadInputStream.readFully:64",
+        "java.io.BufferedInputStream.read:345",
+        "java.io.BufferedInputStream.read1:286",
+        "java.io.BufferedInputStream.fill:246",
+        "java.net.SocketInputStream.read:141",
+        "java.net.SocketInputStream.socketRead:116",
+        "java.net.SocketInputStream.socketRead0:-2"
+    ));
+
+    @Test
+    public void testEncodeAndDecode() {
+        byte[] key = ProfileThreadSnapshotCodec.encode(SPRING_STACK, null);
+        assertTrue(ProfileThreadSnapshotCodec.isCompact(key));
+        assertEquals(0, ProfileThreadSnapshotCodec.sharedFrameCount(key));
+        assertEquals(SPRING_STACK, ProfileThreadSnapshotCodec.decode(key, null));
+
+        // the next dump returns from the database and renders the view
+        List<String> next = new ArrayList<>(SPRING_STACK.subList(0, 45));
+        next.add("com.example.order.web.OrderController.list:55");
+        next.add("com.fasterxml.jackson.databind.ObjectMapper.writeValueAsString:3422");
+        byte[] delta = ProfileThreadSnapshotCodec.encode(next, SPRING_STACK);
+        assertEquals(45, ProfileThreadSnapshotCodec.sharedFrameCount(delta));
+        assertEquals(next, ProfileThreadSnapshotCodec.decode(delta, SPRING_STACK));
+    }
+
+    @Test
+    public void testRawFrames() {
+        List<String> stack = Arrays.asList("A", "B.c", "d:1", "e.f:01", "g.h:-2", "i.j:k");
+        assertEquals(stack, ProfileThreadSnapshotCodec.decode(ProfileThreadSnapshotCodec.encode(stack, null), null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeWithoutPrevious() {
+        ProfileThreadSnapshotCodec.decode(ProfileThreadSnapshotCodec.encode(SPRING_STACK, SPRING_STACK), null);
+    }
+
+    @Test
+    public void testLegacyIsNotCompact() {
+        assertFalse(ProfileThreadSnapshotCodec.isCompact(
+            ThreadStack.newBuilder().addAllCodeSignatures(SPRING_STACK).build().toByteArray()));
+        assertFalse(ProfileThreadSnapshotCodec.isCompact(ThreadStack.newBuilder().build().toByteArray()));
+    }
+
+    /**
+     * Compare the bytes per snapshot of the legacy and the compact encoding, when the thread is waiting on the
+     * database, the stack of the following dumps doesn't change, until the key sequence.
+     */
+    @Test
+    public void testBytesReduction() {
+        int legacyBytes = ThreadStack.newBuilder().addAllCodeSignatures(SPRING_STACK).build().getSerializedSize();
+        int keyBytes = ProfileThreadSnapshotCodec.encode(SPRING_STACK, null).length;
+        int deltaBytes = ProfileThreadSnapshotCodec.encode(SPRING_STACK, SPRING_STACK).length;
+
+        int interval = ProfileThreadSnapshotCodec.KEY_FRAME_INTERVAL;
+        double averageBytes = (keyBytes + deltaBytes * (interval - 1)) / (double) interval;
+
+        assertTrue(keyBytes < legacyBytes * 0.8);
+        assertTrue(deltaBytes < 10);
+        assertTrue(averageBytes < legacyBytes * 0.1);
+    }
+}
@@ -33,7 +33,31 @@ public class ProfileAnalyzerTest {
         ProfileStackAnalyzeHolder holder = loadYaml("thread-snapshot.yml", ProfileStackAnalyzeHolder.class);
 
         for (ProfileStackAnalyze analyze : holder.getList()) {
-            analyze.analyzeAndAssert(MAX_ANALYZE_COUNT);
+            analyze.analyzeAndAssert(MAX_ANALYZE_COUNT, false);
+        }
+    }
+
+    @Test
+    public void testAnalyzeCompactSnapshots() throws IOException {
+        ProfileStackAnalyzeHolder holder = loadYaml("thread-snapshot.yml", ProfileStackAnalyzeHolder.class);
+
+        for (ProfileStackAnalyze analyze : holder.getList()) {
+            analyze.analyzeAndAssert(MAX_ANALYZE_COUNT, true);
+        }
+    }
+
+    @Test
+    public void testAnalyzeWithStackSummary() throws IOException {
+        ProfileStackAnalyzeHolder holder = loadYaml("thread-snapshot.yml", ProfileStackAnalyzeHolder.class);
+
+        for (ProfileStackAnalyze analyze : holder.getList()) {
+            // the summaries aren't limited by the max analyze count
+            if (analyze.getData().getSnapshots().size() > MAX_ANALYZE_COUNT) {
+                continue;
+            }
+            analyze.analyzeWithSummaryAndAssert(MAX_ANALYZE_COUNT, 1);
+            analyze.analyzeWithSummaryAndAssert(MAX_ANALYZE_COUNT, 2);
+            analyze.analyzeWithSummaryAndAssert(MAX_ANALYZE_COUNT, 3);
         }
     }
 
@@ -24,10 +24,12 @@ import java.util.stream.Collectors;
 
 import lombok.Data;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 import org.apache.skywalking.oap.server.core.query.type.BasicTrace;
 import org.apache.skywalking.oap.server.core.query.type.ProfileAnalyzeTimeRange;
 import org.apache.skywalking.oap.server.core.query.type.ProfileStackTree;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
 
 import static org.junit.Assert.assertEquals;
@@ -39,8 +41,8 @@ public class ProfileStackAnalyze {
     private ProfileStackData data;
     private List<ProfileStackElementMatcher> expected;
 
-    public void analyzeAndAssert(int maxAnalyzeCount) throws IOException {
-        List<ProfileThreadSnapshotRecord> stacks = data.transformSnapshots();
+    public void analyzeAndAssert(int maxAnalyzeCount, boolean compact) throws IOException {
+        List<ProfileThreadSnapshotRecord> stacks = data.transformSnapshots(compact);
         final List<ProfileAnalyzeTimeRange> ranges = data.transformTimeRanges();
 
         List<ProfileStackTree> trees = buildAnalyzer(stacks, maxAnalyzeCount).analyze(null, ranges).getTrees();
@@ -52,6 +54,26 @@ public class ProfileStackAnalyze {
         }
     }
 
+    /**
+     * Analyze with the stack summaries, every summary covers the given count of snapshots.
+     */
+    public void analyzeWithSummaryAndAssert(int maxAnalyzeCount, int snapshotsPerSlice) throws IOException {
+        List<ProfileThreadSnapshotRecord> stacks = data.transformSnapshots(false);
+        final List<ProfileAnalyzeTimeRange> ranges = data.transformTimeRanges();
+
+        ProfileAnalyzer analyzer = new ProfileAnalyzer(null, 2, maxAnalyzeCount, true);
+        analyzer.profileThreadSnapshotQueryDAO = new ThreadSnapshotDAO(stacks);
+        analyzer.profileStackSummaryQueryDAO = new StackSummaryDAO(
+            data.transformSummaries(stacks, snapshotsPerSlice));
+        List<ProfileStackTree> trees = analyzer.analyze(null, ranges).getTrees();
+
+        assertNotNull(trees);
+        assertEquals(trees.size(), expected.size());
+        for (int i = 0; i < trees.size(); i++) {
+            expected.get(i).verify(trees.get(i));
+        }
+    }
+
     private ProfileAnalyzer buildAnalyzer(List<ProfileThreadSnapshotRecord> stacks, int maxAnalyzeCount) throws IOException {
         ProfileAnalyzer analyzer = new ProfileAnalyzer(null, 2, maxAnalyzeCount);
         analyzer.profileThreadSnapshotQueryDAO = new ThreadSnapshotDAO(stacks);
@@ -106,4 +128,22 @@ public class ProfileStackAnalyze {
 
     }
 
+    static class StackSummaryDAO implements IProfileStackSummaryQueryDAO {
+
+        private final List<ProfileStackSummaryRecord> summaries;
+
+        public StackSummaryDAO(List<ProfileStackSummaryRecord> summaries) {
+            this.summaries = summaries;
+        }
+
+        @Override
+        public List<ProfileStackSummaryRecord> querySummaries(String segmentId, long start, long end) throws IOException {
+            return summaries.stream()
+                    .filter(s -> s.getSliceStart() >= start)
+                    .filter(s -> s.getSliceEnd() <= end + 1)
+                    .collect(Collectors.toList());
+        }
+
+    }
+
 }
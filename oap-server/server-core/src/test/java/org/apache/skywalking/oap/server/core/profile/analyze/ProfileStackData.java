@@ -21,6 +21,8 @@ package org.apache.skywalking.oap.server.core.profile.analyze;
 import com.google.common.base.Splitter;
 import lombok.Data;
 import org.apache.skywalking.apm.network.language.profile.v3.ThreadStack;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotCodec;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 import org.apache.skywalking.oap.server.core.query.type.ProfileAnalyzeTimeRange;
 
@@ -34,21 +36,68 @@ public class ProfileStackData {
     private String timeRanges;
     private List<String> snapshots;
 
-    public List<ProfileThreadSnapshotRecord> transformSnapshots() {
+    public List<ProfileThreadSnapshotRecord> transformSnapshots(boolean compact) {
         ArrayList<ProfileThreadSnapshotRecord> result = new ArrayList<>(snapshots.size());
 
+        List<String> previousStack = null;
         for (int i = 0; i < snapshots.size(); i++) {
             ProfileThreadSnapshotRecord stack = new ProfileThreadSnapshotRecord();
             stack.setSequence(i);
             stack.setDumpTime(i * limit);
-            ThreadStack stackData = ThreadStack.newBuilder().addAllCodeSignatures(Splitter.on("-").splitToList(snapshots.get(i))).build();
-            stack.setStackBinary(stackData.toByteArray());
+            List<String> codeSignatures = Splitter.on("-").splitToList(snapshots.get(i));
+            if (compact) {
+                stack.setStackBinary(ProfileThreadSnapshotCodec.encode(
+                    codeSignatures, ProfileThreadSnapshotCodec.isKeySequence(i) ? null : previousStack));
+            } else {
+                ThreadStack stackData = ThreadStack.newBuilder().addAllCodeSignatures(codeSignatures).build();
+                stack.setStackBinary(stackData.toByteArray());
+            }
+            previousStack = codeSignatures;
             result.add(stack);
         }
 
         return result;
     }
 
+    /**
+     * Summarize the snapshots per time slice, every slice covers the given count of snapshots.
+     */
+    public List<ProfileStackSummaryRecord> transformSummaries(List<ProfileThreadSnapshotRecord> records,
+                                                              int snapshotsPerSlice) {
+        final long sliceMillis = (long) limit * snapshotsPerSlice;
+        final ArrayList<ProfileStackSummaryRecord> result = new ArrayList<>();
+
+        ProfileStackSummary summary = null;
+        long sliceStart = -1;
+        for (ProfileThreadSnapshotRecord record : records) {
+            final long recordSliceStart = record.getDumpTime() - record.getDumpTime() % sliceMillis;
+            if (recordSliceStart != sliceStart) {
+                if (summary != null) {
+                    result.add(buildSummaryRecord(summary, sliceStart, sliceMillis));
+                }
+                summary = new ProfileStackSummary();
+                sliceStart = recordSliceStart;
+            }
+            summary.accumulate(ProfileStack.deserialize(record));
+        }
+        if (summary != null) {
+            result.add(buildSummaryRecord(summary, sliceStart, sliceMillis));
+        }
+        return result;
+    }
+
+    private ProfileStackSummaryRecord buildSummaryRecord(ProfileStackSummary summary, long sliceStart,
+                                                         long sliceMillis) {
+        final ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+        record.setSliceStart(sliceStart);
+        record.setSliceEnd(sliceStart + sliceMillis);
+        record.setMinSequence(summary.getMinSequence());
+        record.setMaxSequence(summary.getMaxSequence());
+        record.setSnapshotCount(summary.getSnapshotCount());
+        record.setSummaryBinary(summary.serialize());
+        return record;
+    }
+
     public List<ProfileAnalyzeTimeRange> transformTimeRanges() {
         final String[] timeRangeString = this.timeRanges.split(",");
         final ArrayList<ProfileAnalyzeTimeRange> ranges = new ArrayList<>();
@@ -47,6 +47,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyVararg;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -83,7 +84,7 @@ public class RemoteServiceHandlerTestCase {
 
             }
         });
-        when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
+        when(metricsCreator.createHistogramMetric(any(), any(), any(), any(), anyVararg())).thenReturn(new HistogramMetrics() {
             @Override
             public Timer createTimer() {
                 return super.createTimer();
@@ -41,6 +41,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyVararg;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
@@ -82,7 +83,7 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
-        when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
+        when(metricsCreator.createHistogramMetric(any(), any(), any(), any(), anyVararg())).thenReturn(new HistogramMetrics() {
             @Override
             public Timer createTimer() {
                 return super.createTimer();
@@ -71,10 +71,13 @@ import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.Response;
 import org.elasticsearch.client.RestClient;
@@ -206,6 +209,22 @@ public class ElasticSearchClient implements Client {
         return response.isAcknowledged();
     }
 
+    /**
+     * Add the new fields of the mapping into the existing index.
+     */
+    public boolean updateIndexMapping(String indexName, Map<String, Object> mapping) throws IOException {
+        indexName = formatIndexName(indexName);
+        HttpEntity entity = new NStringEntity(new Gson().toJson(mapping), ContentType.APPLICATION_JSON);
+        Response response = client.getLowLevelClient()
+                                  .performRequest(
+                                      HttpPut.METHOD_NAME, "/" + indexName + "/_mapping/" + TYPE,
+                                      Collections.emptyMap(), entity
+                                  );
+        log.debug("update {} index mapping finished, status code: {}", indexName, response.getStatusLine()
+                                                                                         .getStatusCode());
+        return response.getStatusLine().getStatusCode() == HttpStatus.SC_OK;
+    }
+
     public List<String> retrievalIndexByAliases(String aliases) throws IOException {
         aliases = formatIndexName(aliases);
         Response response = client.getLowLevelClient().performRequest(HttpGet.METHOD_NAME, "/_alias/" + aliases);
@@ -306,9 +325,29 @@ public class ElasticSearchClient implements Client {
     }
 
     public SearchResponse search(String indexName, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        return search(indexName, searchSourceBuilder, null);
+    }
+
+    /**
+     * Search in the shards of the routing only, or all shards if the routing is null.
+     */
+    public SearchResponse search(String indexName, SearchSourceBuilder searchSourceBuilder,
+                                 String routing) throws IOException {
         indexName = formatIndexName(indexName);
         SearchRequest searchRequest = new SearchRequest(indexName);
         searchRequest.types(TYPE);
+        searchRequest.routing(routing);
+        searchRequest.source(searchSourceBuilder);
+        return client.search(searchRequest);
+    }
+
+    /**
+     * Search in the given indices, the ones not existing are ignored.
+     */
+    public SearchResponse search(String[] indexNames, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        SearchRequest searchRequest = new SearchRequest(formatIndexNames(indexNames));
+        searchRequest.indicesOptions(IndicesOptions.lenientExpandOpen());
+        searchRequest.types(TYPE);
         searchRequest.source(searchSourceBuilder);
         return client.search(searchRequest);
     }
@@ -319,6 +358,18 @@ public class ElasticSearchClient implements Client {
         return client.get(request);
     }
 
+    /**
+     * Get the documents of the IDs in the indices, with their routings, from the real-time get rather than a search.
+     * All these arrays are in the same length.
+     */
+    public MultiGetResponse multiGet(String[] indexNames, String[] ids, String[] routings) throws IOException {
+        MultiGetRequest request = new MultiGetRequest();
+        for (int i = 0; i < ids.length; i++) {
+            request.add(new MultiGetRequest.Item(formatIndexName(indexNames[i]), TYPE, ids[i]).routing(routings[i]));
+        }
+        return client.multiGet(request);
+    }
+
     public SearchResponse ids(String indexName, String[] ids) throws IOException {
         indexName = formatIndexName(indexName);
 
@@ -350,13 +401,25 @@ public class ElasticSearchClient implements Client {
     }
 
     public InsertRequest prepareInsert(String indexName, String id, XContentBuilder source) {
+        return prepareInsert(indexName, id, null, source);
+    }
+
+    public InsertRequest prepareInsert(String indexName, String id, String routing, XContentBuilder source) {
         indexName = formatIndexName(indexName);
-        return new ElasticSearchInsertRequest(indexName, TYPE, id).source(source);
+        ElasticSearchInsertRequest request = new ElasticSearchInsertRequest(indexName, TYPE, id).source(source);
+        request.routing(routing);
+        return request;
     }
 
     public UpdateRequest prepareUpdate(String indexName, String id, XContentBuilder source) {
+        return prepareUpdate(indexName, id, null, source);
+    }
+
+    public UpdateRequest prepareUpdate(String indexName, String id, String routing, XContentBuilder source) {
         indexName = formatIndexName(indexName);
-        return new ElasticSearchUpdateRequest(indexName, TYPE, id).doc(source);
+        ElasticSearchUpdateRequest request = new ElasticSearchUpdateRequest(indexName, TYPE, id).doc(source);
+        request.routing(routing);
+        return request;
     }
 
     public int delete(String indexName, String timeBucketColumnName, long endTimeBucket) throws IOException {
@@ -371,17 +434,14 @@ public class ElasticSearchClient implements Client {
         return response.getStatusLine().getStatusCode();
     }
 
-    public void synchronousBulk(BulkRequest request) {
+    public BulkResponse synchronousBulk(BulkRequest request) throws IOException {
         request.timeout(TimeValue.timeValueMinutes(2));
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
         request.waitForActiveShards(ActiveShardCount.ONE);
-        try {
-            int size = request.requests().size();
-            BulkResponse responses = client.bulk(request);
-            log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
-        } catch (IOException e) {
-            log.error(e.getMessage(), e);
-        }
+        int size = request.requests().size();
+        BulkResponse responses = client.bulk(request);
+        log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
+        return responses;
     }
 
     public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
@@ -425,6 +485,14 @@ public class ElasticSearchClient implements Client {
         };
     }
 
+    protected String[] formatIndexNames(String[] indexNames) {
+        String[] formatted = new String[indexNames.length];
+        for (int i = 0; i < indexNames.length; i++) {
+            formatted[i] = formatIndexName(indexNames[i]);
+        }
+        return formatted;
+    }
+
     public String formatIndexName(String indexName) {
         for (final IndexNameConverter indexNameConverter : indexNameConverters) {
             indexName = indexNameConverter.convert(indexName);
@@ -18,45 +18,69 @@
 
 package org.apache.skywalking.oap.server.library.module;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * BootstrapFlow starts the providers following the dependency graph of the {@link ModuleProvider#requiredModules()}.
+ * A provider starts after all providers of its required modules started. The providers independent of each other start
+ * concurrently, when the startup concurrency is more than 1.
+ */
 class BootstrapFlow {
     private static final Logger logger = LoggerFactory.getLogger(BootstrapFlow.class);
 
     private Map<String, ModuleDefine> loadedModules;
+    /**
+     * The providers in the topological order, the dependencies first.
+     */
     private List<ModuleProvider> startupSequence;
+    /**
+     * The providers of the loaded required modules of every provider.
+     */
+    private final Map<ModuleProvider, List<ModuleProvider>> dependencies;
+    private final Map<String, Long> startupTimes;
 
     BootstrapFlow(Map<String, ModuleDefine> loadedModules) throws CycleDependencyException {
         this.loadedModules = loadedModules;
-        startupSequence = new LinkedList<>();
+        startupSequence = new ArrayList<>();
+        dependencies = new HashMap<>();
+        startupTimes = Collections.synchronizedMap(new HashMap<>());
 
         makeSequence();
     }
 
-    @SuppressWarnings("unchecked")
-    void start(
-        ModuleManager moduleManager) throws ModuleNotFoundException, ServiceNotProvidedException, ModuleStartException {
-        for (ModuleProvider provider : startupSequence) {
-            String[] requiredModules = provider.requiredModules();
-            if (requiredModules != null) {
-                for (String module : requiredModules) {
-                    if (!moduleManager.has(module)) {
-                        throw new ModuleNotFoundException(module + " is required by " + provider.getModuleName() + "." + provider
-                            .name() + ", but not found.");
-                    }
-                }
+    /**
+     * @param concurrency the max number of the providers starting at the same time.
+     */
+    void start(ModuleManager moduleManager,
+               int concurrency) throws ModuleNotFoundException, ServiceNotProvidedException, ModuleStartException {
+        long startTime = System.currentTimeMillis();
+        if (concurrency <= 1 || startupSequence.size() <= 1) {
+            for (ModuleProvider provider : startupSequence) {
+                start(moduleManager, provider);
             }
-            logger.info("start the provider {} in {} module.", provider.name(), provider.getModuleName());
-            provider.requiredCheck(provider.getModule().services());
-
-            provider.start();
+        } else {
+            startConcurrently(moduleManager, Math.min(concurrency, startupSequence.size()));
         }
+        logger.info(
+            "{} modules started in {} ms, concurrency {}.", startupSequence.size(),
+            System.currentTimeMillis() - startTime, concurrency
+        );
     }
 
     void notifyAfterCompleted() throws ServiceNotProvidedException, ModuleStartException {
@@ -65,54 +89,165 @@ class BootstrapFlow {
         }
     }
 
-    private void makeSequence() throws CycleDependencyException {
-        List<ModuleProvider> allProviders = new ArrayList<>();
-        loadedModules.forEach((moduleName, module) -> allProviders.add(module.provider()));
-
-        do {
-            int numOfToBeSequenced = allProviders.size();
-            for (int i = 0; i < allProviders.size(); i++) {
-                ModuleProvider provider = allProviders.get(i);
-                String[] requiredModules = provider.requiredModules();
-                if (CollectionUtils.isNotEmpty(requiredModules)) {
-                    boolean isAllRequiredModuleStarted = true;
-                    for (String module : requiredModules) {
-                        // find module in all ready existed startupSequence
-                        boolean exist = false;
-                        for (ModuleProvider moduleProvider : startupSequence) {
-                            if (moduleProvider.getModuleName().equals(module)) {
-                                exist = true;
-                                break;
-                            }
-                        }
-                        if (!exist) {
-                            isAllRequiredModuleStarted = false;
-                            break;
-                        }
+    /**
+     * @return the time of starting every module in milliseconds, in the startup sequence.
+     */
+    Map<String, Long> getStartupTimes() {
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (ModuleProvider provider : startupSequence) {
+            Long time = startupTimes.get(provider.getModuleName());
+            if (time != null) {
+                times.put(provider.getModuleName(), time);
+            }
+        }
+        return times;
+    }
+
+    private void start(ModuleManager moduleManager,
+                       ModuleProvider provider) throws ModuleNotFoundException, ServiceNotProvidedException, ModuleStartException {
+        String[] requiredModules = provider.requiredModules();
+        if (requiredModules != null) {
+            for (String module : requiredModules) {
+                if (!moduleManager.has(module)) {
+                    throw new ModuleNotFoundException(module + " is required by " + provider.getModuleName() + "." + provider
+                        .name() + ", but not found.");
+                }
+            }
+        }
+        logger.info("start the provider {} in {} module.", provider.name(), provider.getModuleName());
+        long startTime = System.currentTimeMillis();
+        provider.requiredCheck(provider.getModule().services());
+
+        provider.start();
+        long time = System.currentTimeMillis() - startTime;
+        startupTimes.put(provider.getModuleName(), time);
+        logger.info("the provider {} in {} module started in {} ms.", provider.name(), provider.getModuleName(), time);
+    }
+
+    /**
+     * Start every provider in the pool once the providers of its required modules started. The dependents of a failed
+     * provider are not started, and the exception of the first failed provider in the startup sequence is thrown.
+     */
+    private void startConcurrently(ModuleManager moduleManager, int concurrency)
+        throws ModuleNotFoundException, ServiceNotProvidedException, ModuleStartException {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, new StartupThreadFactory());
+        Map<ModuleProvider, CompletableFuture<Void>> futures = new HashMap<>();
+        try {
+            for (ModuleProvider provider : startupSequence) {
+                CompletableFuture<?>[] required = dependencies.get(provider)
+                                                              .stream()
+                                                              .map(futures::get)
+                                                              .toArray(CompletableFuture[]::new);
+                futures.put(provider, CompletableFuture.allOf(required).thenRunAsync(() -> {
+                    try {
+                        start(moduleManager, provider);
+                    } catch (ModuleNotFoundException | ServiceNotProvidedException | ModuleStartException e) {
+                        throw new CompletionException(e);
                     }
+                }, executor));
+            }
 
-                    if (isAllRequiredModuleStarted) {
-                        startupSequence.add(provider);
-                        allProviders.remove(i);
-                        i--;
+            try {
+                CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ModuleStartException("Interrupted while starting the modules.", e);
+            } catch (ExecutionException e) {
+                for (ModuleProvider provider : startupSequence) {
+                    CompletableFuture<Void> future = futures.get(provider);
+                    if (future.isCompletedExceptionally()) {
+                        rethrow(provider, future);
                     }
-                } else {
-                    startupSequence.add(provider);
-                    allProviders.remove(i);
-                    i--;
                 }
+                throw new ModuleStartException(e.getMessage(), e);
             }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            if (numOfToBeSequenced == allProviders.size()) {
-                StringBuilder unSequencedProviders = new StringBuilder();
-                allProviders.forEach(provider -> unSequencedProviders.append(provider.getModuleName())
-                                                                     .append("[provider=")
-                                                                     .append(provider.getClass().getName())
-                                                                     .append("]\n"));
-                throw new CycleDependencyException("Exist cycle module dependencies in \n" + unSequencedProviders.substring(0, unSequencedProviders
-                    .length() - 1));
+    private static void rethrow(ModuleProvider provider, CompletableFuture<Void> future)
+        throws ModuleNotFoundException, ServiceNotProvidedException, ModuleStartException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ModuleNotFoundException) {
+                throw (ModuleNotFoundException) cause;
+            } else if (cause instanceof ServiceNotProvidedException) {
+                throw (ServiceNotProvidedException) cause;
+            } else if (cause instanceof ModuleStartException) {
+                throw (ModuleStartException) cause;
             }
+            throw new ModuleStartException(
+                "Failed to start the provider " + provider.name() + " in " + provider.getModuleName() + " module.",
+                cause
+            );
+        }
+    }
+
+    /**
+     * Sort the providers in the topological order of the dependency graph. The required modules not loaded are left to
+     * the check before starting.
+     */
+    private void makeSequence() throws CycleDependencyException {
+        Map<String, ModuleProvider> providers = new LinkedHashMap<>();
+        loadedModules.forEach((moduleName, module) -> providers.put(moduleName, module.provider()));
+
+        Map<ModuleProvider, List<ModuleProvider>> dependents = new HashMap<>();
+        Map<ModuleProvider, Integer> inDegrees = new HashMap<>();
+        Deque<ModuleProvider> ready = new ArrayDeque<>();
+        for (ModuleProvider provider : providers.values()) {
+            List<ModuleProvider> required = new ArrayList<>();
+            String[] requiredModules = provider.requiredModules();
+            if (requiredModules != null) {
+                for (String module : requiredModules) {
+                    ModuleProvider requiredProvider = providers.get(module);
+                    if (requiredProvider != null && !required.contains(requiredProvider)) {
+                        required.add(requiredProvider);
+                        dependents.computeIfAbsent(requiredProvider, key -> new ArrayList<>()).add(provider);
+                    }
+                }
+            }
+            dependencies.put(provider, required);
+            inDegrees.put(provider, required.size());
+            if (required.isEmpty()) {
+                ready.add(provider);
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            ModuleProvider provider = ready.poll();
+            startupSequence.add(provider);
+            for (ModuleProvider dependent : dependents.getOrDefault(provider, Collections.emptyList())) {
+                if (inDegrees.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (startupSequence.size() != providers.size()) {
+            StringBuilder unSequencedProviders = new StringBuilder();
+            providers.values()
+                     .stream()
+                     .filter(provider -> !startupSequence.contains(provider))
+                     .forEach(provider -> unSequencedProviders.append(provider.getModuleName())
+                                                              .append("[provider=")
+                                                              .append(provider.getClass().getName())
+                                                              .append("]\n"));
+            throw new CycleDependencyException("Exist cycle module dependencies in \n" + unSequencedProviders.substring(0, unSequencedProviders
+                .length() - 1));
+        }
+    }
+
+    private static class StartupThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Module-Startup-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
         }
-        while (allProviders.size() != 0);
     }
 }
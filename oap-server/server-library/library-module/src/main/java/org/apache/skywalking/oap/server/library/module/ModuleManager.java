@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.library.module;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Map;
@@ -31,6 +32,20 @@ public class ModuleManager implements ModuleDefineHolder {
 
     private boolean isInPrepareStage = true;
     private final Map<String, ModuleDefine> loadedModules = new HashMap<>();
+    /**
+     * The max number of the providers starting at the same time, the providers independent of each other start
+     * concurrently if more than 1.
+     */
+    private final int startupConcurrency;
+    private Map<String, Long> startupTimes = Collections.emptyMap();
+
+    public ModuleManager() {
+        this(1);
+    }
+
+    public ModuleManager(int startupConcurrency) {
+        this.startupConcurrency = startupConcurrency;
+    }
 
     /**
      * Init the given modules
@@ -66,10 +81,18 @@ public class ModuleManager implements ModuleDefineHolder {
 
         BootstrapFlow bootstrapFlow = new BootstrapFlow(loadedModules);
 
-        bootstrapFlow.start(this);
+        bootstrapFlow.start(this, startupConcurrency);
+        startupTimes = bootstrapFlow.getStartupTimes();
         bootstrapFlow.notifyAfterCompleted();
     }
 
+    /**
+     * @return the time of starting every module in milliseconds, in the startup sequence.
+     */
+    public Map<String, Long> getStartupTimes() {
+        return startupTimes;
+    }
+
     @Override
     public boolean has(String moduleName) {
         return loadedModules.get(moduleName) != null;
@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.oap.server.library.module;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import org.junit.Assert;
 import org.junit.Test;
@@ -38,4 +40,42 @@ public class ModuleManagerTest {
                                                                  .getService(BaseModuleA.ServiceABusiness1.class);
         Assert.assertTrue(serviceABusiness1 != null);
     }
+
+    @Test
+    public void testConcurrentInit() throws ServiceNotProvidedException, ModuleNotFoundException, ProviderNotFoundException, DuplicateProviderException, ModuleConfigException, ModuleStartException {
+        ApplicationConfiguration configuration = new ApplicationConfiguration();
+        configuration.addModule("Test").addProviderConfiguration("TestModule-Provider", new Properties());
+        configuration.addModule("BaseA").addProviderConfiguration("P-A", new Properties());
+        configuration.addModule("BaseB").addProviderConfiguration("P-B", new Properties());
+
+        ModuleManager manager = new ModuleManager(4);
+        manager.init(configuration);
+
+        List<String> startupSequence = new ArrayList<>(manager.getStartupTimes().keySet());
+        Assert.assertEquals(3, startupSequence.size());
+        // Test module requires both BaseA and BaseB.
+        Assert.assertEquals("Test", startupSequence.get(2));
+        Assert.assertNotNull(manager.find("BaseA").provider().getService(BaseModuleA.ServiceABusiness1.class));
+    }
+
+    @Test
+    public void testFailedProviderSkipsDependents() throws ModuleNotFoundException, ProviderNotFoundException, ServiceNotProvidedException, ModuleConfigException {
+        for (int concurrency : new int[] {1, 4}) {
+            ApplicationConfiguration configuration = new ApplicationConfiguration();
+            configuration.addModule("Test").addProviderConfiguration("TestModule-Provider", new Properties());
+            configuration.addModule("BaseA").addProviderConfiguration("P-A", new Properties());
+            configuration.addModule("BaseB").addProviderConfiguration("P-B-Failing", new Properties());
+
+            TestModuleProvider.STARTED = false;
+            ModuleManager manager = new ModuleManager(concurrency);
+            try {
+                manager.init(configuration);
+                Assert.fail("The failure of P-B-Failing should be thrown.");
+            } catch (ModuleStartException e) {
+                Assert.assertEquals(FailingModuleBProvider.FAILURE, e.getMessage());
+            }
+            // Test module requires BaseB.
+            Assert.assertFalse(TestModuleProvider.STARTED);
+        }
+    }
 }
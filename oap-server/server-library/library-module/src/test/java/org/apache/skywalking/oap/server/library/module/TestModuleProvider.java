@@ -19,6 +19,8 @@
 package org.apache.skywalking.oap.server.library.module;
 
 public class TestModuleProvider extends ModuleProvider {
+    static volatile boolean STARTED = false;
+
     @Override
     public String name() {
         return "TestModule-Provider";
@@ -40,6 +42,7 @@ public class TestModuleProvider extends ModuleProvider {
 
     @Override
     public void start() {
+        STARTED = true;
     }
 
     @Override
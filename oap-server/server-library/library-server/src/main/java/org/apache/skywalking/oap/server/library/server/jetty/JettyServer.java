@@ -71,7 +71,7 @@ public class JettyServer implements Server {
         server.setHandler(servletContextHandler);
     }
 
-    public void addHandler(JettyHandler handler) {
+    public synchronized void addHandler(JettyHandler handler) {
         logger.info("Bind handler {} into jetty server {}:{}", handler.getClass().getSimpleName(), host, port);
 
         ServletHolder servletHolder = new ServletHolder();
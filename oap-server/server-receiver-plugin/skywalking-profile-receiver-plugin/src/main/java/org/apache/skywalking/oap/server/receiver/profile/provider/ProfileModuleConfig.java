@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.profile.provider;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.skywalking.oap.server.library.module.ModuleConfig;
+
+@Getter
+@Setter
+public class ProfileModuleConfig extends ModuleConfig {
+    /**
+     * Store the thread snapshots in the compact encoding, which interns class and method names, and only keeps the
+     * frames changed since the previous snapshot of the same segment.
+     */
+    private boolean snapshotCompactEncoding = false;
+    /**
+     * The time slice length of the stack summaries, in seconds. The received snapshots of every segment are folded into
+     * a stack tree summary per slice, which could be merged by the profile analysis. 0 means no stack summary.
+     */
+    private int stackSummarySliceSeconds = 0;
+}
@@ -26,6 +26,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ModuleStartException;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.receiver.profile.module.ProfileModule;
+import org.apache.skywalking.oap.server.receiver.profile.provider.handler.ProfileStackSummaryAggregator;
 import org.apache.skywalking.oap.server.receiver.profile.provider.handler.ProfileTaskServiceHandler;
 import org.apache.skywalking.oap.server.receiver.sharing.server.SharingServerModule;
 
@@ -33,6 +34,8 @@ import org.apache.skywalking.oap.server.receiver.sharing.server.SharingServerMod
  * profile task receiver default provider
  */
 public class ProfileModuleProvider extends ModuleProvider {
+    private final ProfileModuleConfig config = new ProfileModuleConfig();
+
     @Override
     public String name() {
         return "default";
@@ -45,7 +48,7 @@ public class ProfileModuleProvider extends ModuleProvider {
 
     @Override
     public ModuleConfig createConfigBeanIfAbsent() {
-        return null;
+        return config;
     }
 
     @Override
@@ -57,7 +60,14 @@ public class ProfileModuleProvider extends ModuleProvider {
         GRPCHandlerRegister grpcHandlerRegister = getManager().find(SharingServerModule.NAME)
                                                               .provider()
                                                               .getService(GRPCHandlerRegister.class);
-        grpcHandlerRegister.addHandler(new ProfileTaskServiceHandler(getManager()));
+        ProfileStackSummaryAggregator stackSummaryAggregator = null;
+        if (config.getStackSummarySliceSeconds() > 0) {
+            stackSummaryAggregator = new ProfileStackSummaryAggregator(config.getStackSummarySliceSeconds());
+            stackSummaryAggregator.start();
+            Runtime.getRuntime().addShutdownHook(
+                new Thread(stackSummaryAggregator::shutdown, "ProfileStackSummaryShutdown"));
+        }
+        grpcHandlerRegister.addHandler(new ProfileTaskServiceHandler(getManager(), config, stackSummaryAggregator));
     }
 
     @Override
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.profile.provider.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcessor;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.profile.analyze.ProfileStack;
+import org.apache.skywalking.oap.server.core.profile.analyze.ProfileStackSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fold the received snapshots into a {@link ProfileStackSummary} per segment and time slice. A slice is stored as
+ * {@link ProfileStackSummaryRecord} when a snapshot of the later slice is received, or no snapshot of it is received
+ * in a slice length. Snapshots received out of the sequence order break the slice, it isn't stored then, and the
+ * analysis falls back to the raw snapshots.
+ * <p>
+ * The snapshots of one segment could be received by several OAP nodes, every node stores its own part of the slice,
+ * identified by the node ID of this aggregator.
+ */
+public class ProfileStackSummaryAggregator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProfileStackSummaryAggregator.class);
+
+    private final long sliceMillis;
+    private final String nodeId;
+    private final Map<String, OpenSlice> openSlices = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushExecutor;
+
+    public ProfileStackSummaryAggregator(int sliceSeconds) {
+        this.sliceMillis = TimeUnit.SECONDS.toMillis(sliceSeconds);
+        this.nodeId = UUID.randomUUID().toString().replace("-", "");
+    }
+
+    public void start() {
+        flushExecutor = Executors.newSingleThreadScheduledExecutor();
+        flushExecutor.scheduleWithFixedDelay(
+            new RunnableWithExceptionProtection(this::flushIdleSlices, t -> LOGGER
+                .error("Flush profile stack summary failure.", t)), sliceMillis, sliceMillis,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Stop the idle slice flushing, and store all open slices.
+     */
+    public void shutdown() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        flushSlices(Long.MAX_VALUE);
+    }
+
+    public void accumulate(String taskId, String segmentId, int sequence, long dumpTime, List<String> stack) {
+        final long sliceStart = dumpTime - dumpTime % sliceMillis;
+        final OpenSlice[] ended = new OpenSlice[1];
+        openSlices.compute(segmentId, (id, slice) -> {
+            if (slice != null && slice.sliceStart != sliceStart) {
+                if (sliceStart < slice.sliceStart) {
+                    // the slice of this snapshot has been stored
+                    return slice;
+                }
+                // stored after the compute, not to hold the lock of the map while storing
+                ended[0] = slice;
+                slice = null;
+            }
+            if (slice == null) {
+                slice = new OpenSlice(taskId, segmentId, sliceStart);
+            }
+
+            slice.lastUpdateTime = System.currentTimeMillis();
+            if (slice.broken) {
+                return slice;
+            }
+            if (!slice.summary.isEmpty() && sequence <= slice.summary.getMaxSequence()) {
+                LOGGER.debug("Snapshot {} of segment {} is out of order, skip the stack summary.", sequence, segmentId);
+                slice.broken = true;
+                return slice;
+            }
+            final ProfileStack profileStack = new ProfileStack();
+            profileStack.setSequence(sequence);
+            profileStack.setDumpTime(dumpTime);
+            profileStack.setStack(stack);
+            slice.summary.accumulate(profileStack);
+            return slice;
+        });
+        if (ended[0] != null) {
+            flush(ended[0]);
+        }
+    }
+
+    private void flushIdleSlices() {
+        flushSlices(System.currentTimeMillis() - sliceMillis);
+    }
+
+    /**
+     * Remove the slices not updated since the given time, and store them after the removal.
+     */
+    private void flushSlices(long idleTime) {
+        final List<OpenSlice> idleSlices = new ArrayList<>();
+        for (String segmentId : openSlices.keySet()) {
+            openSlices.computeIfPresent(segmentId, (id, slice) -> {
+                if (slice.lastUpdateTime > idleTime) {
+                    return slice;
+                }
+                idleSlices.add(slice);
+                return null;
+            });
+        }
+        idleSlices.forEach(this::flush);
+    }
+
+    private void flush(OpenSlice slice) {
+        if (slice.broken || slice.summary.isEmpty()) {
+            return;
+        }
+        final ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+        record.setTaskId(slice.taskId);
+        record.setSegmentId(slice.segmentId);
+        record.setNodeId(nodeId);
+        record.setSliceStart(slice.sliceStart);
+        record.setSliceEnd(slice.sliceStart + sliceMillis);
+        record.setMinSequence(slice.summary.getMinSequence());
+        record.setMaxSequence(slice.summary.getMaxSequence());
+        record.setSnapshotCount(slice.summary.getSnapshotCount());
+        record.setSummaryBinary(slice.summary.serialize());
+        record.setTimeBucket(TimeBucket.getRecordTimeBucket(slice.sliceStart));
+
+        RecordStreamProcessor.getInstance().in(record);
+    }
+
+    private static class OpenSlice {
+        private final String taskId;
+        private final String segmentId;
+        private final long sliceStart;
+        private final ProfileStackSummary summary = new ProfileStackSummary();
+        private long lastUpdateTime;
+        private boolean broken;
+
+        private OpenSlice(String taskId, String segmentId, long sliceStart) {
+            this.taskId = taskId;
+            this.segmentId = segmentId;
+            this.sliceStart = sliceStart;
+        }
+    }
+}
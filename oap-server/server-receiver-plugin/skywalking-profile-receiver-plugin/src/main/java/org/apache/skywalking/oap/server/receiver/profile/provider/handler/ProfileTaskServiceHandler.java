@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.oap.server.receiver.profile.provider.handler;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.grpc.stub.StreamObserver;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +35,7 @@ import org.apache.skywalking.oap.server.core.analysis.worker.RecordStreamProcess
 import org.apache.skywalking.oap.server.core.cache.ProfileTaskCache;
 import org.apache.skywalking.oap.server.core.command.CommandService;
 import org.apache.skywalking.oap.server.core.profile.ProfileTaskLogRecord;
+import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotCodec;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
 import org.apache.skywalking.oap.server.core.query.type.ProfileTask;
 import org.apache.skywalking.oap.server.core.query.type.ProfileTaskLogOperationType;
@@ -40,6 +43,7 @@ import org.apache.skywalking.oap.server.core.analysis.NodeType;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCHandler;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.receiver.profile.provider.ProfileModuleConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,10 +53,26 @@ public class ProfileTaskServiceHandler extends ProfileTaskGrpc.ProfileTaskImplBa
 
     private ProfileTaskCache profileTaskCache;
     private final CommandService commandService;
-
-    public ProfileTaskServiceHandler(ModuleManager moduleManager) {
+    private final boolean snapshotCompactEncoding;
+    /**
+     * The last received stack of each profiling segment, the base of the compact encoding.
+     */
+    private final Cache<String, LastSnapshot> lastSnapshots;
+    /**
+     * Null if the stack summary is disabled.
+     */
+    private final ProfileStackSummaryAggregator stackSummaryAggregator;
+
+    public ProfileTaskServiceHandler(ModuleManager moduleManager, ProfileModuleConfig config,
+                                     ProfileStackSummaryAggregator stackSummaryAggregator) {
         this.profileTaskCache = moduleManager.find(CoreModule.NAME).provider().getService(ProfileTaskCache.class);
         this.commandService = moduleManager.find(CoreModule.NAME).provider().getService(CommandService.class);
+        this.snapshotCompactEncoding = config.isSnapshotCompactEncoding();
+        this.lastSnapshots = CacheBuilder.newBuilder()
+                                         .maximumSize(10_000)
+                                         .expireAfterAccess(1, TimeUnit.MINUTES)
+                                         .build();
+        this.stackSummaryAggregator = stackSummaryAggregator;
     }
 
     @Override
@@ -103,11 +123,22 @@ public class ProfileTaskServiceHandler extends ProfileTaskGrpc.ProfileTaskImplBa
                 record.setSegmentId(snapshot.getTraceSegmentId());
                 record.setDumpTime(snapshot.getTime());
                 record.setSequence(snapshot.getSequence());
-                record.setStackBinary(snapshot.getStack().toByteArray());
+                if (snapshotCompactEncoding) {
+                    record.setStackBinary(encodeStack(snapshot));
+                } else {
+                    record.setStackBinary(snapshot.getStack().toByteArray());
+                }
                 record.setTimeBucket(TimeBucket.getRecordTimeBucket(snapshot.getTime()));
 
                 // async storage
                 RecordStreamProcessor.getInstance().in(record);
+
+                if (stackSummaryAggregator != null) {
+                    stackSummaryAggregator.accumulate(
+                        snapshot.getTaskId(), snapshot.getTraceSegmentId(), snapshot.getSequence(), snapshot.getTime(),
+                        snapshot.getStack().getCodeSignaturesList()
+                    );
+                }
             }
 
             @Override
@@ -153,4 +184,35 @@ public class ProfileTaskServiceHandler extends ProfileTaskGrpc.ProfileTaskImplBa
         RecordStreamProcessor.getInstance().in(logRecord);
     }
 
+    /**
+     * Encode the stack as the delta of the previous sequence, unless it is a key sequence or the previous one isn't
+     * received by this OAP.
+     */
+    private byte[] encodeStack(ThreadSnapshot snapshot) {
+        final String segmentId = snapshot.getTraceSegmentId();
+        final int sequence = snapshot.getSequence();
+        final List<String> stack = snapshot.getStack().getCodeSignaturesList();
+
+        List<String> previousStack = null;
+        if (!ProfileThreadSnapshotCodec.isKeySequence(sequence)) {
+            final LastSnapshot last = lastSnapshots.getIfPresent(segmentId);
+            if (last != null && last.sequence == sequence - 1) {
+                previousStack = last.stack;
+            }
+        }
+        lastSnapshots.put(segmentId, new LastSnapshot(sequence, stack));
+
+        return ProfileThreadSnapshotCodec.encode(stack, previousStack);
+    }
+
+    private static class LastSnapshot {
+        private final int sequence;
+        private final List<String> stack;
+
+        private LastSnapshot(int sequence, List<String> stack) {
+            this.sequence = sequence;
+            this.stack = stack;
+        }
+    }
+
 }
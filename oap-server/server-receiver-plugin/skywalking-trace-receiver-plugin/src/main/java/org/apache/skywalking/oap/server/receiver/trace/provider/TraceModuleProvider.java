@@ -105,7 +105,8 @@ public class TraceModuleProvider extends ModuleProvider {
 
         segmentParserService.setListenerManager(listenerManager());
         grpcHandlerRegister.addHandler(
-            new TraceSegmentReportServiceHandler(getManager(), listenerManager(), moduleConfig));
+            new TraceSegmentReportServiceHandler(getManager(), listenerManager(), moduleConfig)
+                .bindRawSegmentService());
 
         jettyHandlerRegister.addHandler(
             new TraceSegmentReportListServletHandler(getManager(), listenerManager(), moduleConfig));
@@ -79,4 +79,11 @@ public class TraceServiceModuleConfig extends ModuleConfig {
     @Setter
     @Getter
     private int maxSlowSQLLength = 2000;
+    /**
+     * Store the segment data in GZIP compressed, which saves the storage but costs CPU in the analysis and the query.
+     * The segments stored in both formats are readable, whichever it is set to.
+     */
+    @Setter
+    @Getter
+    private boolean compressSegmentData = false;
 }
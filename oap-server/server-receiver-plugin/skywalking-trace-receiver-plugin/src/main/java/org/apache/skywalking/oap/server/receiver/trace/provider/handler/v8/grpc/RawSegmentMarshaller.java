@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+
+/**
+ * RawSegmentMarshaller reads the whole message of the stream into bytes, and parses the segment from them, so the
+ * bytes can be stored as the segment data, rather than serializing the parsed segment again.
+ */
+public class RawSegmentMarshaller implements MethodDescriptor.Marshaller<RawSegment> {
+    @Override
+    public InputStream stream(RawSegment value) {
+        return new ByteArrayInputStream(value.getData());
+    }
+
+    @Override
+    public RawSegment parse(InputStream stream) {
+        try {
+            byte[] data = ByteStreams.toByteArray(stream);
+            return new RawSegment(SegmentObject.parseFrom(data), data);
+        } catch (InvalidProtocolBufferException e) {
+            throw Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+        } catch (IOException e) {
+            throw Status.INTERNAL.withDescription("Failed to read the segment").withCause(e).asRuntimeException();
+        }
+    }
+}
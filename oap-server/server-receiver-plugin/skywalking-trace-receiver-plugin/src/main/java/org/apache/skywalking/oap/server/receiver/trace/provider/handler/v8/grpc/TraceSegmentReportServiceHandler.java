@@ -18,7 +18,12 @@
 
 package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
 
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.common.v3.Commands;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
@@ -39,6 +44,7 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
     private final ModuleManager moduleManager;
     private final SegmentParserListenerManager listenerManager;
     private final TraceServiceModuleConfig config;
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzer;
     private HistogramMetrics histogram;
     private CounterMetrics errorCounter;
 
@@ -48,6 +54,7 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
         this.moduleManager = moduleManager;
         this.listenerManager = listenerManager;
         this.config = config;
+        this.traceAnalyzer = TraceAnalyzer.threadLocal(moduleManager, listenerManager, config);
         MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
                                                      .provider()
                                                      .getService(MetricsCreator.class);
@@ -62,36 +69,70 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
 
     @Override
     public StreamObserver<SegmentObject> collect(StreamObserver<Commands> responseObserver) {
-        return new StreamObserver<SegmentObject>() {
+        return new SegmentObserver<SegmentObject>(responseObserver) {
             @Override
             public void onNext(SegmentObject segment) {
-                if (log.isDebugEnabled()) {
-                    log.debug("receive segment");
-                }
+                analyze(segment, null);
+            }
+        };
+    }
 
-                HistogramMetrics.Timer timer = histogram.createTimer();
-                try {
-                    final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(
-                        moduleManager, listenerManager, config);
-                    traceAnalyzer.doAnalysis(segment);
-                } catch (Exception e) {
-                    errorCounter.inc();
-                } finally {
-                    timer.finish();
+    /**
+     * @return the definition of the service, whose collect method keeps the raw bytes of the received segments, which
+     * are stored as the segment data directly.
+     */
+    public ServerServiceDefinition bindRawSegmentService() {
+        MethodDescriptor<RawSegment, Commands> collectMethod = TraceSegmentReportServiceGrpc
+            .getCollectMethod()
+            .toBuilder(new RawSegmentMarshaller(), ProtoUtils.marshaller(Commands.getDefaultInstance()))
+            .build();
+
+        ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(
+            TraceSegmentReportServiceGrpc.SERVICE_NAME);
+        bindService().getMethods()
+                     .stream()
+                     .filter(method -> !method.getMethodDescriptor()
+                                              .getFullMethodName()
+                                              .equals(collectMethod.getFullMethodName()))
+                     .forEach(builder::addMethod);
+        return builder.addMethod(collectMethod, ServerCalls.asyncClientStreamingCall(
+            responseObserver -> new SegmentObserver<RawSegment>(responseObserver) {
+                @Override
+                public void onNext(RawSegment segment) {
+                    analyze(segment.getSegment(), segment.getData());
                 }
-            }
+            })).build();
+    }
 
-            @Override
-            public void onError(Throwable throwable) {
-                log.error(throwable.getMessage(), throwable);
-                responseObserver.onCompleted();
-            }
+    private void analyze(SegmentObject segment, byte[] rawSegment) {
+        if (log.isDebugEnabled()) {
+            log.debug("receive segment");
+        }
 
-            @Override
-            public void onCompleted() {
-                responseObserver.onNext(Commands.newBuilder().build());
-                responseObserver.onCompleted();
-            }
-        };
+        HistogramMetrics.Timer timer = histogram.createTimer();
+        try {
+            traceAnalyzer.get().doAnalysis(segment, rawSegment);
+        } catch (Exception e) {
+            errorCounter.inc();
+        } finally {
+            timer.finish();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private abstract static class SegmentObserver<T> implements StreamObserver<T> {
+        private final StreamObserver<Commands> responseObserver;
+
+        @Override
+        public void onError(Throwable throwable) {
+            log.error(throwable.getMessage(), throwable);
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public void onCompleted() {
+            responseObserver.onNext(Commands.newBuilder().build());
+            responseObserver.onCompleted();
+        }
     }
 }
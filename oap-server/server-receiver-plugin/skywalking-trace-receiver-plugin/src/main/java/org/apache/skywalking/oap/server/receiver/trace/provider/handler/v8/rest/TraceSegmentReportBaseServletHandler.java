@@ -41,6 +41,7 @@ public abstract class TraceSegmentReportBaseServletHandler extends JettyJsonHand
     private final ModuleManager moduleManager;
     private final SegmentParserListenerManager listenerManager;
     private final TraceServiceModuleConfig config;
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzer;
     private HistogramMetrics histogram;
     private CounterMetrics errorCounter;
 
@@ -50,6 +51,7 @@ public abstract class TraceSegmentReportBaseServletHandler extends JettyJsonHand
         this.moduleManager = moduleManager;
         this.listenerManager = listenerManager;
         this.config = config;
+        this.traceAnalyzer = TraceAnalyzer.threadLocal(moduleManager, listenerManager, config);
         MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
                                                      .provider()
                                                      .getService(MetricsCreator.class);
@@ -78,8 +80,7 @@ public abstract class TraceSegmentReportBaseServletHandler extends JettyJsonHand
             final List<SegmentObject> segments = parseSegments(req);
 
             for (SegmentObject segment : segments) {
-                final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-                traceAnalyzer.doAnalysis(segment);
+                traceAnalyzer.get().doAnalysis(segment);
             }
         } catch (Exception e) {
             errorCounter.inc();
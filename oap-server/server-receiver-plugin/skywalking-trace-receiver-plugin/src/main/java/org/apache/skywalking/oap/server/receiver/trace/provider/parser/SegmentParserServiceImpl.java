@@ -33,10 +33,11 @@ public class SegmentParserServiceImpl implements ISegmentParserService {
     private final TraceServiceModuleConfig config;
     @Setter
     private SegmentParserListenerManager listenerManager;
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzer = ThreadLocal.withInitial(
+        () -> new TraceAnalyzer(this.moduleManager, this.listenerManager, this.config));
 
     @Override
     public void send(SegmentObject segment) {
-        final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-        traceAnalyzer.doAnalysis(segment);
+        traceAnalyzer.get().doAnalysis(segment);
     }
 }
@@ -34,23 +34,49 @@ import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.
 import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.LocalAnalysisListener;
 import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.SegmentListener;
 
+/**
+ * TraceAnalyzer notifies the {@link AnalysisListener}s when traversing the segment. The analyzer is reused by the
+ * segments of one thread, see {@link #threadLocal(ModuleManager, SegmentParserListenerManager,
+ * TraceServiceModuleConfig)}, the listeners are created in the first analysis, and reset after every segment.
+ * <p>
+ * Not thread safe.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class TraceAnalyzer {
     private final ModuleManager moduleManager;
     private final SegmentParserListenerManager listenerManager;
     private final TraceServiceModuleConfig config;
-    private List<AnalysisListener> analysisListeners = new ArrayList<>();
+    private final List<AnalysisListener> analysisListeners = new ArrayList<>();
+
+    /**
+     * @return the analyzers of the threads, created once for every thread.
+     */
+    public static ThreadLocal<TraceAnalyzer> threadLocal(ModuleManager moduleManager,
+                                                         SegmentParserListenerManager listenerManager,
+                                                         TraceServiceModuleConfig config) {
+        return ThreadLocal.withInitial(() -> new TraceAnalyzer(moduleManager, listenerManager, config));
+    }
 
     public void doAnalysis(SegmentObject segmentObject) {
+        doAnalysis(segmentObject, null);
+    }
+
+    /**
+     * @param rawSegment the serialized segment as received, which is stored as it is, rather than serialized again.
+     *                   Null if the segment was not received in the protobuf format.
+     */
+    public void doAnalysis(SegmentObject segmentObject, byte[] rawSegment) {
         if (segmentObject.getSpansList().size() == 0) {
             return;
         }
 
-        createSpanListeners();
+        if (analysisListeners.isEmpty()) {
+            createSpanListeners();
+        }
 
         try {
-            notifySegmentListener(segmentObject);
+            notifySegmentListener(segmentObject, rawSegment);
 
             segmentObject.getSpansList().forEach(spanObject -> {
                 if (spanObject.getSpanId() == 0) {
@@ -72,6 +98,8 @@ public class TraceAnalyzer {
             notifyListenerToBuild();
         } catch (Throwable e) {
             log.error(e.getMessage(), e);
+        } finally {
+            analysisListeners.forEach(AnalysisListener::reset);
         }
     }
 
@@ -111,10 +139,10 @@ public class TraceAnalyzer {
         });
     }
 
-    private void notifySegmentListener(SegmentObject segmentObject) {
+    private void notifySegmentListener(SegmentObject segmentObject, byte[] rawSegment) {
         analysisListeners.forEach(listener -> {
             if (listener.containsPoint(AnalysisListener.Point.Segment)) {
-                ((SegmentListener) listener).parseSegment(segmentObject);
+                ((SegmentListener) listener).parseSegment(segmentObject, rawSegment);
             }
         });
     }
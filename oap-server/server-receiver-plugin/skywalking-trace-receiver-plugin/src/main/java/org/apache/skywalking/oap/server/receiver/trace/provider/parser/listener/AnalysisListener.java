@@ -28,6 +28,12 @@ public interface AnalysisListener {
      */
     void build();
 
+    /**
+     * Clear the state of the analyzed segment, after the {@link #build()}. The listener is reused by the next segment
+     * analyzed in the same thread.
+     */
+    void reset();
+
     /**
      * @return true, if the given point matches the implementation.
      */
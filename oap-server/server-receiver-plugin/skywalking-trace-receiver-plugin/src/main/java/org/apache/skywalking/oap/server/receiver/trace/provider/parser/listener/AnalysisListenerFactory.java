@@ -23,7 +23,8 @@ import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModu
 
 /**
  * AnalysisListenerFactory implementation creates the listener instances when required. Every AnalysisListener could
- * have its own creation factory.
+ * have its own creation factory. The listeners are created once for every analysis thread, and {@link
+ * AnalysisListener#reset()} between the segments.
  */
 public interface AnalysisListenerFactory {
     AnalysisListener create(ModuleManager moduleManager, TraceServiceModuleConfig config);
@@ -50,13 +50,15 @@ import org.apache.skywalking.oap.server.receiver.trace.provider.parser.SpanTags;
 /**
  * MultiScopesSpanListener includes the most segment to source(s) logic.
  *
- * This listener traverses the whole segment.
+ * This listener traverses the whole segment. The {@link SourceBuilder}s and their sources are pooled in the listener,
+ * and reused after the sources are dispatched.
  */
 @Slf4j
 @RequiredArgsConstructor
 public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitAnalysisListener {
     private final List<SourceBuilder> entrySourceBuilders = new ArrayList<>(10);
     private final List<SourceBuilder> exitSourceBuilders = new ArrayList<>(10);
+    private final List<SourceBuilder> sourceBuilderPool = new ArrayList<>(20);
     private final List<DatabaseSlowStatement> slowDatabaseAccesses = new ArrayList<>(10);
     private final SourceReceiver sourceReceiver;
     private final TraceServiceModuleConfig config;
@@ -87,7 +89,7 @@ public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitA
         if (span.getRefsCount() > 0) {
             for (int i = 0; i < span.getRefsCount(); i++) {
                 SegmentReference reference = span.getRefs(i);
-                SourceBuilder sourceBuilder = new SourceBuilder(namingLengthControl);
+                SourceBuilder sourceBuilder = nextSourceBuilder();
 
                 if (StringUtil.isEmpty(reference.getParentEndpoint())) {
                     sourceBuilder.setSourceEndpointName(Const.USER_ENDPOINT_NAME);
@@ -117,7 +119,7 @@ public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitA
                 entrySourceBuilders.add(sourceBuilder);
             }
         } else {
-            SourceBuilder sourceBuilder = new SourceBuilder(namingLengthControl);
+            SourceBuilder sourceBuilder = nextSourceBuilder();
             sourceBuilder.setSourceServiceName(Const.USER_SERVICE_NAME);
             sourceBuilder.setSourceServiceInstanceName(Const.USER_INSTANCE_NAME);
             sourceBuilder.setSourceEndpointName(Const.USER_ENDPOINT_NAME);
@@ -144,13 +146,13 @@ public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitA
             return;
         }
 
-        SourceBuilder sourceBuilder = new SourceBuilder(namingLengthControl);
-
         final String networkAddress = span.getPeer();
         if (StringUtil.isEmpty(networkAddress)) {
             return;
         }
 
+        SourceBuilder sourceBuilder = nextSourceBuilder();
+
         sourceBuilder.setSourceServiceName(segmentObject.getService());
         sourceBuilder.setSourceNodeType(NodeType.Normal);
         sourceBuilder.setSourceServiceInstanceName(segmentObject.getServiceInstance());
@@ -294,6 +296,28 @@ public class MultiScopesAnalysisListener implements EntryAnalysisListener, ExitA
         slowDatabaseAccesses.forEach(sourceReceiver::receive);
     }
 
+    @Override
+    public void reset() {
+        entrySourceBuilders.clear();
+        exitSourceBuilders.clear();
+        slowDatabaseAccesses.clear();
+    }
+
+    /**
+     * @return a cleared builder from the pool, every builder added into the entry or exit builders is in use.
+     */
+    private SourceBuilder nextSourceBuilder() {
+        int inUse = entrySourceBuilders.size() + exitSourceBuilders.size();
+        if (inUse < sourceBuilderPool.size()) {
+            SourceBuilder sourceBuilder = sourceBuilderPool.get(inUse);
+            sourceBuilder.reset();
+            return sourceBuilder;
+        }
+        SourceBuilder sourceBuilder = new SourceBuilder(namingLengthControl);
+        sourceBuilderPool.add(sourceBuilder);
+        return sourceBuilder;
+    }
+
     public static class Factory implements AnalysisListenerFactory {
         private final SourceReceiver sourceReceiver;
         private final NetworkAddressAliasCache networkAddressAliasCache;
@@ -90,6 +90,10 @@ public class NetworkAddressAliasMappingListener implements EntryAnalysisListener
     public void build() {
     }
 
+    @Override
+    public void reset() {
+    }
+
     @Override
     public boolean containsPoint(Point point) {
         return Point.Entry.equals(point);
@@ -28,6 +28,7 @@ import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
 import org.apache.skywalking.oap.server.core.analysis.NodeType;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentDataBinary;
 import org.apache.skywalking.oap.server.core.config.NamingLengthControl;
 import org.apache.skywalking.oap.server.core.source.Segment;
 import org.apache.skywalking.oap.server.core.source.SourceReceiver;
@@ -44,8 +45,10 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private final SourceReceiver sourceReceiver;
     private final TraceSegmentSampler sampler;
     private final NamingLengthControl namingLengthControl;
+    private final boolean compressSegmentData;
 
     private final Segment segment = new Segment();
+    private byte[] rawSegment;
     private SAMPLE_STATUS sampleStatus = SAMPLE_STATUS.UNKNOWN;
     private String serviceId = Const.EMPTY_STRING;
     private String endpointId = Const.EMPTY_STRING;
@@ -86,7 +89,8 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         segment.setTimeBucket(timeBucket);
         segment.setEndTime(endTimestamp);
         segment.setIsError(BooleanUtils.booleanToValue(isError));
-        segment.setDataBinary(segmentObject.toByteArray());
+        byte[] dataBinary = rawSegment != null ? rawSegment : segmentObject.toByteArray();
+        segment.setDataBinary(compressSegmentData ? SegmentDataBinary.compress(dataBinary) : dataBinary);
         segment.setVersion(3);
 
         endpointName = namingLengthControl.formatEndpointName(span.getOperationName());
@@ -116,10 +120,16 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         );
     }
 
+    @Override
+    public void parseSegment(SegmentObject segmentObject, byte[] rawSegment) {
+        this.rawSegment = rawSegment;
+        parseSegment(segmentObject);
+    }
+
     @Override
     public void parseSegment(SegmentObject segmentObject) {
         if (sampleStatus.equals(SAMPLE_STATUS.UNKNOWN) || sampleStatus.equals(SAMPLE_STATUS.IGNORE)) {
-            if (sampler.shouldSample(segmentObject.getTraceSegmentId())) {
+            if (sampler.shouldSample(segmentObject.getTraceId())) {
                 sampleStatus = SAMPLE_STATUS.SAMPLED;
             } else {
                 sampleStatus = SAMPLE_STATUS.IGNORE;
@@ -162,6 +172,32 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         sourceReceiver.receive(segment);
     }
 
+    @Override
+    public void reset() {
+        segment.setSegmentId(null);
+        segment.setTraceId(null);
+        segment.setServiceId(null);
+        segment.setServiceInstanceId(null);
+        segment.setEndpointName(null);
+        segment.setEndpointId(null);
+        segment.setStartTime(0);
+        segment.setEndTime(0);
+        segment.setLatency(0);
+        segment.setIsError(0);
+        segment.setDataBinary(null);
+        segment.setVersion(0);
+        segment.setTimeBucket(0);
+        rawSegment = null;
+        sampleStatus = SAMPLE_STATUS.UNKNOWN;
+        serviceId = Const.EMPTY_STRING;
+        endpointId = Const.EMPTY_STRING;
+        endpointName = Const.EMPTY_STRING;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        duration = 0;
+        isError = false;
+    }
+
     private enum SAMPLE_STATUS {
         UNKNOWN, SAMPLED, IGNORE
     }
@@ -170,6 +206,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         private final SourceReceiver sourceReceiver;
         private final TraceSegmentSampler sampler;
         private final NamingLengthControl namingLengthControl;
+        private final boolean compressSegmentData;
 
         public Factory(ModuleManager moduleManager, TraceServiceModuleConfig config) {
             this.sourceReceiver = moduleManager.find(CoreModule.NAME).provider().getService(SourceReceiver.class);
@@ -177,11 +214,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
             this.namingLengthControl = moduleManager.find(CoreModule.NAME)
                                                     .provider()
                                                     .getService(NamingLengthControl.class);
+            this.compressSegmentData = config.isCompressSegmentData();
         }
 
         @Override
         public AnalysisListener create(ModuleManager moduleManager, TraceServiceModuleConfig config) {
-            return new SegmentAnalysisListener(sourceReceiver, sampler, namingLengthControl);
+            return new SegmentAnalysisListener(sourceReceiver, sampler, namingLengthControl, compressSegmentData);
         }
     }
 }
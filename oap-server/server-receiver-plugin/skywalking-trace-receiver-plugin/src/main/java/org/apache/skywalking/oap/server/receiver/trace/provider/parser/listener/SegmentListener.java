@@ -25,4 +25,12 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
  */
 public interface SegmentListener extends AnalysisListener {
     void parseSegment(SegmentObject segmentObject);
+
+    /**
+     * @param rawSegment the serialized segment as received, or null if the segment was not received in the protobuf
+     *                   format.
+     */
+    default void parseSegment(SegmentObject segmentObject, byte[] rawSegment) {
+        parseSegment(segmentObject);
+    }
 }
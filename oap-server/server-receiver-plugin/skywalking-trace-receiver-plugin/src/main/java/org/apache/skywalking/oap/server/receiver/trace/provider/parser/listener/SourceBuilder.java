@@ -36,9 +36,22 @@ import org.apache.skywalking.oap.server.core.source.ServiceInstanceRelation;
 import org.apache.skywalking.oap.server.core.source.ServiceMeta;
 import org.apache.skywalking.oap.server.core.source.ServiceRelation;
 
+/**
+ * SourceBuilder builds the sources of one span or reference. The builder owns one instance of every source type, which
+ * is filled in every build and reused after the dispatching, so the built sources must not be kept by the receiver.
+ */
 @RequiredArgsConstructor
 class SourceBuilder {
     private final NamingLengthControl namingLengthControl;
+    private final All all = new All();
+    private final Service service = new Service();
+    private final ServiceRelation serviceRelation = new ServiceRelation();
+    private final ServiceInstance serviceInstance = new ServiceInstance();
+    private final ServiceInstanceRelation serviceInstanceRelation = new ServiceInstanceRelation();
+    private final Endpoint endpoint = new Endpoint();
+    private final EndpointRelation endpointRelation = new EndpointRelation();
+    private final ServiceMeta serviceMeta = new ServiceMeta();
+    private final DatabaseAccess databaseAccess = new DatabaseAccess();
 
     @Getter
     private String sourceServiceName;
@@ -110,11 +123,31 @@ class SourceBuilder {
     @Setter
     private long timeBucket;
 
+    /**
+     * Clear the fields for building the sources of another span.
+     */
+    void reset() {
+        sourceServiceName = null;
+        sourceNodeType = null;
+        sourceServiceInstanceName = null;
+        sourceEndpointName = null;
+        destServiceName = null;
+        destNodeType = null;
+        destServiceInstanceName = null;
+        destEndpointName = null;
+        componentId = 0;
+        latency = 0;
+        status = false;
+        responseCode = 0;
+        type = null;
+        detectPoint = null;
+        timeBucket = 0;
+    }
+
     /**
      * The global level metrics source
      */
     All toAll() {
-        All all = new All();
         all.setName(destServiceName);
         all.setServiceInstanceName(destServiceInstanceName);
         all.setEndpointName(destEndpointName);
@@ -130,7 +163,6 @@ class SourceBuilder {
      * Service meta and metrics related source of {@link #destServiceName}. The metrics base on the OAL scripts.
      */
     Service toService() {
-        Service service = new Service();
         service.setName(destServiceName);
         service.setServiceInstanceName(destServiceInstanceName);
         service.setEndpointName(destEndpointName);
@@ -147,7 +179,6 @@ class SourceBuilder {
      * Service topology meta and metrics related source. The metrics base on the OAL scripts.
      */
     ServiceRelation toServiceRelation() {
-        ServiceRelation serviceRelation = new ServiceRelation();
         serviceRelation.setSourceServiceName(sourceServiceName);
         serviceRelation.setSourceServiceNodeType(sourceNodeType);
         serviceRelation.setSourceServiceInstanceName(sourceServiceInstanceName);
@@ -170,7 +201,6 @@ class SourceBuilder {
      * scripts.
      */
     ServiceInstance toServiceInstance() {
-        ServiceInstance serviceInstance = new ServiceInstance();
         serviceInstance.setName(destServiceInstanceName);
         serviceInstance.setServiceName(destServiceName);
         serviceInstance.setNodeType(destNodeType);
@@ -190,7 +220,6 @@ class SourceBuilder {
         if (StringUtil.isEmpty(sourceServiceInstanceName) || StringUtil.isEmpty(destServiceInstanceName)) {
             return null;
         }
-        ServiceInstanceRelation serviceInstanceRelation = new ServiceInstanceRelation();
         serviceInstanceRelation.setSourceServiceName(sourceServiceName);
         serviceInstanceRelation.setSourceServiceNodeType(sourceNodeType);
         serviceInstanceRelation.setSourceServiceInstanceName(sourceServiceInstanceName);
@@ -212,7 +241,6 @@ class SourceBuilder {
      * Endpoint meta and metrics of {@link #destEndpointName} related source. The metrics base on the OAL scripts.
      */
     Endpoint toEndpoint() {
-        Endpoint endpoint = new Endpoint();
         endpoint.setName(destEndpointName);
         endpoint.setServiceName(destServiceName);
         endpoint.setServiceNodeType(destNodeType);
@@ -232,7 +260,6 @@ class SourceBuilder {
         if (StringUtil.isEmpty(sourceEndpointName) || StringUtil.isEmpty(destEndpointName)) {
             return null;
         }
-        EndpointRelation endpointRelation = new EndpointRelation();
         endpointRelation.setEndpoint(sourceEndpointName);
         endpointRelation.setServiceName(sourceServiceName);
         endpointRelation.setServiceNodeType(sourceNodeType);
@@ -256,11 +283,10 @@ class SourceBuilder {
      * generate traffic and metrics both.
      */
     ServiceMeta toServiceMeta() {
-        ServiceMeta service = new ServiceMeta();
-        service.setName(destServiceName);
-        service.setNodeType(destNodeType);
-        service.setTimeBucket(timeBucket);
-        return service;
+        serviceMeta.setName(destServiceName);
+        serviceMeta.setNodeType(destNodeType);
+        serviceMeta.setTimeBucket(timeBucket);
+        return serviceMeta;
     }
 
     /**
@@ -270,7 +296,6 @@ class SourceBuilder {
         if (!RequestType.DATABASE.equals(type)) {
             return null;
         }
-        DatabaseAccess databaseAccess = new DatabaseAccess();
         databaseAccess.setDatabaseTypeId(componentId);
         databaseAccess.setLatency(latency);
         databaseAccess.setName(destServiceName);
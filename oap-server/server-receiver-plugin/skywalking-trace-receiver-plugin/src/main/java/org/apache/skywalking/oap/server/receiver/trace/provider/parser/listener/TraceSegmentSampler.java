@@ -20,7 +20,7 @@ package org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener
 
 /**
  * The sampler makes the sampling mechanism works at backend side. Sample result: [0,sampleRate) sampled, (sampleRate,~)
- * ignored
+ * ignored. The segments are sampled by the trace ID, so all the segments of one trace are sampled or ignored together.
  */
 public class TraceSegmentSampler {
     private int sampleRate = 10000;
@@ -29,7 +29,7 @@ public class TraceSegmentSampler {
         this.sampleRate = sampleRate;
     }
 
-    public boolean shouldSample(String segmentId) {
-        return segmentId.hashCode() % 10000 < sampleRate;
+    public boolean shouldSample(String traceId) {
+        return Math.abs(traceId.hashCode() % 10000) < sampleRate;
     }
 }
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.mock;
+
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.DispatcherDetectorListener;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
+import org.apache.skywalking.oap.server.core.config.NamingLengthControl;
+import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.receiver.trace.provider.DBLatencyThresholdsAndWatcher;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.UninstrumentedGatewaysConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.SegmentParserListenerManager;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.TraceAnalyzer;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.MultiScopesAnalysisListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.NetworkAddressAliasMappingListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.SegmentAnalysisListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.TraceSegmentSampler;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the analysis of the mocked segments, by a new {@link TraceAnalyzer} for every segment, which was the way
+ * before the analyzers were reused, and by the reused analyzer of the thread. Run with the {@link GCProfiler}, the
+ * gc.alloc.rate.norm shows the allocation of one analysis.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class TraceAnalyzerBenchmark {
+    private static final int TRACES = 100;
+
+    private final List<SegmentObject> segments = new ArrayList<>();
+    private final SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+    private final TraceServiceModuleConfig config = new TraceServiceModuleConfig();
+    private final TraceAnalyzer reusedAnalyzer;
+    private int sequence;
+
+    public TraceAnalyzerBenchmark() {
+        SourceReceiver sourceReceiver = new NoopSourceReceiver();
+        NamingLengthControl namingLengthControl = new NamingLengthControl(70, 100, 150);
+        NetworkAddressAliasCache networkAddressAliasCache = new NetworkAddressAliasCache(new CoreModuleConfig());
+        config.setUninstrumentedGatewaysConfig(Mockito.mock(UninstrumentedGatewaysConfig.class));
+        config.setDbLatencyThresholdsAndWatcher(new DBLatencyThresholdsAndWatcher("default:200", null));
+
+        listenerManager.add((moduleManager, moduleConfig) -> new MultiScopesAnalysisListener(
+            sourceReceiver, moduleConfig, networkAddressAliasCache, namingLengthControl));
+        listenerManager.add((moduleManager, moduleConfig) -> new NetworkAddressAliasMappingListener(
+            sourceReceiver, moduleConfig, namingLengthControl));
+        listenerManager.add((moduleManager, moduleConfig) -> new SegmentAnalysisListener(
+            sourceReceiver, new TraceSegmentSampler(10000), namingLengthControl,
+            moduleConfig.isCompressSegmentData()
+        ));
+        reusedAnalyzer = new TraceAnalyzer(null, listenerManager, config);
+
+        StreamObserver<SegmentObject> collector = new SegmentCollector();
+        long startTimestamp = System.currentTimeMillis();
+        for (int i = 0; i < TRACES; i++) {
+            String traceId = UUID.randomUUID().toString();
+            String serviceASegmentId = UUID.randomUUID().toString();
+            String serviceBSegmentId = UUID.randomUUID().toString();
+            String serviceCSegmentId = UUID.randomUUID().toString();
+            new ServiceAMock().mock(collector, traceId, serviceASegmentId, startTimestamp);
+            new ServiceBMock().mock(collector, traceId, serviceBSegmentId, serviceASegmentId, startTimestamp);
+            new ServiceCMock().mock(collector, traceId, serviceCSegmentId, serviceBSegmentId, startTimestamp);
+        }
+    }
+
+    @Benchmark
+    public void newAnalyzer() {
+        new TraceAnalyzer(null, listenerManager, config).doAnalysis(nextSegment());
+    }
+
+    @Benchmark
+    public void reusedAnalyzer() {
+        reusedAnalyzer.doAnalysis(nextSegment());
+    }
+
+    private SegmentObject nextSegment() {
+        sequence = (sequence + 1) % segments.size();
+        return segments.get(sequence);
+    }
+
+    private class SegmentCollector implements StreamObserver<SegmentObject> {
+        @Override
+        public void onNext(SegmentObject segment) {
+            segments.add(segment);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+
+        }
+
+        @Override
+        public void onCompleted() {
+
+        }
+    }
+
+    private static class NoopSourceReceiver implements SourceReceiver {
+        @Override
+        public void receive(Source source) {
+            source.prepare();
+        }
+
+        @Override
+        public DispatcherDetectorListener getDispatcherDetectorListener() {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(TraceAnalyzerBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .forks(1)
+                                          .warmupIterations(3)
+                                          .measurementIterations(5)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.skywalking.apm.network.common.v3.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.v3.RefType;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.CoreModuleConfig;
+import org.apache.skywalking.oap.server.core.analysis.DispatcherDetectorListener;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.NodeType;
+import org.apache.skywalking.oap.server.core.cache.NetworkAddressAliasCache;
+import org.apache.skywalking.oap.server.core.config.NamingLengthControl;
+import org.apache.skywalking.oap.server.core.source.Endpoint;
+import org.apache.skywalking.oap.server.core.source.EndpointRelation;
+import org.apache.skywalking.oap.server.core.source.Segment;
+import org.apache.skywalking.oap.server.core.source.ServiceInstanceRelation;
+import org.apache.skywalking.oap.server.core.source.ServiceRelation;
+import org.apache.skywalking.oap.server.core.source.Source;
+import org.apache.skywalking.oap.server.core.source.SourceReceiver;
+import org.apache.skywalking.oap.server.receiver.trace.provider.DBLatencyThresholdsAndWatcher;
+import org.apache.skywalking.oap.server.receiver.trace.provider.TraceServiceModuleConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.UninstrumentedGatewaysConfig;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.MultiScopesAnalysisListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.NetworkAddressAliasMappingListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.SegmentAnalysisListener;
+import org.apache.skywalking.oap.server.receiver.trace.provider.parser.listener.TraceSegmentSampler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TraceAnalyzerTest {
+
+    private final List<String> received = new ArrayList<>();
+    private final List<SegmentObject> dataBinaries = new ArrayList<>();
+    private TraceAnalyzer analyzer;
+
+    @Before
+    public void setUp() {
+        SourceReceiver sourceReceiver = new CapturingSourceReceiver();
+        NamingLengthControl namingLengthControl = new NamingLengthControl(70, 100, 150);
+        NetworkAddressAliasCache networkAddressAliasCache = new NetworkAddressAliasCache(new CoreModuleConfig());
+        TraceServiceModuleConfig config = new TraceServiceModuleConfig();
+        config.setUninstrumentedGatewaysConfig(Mockito.mock(UninstrumentedGatewaysConfig.class));
+        config.setDbLatencyThresholdsAndWatcher(new DBLatencyThresholdsAndWatcher("default:200", null));
+
+        SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+        listenerManager.add((moduleManager, moduleConfig) -> new MultiScopesAnalysisListener(
+            sourceReceiver, moduleConfig, networkAddressAliasCache, namingLengthControl));
+        listenerManager.add((moduleManager, moduleConfig) -> new NetworkAddressAliasMappingListener(
+            sourceReceiver, moduleConfig, namingLengthControl));
+        listenerManager.add((moduleManager, moduleConfig) -> new SegmentAnalysisListener(
+            sourceReceiver, new TraceSegmentSampler(10000), namingLengthControl, false));
+        analyzer = new TraceAnalyzer(null, listenerManager, config);
+    }
+
+    @Test
+    public void testNoStaleValueOfPreviousSegment() throws Exception {
+        long startTime = System.currentTimeMillis();
+        SegmentObject first = firstSegment(startTime);
+        analyzer.doAnalysis(first, first.toByteArray());
+        Assert.assertTrue(received.contains(
+            "ServiceRelation service-z -> service-a SERVER false 500"));
+        Assert.assertTrue(received.contains("DatabaseSlowStatement"));
+        Assert.assertTrue(received.contains(
+            "Segment segment-1 trace-1 " + serviceId("service-a") + " /a-entry 1 600"));
+
+        // the second segment has fewer spans, no refs and no tags, in another service
+        received.clear();
+        dataBinaries.clear();
+        analyzer.doAnalysis(secondSegment(startTime));
+
+        String endpointId = IDManager.EndpointID.buildId(serviceId("service-b"), "/b-entry");
+        Assert.assertEquals(Arrays.asList(
+            "All",
+            "Service",
+            "ServiceInstance",
+            "Endpoint service-b /b-entry true " + Const.NONE + " " + endpointId,
+            "ServiceRelation " + Const.USER_SERVICE_NAME + " -> service-b SERVER true " + Const.NONE,
+            "ServiceInstanceRelation " + Const.USER_INSTANCE_NAME + " -> instance-b",
+            "EndpointRelation " + Const.USER_SERVICE_NAME + " " + Const.USER_ENDPOINT_NAME + " -> service-b /b-entry",
+            "Segment segment-2 trace-2 " + serviceId("service-b") + " /b-entry 0 20"
+        ), received);
+
+        // the segment is stored from its own data, rather than the raw data of the previous one
+        Assert.assertEquals(1, dataBinaries.size());
+        Assert.assertEquals("segment-2", dataBinaries.get(0).getTraceSegmentId());
+        Assert.assertEquals(1, dataBinaries.get(0).getSpansCount());
+    }
+
+    private SegmentObject firstSegment(long startTime) {
+        SpanObject entry = SpanObject.newBuilder()
+                                     .setSpanId(0)
+                                     .setParentSpanId(-1)
+                                     .setSpanType(SpanType.Entry)
+                                     .setSpanLayer(SpanLayer.Http)
+                                     .setOperationName("/a-entry")
+                                     .setStartTime(startTime)
+                                     .setEndTime(startTime + 600)
+                                     .setComponentId(1)
+                                     .setIsError(true)
+                                     .addTags(tag(SpanTags.STATUS_CODE, "500"))
+                                     .addRefs(SegmentReference.newBuilder()
+                                                              .setRefType(RefType.CrossProcess)
+                                                              .setTraceId("trace-1")
+                                                              .setParentTraceSegmentId("segment-0")
+                                                              .setParentSpanId(1)
+                                                              .setParentService("service-z")
+                                                              .setParentServiceInstance("instance-z")
+                                                              .setParentEndpoint("/z-exit")
+                                                              .setNetworkAddressUsedAtPeer("10.0.0.1:8080"))
+                                     .build();
+        SpanObject exit = SpanObject.newBuilder()
+                                    .setSpanId(1)
+                                    .setParentSpanId(0)
+                                    .setSpanType(SpanType.Exit)
+                                    .setSpanLayer(SpanLayer.Database)
+                                    .setOperationName("/mysql/query")
+                                    .setPeer("10.0.0.2:3306")
+                                    .setStartTime(startTime + 10)
+                                    .setEndTime(startTime + 510)
+                                    .setComponentId(5)
+                                    .addTags(tag(SpanTags.DB_TYPE, "sql"))
+                                    .addTags(tag(SpanTags.DB_STATEMENT, "select 1"))
+                                    .build();
+        return SegmentObject.newBuilder()
+                            .setTraceId("trace-1")
+                            .setTraceSegmentId("segment-1")
+                            .setService("service-a")
+                            .setServiceInstance("instance-a")
+                            .addSpans(exit)
+                            .addSpans(entry)
+                            .build();
+    }
+
+    private SegmentObject secondSegment(long startTime) {
+        SpanObject entry = SpanObject.newBuilder()
+                                     .setSpanId(0)
+                                     .setParentSpanId(-1)
+                                     .setSpanType(SpanType.Entry)
+                                     .setSpanLayer(SpanLayer.Http)
+                                     .setOperationName("/b-entry")
+                                     .setStartTime(startTime)
+                                     .setEndTime(startTime + 20)
+                                     .setComponentId(2)
+                                     .build();
+        return SegmentObject.newBuilder()
+                            .setTraceId("trace-2")
+                            .setTraceSegmentId("segment-2")
+                            .setService("service-b")
+                            .setServiceInstance("instance-b")
+                            .addSpans(entry)
+                            .build();
+    }
+
+    private static KeyStringValuePair tag(String key, String value) {
+        return KeyStringValuePair.newBuilder().setKey(key).setValue(value).build();
+    }
+
+    private static String serviceId(String serviceName) {
+        return IDManager.ServiceID.buildId(serviceName, NodeType.Normal);
+    }
+
+    /**
+     * The sources are reused by the analyzer, so they are described when received.
+     */
+    private class CapturingSourceReceiver implements SourceReceiver {
+        @Override
+        public void receive(Source source) {
+            source.prepare();
+            received.add(describe(source));
+        }
+
+        private String describe(Source source) {
+            if (source instanceof Segment) {
+                Segment segment = (Segment) source;
+                try {
+                    dataBinaries.add(SegmentObject.parseFrom(segment.getDataBinary()));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return "Segment " + segment.getSegmentId() + " " + segment.getTraceId() + " "
+                    + segment.getServiceId() + " " + segment.getEndpointName() + " " + segment.getIsError() + " "
+                    + segment.getLatency();
+            } else if (source instanceof Endpoint) {
+                Endpoint endpoint = (Endpoint) source;
+                return "Endpoint " + endpoint.getServiceName() + " " + endpoint.getName() + " "
+                    + endpoint.isStatus() + " " + endpoint.getResponseCode() + " " + endpoint.getEntityId();
+            } else if (source instanceof ServiceRelation) {
+                ServiceRelation relation = (ServiceRelation) source;
+                return "ServiceRelation " + relation.getSourceServiceName() + " -> " + relation.getDestServiceName()
+                    + " " + relation.getDetectPoint() + " " + relation.isStatus() + " " + relation.getResponseCode();
+            } else if (source instanceof ServiceInstanceRelation) {
+                ServiceInstanceRelation relation = (ServiceInstanceRelation) source;
+                return "ServiceInstanceRelation " + relation.getSourceServiceInstanceName() + " -> "
+                    + relation.getDestServiceInstanceName();
+            } else if (source instanceof EndpointRelation) {
+                EndpointRelation relation = (EndpointRelation) source;
+                return "EndpointRelation " + relation.getServiceName() + " " + relation.getEndpoint() + " -> "
+                    + relation.getChildServiceName() + " " + relation.getChildEndpoint();
+            }
+            return source.getClass().getSimpleName();
+        }
+
+        @Override
+        public DispatcherDetectorListener getDispatcherDetectorListener() {
+            return null;
+        }
+    }
+}
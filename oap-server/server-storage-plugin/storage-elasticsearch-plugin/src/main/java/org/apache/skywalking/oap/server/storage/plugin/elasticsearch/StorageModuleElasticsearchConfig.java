@@ -45,6 +45,44 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int concurrentRequests = 2;
     @Setter
     private int syncBulkActions = 3;
+    /**
+     * The max number of the actions in one synchronous bulk, the requests of one persistence round are split into the
+     * bulks of this size.
+     */
+    @Setter
+    private int syncBulkMaxActions = 5000;
+    /**
+     * The max estimated size of one synchronous bulk, in MB.
+     */
+    @Setter
+    private int syncBulkMaxSizeInMB = 10;
+    /**
+     * The number of the synchronous bulks executed concurrently.
+     */
+    @Setter
+    private int syncBulkConcurrency = 2;
+    /**
+     * The max number of the retries of the bulk items rejected by ES(429), with exponential backoff.
+     */
+    @Setter
+    private int syncBulkMaxRetries = 3;
+    /**
+     * The delay before the first retry of the rejected items, in milliseconds.
+     */
+    @Setter
+    private long syncBulkRetryInitialDelay = 100;
+    /**
+     * Co-locate the metrics models in the shared physical indices, grouped by the type of the value column, rather
+     * than one index per model.
+     */
+    @Setter
+    private boolean sharedMetricsIndex = false;
+    /**
+     * Route the metrics documents by the entity ID, so all the time buckets of one entity are in one shard, and the
+     * reads of one entity hit that shard only.
+     */
+    @Setter
+    private boolean metricsEntityRouting = false;
     /**
      * @since 7.0.0 This could be managed inside {@link #secretsManagementFile}
      */
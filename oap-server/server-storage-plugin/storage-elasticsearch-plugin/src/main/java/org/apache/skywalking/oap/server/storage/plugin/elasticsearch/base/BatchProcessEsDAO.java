@@ -18,19 +18,45 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.StorageModuleElasticsearchConfig;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.rest.RestStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The synchronous requests of one persistence round are split into the bulks of the limited actions and bytes, which
+ * are executed concurrently. The items rejected by the busy ES nodes(429) are retried with backoff, the other failed
+ * items are logged and counted only.
+ */
 public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     private static final Logger logger = LoggerFactory.getLogger(BatchProcessEsDAO.class);
@@ -39,12 +65,62 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
     private final int bulkActions;
     private final int flushInterval;
     private final int concurrentRequests;
+    private final int syncBulkMaxActions;
+    private final long syncBulkMaxSizeInBytes;
+    private final int syncBulkMaxRetries;
+    private final long syncBulkRetryInitialDelay;
+    private final ExecutorService syncBulkExecutor;
+
+    private HistogramMetrics bulkLatency;
+    private HistogramMetrics bulkSize;
+    private CounterMetrics rejectedCounter;
+    private CounterMetrics failedCounter;
 
-    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int flushInterval, int concurrentRequests) {
+    public BatchProcessEsDAO(ElasticSearchClient client, StorageModuleElasticsearchConfig config) {
         super(client);
-        this.bulkActions = bulkActions;
-        this.flushInterval = flushInterval;
-        this.concurrentRequests = concurrentRequests;
+        this.bulkActions = config.getBulkActions();
+        this.flushInterval = config.getFlushInterval();
+        this.concurrentRequests = config.getConcurrentRequests();
+        this.syncBulkMaxActions = config.getSyncBulkMaxActions();
+        this.syncBulkMaxSizeInBytes = config.getSyncBulkMaxSizeInMB() * 1024L * 1024L;
+        this.syncBulkMaxRetries = config.getSyncBulkMaxRetries();
+        this.syncBulkRetryInitialDelay = config.getSyncBulkRetryInitialDelay();
+        this.syncBulkExecutor = config.getSyncBulkConcurrency() > 1 ? Executors.newFixedThreadPool(
+            config.getSyncBulkConcurrency(), new SyncBulkThreadFactory()) : null;
+        createMetrics(new MetricsCreatorNoop());
+    }
+
+    /**
+     * Create the metrics of the synchronous bulks, called when the telemetry module is ready.
+     */
+    public void createMetrics(MetricsCreator metricsCreator) {
+        bulkLatency = metricsCreator.createHistogramMetric(
+            "elasticsearch_sync_bulk_latency", "The latency of the synchronous bulk of Elasticsearch storage",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        bulkSize = metricsCreator.createHistogramMetric(
+            "elasticsearch_sync_bulk_size", "The size of the synchronous bulk of Elasticsearch storage in KB",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE, 64, 256, 1024, 4096, 10240, 20480, 51200
+        );
+        rejectedCounter = metricsCreator.createCounter(
+            "elasticsearch_sync_bulk_rejected_count",
+            "The number of the synchronous bulk items rejected by Elasticsearch storage",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        failedCounter = metricsCreator.createCounter(
+            "elasticsearch_sync_bulk_failed_count",
+            "The number of the synchronous bulk items failed finally in Elasticsearch storage",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+    }
+
+    /**
+     * Stop the threads of the concurrent synchronous bulks, the running bulks are finished.
+     */
+    public void shutdown() {
+        if (syncBulkExecutor != null) {
+            syncBulkExecutor.shutdown();
+        }
     }
 
     @Override
@@ -58,17 +134,139 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     @Override
     public void synchronous(List<PrepareRequest> prepareRequests) {
-        if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            BulkRequest request = new BulkRequest();
-
-            for (PrepareRequest prepareRequest : prepareRequests) {
-                if (prepareRequest instanceof InsertRequest) {
-                    request.add((IndexRequest) prepareRequest);
-                } else {
-                    request.add((UpdateRequest) prepareRequest);
+        if (CollectionUtils.isEmpty(prepareRequests)) {
+            return;
+        }
+
+        List<BulkRequest> bulks = split(prepareRequests);
+        if (syncBulkExecutor == null || bulks.size() == 1) {
+            bulks.forEach(this::execute);
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<>(bulks.size());
+        for (BulkRequest bulk : bulks) {
+            futures.add(syncBulkExecutor.submit(() -> execute(bulk)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Interrupted in waiting for the synchronous bulks.", e);
+                return;
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage(), e.getCause());
+            }
+        }
+    }
+
+    List<BulkRequest> split(List<PrepareRequest> prepareRequests) {
+        List<BulkRequest> bulks = new ArrayList<>();
+        BulkRequest bulk = new BulkRequest();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            if (prepareRequest instanceof InsertRequest) {
+                bulk.add((IndexRequest) prepareRequest);
+            } else {
+                bulk.add((UpdateRequest) prepareRequest);
+            }
+            if (bulk.numberOfActions() >= syncBulkMaxActions || bulk.estimatedSizeInBytes() >= syncBulkMaxSizeInBytes) {
+                bulks.add(bulk);
+                bulk = new BulkRequest();
+            }
+        }
+        if (bulk.numberOfActions() > 0) {
+            bulks.add(bulk);
+        }
+        return bulks;
+    }
+
+    private void execute(BulkRequest bulk) {
+        Iterator<TimeValue> backoff = BackoffPolicy.exponentialBackoff(
+            TimeValue.timeValueMillis(syncBulkRetryInitialDelay), syncBulkMaxRetries).iterator();
+        BulkRequest request = bulk;
+        while (request != null) {
+            bulkSize.observe(request.estimatedSizeInBytes() / 1024d);
+            BulkRequest rejected;
+            HistogramMetrics.Timer timer = bulkLatency.createTimer();
+            try {
+                rejected = rejectedItems(request, getClient().synchronousBulk(request));
+            } catch (ElasticsearchStatusException e) {
+                if (e.status() != RestStatus.TOO_MANY_REQUESTS) {
+                    logger.error(e.getMessage(), e);
+                    failedCounter.inc(request.numberOfActions());
+                    return;
+                }
+                rejected = request;
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+                failedCounter.inc(request.numberOfActions());
+                return;
+            } finally {
+                timer.finish();
+            }
+
+            request = null;
+            if (rejected != null) {
+                rejectedCounter.inc(rejected.numberOfActions());
+                if (!backoff.hasNext()) {
+                    logger.error("{} bulk items are still rejected after {} retries.",
+                                 rejected.numberOfActions(), syncBulkMaxRetries);
+                    failedCounter.inc(rejected.numberOfActions());
+                    return;
+                }
+                if (!sleep(backoff.next())) {
+                    failedCounter.inc(rejected.numberOfActions());
+                    return;
+                }
+                request = rejected;
+            }
+        }
+    }
+
+    /**
+     * @return the request of the items to retry, or null if none.
+     */
+    private BulkRequest rejectedItems(BulkRequest request, BulkResponse response) {
+        if (!response.hasFailures()) {
+            return null;
+        }
+        BulkRequest rejected = null;
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                continue;
+            }
+            if (item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                if (rejected == null) {
+                    rejected = new BulkRequest();
                 }
+                rejected.add(request.requests().get(item.getItemId()));
+            } else {
+                logger.error("Bulk item of index {} failed, {}", item.getIndex(), item.getFailureMessage());
+                failedCounter.inc();
             }
-            getClient().synchronousBulk(request);
+        }
+        return rejected;
+    }
+
+    private boolean sleep(TimeValue delay) {
+        try {
+            Thread.sleep(delay.millis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class SyncBulkThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ES-SyncBulk-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
         }
     }
 }
@@ -51,7 +51,8 @@ public class HistoryDeleteEsDAO extends EsDAO implements IHistoryDeleteDAO {
         }
         deadline = Long.valueOf(new DateTime().plusDays(0 - ttl).toString("yyyyMMdd"));
 
-        List<String> indexes = client.retrievalIndexByAliases(model.getName());
+        List<String> indexes = client.retrievalIndexByAliases(
+            IndexController.INSTANCE.getTableName(model.getName()));
 
         List<String> prepareDeleteIndexes = new ArrayList<>();
         List<String> leftIndices = new ArrayList<>();
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.skywalking.oap.server.core.Const;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+
+/**
+ * IndexController routes the models to their physical indices. A model is stored in the index named by itself, unless
+ * it is shared by the {@link StorageEsInstaller} in the shared metrics index mode. The documents of the shared models
+ * are co-located in a few physical indices, distinguished by the {@link #METRIC_TABLE} column, and their IDs are
+ * prefixed by the model name, as the metrics IDs are not unique across the models.
+ */
+public enum IndexController {
+    INSTANCE;
+
+    /**
+     * The discriminator column of the shared indices, holding the model name.
+     */
+    public static final String METRIC_TABLE = "metric_table";
+
+    private final Map<String, String> sharedModels = new ConcurrentHashMap<>();
+
+    /**
+     * @return the name of the physical index of the model, used as the alias and the prefix of the time series indices.
+     */
+    public String getTableName(String modelName) {
+        return sharedModels.getOrDefault(modelName, modelName);
+    }
+
+    public boolean isShared(String modelName) {
+        return sharedModels.containsKey(modelName);
+    }
+
+    /**
+     * @return the document ID of the given entity ID of the model.
+     */
+    public String generateDocId(String modelName, String id) {
+        if (!isShared(modelName)) {
+            return id;
+        }
+        return modelName + Const.ID_CONNECTOR + id;
+    }
+
+    public String[] generateDocIds(String modelName, List<String> ids) {
+        String[] docIds = new String[ids.size()];
+        for (int i = 0; i < docIds.length; i++) {
+            docIds[i] = generateDocId(modelName, ids.get(i));
+        }
+        return docIds;
+    }
+
+    /**
+     * @return the entity ID of the given document ID, the reverse of {@link #generateDocId(String, String)}.
+     */
+    public String parseDocId(String modelName, String docId) {
+        if (!isShared(modelName)) {
+            return docId;
+        }
+        return docId.substring(modelName.length() + Const.ID_CONNECTOR.length());
+    }
+
+    /**
+     * Put the {@link #METRIC_TABLE} column into the data of the shared model.
+     */
+    public Map<String, Object> appendMetricTableColumn(String modelName, Map<String, Object> data) {
+        if (isShared(modelName)) {
+            data.put(METRIC_TABLE, modelName);
+        }
+        return data;
+    }
+
+    /**
+     * @return the query only matching the documents of the model, if it is shared.
+     */
+    public QueryBuilder filter(String modelName, QueryBuilder query) {
+        if (!isShared(modelName)) {
+            return query;
+        }
+        return QueryBuilders.boolQuery().must(query).filter(QueryBuilders.termQuery(METRIC_TABLE, modelName));
+    }
+
+    void share(String modelName, String tableName) {
+        sharedModels.put(modelName, tableName);
+    }
+
+    void unshareAll() {
+        sharedModels.clear();
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
@@ -30,6 +31,7 @@ import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.search.SearchHit;
 
 public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
@@ -42,27 +44,45 @@ public class MetricsEsDAO extends EsDAO implements IMetricsDAO {
 
     @Override
     public List<Metrics> multiGet(Model model, List<String> ids) throws IOException {
-        SearchResponse response = getClient().ids(model.getName(), ids.toArray(new String[0]));
+        if (MetricsRouting.INSTANCE.isRoutable(ids)) {
+            Map<String, Map<String, Object>> sources = MetricsRouting.INSTANCE.multiGet(
+                getClient(), model.getName(), ids);
+            List<Metrics> result = new ArrayList<>(sources.size());
+            for (Map<String, Object> source : sources.values()) {
+                result.add(storageBuilder.map2Data(source));
+            }
+            return result;
+        }
+
+        SearchResponse response = getClient().ids(
+            IndexController.INSTANCE.getTableName(model.getName()),
+            IndexController.INSTANCE.generateDocIds(model.getName(), ids)
+        );
+        MetricsRouting.INSTANCE.recordMultiGet(response.getTotalShards());
 
-        List<Metrics> result = new ArrayList<>((int) response.getHits().totalHits);
-        for (int i = 0; i < response.getHits().totalHits; i++) {
-            Metrics source = storageBuilder.map2Data(response.getHits().getAt(i).getSourceAsMap());
-            result.add(source);
+        SearchHit[] hits = response.getHits().getHits();
+        List<Metrics> result = new ArrayList<>(hits.length);
+        for (SearchHit hit : hits) {
+            result.add(storageBuilder.map2Data(hit.getSourceAsMap()));
         }
         return result;
     }
 
     @Override
     public InsertRequest prepareBatchInsert(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = map2builder(
+            IndexController.INSTANCE.appendMetricTableColumn(model.getName(), storageBuilder.data2Map(metrics)));
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
-        return getClient().prepareInsert(modelName, metrics.id(), builder);
+        String id = IndexController.INSTANCE.generateDocId(model.getName(), metrics.id());
+        return getClient().prepareInsert(modelName, id, MetricsRouting.INSTANCE.routing(metrics.id()), builder);
     }
 
     @Override
     public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
-        XContentBuilder builder = map2builder(storageBuilder.data2Map(metrics));
+        XContentBuilder builder = map2builder(
+            IndexController.INSTANCE.appendMetricTableColumn(model.getName(), storageBuilder.data2Map(metrics)));
         String modelName = TimeSeriesUtils.writeIndexName(model, metrics.getTimeBucket());
-        return getClient().prepareUpdate(modelName, metrics.id(), builder);
+        String id = IndexController.INSTANCE.generateDocId(model.getName(), metrics.id());
+        return getClient().prepareUpdate(modelName, id, MetricsRouting.INSTANCE.routing(metrics.id()), builder);
     }
 }
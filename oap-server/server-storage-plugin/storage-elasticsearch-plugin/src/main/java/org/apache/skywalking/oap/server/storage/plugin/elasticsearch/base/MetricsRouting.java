@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetResponse;
+import org.elasticsearch.index.IndexNotFoundException;
+
+/**
+ * MetricsRouting routes the metrics documents by the entity ID in the entity routing mode. The documents of all the
+ * time buckets of one entity are in one shard, so the multi-get and the query of one entity only hit that shard rather
+ * than all the shards of the index.
+ * <p>
+ * The number of the shards hit by the reads of the metrics is reported in both modes, to compare them. The routed
+ * multi-get counts the distinct pairs of the index and the routing, each of which hits one shard. Different routings
+ * may go into the same shard, so it is the upper bound of the shards.
+ */
+public enum MetricsRouting {
+    INSTANCE;
+
+    /**
+     * The resource type of {@link IndexNotFoundException}, kept in the exception parsed from the REST response.
+     */
+    private static final String INDEX_RESOURCE_TYPE = "index_or_alias";
+    private static final String MULTI_GET = "multi_get";
+    private static final String QUERY = "query";
+    private static final String READ_COUNT = "elasticsearch_metrics_read_count";
+    private static final String READ_COUNT_TIPS = "The number of the reads of the metrics.";
+    private static final String READ_SHARDS = "elasticsearch_metrics_read_shards";
+    private static final String READ_SHARDS_TIPS =
+        "The number of the shards hit by the reads of the metrics, the index and routing pairs in routed multi-get.";
+
+    private volatile boolean entityRouting = false;
+    private CounterMetrics multiGetCounter;
+    private CounterMetrics multiGetShardsCounter;
+    private CounterMetrics queryCounter;
+    private CounterMetrics queryShardsCounter;
+
+    MetricsRouting() {
+        createMetrics(new MetricsCreatorNoop());
+    }
+
+    public void setEntityRouting(boolean entityRouting) {
+        this.entityRouting = entityRouting;
+    }
+
+    public boolean isEntityRouting() {
+        return entityRouting;
+    }
+
+    /**
+     * Create the metrics of the shards hit by the reads, called when the telemetry module is ready.
+     */
+    public void createMetrics(MetricsCreator metricsCreator) {
+        multiGetCounter = createCounter(metricsCreator, READ_COUNT, READ_COUNT_TIPS, MULTI_GET);
+        multiGetShardsCounter = createCounter(metricsCreator, READ_SHARDS, READ_SHARDS_TIPS, MULTI_GET);
+        queryCounter = createCounter(metricsCreator, READ_COUNT, READ_COUNT_TIPS, QUERY);
+        queryShardsCounter = createCounter(metricsCreator, READ_SHARDS, READ_SHARDS_TIPS, QUERY);
+    }
+
+    private static CounterMetrics createCounter(MetricsCreator metricsCreator, String name, String tips,
+                                                String operation) {
+        return metricsCreator.createCounter(
+            name, tips, new MetricsTag.Keys("operation"), new MetricsTag.Values(operation));
+    }
+
+    /**
+     * @return the entity ID in the metrics ID like timeBucket_entityId, as the routing of the document. Null if the
+     * entity routing is off, or the ID doesn't start with the time bucket, such as the ID of the traffic.
+     */
+    public String routing(String id) {
+        if (!entityRouting || timeBucketOf(id) < 0) {
+            return null;
+        }
+        return id.substring(id.indexOf(Const.ID_CONNECTOR) + 1);
+    }
+
+    /**
+     * @return the routing of the query of the entity, null if the entity routing is off or no entity condition.
+     */
+    public String entityRouting(String entityId) {
+        return entityRouting ? entityId : null;
+    }
+
+    /**
+     * @return true if the metrics of the IDs could be read by the routed multi-get.
+     */
+    public boolean isRoutable(List<String> ids) {
+        if (!entityRouting) {
+            return false;
+        }
+        for (String id : ids) {
+            if (timeBucketOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the metrics of the IDs in the indices of their time buckets, routed by the entity IDs. The IDs should be
+     * {@link #isRoutable(List)}.
+     *
+     * @return the sources of the existing metrics, keyed by the ID.
+     */
+    public Map<String, Map<String, Object>> multiGet(ElasticSearchClient client,
+                                                     String modelName,
+                                                     List<String> ids) throws IOException {
+        String[] indexNames = new String[ids.size()];
+        String[] docIds = new String[ids.size()];
+        String[] routings = new String[ids.size()];
+        Set<String> shards = new HashSet<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            indexNames[i] = TimeSeriesUtils.metricsIndexName(modelName, timeBucketOf(id));
+            docIds[i] = IndexController.INSTANCE.generateDocId(modelName, id);
+            routings[i] = routing(id);
+            shards.add(indexNames[i] + Const.ID_CONNECTOR + routings[i]);
+        }
+
+        MultiGetResponse response = client.multiGet(indexNames, docIds, routings);
+        recordMultiGet(shards.size());
+
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        for (MultiGetItemResponse item : response.getResponses()) {
+            if (item.isFailed()) {
+                // The index of the time bucket has been deleted by the TTL, or not created yet.
+                if (isIndexNotFound(item.getFailure().getFailure())) {
+                    continue;
+                }
+                throw new IOException(item.getFailure().getMessage());
+            }
+            if (item.getResponse().isExists()) {
+                result.put(
+                    IndexController.INSTANCE.parseDocId(modelName, item.getId()), item.getResponse().getSourceAsMap());
+            }
+        }
+        return result;
+    }
+
+    static boolean isIndexNotFound(Exception failure) {
+        if (failure instanceof IndexNotFoundException) {
+            return true;
+        }
+        return failure instanceof ElasticsearchException
+            && INDEX_RESOURCE_TYPE.equals(((ElasticsearchException) failure).getResourceType());
+    }
+
+    public void recordMultiGet(int shards) {
+        multiGetCounter.inc();
+        multiGetShardsCounter.inc(shards);
+    }
+
+    public void recordQuery(int shards) {
+        queryCounter.inc();
+        queryShardsCounter.inc(shards);
+    }
+
+    /**
+     * @return the time bucket at the head of the metrics ID, or -1 if not.
+     */
+    static long timeBucketOf(String id) {
+        int index = id.indexOf(Const.ID_CONNECTOR);
+        if (index <= 0 || index > 18 || index == id.length() - 1) {
+            return -1;
+        }
+        for (int i = 0; i < index; i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(id.substring(0, index));
+    }
+}
@@ -22,9 +22,14 @@ import com.google.gson.Gson;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.RunningMode;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
 import org.apache.skywalking.oap.server.core.storage.model.ModelInstaller;
@@ -36,10 +41,21 @@ import org.elasticsearch.common.unit.TimeValue;
 
 @Slf4j
 public class StorageEsInstaller extends ModelInstaller {
+    /**
+     * The prefix of the shared metrics indices, followed by the type of the value column and the hash of all the
+     * columns of the metrics in it.
+     */
+    public static final String SHARED_METRICS_INDEX_PREFIX = "metrics_all_";
+
     private final Gson gson = new Gson();
 
     private final StorageModuleElasticsearchConfig config;
     protected final ColumnTypeEsMapping columnTypeEsMapping;
+    /**
+     * The properties of the mapping of every shared metrics index, which are the same for all the metrics in it. The
+     * models are installed by the modules starting concurrently.
+     */
+    private final Map<String, Map<String, Object>> sharedProperties = new ConcurrentHashMap<>();
 
     public StorageEsInstaller(Client client, ModuleManager moduleManager, final StorageModuleElasticsearchConfig config) {
         super(client, moduleManager);
@@ -47,12 +63,23 @@ public class StorageEsInstaller extends ModelInstaller {
         this.config = config;
     }
 
+    @Override
+    public void whenCreating(Model model) throws StorageException {
+        if (config.isSharedMetricsIndex() && share(model) && !RunningMode.isNoInitMode()) {
+            // The mapping of the shared index changes, even if the index exists.
+            createTable(model);
+            return;
+        }
+        super.whenCreating(model);
+    }
+
     @Override
     protected boolean isExists(Model model) throws StorageException {
         ElasticSearchClient esClient = (ElasticSearchClient) client;
         try {
+            String tableName = IndexController.INSTANCE.getTableName(model.getName());
             String timeSeriesIndexName = TimeSeriesUtils.latestWriteIndexName(model);
-            return esClient.isExistsTemplate(model.getName()) && esClient.isExistsIndex(timeSeriesIndexName);
+            return esClient.isExistsTemplate(tableName) && esClient.isExistsIndex(timeSeriesIndexName);
         } catch (IOException e) {
             throw new StorageException(e.getMessage());
         }
@@ -60,6 +87,10 @@ public class StorageEsInstaller extends ModelInstaller {
 
     @Override
     protected void createTable(Model model) throws StorageException {
+        if (IndexController.INSTANCE.isShared(model.getName())) {
+            createSharedTable(model);
+            return;
+        }
         ElasticSearchClient esClient = (ElasticSearchClient) client;
 
         Map<String, Object> settings = createSetting(model.isRecord());
@@ -89,6 +120,104 @@ public class StorageEsInstaller extends ModelInstaller {
         }
     }
 
+    /**
+     * Put the mapping of the shared index into the template, and the latest index if it exists.
+     */
+    private void createSharedTable(Model model) throws StorageException {
+        ElasticSearchClient esClient = (ElasticSearchClient) client;
+        String tableName = IndexController.INSTANCE.getTableName(model.getName());
+        Map<String, Object> mapping = createMapping(sharedProperties.get(tableName));
+
+        try {
+            boolean isAcknowledged = esClient.createTemplate(tableName, createSetting(false), mapping);
+            log.info("update {} shared index template finished, isAcknowledged: {}", tableName, isAcknowledged);
+            if (!isAcknowledged) {
+                throw new StorageException("update " + tableName + " shared index template failure, ");
+            }
+            String timeSeriesIndexName = TimeSeriesUtils.latestWriteIndexName(model);
+            if (esClient.isExistsIndex(timeSeriesIndexName)) {
+                isAcknowledged = esClient.updateIndexMapping(timeSeriesIndexName, mapping);
+            } else {
+                isAcknowledged = esClient.createIndex(timeSeriesIndexName);
+            }
+            log.info("update {} shared index finished, isAcknowledged: {}", timeSeriesIndexName, isAcknowledged);
+            if (!isAcknowledged) {
+                throw new StorageException("update " + timeSeriesIndexName + " shared index failure, ");
+            }
+        } catch (IOException e) {
+            throw new StorageException(e.getMessage());
+        }
+    }
+
+    /**
+     * Share the index of the metrics model with the other metrics of exactly the same columns, typically the metrics
+     * of the same function, such as the minute, hour and day metrics of every CPM. The index is named by the value
+     * column type and the hash of the columns, so it only depends on the model itself, rather than the order of the
+     * models installed, and every OAP node chooses the same one. The records, and the metrics without value column,
+     * such as the traffic and the topology relations, are not shared.
+     *
+     * @return true if the model is shared, and the first one of its shared index.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized boolean share(Model model) {
+        if (model.isRecord()) {
+            return false;
+        }
+        Optional<ValueColumnMetadata.ValueColumn> valueColumn = ValueColumnMetadata.INSTANCE.readValueColumnDefinition(
+            model.getName());
+        if (!valueColumn.isPresent()) {
+            return false;
+        }
+        Map<String, Object> properties = createSharedProperties(model);
+        Map<String, Object> valueColumnDefine = (Map<String, Object>) properties.get(
+            valueColumn.get().getValueCName());
+        if (valueColumnDefine == null) {
+            return false;
+        }
+
+        // The columns and their definitions in the order of the names, as the text to hash.
+        Map<String, Object> sortedColumns = new TreeMap<>();
+        properties.forEach((name, define) -> sortedColumns.put(name, new TreeMap<>((Map<String, Object>) define)));
+        String tableName = SHARED_METRICS_INDEX_PREFIX + valueColumnDefine.get("type") + "_"
+            + Integer.toHexString(sortedColumns.toString().hashCode());
+
+        Map<String, Object> metricTableColumn = new HashMap<>();
+        metricTableColumn.put("type", "keyword");
+        properties.put(IndexController.METRIC_TABLE, metricTableColumn);
+        Map<String, Object> shared = sharedProperties.putIfAbsent(tableName, properties);
+        if (shared != null && !shared.equals(properties)) {
+            log.warn(
+                "columns of {} collide with the hash of the shared index {}, keep it in its own index.",
+                model.getName(), tableName
+            );
+            return false;
+        }
+        IndexController.INSTANCE.share(model.getName(), tableName);
+        log.info("share the index {} with {}", tableName, model.getName());
+        return shared == null;
+    }
+
+    /**
+     * The numeric columns of the shared metrics are always indexed, and the integer is widened to long, so the metrics
+     * of the same columns in the different numeric types, such as the int and long values, share one index.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> createSharedProperties(Model model) {
+        Map<String, Object> properties = createProperties(model);
+        for (Object column : properties.values()) {
+            Map<String, Object> define = (Map<String, Object>) column;
+            Object type = define.get("type");
+            if ("integer".equals(type)) {
+                define.put("type", "long");
+                type = "long";
+            }
+            if ("long".equals(type) || "double".equals(type)) {
+                define.remove("index");
+            }
+        }
+        return properties;
+    }
+
     protected Map<String, Object> createSetting(boolean record) {
         Map<String, Object> setting = new HashMap<>();
         setting.put("index.number_of_shards", config.getIndexShardsNumber());
@@ -106,14 +235,25 @@ public class StorageEsInstaller extends ModelInstaller {
     }
 
     protected Map<String, Object> createMapping(Model model) {
+        Map<String, Object> mapping = createMapping(createProperties(model));
+
+        log.debug("elasticsearch index template setting: {}", mapping.toString());
+
+        return mapping;
+    }
+
+    protected Map<String, Object> createMapping(Map<String, Object> properties) {
         Map<String, Object> mapping = new HashMap<>();
         Map<String, Object> type = new HashMap<>();
 
         mapping.put(ElasticSearchClient.TYPE, type);
-
-        Map<String, Object> properties = new HashMap<>();
         type.put("properties", properties);
 
+        return mapping;
+    }
+
+    private Map<String, Object> createProperties(Model model) {
+        Map<String, Object> properties = new HashMap<>();
         for (ModelColumn columnDefine : model.getColumns()) {
             if (columnDefine.isMatchQuery()) {
                 String matchCName = MatchCNameBuilder.INSTANCE.build(columnDefine.getColumnName().getName());
@@ -136,9 +276,6 @@ public class StorageEsInstaller extends ModelInstaller {
                 properties.put(columnDefine.getColumnName().getName(), column);
             }
         }
-
-        log.debug("elasticsearch index template setting: {}", mapping.toString());
-
-        return mapping;
+        return properties;
     }
 }
@@ -17,6 +17,8 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
 import lombok.Setter;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
@@ -40,18 +42,23 @@ public class TimeSeriesUtils {
     private static final DateTime DAY_ONE = TIME_BUCKET_FORMATTER.parseDateTime("20000101");
     @Setter
     private static int DAY_STEP = 1;
+    /**
+     * The max number of the indices named in one query, the alias is used if more.
+     */
+    private static final int MAX_QUERY_INDICES = 50;
 
     /**
      * @return formatted latest index name, based on current timestamp.
      */
     public static String latestWriteIndexName(Model model) {
+        final String tableName = IndexController.INSTANCE.getTableName(model.getName());
         long timeBucket;
         if (model.isRecord()) {
             timeBucket = TimeBucket.getTimeBucket(System.currentTimeMillis(), model.getDownsampling());
-            return model.getName() + Const.LINE + compressTimeBucket(timeBucket / 1000000, DAY_STEP);
+            return tableName + Const.LINE + compressTimeBucket(timeBucket / 1000000, DAY_STEP);
         } else {
             timeBucket = TimeBucket.getTimeBucket(System.currentTimeMillis(), DownSampling.Minute);
-            return model.getName() + Const.LINE + compressTimeBucket(timeBucket / 10000, DAY_STEP);
+            return tableName + Const.LINE + compressTimeBucket(timeBucket / 10000, DAY_STEP);
         }
     }
 
@@ -59,7 +66,7 @@ public class TimeSeriesUtils {
      * @return index name based on model definition and given time bucket.
      */
     static String writeIndexName(Model model, long timeBucket) {
-        final String modelName = model.getName();
+        final String modelName = IndexController.INSTANCE.getTableName(model.getName());
 
         if (model.isRecord()) {
             return modelName + Const.LINE + compressTimeBucket(timeBucket / 1000000, DAY_STEP);
@@ -81,6 +88,44 @@ public class TimeSeriesUtils {
         }
     }
 
+    /**
+     * @param timeBucket the time bucket of the metrics, in any precision of the down sampling.
+     * @return the index name of the metrics in the time bucket, the same as {@link #writeIndexName(Model, long)}.
+     */
+    static String metricsIndexName(String modelName, long timeBucket) {
+        long dayTimeBucket = timeBucket;
+        while (dayTimeBucket > 99999999L) {
+            dayTimeBucket /= 100;
+        }
+        return IndexController.INSTANCE.getTableName(modelName) + Const.LINE + compressTimeBucket(
+            dayTimeBucket, DAY_STEP);
+    }
+
+    /**
+     * @param startSecondTB the start of the time range, in the second precision time bucket.
+     * @param endSecondTB   the end of the time range, in the second precision time bucket.
+     * @return the names of the indices of the record model, which include the data in the time range. Or the alias of
+     * the model only, if the range is not given or includes more than {@link #MAX_QUERY_INDICES} indices.
+     */
+    public static String[] queryRecordIndexNames(String modelName, long startSecondTB, long endSecondTB) {
+        if (startSecondTB <= 0 || endSecondTB < startSecondTB) {
+            return new String[] {modelName};
+        }
+        DateTime day = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(startSecondTB / 1000000));
+        DateTime endDay = TIME_BUCKET_FORMATTER.parseDateTime(String.valueOf(endSecondTB / 1000000));
+
+        Set<String> indexNames = new LinkedHashSet<>();
+        while (!day.isAfter(endDay)) {
+            long timeBucket = Long.parseLong(day.toString(TIME_BUCKET_FORMATTER));
+            indexNames.add(modelName + Const.LINE + compressTimeBucket(timeBucket, DAY_STEP));
+            if (indexNames.size() > MAX_QUERY_INDICES) {
+                return new String[] {modelName};
+            }
+            day = day.plusDays(1);
+        }
+        return indexNames.toArray(new String[0]);
+    }
+
     /**
      * @return the index represented time, which is included in the index name.
      */
@@ -30,6 +30,7 @@ import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
 import org.apache.skywalking.oap.server.core.storage.query.IAggregationQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexController;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -68,9 +69,9 @@ public class AggregationQueryEsDAO extends EsDAO implements IAggregationQueryDAO
                          .add(QueryBuilders.termsQuery(additionalCondition.getKey(), additionalCondition.getValue()));
             });
             boolQuery.must().add(queryBuilder);
-            sourceBuilder.query(boolQuery);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), boolQuery));
         } else {
-            sourceBuilder.query(queryBuilder);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), queryBuilder));
         }
 
         sourceBuilder.aggregation(
@@ -81,7 +82,8 @@ public class AggregationQueryEsDAO extends EsDAO implements IAggregationQueryDAO
                                .subAggregation(AggregationBuilders.avg(valueColumnName).field(valueColumnName))
         );
 
-        SearchResponse response = getClient().search(condition.getName(), sourceBuilder);
+        SearchResponse response = getClient().search(
+            IndexController.INSTANCE.getTableName(condition.getName()), sourceBuilder);
 
         List<SelectedRecord> topNList = new ArrayList<>();
         Terms idTerms = response.getAggregations().get(Metrics.ENTITY_ID);
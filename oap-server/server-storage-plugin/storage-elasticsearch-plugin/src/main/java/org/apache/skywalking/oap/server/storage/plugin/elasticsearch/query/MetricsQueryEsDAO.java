@@ -38,6 +38,8 @@ import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetad
 import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexController;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.MetricsRouting;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -71,7 +73,11 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
 
         sourceBuilder.aggregation(entityIdAggregation);
 
-        SearchResponse response = getClient().search(condition.getName(), sourceBuilder);
+        SearchResponse response = getClient().search(
+            IndexController.INSTANCE.getTableName(condition.getName()), sourceBuilder,
+            MetricsRouting.INSTANCE.entityRouting(condition.getEntity().buildId())
+        );
+        MetricsRouting.INSTANCE.recordQuery(response.getTotalShards());
 
         Terms idTerms = response.getAggregations().get(Metrics.ENTITY_ID);
         for (Terms.Bucket idBucket : idTerms.getBuckets()) {
@@ -100,8 +106,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
             ids.add(pointOfTime.id(condition.getEntity().buildId()));
         });
 
-        SearchResponse response = getClient().ids(condition.getName(), ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(condition.getName(), ids);
 
         MetricsValues metricsValues = new MetricsValues();
         // Label is null, because in readMetricsValues, no label parameter.
@@ -137,8 +142,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
             ids.add(pointOfTime.id(condition.getEntity().buildId()));
         });
 
-        SearchResponse response = getClient().ids(condition.getName(), ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(condition.getName(), ids);
 
         Map<String, MetricsValues> labeledValues = new HashMap<>(labels.size());
         labels.forEach(label -> {
@@ -186,8 +190,7 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
             ids.add(pointOfTime.id(condition.getEntity().buildId()));
         });
 
-        SearchResponse response = getClient().ids(condition.getName(), ids.toArray(new String[0]));
-        Map<String, Map<String, Object>> idMap = toMap(response);
+        Map<String, Map<String, Object>> idMap = multiGet(condition.getName(), ids);
 
         HeatMap heatMap = new HeatMap();
 
@@ -233,22 +236,35 @@ public class MetricsQueryEsDAO extends EsDAO implements IMetricsQueryDAO {
         final String entityId = condition.getEntity().buildId();
 
         if (entityId == null) {
-            sourceBuilder.query(rangeQueryBuilder);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), rangeQueryBuilder));
         } else {
             BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
             boolQuery.must().add(rangeQueryBuilder);
             boolQuery.must().add(QueryBuilders.termsQuery(Metrics.ENTITY_ID, entityId));
 
-            sourceBuilder.query(boolQuery);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), boolQuery));
         }
         sourceBuilder.size(0);
     }
 
-    private Map<String, Map<String, Object>> toMap(SearchResponse response) {
+    /**
+     * Read the metrics of the IDs, by the routed multi-get in the entity routing mode, or the IDs query.
+     */
+    private Map<String, Map<String, Object>> multiGet(String modelName, List<String> ids) throws IOException {
+        if (MetricsRouting.INSTANCE.isRoutable(ids)) {
+            return MetricsRouting.INSTANCE.multiGet(getClient(), modelName, ids);
+        }
+        SearchResponse response = getClient().ids(
+            IndexController.INSTANCE.getTableName(modelName), IndexController.INSTANCE.generateDocIds(modelName, ids));
+        MetricsRouting.INSTANCE.recordMultiGet(response.getTotalShards());
+        return toMap(modelName, response);
+    }
+
+    private Map<String, Map<String, Object>> toMap(String modelName, SearchResponse response) {
         Map<String, Map<String, Object>> result = new HashMap<>();
         SearchHit[] hits = response.getHits().getHits();
         for (SearchHit hit : hits) {
-            result.put(hit.getId(), hit.getSourceAsMap());
+            result.put(IndexController.INSTANCE.parseDocId(modelName, hit.getId()), hit.getSourceAsMap());
         }
         return result;
     }
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.SortOrder;
+
+public class ProfileStackSummaryQueryEsDAO extends EsDAO implements IProfileStackSummaryQueryDAO {
+
+    private final int querySummaryMaxSize;
+
+    protected final ProfileStackSummaryRecord.Builder builder = new ProfileStackSummaryRecord.Builder();
+
+    public ProfileStackSummaryQueryEsDAO(ElasticSearchClient client, int querySummaryMaxSize) {
+        super(client);
+        this.querySummaryMaxSize = querySummaryMaxSize;
+    }
+
+    @Override
+    public List<ProfileStackSummaryRecord> querySummaries(String segmentId, long start, long end) throws IOException {
+        SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
+
+        BoolQueryBuilder boolQueryBuilder = QueryBuilders.boolQuery();
+        sourceBuilder.query(boolQueryBuilder);
+        List<QueryBuilder> mustQueryList = boolQueryBuilder.must();
+
+        mustQueryList.add(QueryBuilders.termQuery(ProfileStackSummaryRecord.SEGMENT_ID, segmentId));
+        mustQueryList.add(QueryBuilders.rangeQuery(ProfileStackSummaryRecord.SLICE_START).gte(start));
+        mustQueryList.add(QueryBuilders.rangeQuery(ProfileStackSummaryRecord.SLICE_END).lte(end + 1));
+        sourceBuilder.size(querySummaryMaxSize);
+        sourceBuilder.sort(ProfileStackSummaryRecord.SLICE_START, SortOrder.ASC);
+
+        SearchResponse response = getClient().search(ProfileStackSummaryRecord.INDEX_NAME, sourceBuilder);
+
+        List<ProfileStackSummaryRecord> result = new ArrayList<>(response.getHits().getHits().length);
+        for (SearchHit searchHit : response.getHits().getHits()) {
+            result.add(builder.map2Data(searchHit.getSourceAsMap()));
+        }
+        return result;
+    }
+}
@@ -19,12 +19,16 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.query.type.BasicTrace;
 import org.apache.skywalking.oap.server.core.query.type.QueryOrder;
@@ -36,6 +40,7 @@ import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSear
 import org.apache.skywalking.oap.server.library.util.BooleanUtils;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.EsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.MatchCNameBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -45,9 +50,38 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 
+/**
+ * The trace queries search in the daily segment indices of the queried time range only, rather than all the indices
+ * of the alias. And the trace ID query searches in the indices of the time in the trace ID first, if it is generated
+ * by the SkyWalking agent.
+ * <p>
+ * The basic trace query continues from the last hit of the previous page by search_after, if the previous page of the
+ * same condition was queried recently, which saves the deep paging cost of from/size.
+ */
 public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
+    private static final String[] BASIC_TRACE_FIELDS = {
+        SegmentRecord.SEGMENT_ID,
+        SegmentRecord.START_TIME,
+        SegmentRecord.ENDPOINT_NAME,
+        SegmentRecord.LATENCY,
+        SegmentRecord.IS_ERROR,
+        SegmentRecord.TRACE_ID
+    };
+    /**
+     * The earliest time accepted in the trace ID, 2015-01-01.
+     */
+    private static final long MIN_TRACE_ID_TIMESTAMP = 1420070400000L;
+    private static final long HOUR_IN_MILLIS = 3600_000L;
+    private static final long DAY_IN_MILLIS = 24 * HOUR_IN_MILLIS;
 
     private int segmentQueryMaxSize;
+    /**
+     * The sort values of the last hit of the pages, the key is the query condition and the offset of the next page.
+     */
+    private final Cache<String, Object[]> searchAfterCache = CacheBuilder.newBuilder()
+                                                                         .maximumSize(1000)
+                                                                         .expireAfterAccess(5, TimeUnit.MINUTES)
+                                                                         .build();
 
     public TraceQueryEsDAO(ElasticSearchClient client, int segmentQueryMaxSize) {
         super(client);
@@ -120,15 +154,31 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
                 sourceBuilder.sort(SegmentRecord.LATENCY, SortOrder.DESC);
                 break;
         }
+        // The unique tiebreaker makes the search_after position exact.
+        sourceBuilder.sort(SegmentRecord.SEGMENT_ID, SortOrder.DESC);
+        sourceBuilder.fetchSource(BASIC_TRACE_FIELDS, null);
+
+        String[] indexNames = TimeSeriesUtils.queryRecordIndexNames(
+            SegmentRecord.INDEX_NAME, startSecondTB, endSecondTB);
+        String condition = String.join(",", indexNames) + sourceBuilder.toString();
+        Object[] searchAfter = from > 0 ? searchAfterCache.getIfPresent(condition + from) : null;
+        if (searchAfter != null) {
+            sourceBuilder.searchAfter(searchAfter);
+        } else {
+            sourceBuilder.from(from);
+        }
         sourceBuilder.size(limit);
-        sourceBuilder.from(from);
 
-        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        SearchResponse response = getClient().search(indexNames, sourceBuilder);
 
         TraceBrief traceBrief = new TraceBrief();
-        traceBrief.setTotal((int) response.getHits().totalHits);
+        traceBrief.setTotal(totalHits(response));
 
-        for (SearchHit searchHit : response.getHits().getHits()) {
+        SearchHit[] hits = response.getHits().getHits();
+        if (hits.length > 0) {
+            searchAfterCache.put(condition + (from + hits.length), hits[hits.length - 1].getSortValues());
+        }
+        for (SearchHit searchHit : hits) {
             BasicTrace basicTrace = new BasicTrace();
 
             basicTrace.setSegmentId((String) searchHit.getSourceAsMap().get(SegmentRecord.SEGMENT_ID));
@@ -145,14 +195,71 @@ public class TraceQueryEsDAO extends EsDAO implements ITraceQueryDAO {
         return traceBrief;
     }
 
+    /**
+     * @return the total number of the hits, which is not exact if the number is beyond the track limit of ES.
+     */
+    protected int totalHits(SearchResponse response) {
+        return (int) response.getHits().totalHits;
+    }
+
     @Override
     public List<SegmentRecord> queryByTraceId(String traceId) throws IOException {
         SearchSourceBuilder sourceBuilder = SearchSourceBuilder.searchSource();
         sourceBuilder.query(QueryBuilders.termQuery(SegmentRecord.TRACE_ID, traceId));
         sourceBuilder.size(segmentQueryMaxSize);
 
-        SearchResponse response = getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder);
+        long timestamp = traceIdTimestamp(traceId);
+        if (timestamp > 0) {
+            List<SegmentRecord> segmentRecords = buildRecords(
+                getClient().search(traceIndexNames(timestamp, System.currentTimeMillis()), sourceBuilder));
+            if (!segmentRecords.isEmpty()) {
+                return segmentRecords;
+            }
+        }
+
+        return buildRecords(getClient().search(SegmentRecord.INDEX_NAME, sourceBuilder));
+    }
+
+    /**
+     * No segment of the trace starts before the trace ID is generated, except the clock skew between the agents, so
+     * only the indices before it are skipped. The segments delayed for a long time, such as the consumers of a message
+     * queue, are still found in the later indices, up to a day after now for the clock skew.
+     *
+     * @param timestamp the timestamp in the trace ID.
+     * @return the segment indices which may contain the segments of the trace, or the alias of all if too many.
+     */
+    static String[] traceIndexNames(long timestamp, long now) {
+        return TimeSeriesUtils.queryRecordIndexNames(
+            SegmentRecord.INDEX_NAME,
+            TimeBucket.getRecordTimeBucket(timestamp - HOUR_IN_MILLIS),
+            TimeBucket.getRecordTimeBucket(Math.max(timestamp, now) + DAY_IN_MILLIS)
+        );
+    }
+
+    /**
+     * The trace ID generated by the SkyWalking agent ends with {@code timestamp * 10000 + sequence}, see
+     * GlobalIdGenerator of the agent.
+     *
+     * @return the timestamp in the trace ID, or 0 if the trace ID is not in this format.
+     */
+    static long traceIdTimestamp(String traceId) {
+        int index = traceId.lastIndexOf('.');
+        if (index < 0 || index == traceId.length() - 1) {
+            return 0;
+        }
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(traceId.substring(index + 1)) / 10000;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        if (timestamp < MIN_TRACE_ID_TIMESTAMP || timestamp > System.currentTimeMillis() + DAY_IN_MILLIS) {
+            return 0;
+        }
+        return timestamp;
+    }
 
+    private List<SegmentRecord> buildRecords(SearchResponse response) {
         List<SegmentRecord> segmentRecords = new ArrayList<>();
         for (SearchHit searchHit : response.getHits().getHits()) {
             SegmentRecord segmentRecord = new SegmentRecord();
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchInsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.StorageModuleElasticsearchConfig;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class BatchProcessEsDAOTestCase {
+
+    @Test
+    public void splitByActions() {
+        StorageModuleElasticsearchConfig config = new StorageModuleElasticsearchConfig();
+        config.setSyncBulkMaxActions(2);
+        BatchProcessEsDAO dao = new BatchProcessEsDAO(Mockito.mock(ElasticSearchClient.class), config);
+
+        List<BulkRequest> bulks = dao.split(requests(5));
+        Assert.assertEquals(3, bulks.size());
+        Assert.assertEquals(2, bulks.get(0).numberOfActions());
+        Assert.assertEquals(1, bulks.get(2).numberOfActions());
+    }
+
+    @Test
+    public void retryRejectedItemsOnly() throws IOException {
+        StorageModuleElasticsearchConfig config = new StorageModuleElasticsearchConfig();
+        config.setSyncBulkConcurrency(1);
+        config.setSyncBulkRetryInitialDelay(1);
+        ElasticSearchClient client = Mockito.mock(ElasticSearchClient.class);
+        BulkItemResponse rejected = new BulkItemResponse(0, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+            "index", "type", "0", new EsRejectedExecutionException("rejected")));
+        BulkItemResponse failed = new BulkItemResponse(1, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+            "index", "type", "1", new IllegalArgumentException("mapping")));
+        Mockito.when(client.synchronousBulk(Mockito.any(BulkRequest.class)))
+               .thenReturn(new BulkResponse(new BulkItemResponse[] {
+                   rejected,
+                   failed
+               }, 1))
+               .thenReturn(new BulkResponse(new BulkItemResponse[0], 1));
+
+        new BatchProcessEsDAO(client, config).synchronous(requests(2));
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        Mockito.verify(client, Mockito.times(2)).synchronousBulk(captor.capture());
+        Assert.assertEquals(2, captor.getAllValues().get(0).numberOfActions());
+        Assert.assertEquals(1, captor.getAllValues().get(1).numberOfActions());
+        Assert.assertEquals("0", captor.getAllValues().get(1).requests().get(0).id());
+    }
+
+    private static List<PrepareRequest> requests(int size) {
+        List<PrepareRequest> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ElasticSearchInsertRequest request = new ElasticSearchInsertRequest("index", "type", String.valueOf(i));
+            request.source("{\"value\":" + i + "}", XContentType.JSON);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.query.sql.Function;
+import org.apache.skywalking.oap.server.core.storage.annotation.Column;
+import org.apache.skywalking.oap.server.core.storage.annotation.ValueColumnMetadata;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.StorageModuleElasticsearchConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexControllerTestCase {
+    private final StorageEsInstaller installer = new StorageEsInstaller(
+        null, null, new StorageModuleElasticsearchConfig());
+
+    @After
+    public void tearDown() {
+        IndexController.INSTANCE.unshareAll();
+    }
+
+    @Test
+    public void testShareBySameColumns() {
+        Assert.assertTrue(installer.share(metrics("ic_service_cpm", "value", long.class, "total", long.class)));
+        // The same columns, the integers are widened to long.
+        Assert.assertFalse(installer.share(metrics("ic_endpoint_cpm", "value", int.class, "total", long.class)));
+        Assert.assertTrue(installer.share(metrics("ic_service_apdex", "value", int.class, "s_num", int.class)));
+        Assert.assertTrue(installer.share(metrics("ic_service_avg", "value", double.class, "count", long.class)));
+        Assert.assertTrue(installer.share(metrics("ic_service_percentile", "value", DataTable.class)));
+
+        String cpmTable = IndexController.INSTANCE.getTableName("ic_service_cpm");
+        Assert.assertTrue(cpmTable.startsWith("metrics_all_long_"));
+        Assert.assertEquals(cpmTable, IndexController.INSTANCE.getTableName("ic_endpoint_cpm"));
+        String apdexTable = IndexController.INSTANCE.getTableName("ic_service_apdex");
+        Assert.assertTrue(apdexTable.startsWith("metrics_all_long_"));
+        Assert.assertNotEquals(cpmTable, apdexTable);
+        Assert.assertTrue(IndexController.INSTANCE.getTableName("ic_service_avg").startsWith("metrics_all_double_"));
+        Assert.assertTrue(
+            IndexController.INSTANCE.getTableName("ic_service_percentile").startsWith("metrics_all_text_"));
+    }
+
+    @Test
+    public void testShareInAnyOrder() {
+        installer.share(metrics("ic_service_sla", "value", long.class, "total", long.class));
+        installer.share(metrics("ic_service_tag", "value", long.class, "total", String.class));
+        String slaTable = IndexController.INSTANCE.getTableName("ic_service_sla");
+        String tagTable = IndexController.INSTANCE.getTableName("ic_service_tag");
+        IndexController.INSTANCE.unshareAll();
+
+        // Another OAP node installs the models in the reversed order.
+        StorageEsInstaller another = new StorageEsInstaller(null, null, new StorageModuleElasticsearchConfig());
+        Assert.assertTrue(another.share(metrics("ic_service_tag", "value", long.class, "total", String.class)));
+        Assert.assertTrue(another.share(metrics("ic_service_sla", "value", long.class, "total", long.class)));
+        Assert.assertEquals(slaTable, IndexController.INSTANCE.getTableName("ic_service_sla"));
+        Assert.assertEquals(tagTable, IndexController.INSTANCE.getTableName("ic_service_tag"));
+        Assert.assertNotEquals(slaTable, tagTable);
+    }
+
+    @Test
+    public void testNotShared() {
+        Model record = new Model(
+            "ic_segment", columns("ic_segment", "latency", int.class), Collections.emptyList(), 0,
+            DownSampling.Second, true
+        );
+        Assert.assertFalse(installer.share(record));
+        Model traffic = new Model(
+            "ic_service_traffic", columns("ic_service_traffic", "name", String.class), Collections.emptyList(), 0,
+            DownSampling.Minute, false
+        );
+        Assert.assertFalse(installer.share(traffic));
+
+        Assert.assertFalse(IndexController.INSTANCE.isShared("ic_segment"));
+        Assert.assertFalse(IndexController.INSTANCE.isShared("ic_service_traffic"));
+        Assert.assertEquals("ic_service_traffic", IndexController.INSTANCE.getTableName("ic_service_traffic"));
+        Assert.assertEquals(
+            "202006011200_1", IndexController.INSTANCE.generateDocId("ic_service_traffic", "202006011200_1"));
+    }
+
+    @Test
+    public void testDocIdAndMetricTable() {
+        installer.share(metrics("ic_endpoint_cpm", "value", long.class));
+
+        String docId = IndexController.INSTANCE.generateDocId("ic_endpoint_cpm", "202006011200_1");
+        Assert.assertEquals("ic_endpoint_cpm_202006011200_1", docId);
+        Assert.assertEquals("202006011200_1", IndexController.INSTANCE.parseDocId("ic_endpoint_cpm", docId));
+
+        Map<String, Object> data = IndexController.INSTANCE.appendMetricTableColumn(
+            "ic_endpoint_cpm", new HashMap<>());
+        Assert.assertEquals("ic_endpoint_cpm", data.get(IndexController.METRIC_TABLE));
+    }
+
+    private static Model metrics(String name, Object... columns) {
+        ValueColumnMetadata.INSTANCE.putIfAbsent(
+            name, (String) columns[0], Column.ValueDataType.COMMON_VALUE, Function.Avg, 0);
+        List<ModelColumn> modelColumns = columns(name, columns);
+        modelColumns.addAll(columns(name, "time_bucket", long.class, "entity_id", String.class));
+        return new Model(name, modelColumns, Collections.emptyList(), 0, DownSampling.Minute, false);
+    }
+
+    private static List<ModelColumn> columns(String modelName, Object... columns) {
+        List<ModelColumn> modelColumns = new ArrayList<>();
+        for (int i = 0; i < columns.length; i += 2) {
+            modelColumns.add(new ModelColumn(
+                new ColumnName(modelName, (String) columns[i]), (Class<?>) columns[i + 1], false, false, false, 0));
+        }
+        return modelColumns;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.Arrays;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MetricsRoutingTestCase {
+
+    @After
+    public void tearDown() {
+        MetricsRouting.INSTANCE.setEntityRouting(false);
+    }
+
+    @Test
+    public void testTimeBucketOf() {
+        Assert.assertEquals(202006011230L, MetricsRouting.timeBucketOf("202006011230_c2VydmljZQ==.1"));
+        Assert.assertEquals(20200601L, MetricsRouting.timeBucketOf("20200601_c2VydmljZQ==.1"));
+        Assert.assertEquals(-1, MetricsRouting.timeBucketOf("c2VydmljZQ==.1"));
+        Assert.assertEquals(-1, MetricsRouting.timeBucketOf("_c2VydmljZQ==.1"));
+        Assert.assertEquals(-1, MetricsRouting.timeBucketOf("202006011230_"));
+    }
+
+    @Test
+    public void testRouting() {
+        Assert.assertNull(MetricsRouting.INSTANCE.routing("202006011230_c2VydmljZQ==.1"));
+        Assert.assertNull(MetricsRouting.INSTANCE.entityRouting("c2VydmljZQ==.1"));
+
+        MetricsRouting.INSTANCE.setEntityRouting(true);
+        Assert.assertEquals("c2VydmljZQ==.1", MetricsRouting.INSTANCE.routing("202006011230_c2VydmljZQ==.1"));
+        Assert.assertEquals("c2VydmljZQ==.1_1", MetricsRouting.INSTANCE.routing("2020060112_c2VydmljZQ==.1_1"));
+        Assert.assertEquals("c2VydmljZQ==.1", MetricsRouting.INSTANCE.entityRouting("c2VydmljZQ==.1"));
+        // The traffic isn't routed.
+        Assert.assertNull(MetricsRouting.INSTANCE.routing("c2VydmljZQ==.1"));
+    }
+
+    @Test
+    public void testIsRoutable() {
+        Assert.assertFalse(MetricsRouting.INSTANCE.isRoutable(Arrays.asList("202006011230_c2VydmljZQ==.1")));
+
+        MetricsRouting.INSTANCE.setEntityRouting(true);
+        Assert.assertTrue(MetricsRouting.INSTANCE.isRoutable(
+            Arrays.asList("202006011230_c2VydmljZQ==.1", "202006011231_c2VydmljZQ==.1")));
+        Assert.assertFalse(MetricsRouting.INSTANCE.isRoutable(
+            Arrays.asList("202006011230_c2VydmljZQ==.1", "c2VydmljZQ==.1")));
+    }
+
+    @Test
+    public void testIsIndexNotFound() {
+        Assert.assertTrue(MetricsRouting.isIndexNotFound(new IndexNotFoundException("service_cpm-20200601")));
+
+        // The failure parsed from the REST response keeps the resource type in the metadata.
+        ElasticsearchException parsed = new ElasticsearchException(
+            "Elasticsearch exception [type=index_not_found_exception, reason=no such index]");
+        parsed.addMetadata("es.resource.type", "index_or_alias");
+        Assert.assertTrue(MetricsRouting.isIndexNotFound(parsed));
+
+        Assert.assertFalse(MetricsRouting.isIndexNotFound(new ElasticsearchException("index_not_found_exception")));
+        Assert.assertFalse(MetricsRouting.isIndexNotFound(new IllegalStateException("index_not_found_exception")));
+    }
+
+    @Test
+    public void testMetricsIndexName() {
+        Assert.assertEquals("service_cpm-20200601", TimeSeriesUtils.metricsIndexName("service_cpm", 202006011230L));
+        Assert.assertEquals("service_cpm-20200601", TimeSeriesUtils.metricsIndexName("service_cpm", 2020060112L));
+        Assert.assertEquals("service_cpm-20200601", TimeSeriesUtils.metricsIndexName("service_cpm", 20200601L));
+    }
+}
@@ -33,4 +33,25 @@ public class TimeSeriesUtilsTest {
         Assert.assertEquals(20000123L, compressTimeBucket(20000123, 11));
         Assert.assertEquals(20000123L, compressTimeBucket(20000125, 11));
     }
+
+    @Test
+    public void testQueryRecordIndexNames() {
+        Assert.assertArrayEquals(
+            new String[] {"segment-20200601"},
+            TimeSeriesUtils.queryRecordIndexNames("segment", 20200601100000L, 20200601110000L)
+        );
+        Assert.assertArrayEquals(
+            new String[] {
+                "segment-20200531",
+                "segment-20200601"
+            },
+            TimeSeriesUtils.queryRecordIndexNames("segment", 20200531230000L, 20200601010000L)
+        );
+        Assert.assertArrayEquals(
+            new String[] {"segment"}, TimeSeriesUtils.queryRecordIndexNames("segment", 0, 0));
+        Assert.assertArrayEquals(
+            new String[] {"segment"},
+            TimeSeriesUtils.queryRecordIndexNames("segment", 20200101000000L, 20200601000000L)
+        );
+    }
 }
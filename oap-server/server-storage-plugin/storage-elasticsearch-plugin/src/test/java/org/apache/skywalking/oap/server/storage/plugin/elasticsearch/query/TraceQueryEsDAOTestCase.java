@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query;
+
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TraceQueryEsDAOTestCase {
+
+    @Test
+    public void traceIdTimestamp() {
+        Assert.assertEquals(
+            1591000000000L,
+            TraceQueryEsDAO.traceIdTimestamp("5f0c3e4a9b1d4c8e.54.15910000000000003")
+        );
+        Assert.assertEquals(0, TraceQueryEsDAO.traceIdTimestamp("5f0c3e4a-9b1d-4c8e-a6f1-2b7c9d1e0f3a"));
+        Assert.assertEquals(0, TraceQueryEsDAO.traceIdTimestamp("1.2.3"));
+        Assert.assertEquals(0, TraceQueryEsDAO.traceIdTimestamp("trace."));
+    }
+
+    @Test
+    public void traceIndexNames() {
+        long timestamp = TimeBucket.getTimestamp(20200601120000L);
+        Assert.assertArrayEquals(
+            new String[] {
+                "segment-20200601",
+                "segment-20200602",
+                "segment-20200603",
+                "segment-20200604"
+            },
+            TraceQueryEsDAO.traceIndexNames(timestamp, timestamp + 2 * 24 * 3600_000L)
+        );
+        // Too many indices since the trace started, the alias is used.
+        Assert.assertArrayEquals(
+            new String[] {SegmentRecord.INDEX_NAME},
+            TraceQueryEsDAO.traceIndexNames(timestamp, timestamp + 100 * 24 * 3600_000L)
+        );
+    }
+}
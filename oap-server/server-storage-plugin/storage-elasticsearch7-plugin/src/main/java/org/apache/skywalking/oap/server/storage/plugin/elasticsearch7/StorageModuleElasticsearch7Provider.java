@@ -34,6 +34,7 @@ import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.cache.INetworkAddressAliasDAO;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskLogQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileTaskQueryDAO;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
@@ -53,7 +54,9 @@ import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedExcepti
 import org.apache.skywalking.oap.server.library.util.MultipleFilesChangeMonitor;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.BatchProcessEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.HistoryDeleteEsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.MetricsRouting;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.cache.NetworkAddressAliasEsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.ProfileStackSummaryQueryEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.ProfileTaskLogEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.ProfileTaskQueryEsDAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.TopNRecordsQueryEsDAO;
@@ -68,6 +71,8 @@ import org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.query.Meta
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.query.MetricsQueryEs7DAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.query.ProfileThreadSnapshotQueryEs7DAO;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.query.TraceQueryEs7DAO;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.StorageModuleElasticsearchProvider.indexNameConverters;
 
@@ -78,6 +83,7 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
 
     protected final StorageModuleElasticsearch7Config config;
     protected ElasticSearch7Client elasticSearch7Client;
+    protected BatchProcessEsDAO batchProcessEsDAO;
 
     public StorageModuleElasticsearch7Provider() {
         super();
@@ -104,6 +110,7 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
         if (!StringUtil.isEmpty(config.getNameSpace())) {
             config.setNameSpace(config.getNameSpace().toLowerCase());
         }
+        MetricsRouting.INSTANCE.setEntityRouting(config.isMetricsEntityRouting());
         if (!StringUtil.isEmpty(config.getSecretsManagementFile())) {
             MultipleFilesChangeMonitor monitor = new MultipleFilesChangeMonitor(
                 10, readableContents -> {
@@ -139,10 +146,8 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
             indexNameConverters(config.getNameSpace())
         );
 
-        this.registerServiceImplementation(
-            IBatchDAO.class, new BatchProcessEsDAO(elasticSearch7Client, config.getBulkActions(),
-                                                   config.getFlushInterval(), config.getConcurrentRequests()
-            ));
+        batchProcessEsDAO = new BatchProcessEsDAO(elasticSearch7Client, config);
+        this.registerServiceImplementation(IBatchDAO.class, batchProcessEsDAO);
         this.registerServiceImplementation(StorageDAO.class, new StorageEs7DAO(elasticSearch7Client));
         this.registerServiceImplementation(
             IHistoryDeleteDAO.class, new HistoryDeleteEsDAO(elasticSearch7Client));
@@ -178,12 +183,23 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
                 elasticSearch7Client,
                 config.getProfileTaskQueryMaxSize()
             ));
+        this.registerServiceImplementation(
+            IProfileStackSummaryQueryDAO.class, new ProfileStackSummaryQueryEsDAO(
+                elasticSearch7Client,
+                config.getProfileTaskQueryMaxSize()
+            ));
     }
 
     @Override
     public void start() throws ModuleStartException {
         try {
             elasticSearch7Client.connect();
+            MetricsCreator metricsCreator = getManager().find(TelemetryModule.NAME)
+                                                        .provider()
+                                                        .getService(MetricsCreator.class);
+            batchProcessEsDAO.createMetrics(metricsCreator);
+            MetricsRouting.INSTANCE.createMetrics(metricsCreator);
+            Runtime.getRuntime().addShutdownHook(new Thread(batchProcessEsDAO::shutdown, "ESSyncBulkShutdown"));
 
             StorageEs7Installer installer = new StorageEs7Installer(elasticSearch7Client, getManager(), config);
             getManager().find(CoreModule.NAME).provider().getService(ModelCreator.class).addModelListener(installer);
@@ -198,6 +214,9 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
 
     @Override
     public String[] requiredModules() {
-        return new String[] {CoreModule.NAME};
+        return new String[] {
+            CoreModule.NAME,
+            TelemetryModule.NAME
+        };
     }
 }
@@ -18,15 +18,12 @@
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.base;
 
 import java.util.Map;
-import lombok.extern.slf4j.Slf4j;
-import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.StorageEsInstaller;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.StorageModuleElasticsearch7Config;
 
-@Slf4j
 public class StorageEs7Installer extends StorageEsInstaller {
     public StorageEs7Installer(final Client client,
                                final ModuleManager moduleManager,
@@ -35,13 +32,11 @@ public class StorageEs7Installer extends StorageEsInstaller {
     }
 
     @SuppressWarnings("unchecked")
-    protected Map<String, Object> createMapping(Model model) {
-        Map<String, Object> mapping = super.createMapping(model);
+    protected Map<String, Object> createMapping(Map<String, Object> properties) {
+        Map<String, Object> mapping = super.createMapping(properties);
         Map<String, Object> type = (Map<String, Object>) mapping.remove(ElasticSearchClient.TYPE);
         mapping.put("properties", type.get("properties"));
 
-        log.debug("elasticsearch index template setting: {}", mapping.toString());
-
         return mapping;
     }
 }
@@ -44,10 +44,13 @@ import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.get.GetRequest;
 import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.GetAliasesResponse;
@@ -57,6 +60,7 @@ import org.elasticsearch.client.indices.CreateIndexResponse;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.IndexTemplatesExistRequest;
 import org.elasticsearch.client.indices.PutIndexTemplateRequest;
+import org.elasticsearch.client.indices.PutMappingRequest;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
@@ -116,6 +120,14 @@ public class ElasticSearch7Client extends ElasticSearchClient {
         return response.isAcknowledged();
     }
 
+    public boolean updateIndexMapping(String indexName, Map<String, Object> mapping) throws IOException {
+        indexName = formatIndexName(indexName);
+        PutMappingRequest request = new PutMappingRequest(indexName).source(mapping);
+        AcknowledgedResponse response = client.indices().putMapping(request, RequestOptions.DEFAULT);
+        log.debug("update {} index mapping finished, isAcknowledged: {}", indexName, response.isAcknowledged());
+        return response.isAcknowledged();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -181,8 +193,21 @@ public class ElasticSearch7Client extends ElasticSearchClient {
     }
 
     public SearchResponse search(String indexName, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        return search(indexName, searchSourceBuilder, null);
+    }
+
+    public SearchResponse search(String indexName, SearchSourceBuilder searchSourceBuilder,
+                                 String routing) throws IOException {
         indexName = formatIndexName(indexName);
         SearchRequest searchRequest = new SearchRequest(indexName);
+        searchRequest.routing(routing);
+        searchRequest.source(searchSourceBuilder);
+        return client.search(searchRequest, RequestOptions.DEFAULT);
+    }
+
+    public SearchResponse search(String[] indexNames, SearchSourceBuilder searchSourceBuilder) throws IOException {
+        SearchRequest searchRequest = new SearchRequest(formatIndexNames(indexNames));
+        searchRequest.indicesOptions(IndicesOptions.lenientExpandOpen());
         searchRequest.source(searchSourceBuilder);
         return client.search(searchRequest, RequestOptions.DEFAULT);
     }
@@ -193,6 +218,14 @@ public class ElasticSearch7Client extends ElasticSearchClient {
         return client.get(request, RequestOptions.DEFAULT);
     }
 
+    public MultiGetResponse multiGet(String[] indexNames, String[] ids, String[] routings) throws IOException {
+        MultiGetRequest request = new MultiGetRequest();
+        for (int i = 0; i < ids.length; i++) {
+            request.add(new MultiGetRequest.Item(formatIndexName(indexNames[i]), ids[i]).routing(routings[i]));
+        }
+        return client.mget(request, RequestOptions.DEFAULT);
+    }
+
     public SearchResponse ids(String indexName, String[] ids) throws IOException {
         indexName = formatIndexName(indexName);
 
@@ -225,13 +258,25 @@ public class ElasticSearch7Client extends ElasticSearchClient {
     }
 
     public InsertRequest prepareInsert(String indexName, String id, XContentBuilder source) {
+        return prepareInsert(indexName, id, null, source);
+    }
+
+    public InsertRequest prepareInsert(String indexName, String id, String routing, XContentBuilder source) {
         indexName = formatIndexName(indexName);
-        return new ElasticSearch7InsertRequest(indexName, id).source(source);
+        ElasticSearch7InsertRequest request = new ElasticSearch7InsertRequest(indexName, id).source(source);
+        request.routing(routing);
+        return request;
     }
 
     public UpdateRequest prepareUpdate(String indexName, String id, XContentBuilder source) {
+        return prepareUpdate(indexName, id, null, source);
+    }
+
+    public UpdateRequest prepareUpdate(String indexName, String id, String routing, XContentBuilder source) {
         indexName = formatIndexName(indexName);
-        return new ElasticSearch7UpdateRequest(indexName, id).doc(source);
+        ElasticSearch7UpdateRequest request = new ElasticSearch7UpdateRequest(indexName, id).doc(source);
+        request.routing(routing);
+        return request;
     }
 
     public int delete(String indexName, String timeBucketColumnName, long endTimeBucket) throws IOException {
@@ -248,17 +293,14 @@ public class ElasticSearch7Client extends ElasticSearchClient {
         return HttpStatus.SC_OK;
     }
 
-    public void synchronousBulk(BulkRequest request) {
+    public BulkResponse synchronousBulk(BulkRequest request) throws IOException {
         request.timeout(TimeValue.timeValueMinutes(2));
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
         request.waitForActiveShards(ActiveShardCount.ONE);
-        try {
-            int size = request.requests().size();
-            BulkResponse responses = client.bulk(request, RequestOptions.DEFAULT);
-            log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
-        } catch (IOException e) {
-            log.error(e.getMessage(), e);
-        }
+        int size = request.requests().size();
+        BulkResponse responses = client.bulk(request, RequestOptions.DEFAULT);
+        log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
+        return responses;
     }
 
     public BulkProcessor createBulkProcessor(int bulkActions, int flushInterval, int concurrentRequests) {
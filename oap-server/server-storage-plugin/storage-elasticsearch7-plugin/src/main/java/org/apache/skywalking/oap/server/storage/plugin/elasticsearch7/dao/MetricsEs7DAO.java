@@ -20,30 +20,16 @@ package org.apache.skywalking.oap.server.storage.plugin.elasticsearch7.dao;
 
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
-import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.MetricsEsDAO;
-import org.elasticsearch.action.search.SearchResponse;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * The multi-get of {@link MetricsEsDAO} reads the search hits rather than the total hits, which are different in ES 7,
+ * so there is nothing to rewrite.
+ */
 public class MetricsEs7DAO extends MetricsEsDAO {
 
     MetricsEs7DAO(final ElasticSearchClient client, final StorageBuilder<Metrics> storageBuilder) {
         super(client, storageBuilder);
     }
-
-    @Override
-    public List<Metrics> multiGet(Model model, List<String> ids) throws IOException {
-        SearchResponse response = getClient().ids(model.getName(), ids.toArray(new String[0]));
-
-        List<Metrics> result = new ArrayList<>((int) response.getHits().getTotalHits().value);
-        for (int i = 0; i < response.getHits().getTotalHits().value; i++) {
-            Metrics source = storageBuilder.map2Data(response.getHits().getAt(i).getSourceAsMap());
-            result.add(source);
-        }
-        return result;
-    }
 }
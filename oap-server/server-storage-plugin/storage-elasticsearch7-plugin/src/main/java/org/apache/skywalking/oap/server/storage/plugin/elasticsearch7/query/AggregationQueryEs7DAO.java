@@ -28,6 +28,7 @@ import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
 import org.apache.skywalking.oap.server.core.query.type.KeyValue;
 import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.IndexController;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.query.AggregationQueryEsDAO;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.index.query.BoolQueryBuilder;
@@ -71,9 +72,9 @@ public class AggregationQueryEs7DAO extends AggregationQueryEsDAO {
                          .add(QueryBuilders.termsQuery(additionalCondition.getKey(), additionalCondition.getValue()));
             });
             boolQuery.must().add(queryBuilder);
-            sourceBuilder.query(boolQuery);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), boolQuery));
         } else {
-            sourceBuilder.query(queryBuilder);
+            sourceBuilder.query(IndexController.INSTANCE.filter(condition.getName(), queryBuilder));
         }
 
         sourceBuilder.aggregation(
@@ -84,7 +85,8 @@ public class AggregationQueryEs7DAO extends AggregationQueryEsDAO {
                                .subAggregation(AggregationBuilders.avg(valueColumnName).field(valueColumnName))
         );
 
-        SearchResponse response = getClient().search(condition.getName(), sourceBuilder);
+        SearchResponse response = getClient().search(
+            IndexController.INSTANCE.getTableName(condition.getName()), sourceBuilder);
 
         List<SelectedRecord> topNList = new ArrayList<>();
         Terms idTerms = response.getAggregations().get(Metrics.ENTITY_ID);
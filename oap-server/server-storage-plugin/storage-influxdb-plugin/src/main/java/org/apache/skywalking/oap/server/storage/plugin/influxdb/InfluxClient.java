@@ -27,10 +27,10 @@ import okhttp3.OkHttpClient;
 import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
 import org.apache.skywalking.oap.server.library.client.Client;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.base.InfluxInsertRequest;
 import org.influxdb.InfluxDB;
 import org.influxdb.InfluxDBFactory;
-import org.influxdb.dto.BatchPoints;
-import org.influxdb.dto.Point;
+import org.influxdb.dto.BoundParameterQuery;
 import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
 import org.influxdb.querybuilder.time.TimeInterval;
@@ -44,6 +44,7 @@ import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.ti;
 public class InfluxClient implements Client {
     private InfluxStorageConfig config;
     private InfluxDB influx;
+    private LineProtocolWriter writer;
 
     /**
      * A constant, the name of time field in Time-series database.
@@ -67,16 +68,16 @@ public class InfluxClient implements Client {
 
     @Override
     public void connect() {
+        OkHttpClient.Builder httpClient = new OkHttpClient.Builder().readTimeout(3, TimeUnit.MINUTES)
+                                                                    .writeTimeout(3, TimeUnit.MINUTES);
         influx = InfluxDBFactory.connect(config.getUrl(), config.getUser(), config.getPassword(),
-                                         new OkHttpClient.Builder().readTimeout(3, TimeUnit.MINUTES)
-                                                                   .writeTimeout(3, TimeUnit.MINUTES),
-                                         InfluxDB.ResponseFormat.MSGPACK
+                                         httpClient, InfluxDB.ResponseFormat.MSGPACK
         );
         influx.query(new Query("CREATE DATABASE " + database));
         influx.enableGzip();
-
-        influx.enableBatch(config.getActions(), config.getDuration(), TimeUnit.MILLISECONDS);
         influx.setDatabase(database);
+
+        writer = new LineProtocolWriter(config, httpClient.build());
     }
 
     /**
@@ -100,7 +101,9 @@ public class InfluxClient implements Client {
         }
 
         try {
-            QueryResult result = getInflux().query(new Query(query.getCommand()));
+            // The params of the bound query are kept, the others are built into the statement only.
+            QueryResult result = getInflux().query(
+                query instanceof BoundParameterQuery ? query : new Query(query.getCommand()));
             if (result.hasError()) {
                 throw new IOException(result.getError());
             }
@@ -173,22 +176,33 @@ public class InfluxClient implements Client {
     }
 
     /**
-     * Write a {@link Point} into InfluxDB. Note that, the {@link Point} is written into buffer of InfluxDB Client and
+     * @return the statement with the $name placeholders, in the database of the client.
+     */
+    public PreparedQuery prepare(String command) {
+        return new PreparedQuery(database, command);
+    }
+
+    /**
+     * Write a point into InfluxDB. Note that, the point is written into buffer of the {@link LineProtocolWriter} and
      * wait for buffer flushing.
      */
-    public void write(Point point) {
-        getInflux().write(point);
+    public void write(InfluxInsertRequest request) {
+        writer.write(request);
     }
 
     /**
-     * A batch operation of write. {@link Point}s flush directly.
+     * A batch operation of write. The points are written directly, and the method returns once all of them are
+     * written.
      */
-    public void write(BatchPoints points) {
-        getInflux().write(points);
+    public void write(List<InfluxInsertRequest> requests) {
+        writer.writeAndWait(requests);
     }
 
     @Override
     public void shutdown() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
         influx.close();
     }
 
@@ -198,4 +212,12 @@ public class InfluxClient implements Client {
     public static TimeInterval timeInterval(long timeBucket) {
         return ti(TimeBucket.getTimestamp(timeBucket), "ms");
     }
+
+    /**
+     * @return the timestamp of the time bucket in nanoseconds, the value of the time bound into a {@link
+     * PreparedQuery}.
+     */
+    public static long timestampInNanos(long timeBucket) {
+        return TimeUnit.MILLISECONDS.toNanos(TimeBucket.getTimestamp(timeBucket));
+    }
 }
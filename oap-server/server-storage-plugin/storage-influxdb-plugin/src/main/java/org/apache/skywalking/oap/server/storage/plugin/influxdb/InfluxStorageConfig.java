@@ -32,6 +32,19 @@ public class InfluxStorageConfig extends ModuleConfig {
 
     private int actions;
     private int duration;
+    /**
+     * The number of the writers, writing the batches of the line protocol in parallel.
+     */
+    private int writeConcurrency = 2;
+    /**
+     * The max number of the retries of the batches failed by the server errors(5xx, 429) or the communication errors,
+     * with exponential backoff.
+     */
+    private int writeMaxRetries = 3;
+    /**
+     * The delay before the first retry of the failed batches, in milliseconds.
+     */
+    private long writeRetryInitialDelay = 100;
 
     private int fetchTaskLogMaxSize = 5000;
 }
@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.influxdb;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.base.InfluxInsertRequest;
+
+/**
+ * LineProtocolWriter writes the points through the HTTP write API of InfluxDB. The {@link InfluxInsertRequest}s are
+ * appended to the reusable buffer of the writer thread in the line protocol, and gzipped, then the batches are written
+ * by several writers in parallel, rather than one batching thread of the InfluxDB client.
+ * <p>
+ * The batches failed by the server errors(5xx, 429) or the communication errors are retried with exponential backoff,
+ * the others, such as the field type conflicts(400), are logged only.
+ */
+@Slf4j
+public class LineProtocolWriter {
+    private static final MediaType LINE_PROTOCOL = MediaType.parse("text/plain; charset=utf-8");
+
+    private final OkHttpClient httpClient;
+    private final HttpUrl writeUrl;
+    private final String credentials;
+    private final int actions;
+    private final int maxRetries;
+    private final long retryInitialDelay;
+    private final ThreadPoolExecutor writers;
+    private final ScheduledExecutorService flusher;
+    private final ThreadLocal<WriteBuffer> buffers = ThreadLocal.withInitial(WriteBuffer::new);
+
+    private List<InfluxInsertRequest> pending;
+
+    public LineProtocolWriter(InfluxStorageConfig config, OkHttpClient httpClient) {
+        this.httpClient = httpClient;
+        this.writeUrl = HttpUrl.parse(config.getUrl())
+                               .newBuilder()
+                               .addPathSegment("write")
+                               .addQueryParameter("db", config.getDatabase())
+                               .build();
+        this.credentials = StringUtil.isEmpty(config.getUser()) ? null : Credentials.basic(
+            config.getUser(), config.getPassword() == null ? "" : config.getPassword());
+        this.actions = Math.max(config.getActions(), 1);
+        this.maxRetries = config.getWriteMaxRetries();
+        this.retryInitialDelay = config.getWriteRetryInitialDelay();
+        this.pending = new ArrayList<>(actions);
+
+        int concurrency = Math.max(config.getWriteConcurrency(), 1);
+        // The batches are written by the caller once all the writers are busy, as the back pressure.
+        this.writers = new ThreadPoolExecutor(
+            concurrency, concurrency, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(concurrency * 2),
+            new WriterThreadFactory("InfluxDB-Writer-"), (runnable, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("The InfluxDB writers are closed.");
+                }
+                runnable.run();
+            }
+        );
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new WriterThreadFactory("InfluxDB-Flusher-"));
+        long duration = Math.max(config.getDuration(), 1);
+        flusher.scheduleWithFixedDelay(this::flush, duration, duration, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write the point asynchronously. It is written in the batch of {@code actions} points, or in {@code duration}
+     * milliseconds at most.
+     */
+    public void write(InfluxInsertRequest request) {
+        List<InfluxInsertRequest> batch = null;
+        synchronized (this) {
+            pending.add(request);
+            if (pending.size() >= actions) {
+                batch = pending;
+                pending = new ArrayList<>(actions);
+            }
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+    }
+
+    /**
+     * Write the points in the batches of {@code actions} points in parallel, and wait for all of them.
+     */
+    public void writeAndWait(List<InfluxInsertRequest> requests) {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += actions) {
+            List<InfluxInsertRequest> batch = requests.subList(from, Math.min(from + actions, requests.size()));
+            try {
+                futures.add(writers.submit(() -> execute(batch)));
+            } catch (RejectedExecutionException e) {
+                log.error("{} points are dropped, as the InfluxDB writers are closed.", batch.size());
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted in waiting for the InfluxDB writes.", e);
+                return;
+            } catch (ExecutionException e) {
+                log.error(e.getMessage(), e.getCause());
+            }
+        }
+    }
+
+    void flush() {
+        List<InfluxInsertRequest> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>(actions);
+        }
+        submit(batch);
+    }
+
+    private void submit(List<InfluxInsertRequest> batch) {
+        try {
+            writers.execute(() -> execute(batch));
+        } catch (RejectedExecutionException e) {
+            log.error("{} points are dropped, as the InfluxDB writers are closed.", batch.size());
+        }
+    }
+
+    void execute(List<InfluxInsertRequest> batch) {
+        WriteBuffer buffer = buffers.get();
+        try {
+            buffer.encode(batch);
+        } catch (IOException e) {
+            log.error(e.getMessage(), e);
+            return;
+        }
+
+        long delay = retryInitialDelay;
+        for (int retry = 0; ; retry++) {
+            String error;
+            try (Response response = httpClient.newCall(buffer.request(writeUrl, credentials)).execute()) {
+                if (response.isSuccessful()) {
+                    return;
+                }
+                error = response.code() + " " + response.body().string();
+                if (response.code() < 500 && response.code() != 429) {
+                    log.error("Failed to write {} points into InfluxDB, {}", batch.size(), error);
+                    return;
+                }
+            } catch (IOException e) {
+                error = e.getMessage();
+            }
+
+            if (retry >= maxRetries) {
+                log.error("{} points still failed to be written into InfluxDB after {} retries, {}",
+                          batch.size(), maxRetries, error
+                );
+                return;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay *= 2;
+        }
+    }
+
+    /**
+     * Write the pending points, and stop the writers.
+     */
+    public void close() {
+        flusher.shutdown();
+        flush();
+        writers.shutdown();
+        try {
+            writers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The buffers of one writer thread, reused by all its batches. Their capacity grows to the size of the largest
+     * batch.
+     */
+    private static class WriteBuffer {
+        private final StringBuilder lines = new StringBuilder();
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                                                                     .onMalformedInput(CodingErrorAction.REPLACE)
+                                                                     .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private ByteBuffer encoded = ByteBuffer.allocate(0);
+        private final Bytes compressed = new Bytes();
+
+        void encode(List<InfluxInsertRequest> batch) throws IOException {
+            lines.setLength(0);
+            for (InfluxInsertRequest request : batch) {
+                request.appendTo(lines);
+                lines.append('\n');
+            }
+
+            int maxBytes = (int) (lines.length() * encoder.maxBytesPerChar());
+            if (encoded.capacity() < maxBytes) {
+                encoded = ByteBuffer.allocate(maxBytes);
+            }
+            encoded.clear();
+            encoder.reset();
+            encoder.encode(CharBuffer.wrap(lines), encoded, true);
+            encoder.flush(encoded);
+
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(encoded.array(), 0, encoded.position());
+            }
+        }
+
+        Request request(HttpUrl writeUrl, String credentials) {
+            Request.Builder builder = new Request.Builder().url(writeUrl)
+                                                           .header("Content-Encoding", "gzip")
+                                                           .post(RequestBody.create(
+                                                               LINE_PROTOCOL, compressed.array(), 0,
+                                                               compressed.size()
+                                                           ));
+            if (credentials != null) {
+                builder.header("Authorization", credentials);
+            }
+            return builder.build();
+        }
+    }
+
+    /**
+     * Expose the buffer, rather than copying it for every request body.
+     */
+    private static class Bytes extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+
+    private static class WriterThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String prefix;
+
+        WriterThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.influxdb;
+
+import lombok.Getter;
+import org.influxdb.dto.BoundParameterQuery;
+
+/**
+ * PreparedQuery is an InfluxQL statement with the $name placeholders, built once and reused by the queries of the same
+ * shape. The values are bound by every query, and sent as the params of the query API rather than written into the
+ * statement, so they are never escaped or parsed as a part of the statement.
+ */
+public class PreparedQuery {
+    private final String database;
+    @Getter
+    private final String command;
+
+    public PreparedQuery(String database, String command) {
+        this.database = database;
+        this.command = command;
+    }
+
+    /**
+     * @return the builder to bind the values of the placeholders, and create the query.
+     */
+    public BoundParameterQuery.QueryBuilder newQuery() {
+        return BoundParameterQuery.QueryBuilder.newQuery(command).forDatabase(database);
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.influxdb.base;
 
+import java.util.ArrayList;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
@@ -25,7 +26,6 @@ import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxClient;
-import org.influxdb.dto.BatchPoints;
 
 @Slf4j
 public class BatchDAO implements IBatchDAO {
@@ -37,7 +37,7 @@ public class BatchDAO implements IBatchDAO {
 
     @Override
     public void asynchronous(InsertRequest insertRequest) {
-        client.write(((InfluxInsertRequest) insertRequest).getPoint());
+        client.write((InfluxInsertRequest) insertRequest);
     }
 
     @Override
@@ -50,11 +50,11 @@ public class BatchDAO implements IBatchDAO {
             log.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
-        final BatchPoints.Builder builder = BatchPoints.builder();
+        final List<InfluxInsertRequest> requests = new ArrayList<>(prepareRequests.size());
         prepareRequests.forEach(e -> {
-            builder.point(((InfluxInsertRequest) e).getPoint());
+            requests.add((InfluxInsertRequest) e);
         });
 
-        client.write(builder.build());
+        client.write(requests);
     }
 }
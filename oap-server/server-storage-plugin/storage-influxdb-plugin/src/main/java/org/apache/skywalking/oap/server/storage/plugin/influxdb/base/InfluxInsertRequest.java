@@ -18,8 +18,9 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.influxdb.base;
 
-import com.google.common.collect.Maps;
+import java.math.BigDecimal;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
@@ -29,14 +30,18 @@ import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObje
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxConstants;
-import org.influxdb.dto.Point;
 
 /**
- * InfluxDB Point wrapper.
+ * InfluxDB point in the line protocol. The data of the {@link StorageBuilder} is appended to the line directly, rather
+ * than built into a {@link org.influxdb.dto.Point} and formatted again.
  */
 public class InfluxInsertRequest implements InsertRequest, UpdateRequest {
-    private Point.Builder builder;
-    private Map<String, Object> fields = Maps.newHashMap();
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final String measurement;
+    private final Map<String, Object> fields = new TreeMap<>();
+    private final Map<String, String> tags = new TreeMap<>();
+    private long time = NO_TIME;
 
     public InfluxInsertRequest(Model model, StorageData storageData, StorageBuilder storageBuilder) {
         Map<String, Object> objectMap = storageBuilder.data2Map(storageData);
@@ -53,22 +58,87 @@ public class InfluxInsertRequest implements InsertRequest, UpdateRequest {
                 fields.put(column.getColumnName().getStorageName(), value);
             }
         }
-        builder = Point.measurement(model.getName())
-                       .addField(InfluxConstants.ID_COLUMN, storageData.id())
-                       .fields(fields);
+        fields.put(InfluxConstants.ID_COLUMN, storageData.id());
+        measurement = model.getName();
     }
 
     public InfluxInsertRequest time(long time, TimeUnit unit) {
-        builder.time(time, unit);
+        this.time = unit.toNanos(time);
         return this;
     }
 
     public InfluxInsertRequest addFieldAsTag(String fieldName, String tagName) {
-        builder.tag(tagName, String.valueOf(fields.get(fieldName)));
+        String value = String.valueOf(fields.get(fieldName));
+        // The empty tag value isn't allowed by the line protocol.
+        if (!value.isEmpty()) {
+            tags.put(tagName, value);
+        }
         return this;
     }
 
-    public Point getPoint() {
-        return builder.build();
+    /**
+     * Append the point to the line protocol, like measurement,tag=value field=value,field="value" timestamp, without
+     * the line feed. The tags and fields are sorted by the key, as InfluxDB prefers, and the timestamp is in
+     * nanoseconds.
+     */
+    public void appendTo(StringBuilder line) {
+        escape(line, measurement, ", ");
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            line.append(',');
+            escape(line, tag.getKey(), ",= ");
+            line.append('=');
+            escape(line, tag.getValue(), ",= ");
+        }
+
+        char separator = ' ';
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Object value = field.getValue();
+            if (value == null || isNotFinite(value)) {
+                continue;
+            }
+            line.append(separator);
+            separator = ',';
+            escape(line, field.getKey(), ",= ");
+            line.append('=');
+            appendFieldValue(line, value);
+        }
+
+        if (time != NO_TIME) {
+            line.append(' ').append(time);
+        }
+    }
+
+    private static void appendFieldValue(StringBuilder line, Object value) {
+        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            String decimal = value.toString();
+            // Keep the plain notation, rather than 1.0E10.
+            if (decimal.indexOf('E') >= 0) {
+                decimal = new BigDecimal(decimal).toPlainString();
+            }
+            line.append(decimal);
+        } else if (value instanceof Number) {
+            line.append(((Number) value).longValue()).append('i');
+        } else if (value instanceof Boolean) {
+            line.append(((Boolean) value).booleanValue());
+        } else {
+            line.append('"');
+            escape(line, value.toString(), "\\\"");
+            line.append('"');
+        }
+    }
+
+    private static boolean isNotFinite(Object value) {
+        return value instanceof Double && !Double.isFinite((Double) value)
+            || value instanceof Float && !Float.isFinite((Float) value);
+    }
+
+    private static void escape(StringBuilder line, String value, String specials) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (specials.indexOf(c) >= 0) {
+                line.append('\\');
+            }
+            line.append(c);
+        }
     }
-}
\ No newline at end of file
+}
@@ -51,6 +51,6 @@ public class NoneStreamDAO implements INoneStreamDAO {
         TableMetaInfo.get(model.getName()).getStorageAndTagMap().forEach((field, tag) -> {
             request.addFieldAsTag(field, tag);
         });
-        client.write(request.getPoint());
+        client.write(request);
     }
 }
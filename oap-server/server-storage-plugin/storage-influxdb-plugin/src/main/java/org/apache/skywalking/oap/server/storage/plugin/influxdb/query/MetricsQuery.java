@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.query.PointOfTime;
@@ -39,21 +40,25 @@ import org.apache.skywalking.oap.server.core.storage.query.IMetricsQueryDAO;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxClient;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxConstants;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.PreparedQuery;
+import org.influxdb.dto.BoundParameterQuery;
 import org.influxdb.dto.QueryResult;
 import org.influxdb.querybuilder.SelectQueryImpl;
-import org.influxdb.querybuilder.SelectionQueryImpl;
 import org.influxdb.querybuilder.WhereQueryImpl;
 
 import static org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxConstants.ID_COLUMN;
 import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.contains;
 import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.eq;
-import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.gte;
-import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.lte;
 import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.select;
 
 @Slf4j
 public class MetricsQuery implements IMetricsQueryDAO {
     private final InfluxClient client;
+    /**
+     * The statements of {@link #readMetricsValue(MetricsCondition, String, Duration)}, by the measurement, the value
+     * column, the function, and whether the entity is in the condition.
+     */
+    private final Map<String, PreparedQuery> valueQueries = new ConcurrentHashMap<>();
 
     public MetricsQuery(InfluxClient client) {
         this.client = client;
@@ -64,31 +69,21 @@ public class MetricsQuery implements IMetricsQueryDAO {
                                 final String valueColumnName,
                                 final Duration duration) throws IOException {
         final Function function = ValueColumnMetadata.INSTANCE.getValueFunction(condition.getName());
-        final String measurement = condition.getName();
-
-        SelectionQueryImpl query = select();
-        switch (function) {
-            case Avg:
-                query.mean(valueColumnName);
-                break;
-            default:
-                query.sum(valueColumnName);
-        }
-        WhereQueryImpl<SelectQueryImpl> queryWhereQuery = query.from(client.getDatabase(), measurement).where();
-
         final String entityId = condition.getEntity().buildId();
+        final PreparedQuery preparedQuery = valueQuery(
+            condition.getName(), valueColumnName, function, entityId != null);
+
+        BoundParameterQuery.QueryBuilder builder = preparedQuery
+            .newQuery()
+            .bind("start", InfluxClient.timestampInNanos(duration.getStartTimeBucket()))
+            .bind("end", InfluxClient.timestampInNanos(duration.getEndTimeBucket()));
         if (entityId != null) {
-            queryWhereQuery.and(eq(InfluxConstants.TagName.ENTITY_ID, entityId));
+            builder.bind("entity_id", entityId);
         }
 
-        queryWhereQuery
-            .and(gte(InfluxClient.TIME, InfluxClient.timeInterval(duration.getStartTimeBucket())))
-            .and(lte(InfluxClient.TIME, InfluxClient.timeInterval(duration.getEndTimeBucket())))
-            .groupBy(InfluxConstants.TagName.ENTITY_ID);
-
-        List<QueryResult.Series> seriesList = client.queryForSeries(queryWhereQuery);
+        List<QueryResult.Series> seriesList = client.queryForSeries(builder.create());
         if (log.isDebugEnabled()) {
-            log.debug("SQL: {} result set: {}", queryWhereQuery.getCommand(), seriesList);
+            log.debug("SQL: {} entity: {} result set: {}", preparedQuery.getCommand(), entityId, seriesList);
         }
         if (CollectionUtils.isNotEmpty(seriesList)) {
             for (QueryResult.Series series : seriesList) {
@@ -100,6 +95,22 @@ public class MetricsQuery implements IMetricsQueryDAO {
         return ValueColumnMetadata.INSTANCE.getDefaultValue(condition.getName());
     }
 
+    private PreparedQuery valueQuery(String measurement, String valueColumnName, Function function, boolean entity) {
+        final String key = measurement + "/" + valueColumnName + "/" + function + "/" + entity;
+        return valueQueries.computeIfAbsent(key, k -> {
+            StringBuilder statement = new StringBuilder("SELECT ")
+                .append(function == Function.Avg ? "mean" : "sum")
+                .append("(\"").append(valueColumnName).append("\") FROM \"").append(measurement).append("\" WHERE ");
+            if (entity) {
+                statement.append('"').append(InfluxConstants.TagName.ENTITY_ID).append("\" = $entity_id AND ");
+            }
+            statement.append(InfluxClient.TIME).append(" >= $start AND ")
+                     .append(InfluxClient.TIME).append(" <= $end GROUP BY \"")
+                     .append(InfluxConstants.TagName.ENTITY_ID).append('"');
+            return client.prepare(statement.toString());
+        });
+    }
+
     @Override
     public MetricsValues readMetricsValues(final MetricsCondition condition,
                                            final String valueColumnName,
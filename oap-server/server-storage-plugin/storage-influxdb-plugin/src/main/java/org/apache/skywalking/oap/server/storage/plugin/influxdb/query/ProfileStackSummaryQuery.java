@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.influxdb.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxClient;
+import org.influxdb.dto.QueryResult;
+import org.influxdb.querybuilder.WhereQueryImpl;
+
+import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.eq;
+import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.gte;
+import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.lte;
+import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.select;
+
+@Slf4j
+public class ProfileStackSummaryQuery implements IProfileStackSummaryQueryDAO {
+    private final InfluxClient client;
+
+    public ProfileStackSummaryQuery(InfluxClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public List<ProfileStackSummaryRecord> querySummaries(String segmentId, long start, long end) throws IOException {
+        WhereQueryImpl query = select(
+            ProfileStackSummaryRecord.TASK_ID,
+            ProfileStackSummaryRecord.SEGMENT_ID,
+            ProfileStackSummaryRecord.SLICE_START,
+            ProfileStackSummaryRecord.SLICE_END,
+            ProfileStackSummaryRecord.MIN_SEQUENCE,
+            ProfileStackSummaryRecord.MAX_SEQUENCE,
+            ProfileStackSummaryRecord.SNAPSHOT_COUNT,
+            ProfileStackSummaryRecord.SUMMARY_BINARY,
+            ProfileStackSummaryRecord.NODE_ID
+        )
+            .from(client.getDatabase(), ProfileStackSummaryRecord.INDEX_NAME)
+            .where(eq(ProfileStackSummaryRecord.SEGMENT_ID, segmentId))
+            .and(gte(ProfileStackSummaryRecord.SLICE_START, start))
+            .and(lte(ProfileStackSummaryRecord.SLICE_END, end + 1));
+
+        QueryResult.Series series = client.queryForSingleSeries(query);
+        if (log.isDebugEnabled()) {
+            log.debug("SQL: {} result: {}", query.getCommand(), series);
+        }
+        if (Objects.isNull(series)) {
+            return Collections.emptyList();
+        }
+        List<ProfileStackSummaryRecord> result = new ArrayList<>(series.getValues().size());
+        series.getValues().forEach(values -> {
+            String dataBinaryBase64 = (String) values.get(8);
+            if (StringUtil.isEmpty(dataBinaryBase64)) {
+                // A summary without its stacks can't be merged, the snapshots of this slice are analyzed instead.
+                return;
+            }
+            ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+
+            record.setTaskId((String) values.get(1));
+            record.setSegmentId((String) values.get(2));
+            record.setNodeId((String) values.get(9));
+            record.setSliceStart(((Number) values.get(3)).longValue());
+            record.setSliceEnd(((Number) values.get(4)).longValue());
+            record.setMinSequence(((Number) values.get(5)).intValue());
+            record.setMaxSequence(((Number) values.get(6)).intValue());
+            record.setSnapshotCount(((Number) values.get(7)).intValue());
+            record.setSummaryBinary(Base64.getDecoder().decode(dataBinaryBase64));
+
+            result.add(record);
+        });
+        result.sort(Comparator.comparingLong(ProfileStackSummaryRecord::getSliceStart));
+
+        return result;
+    }
+}
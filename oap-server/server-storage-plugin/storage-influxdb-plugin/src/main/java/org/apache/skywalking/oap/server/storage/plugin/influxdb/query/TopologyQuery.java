@@ -22,6 +22,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.manual.relation.endpoint.EndpointRelationServerSideMetrics;
 import org.apache.skywalking.oap.server.core.analysis.manual.relation.instance.ServiceInstanceRelationClientSideMetrics;
@@ -33,6 +35,7 @@ import org.apache.skywalking.oap.server.core.source.DetectPoint;
 import org.apache.skywalking.oap.server.core.storage.query.ITopologyQueryDAO;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxClient;
 import org.apache.skywalking.oap.server.storage.plugin.influxdb.InfluxConstants;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.PreparedQuery;
 import org.influxdb.dto.Query;
 import org.influxdb.dto.QueryResult;
 import org.influxdb.querybuilder.SelectQueryImpl;
@@ -48,6 +51,10 @@ import static org.influxdb.querybuilder.BuiltQuery.QueryBuilder.select;
 @Slf4j
 public class TopologyQuery implements ITopologyQueryDAO {
     private final InfluxClient client;
+    /**
+     * The statements of the instance relations, by the measurement.
+     */
+    private final Map<String, PreparedQuery> instanceCallsQueries = new ConcurrentHashMap<>();
 
     public TopologyQuery(InfluxClient client) {
         this.client = client;
@@ -122,7 +129,7 @@ public class TopologyQuery implements ITopologyQueryDAO {
                                                                           long startTB,
                                                                           long endTB) throws IOException {
         String measurement = ServiceInstanceRelationServerSideMetrics.INDEX_NAME;
-        WhereSubQueryImpl<SelectSubQueryImpl<SelectQueryImpl>, SelectQueryImpl> subQuery = buildServiceInstanceCallsQuery(
+        Query query = buildServiceInstanceCallsQuery(
             measurement,
             startTB,
             endTB,
@@ -130,7 +137,7 @@ public class TopologyQuery implements ITopologyQueryDAO {
             ServiceInstanceRelationServerSideMetrics.DEST_SERVICE_ID,
             clientServiceId, serverServiceId
         );
-        return buildInstanceCalls(buildQuery(subQuery), DetectPoint.SERVER);
+        return buildInstanceCalls(query, DetectPoint.SERVER);
     }
 
     @Override
@@ -139,7 +146,7 @@ public class TopologyQuery implements ITopologyQueryDAO {
                                                                           long startTB,
                                                                           long endTB) throws IOException {
         String measurement = ServiceInstanceRelationClientSideMetrics.INDEX_NAME;
-        WhereSubQueryImpl<SelectSubQueryImpl<SelectQueryImpl>, SelectQueryImpl> subQuery = buildServiceInstanceCallsQuery(
+        Query query = buildServiceInstanceCallsQuery(
             measurement,
             startTB,
             endTB,
@@ -147,7 +154,7 @@ public class TopologyQuery implements ITopologyQueryDAO {
             ServiceInstanceRelationClientSideMetrics.DEST_SERVICE_ID,
             clientServiceId, serverServiceId
         );
-        return buildInstanceCalls(buildQuery(subQuery), DetectPoint.CLIENT);
+        return buildInstanceCalls(query, DetectPoint.CLIENT);
     }
 
     @Override
@@ -208,7 +215,7 @@ public class TopologyQuery implements ITopologyQueryDAO {
         return subQuery;
     }
 
-    private WhereSubQueryImpl<SelectSubQueryImpl<SelectQueryImpl>, SelectQueryImpl> buildServiceInstanceCallsQuery(
+    private Query buildServiceInstanceCallsQuery(
         String measurement,
         long startTB,
         long endTB,
@@ -217,27 +224,26 @@ public class TopologyQuery implements ITopologyQueryDAO {
         String sourceServiceId,
         String destServiceId) {
 
-        WhereSubQueryImpl<SelectSubQueryImpl<SelectQueryImpl>, SelectQueryImpl> subQuery = select()
-            .fromSubQuery(client.getDatabase())
-            .function("distinct", ServiceInstanceRelationServerSideMetrics.COMPONENT_ID)
-            .as(ServiceInstanceRelationClientSideMetrics.COMPONENT_ID)
-            .from(measurement)
-            .where()
-            .and(gte(InfluxClient.TIME, InfluxClient.timeInterval(startTB)))
-            .and(lte(InfluxClient.TIME, InfluxClient.timeInterval(endTB)));
-
-        StringBuilder builder = new StringBuilder("((");
-        builder.append(sourceCName).append("='").append(sourceServiceId)
-               .append("' and ")
-               .append(destCName).append("='").append(destServiceId)
-               .append("') or (")
-               .append(sourceCName).append("='").append(destServiceId)
-               .append("') and (")
-               .append(destCName).append("='").append(sourceServiceId)
-               .append("'))");
-        subQuery.where(builder.toString());
-        subQuery.groupBy(InfluxConstants.TagName.ENTITY_ID);
-        return subQuery;
+        PreparedQuery preparedQuery = instanceCallsQueries.computeIfAbsent(measurement, k -> {
+            final String componentId = "\"" + ServiceInstanceRelationServerSideMetrics.COMPONENT_ID + "\"";
+            final String entityId = "\"" + InfluxConstants.TagName.ENTITY_ID + "\"";
+            StringBuilder builder = new StringBuilder("SELECT ");
+            builder.append(entityId).append(',').append(componentId)
+                   .append(" FROM (SELECT distinct(").append(componentId).append(") AS ").append(componentId)
+                   .append(" FROM \"").append(measurement).append("\" WHERE ")
+                   .append(InfluxClient.TIME).append(" >= $start AND ")
+                   .append(InfluxClient.TIME).append(" <= $end AND ((")
+                   .append(sourceCName).append(" = $source AND ").append(destCName).append(" = $dest) OR (")
+                   .append(sourceCName).append(" = $dest AND ").append(destCName).append(" = $source))")
+                   .append(" GROUP BY ").append(entityId).append(')');
+            return client.prepare(builder.toString());
+        });
+        return preparedQuery.newQuery()
+                            .bind("start", InfluxClient.timestampInNanos(startTB))
+                            .bind("end", InfluxClient.timestampInNanos(endTB))
+                            .bind("source", sourceServiceId)
+                            .bind("dest", destServiceId)
+                            .create();
     }
 
     private List<Call.CallDetail> buildServiceCalls(Query query,
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.influxdb;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import okhttp3.OkHttpClient;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.storage.plugin.influxdb.base.InfluxInsertRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Write against a stub of the HTTP write API of InfluxDB.
+ */
+public class LineProtocolWriterTestCase {
+    private final Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<String> bodies = new LinkedBlockingQueue<>();
+    private final Queue<String> headers = new ConcurrentLinkedQueue<>();
+    private HttpServer server;
+    private LineProtocolWriter writer;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/write", exchange -> {
+            headers.add(exchange.getRequestURI().getQuery() + " "
+                            + exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            bodies.add(gunzip(exchange.getRequestBody()));
+            Integer status = statuses.poll();
+            exchange.sendResponseHeaders(status == null ? 204 : status, -1);
+            exchange.close();
+        });
+        server.start();
+
+        InfluxStorageConfig config = new InfluxStorageConfig();
+        config.setUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        config.setDatabase("skywalking");
+        config.setActions(2);
+        config.setDuration(60_000);
+        config.setWriteMaxRetries(2);
+        config.setWriteRetryInitialDelay(1);
+        writer = new LineProtocolWriter(config, new OkHttpClient());
+    }
+
+    @After
+    public void tearDown() {
+        writer.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testWriteAndWait() {
+        writer.writeAndWait(Arrays.asList(request("1"), request("2"), request("3")));
+
+        List<String> lines = new ArrayList<>();
+        bodies.forEach(body -> lines.addAll(Arrays.asList(body.split("\n"))));
+        Collections.sort(lines);
+        Assert.assertEquals(2, bodies.size());
+        Assert.assertEquals(Arrays.asList("db=skywalking gzip", "db=skywalking gzip"), new ArrayList<>(headers));
+        Assert.assertEquals(Arrays.asList("service_cpm id=\"1\" 1000000", "service_cpm id=\"2\" 1000000",
+                                          "service_cpm id=\"3\" 1000000"), lines);
+    }
+
+    @Test
+    public void testWriteInBatch() throws InterruptedException {
+        writer.write(request("1"));
+        Assert.assertNull(bodies.poll(100, TimeUnit.MILLISECONDS));
+        writer.write(request("2"));
+        Assert.assertEquals("service_cpm id=\"1\" 1000000\nservice_cpm id=\"2\" 1000000\n",
+                            bodies.poll(10, TimeUnit.SECONDS));
+
+        writer.write(request("3"));
+        writer.flush();
+        Assert.assertEquals("service_cpm id=\"3\" 1000000\n", bodies.poll(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRetryServerErrors() {
+        statuses.add(500);
+        statuses.add(429);
+        writer.writeAndWait(Collections.singletonList(request("1")));
+        Assert.assertEquals(3, bodies.size());
+
+        bodies.clear();
+        statuses.addAll(Arrays.asList(503, 503, 503, 503));
+        writer.writeAndWait(Collections.singletonList(request("1")));
+        Assert.assertEquals(3, bodies.size());
+    }
+
+    @Test
+    public void testNoRetryClientErrors() {
+        statuses.add(400);
+        writer.writeAndWait(Collections.singletonList(request("1")));
+        Assert.assertEquals(1, bodies.size());
+    }
+
+    private static InfluxInsertRequest request(String id) {
+        Model model = new Model(
+            "service_cpm",
+            Collections.singletonList(
+                new ModelColumn(new ColumnName("service_cpm", "value"), long.class, false, false, true, 0)),
+            Collections.emptyList(), 0, DownSampling.Minute, false
+        );
+        return new InfluxInsertRequest(model, () -> id, new StorageBuilder<StorageData>() {
+            @Override
+            public StorageData map2Data(Map<String, Object> dbMap) {
+                return null;
+            }
+
+            @Override
+            public Map<String, Object> data2Map(StorageData storageData) {
+                return Collections.emptyMap();
+            }
+        }).time(1, TimeUnit.MILLISECONDS);
+    }
+
+    private static String gunzip(InputStream body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(body)) {
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = in.read(buffer)) > 0) {
+                out.write(buffer, 0, length);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.influxdb.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilder;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InfluxInsertRequestTestCase {
+
+    @Test
+    public void testLineProtocol() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("entity_id", "service a,1");
+        data.put("value", 10L);
+        InfluxInsertRequest request = request("service_cpm", data)
+            .time(1590969600000L, TimeUnit.MILLISECONDS)
+            .addFieldAsTag("entity_id", "_entity_id");
+
+        Assert.assertEquals(
+            "service_cpm,_entity_id=service\\ a\\,1 entity_id=\"service a,1\",id=\"202006010000_1\",value=10i "
+                + "1590969600000000000",
+            line(request)
+        );
+    }
+
+    @Test
+    public void testFieldValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("entity_id", "");
+        data.put("value", 1.0E10);
+        InfluxInsertRequest request = request("service_avg", data).addFieldAsTag("entity_id", "_entity_id");
+        Assert.assertEquals("service_avg entity_id=\"\",id=\"202006010000_1\",value=10000000000", line(request));
+
+        data.put("entity_id", "say \"hi\"\\");
+        data.put("value", Double.NaN);
+        request = request("service_avg", data);
+        Assert.assertEquals("service_avg entity_id=\"say \\\"hi\\\"\\\\\",id=\"202006010000_1\"", line(request));
+    }
+
+    private static String line(InfluxInsertRequest request) {
+        StringBuilder line = new StringBuilder();
+        request.appendTo(line);
+        return line.toString();
+    }
+
+    static InfluxInsertRequest request(String modelName, Map<String, Object> data) {
+        List<ModelColumn> columns = new ArrayList<>();
+        for (String column : data.keySet()) {
+            columns.add(new ModelColumn(new ColumnName(modelName, column), String.class, false, false, false, 0));
+        }
+        Model model = new Model(modelName, columns, Collections.emptyList(), 0, DownSampling.Minute, false);
+        return new InfluxInsertRequest(model, () -> "202006010000_1", new StorageBuilder<StorageData>() {
+            @Override
+            public StorageData map2Data(Map<String, Object> dbMap) {
+                return null;
+            }
+
+            @Override
+            public Map<String, Object> data2Map(StorageData storageData) {
+                return data;
+            }
+        });
+    }
+}
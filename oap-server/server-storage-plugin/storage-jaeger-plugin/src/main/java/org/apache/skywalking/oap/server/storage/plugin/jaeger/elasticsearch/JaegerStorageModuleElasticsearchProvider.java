@@ -23,6 +23,7 @@ import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.storage.plugin.elasticsearch.StorageModuleElasticsearchProvider;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 
 @Slf4j
 public class JaegerStorageModuleElasticsearchProvider extends StorageModuleElasticsearchProvider {
@@ -40,6 +41,9 @@ public class JaegerStorageModuleElasticsearchProvider extends StorageModuleElast
 
     @Override
     public String[] requiredModules() {
-        return new String[] {CoreModule.NAME};
+        return new String[] {
+            CoreModule.NAME,
+            TelemetryModule.NAME
+        };
     }
 }
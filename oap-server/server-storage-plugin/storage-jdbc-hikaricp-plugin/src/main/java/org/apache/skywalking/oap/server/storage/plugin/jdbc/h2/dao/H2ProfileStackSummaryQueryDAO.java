@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.apache.skywalking.apm.util.StringUtil;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.core.storage.profile.IProfileStackSummaryQueryDAO;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+
+public class H2ProfileStackSummaryQueryDAO implements IProfileStackSummaryQueryDAO {
+    private JDBCHikariCPClient h2Client;
+
+    public H2ProfileStackSummaryQueryDAO(JDBCHikariCPClient h2Client) {
+        this.h2Client = h2Client;
+    }
+
+    @Override
+    public List<ProfileStackSummaryRecord> querySummaries(String segmentId, long start, long end) throws IOException {
+        StringBuilder sql = new StringBuilder();
+        sql.append("select * from ").append(ProfileStackSummaryRecord.INDEX_NAME).append(" where ");
+        sql.append(" 1=1 ");
+        sql.append(" and ").append(ProfileStackSummaryRecord.SEGMENT_ID).append(" = ? ");
+        sql.append(" and ").append(ProfileStackSummaryRecord.SLICE_START).append(" >= ? ");
+        sql.append(" and ").append(ProfileStackSummaryRecord.SLICE_END).append(" <= ? ");
+        sql.append(" order by ").append(ProfileStackSummaryRecord.SLICE_START);
+
+        Object[] params = new Object[] {
+            segmentId,
+            start,
+            end + 1
+        };
+
+        List<ProfileStackSummaryRecord> result = new ArrayList<>();
+        try (Connection connection = h2Client.getConnection()) {
+
+            try (ResultSet resultSet = h2Client.executeQuery(connection, sql.toString(), params)) {
+                while (resultSet.next()) {
+                    ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+
+                    record.setTaskId(resultSet.getString(ProfileStackSummaryRecord.TASK_ID));
+                    record.setSegmentId(resultSet.getString(ProfileStackSummaryRecord.SEGMENT_ID));
+                    record.setNodeId(resultSet.getString(ProfileStackSummaryRecord.NODE_ID));
+                    record.setSliceStart(resultSet.getLong(ProfileStackSummaryRecord.SLICE_START));
+                    record.setSliceEnd(resultSet.getLong(ProfileStackSummaryRecord.SLICE_END));
+                    record.setMinSequence(resultSet.getInt(ProfileStackSummaryRecord.MIN_SEQUENCE));
+                    record.setMaxSequence(resultSet.getInt(ProfileStackSummaryRecord.MAX_SEQUENCE));
+                    record.setSnapshotCount(resultSet.getInt(ProfileStackSummaryRecord.SNAPSHOT_COUNT));
+                    String dataBinaryBase64 = resultSet.getString(ProfileStackSummaryRecord.SUMMARY_BINARY);
+                    if (StringUtil.isNotEmpty(dataBinaryBase64)) {
+                        record.setSummaryBinary(Base64.getDecoder().decode(dataBinaryBase64));
+                    }
+
+                    result.add(record);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+
+        return result;
+    }
+}
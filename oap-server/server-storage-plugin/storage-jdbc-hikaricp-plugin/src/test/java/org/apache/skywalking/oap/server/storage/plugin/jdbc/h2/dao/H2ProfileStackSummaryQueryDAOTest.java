@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.skywalking.oap.server.core.profile.ProfileStackSummaryRecord;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class H2ProfileStackSummaryQueryDAOTest {
+
+    private static final String[] COLUMNS = {
+        ProfileStackSummaryRecord.TASK_ID,
+        ProfileStackSummaryRecord.SEGMENT_ID,
+        ProfileStackSummaryRecord.NODE_ID,
+        ProfileStackSummaryRecord.SLICE_START,
+        ProfileStackSummaryRecord.SLICE_END,
+        ProfileStackSummaryRecord.MIN_SEQUENCE,
+        ProfileStackSummaryRecord.MAX_SEQUENCE,
+        ProfileStackSummaryRecord.SNAPSHOT_COUNT,
+        ProfileStackSummaryRecord.SUMMARY_BINARY,
+        ProfileStackSummaryRecord.TIME_BUCKET
+    };
+
+    private JDBCHikariCPClient h2Client;
+    private H2ProfileStackSummaryQueryDAO queryDAO;
+
+    @Before
+    public void setUp() throws IOException {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:profile_stack_summary;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        settings.setProperty("dataSource.password", "");
+        h2Client = new JDBCHikariCPClient(settings);
+        h2Client.connect();
+
+        try (Connection connection = h2Client.getConnection()) {
+            h2Client.execute(connection, "drop table if exists " + ProfileStackSummaryRecord.INDEX_NAME);
+            h2Client.execute(connection, "create table " + ProfileStackSummaryRecord.INDEX_NAME + " ("
+                + "id varchar(512) primary key, "
+                + ProfileStackSummaryRecord.TASK_ID + " varchar(200), "
+                + ProfileStackSummaryRecord.SEGMENT_ID + " varchar(200), "
+                + ProfileStackSummaryRecord.NODE_ID + " varchar(200), "
+                + ProfileStackSummaryRecord.SLICE_START + " bigint, "
+                + ProfileStackSummaryRecord.SLICE_END + " bigint, "
+                + ProfileStackSummaryRecord.MIN_SEQUENCE + " int, "
+                + ProfileStackSummaryRecord.MAX_SEQUENCE + " int, "
+                + ProfileStackSummaryRecord.SNAPSHOT_COUNT + " int, "
+                + ProfileStackSummaryRecord.SUMMARY_BINARY + " varchar(20000), "
+                + ProfileStackSummaryRecord.TIME_BUCKET + " bigint)");
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        queryDAO = new H2ProfileStackSummaryQueryDAO(h2Client);
+    }
+
+    @After
+    public void tearDown() {
+        h2Client.shutdown();
+    }
+
+    @Test
+    public void testQuerySummaries() throws IOException {
+        insert(summary("segment-1", "node-a", 10000, 6, 8));
+        // the same slice received by another node is stored separately
+        insert(summary("segment-1", "node-b", 10000, 9, 9));
+        insert(summary("segment-1", "node-a", 0, 0, 5));
+        insert(summary("segment-2", "node-a", 0, 0, 5));
+
+        List<ProfileStackSummaryRecord> records = queryDAO.querySummaries("segment-1", 0, 19999);
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals(0, records.get(0).getSliceStart());
+        Assert.assertEquals(10000, records.get(0).getSliceEnd());
+        Assert.assertEquals(0, records.get(0).getMinSequence());
+        Assert.assertEquals(5, records.get(0).getMaxSequence());
+        Assert.assertEquals(6, records.get(0).getSnapshotCount());
+        Assert.assertEquals("task-1", records.get(0).getTaskId());
+        Assert.assertEquals("node-a", records.get(0).getNodeId());
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, records.get(0).getSummaryBinary());
+        Assert.assertEquals(10000, records.get(1).getSliceStart());
+        Assert.assertEquals(10000, records.get(2).getSliceStart());
+
+        // only the slices ending inside the time range
+        records = queryDAO.querySummaries("segment-1", 0, 9999);
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(0, records.get(0).getSliceStart());
+
+        Assert.assertEquals(0, queryDAO.querySummaries("segment-3", 0, 19999).size());
+    }
+
+    private ProfileStackSummaryRecord summary(String segmentId, String nodeId, long sliceStart, int minSequence,
+                                              int maxSequence) {
+        ProfileStackSummaryRecord record = new ProfileStackSummaryRecord();
+        record.setTaskId("task-1");
+        record.setSegmentId(segmentId);
+        record.setNodeId(nodeId);
+        record.setSliceStart(sliceStart);
+        record.setSliceEnd(sliceStart + 10000);
+        record.setMinSequence(minSequence);
+        record.setMaxSequence(maxSequence);
+        record.setSnapshotCount(maxSequence - minSequence + 1);
+        record.setSummaryBinary(new byte[] {1, 2, 3});
+        record.setTimeBucket(20200101000000L);
+        return record;
+    }
+
+    private void insert(ProfileStackSummaryRecord record) throws IOException {
+        Map<String, Object> values = new ProfileStackSummaryRecord.Builder().data2Map(record);
+        StringBuilder sql = new StringBuilder("insert into ").append(ProfileStackSummaryRecord.INDEX_NAME)
+                                                             .append(" (id");
+        List<Object> params = new ArrayList<>();
+        params.add(record.id());
+        for (String column : COLUMNS) {
+            sql.append(", ").append(column);
+            params.add(values.get(column));
+        }
+        sql.append(") values (?");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            sql.append(", ?");
+        }
+        sql.append(")");
+
+        try (Connection connection = h2Client.getConnection()) {
+            h2Client.execute(connection, sql.toString(), params.toArray());
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
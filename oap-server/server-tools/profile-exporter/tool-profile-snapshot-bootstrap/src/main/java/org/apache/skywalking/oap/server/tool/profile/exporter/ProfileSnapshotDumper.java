@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.language.profile.v3.ThreadSnapshot;
 import org.apache.skywalking.apm.network.language.profile.v3.ThreadStack;
 import org.apache.skywalking.oap.server.core.profile.ProfileThreadSnapshotRecord;
+import org.apache.skywalking.oap.server.core.profile.analyze.ProfileStack;
 import org.apache.skywalking.oap.server.core.query.type.ProfileAnalyzeTimeRange;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.profile.IProfileThreadSnapshotQueryDAO;
@@ -34,6 +35,7 @@ import java.io.OutputStream;
 import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 @Slf4j
@@ -55,12 +57,18 @@ public class ProfileSnapshotDumper {
 
         // reading data and write to file
         try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(snapshotFile))) {
+            ProfileStack previous = null;
             for (int i = 0; i < rangeCount; i++) {
-                List<ProfileThreadSnapshotRecord> records = querySnapshot(segmentId, snapshotQueryDAO, sequenceRanges.get(i));
+                List<ProfileThreadSnapshotRecord> records = new ArrayList<>(querySnapshot(segmentId, snapshotQueryDAO, sequenceRanges.get(i)));
+                // compact snapshots must be decoded in sequence order
+                records.sort(Comparator.comparingInt(ProfileThreadSnapshotRecord::getSequence));
                 for (ProfileThreadSnapshotRecord record : records) {
+                    ProfileStack base = previous != null && previous.getSequence() == record.getSequence() - 1 ? previous : null;
+                    previous = ProfileStack.deserialize(record, base);
+
                     // transform to proto data and save it
                     ThreadSnapshot.newBuilder()
-                            .setStack(ThreadStack.parseFrom(record.getStackBinary()))
+                            .setStack(ThreadStack.newBuilder().addAllCodeSignatures(previous.getStack()))
                             .setSequence(record.getSequence())
                             .setTime(record.getDumpTime())
                             .build()
@@ -143,7 +143,8 @@ public class MockCoreModuleProvider extends CoreModuleProvider {
         this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
         this.registerServiceImplementation(MetadataQueryService.class, new MetadataQueryService(getManager()));
-        this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(getManager()));
+        this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(
+            getManager(), Collections.emptySet()));
         this.registerServiceImplementation(AlarmQueryService.class, new AlarmQueryService(getManager()));
         this.registerServiceImplementation(TopNRecordsQueryService.class, new TopNRecordsQueryService(getManager()));
 
@@ -159,7 +160,8 @@ public class MockCoreModuleProvider extends CoreModuleProvider {
         this.registerServiceImplementation(RemoteClientManager.class, new MockRemoteClientManager(getManager(), 0));
 
         // add oal engine loader service implementations
-        this.registerServiceImplementation(OALEngineLoaderService.class, new OALEngineLoaderService(getManager()));
+        this.registerServiceImplementation(
+            OALEngineLoaderService.class, new OALEngineLoaderService(getManager(), false));
     }
 
     @Override